@@ -9,12 +9,66 @@ repositories {
     mavenCentral()
 }
 
+sourceSets {
+    create("jmh") {
+        compileClasspath += sourceSets["main"].output
+        runtimeClasspath += sourceSets["main"].output
+    }
+}
+
+val jmhImplementation by configurations.getting {
+    extendsFrom(configurations["implementation"])
+}
+val jmhAnnotationProcessor by configurations.getting
+
 dependencies {
     testImplementation(platform("org.junit:junit-bom:5.10.0"))
     testImplementation("org.junit.jupiter:junit-jupiter")
     testRuntimeOnly("org.junit.platform:junit-platform-launcher")
+
+    jmhImplementation("org.openjdk.jmh:jmh-core:1.37")
+    jmhAnnotationProcessor("org.openjdk.jmh:jmh-generator-annprocess:1.37")
 }
 
 tasks.test {
     useJUnitPlatform()
-}
\ No newline at end of file
+}
+
+// DriverPositionStore has an optional SIMD kernel on the incubating Vector API. It lives in the
+// jmh source set, so only the benchmarks compile against the incubator module; the application
+// runs the scalar kernel.
+tasks.named<JavaCompile>("compileJmhJava") {
+    options.compilerArgs.addAll(listOf("--add-modules", "jdk.incubator.vector"))
+}
+
+// Runs the JMH suite and writes machine-readable results to build/reports/jmh/results.json.
+// Narrow the run with -PjmhIncludes=<regex>, e.g. ./gradlew jmh -PjmhIncludes=FareStrategy
+tasks.register<JavaExec>("jmh") {
+    description = "Runs the JMH benchmarks and writes JSON results."
+    group = "benchmark"
+    classpath = sourceSets["jmh"].runtimeClasspath
+    mainClass.set("org.openjdk.jmh.Main")
+
+    val resultFile = layout.buildDirectory.file("reports/jmh/results.json")
+    val includes = providers.gradleProperty("jmhIncludes")
+    argumentProviders.add(CommandLineArgumentProvider {
+        listOf("-rf", "json", "-rff", resultFile.get().asFile.absolutePath) +
+                includes.map { listOf(it) }.getOrElse(emptyList())
+    })
+    doFirst {
+        resultFile.get().asFile.parentFile.mkdirs()
+    }
+}
+
+// Runs one of the plain multi-threaded harnesses that live next to the JMH suite, e.g.
+// ./gradlew harness -Pharness=DataStoreThroughputBenchmark -PharnessArgs="100000 3"
+tasks.register<JavaExec>("harness") {
+    description = "Runs a benchmark harness from org.example.benchmark."
+    group = "benchmark"
+    classpath = sourceSets["jmh"].runtimeClasspath
+    mainClass.set(providers.gradleProperty("harness").map { "org.example.benchmark.$it" })
+    argumentProviders.add(CommandLineArgumentProvider {
+        providers.gradleProperty("harnessArgs").map { it.split(" ").filter(String::isNotBlank) }
+                .getOrElse(emptyList())
+    })
+}
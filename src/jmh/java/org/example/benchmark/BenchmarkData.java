@@ -0,0 +1,48 @@
+package org.example.benchmark;
+
+import org.example.model.Driver;
+import org.example.model.Location;
+import org.example.model.Rider;
+import org.example.service.DriverService;
+
+import java.util.Random;
+
+/**
+ * Shared synthetic data for the benchmarks: drivers and riders spread over a
+ * ~30 km square around New Delhi.
+ */
+final class BenchmarkData {
+
+    static final double CENTER_LAT = 28.6139;
+    static final double CENTER_LON = 77.2090;
+    static final double SPREAD_DEGREES = 0.3;
+
+    private BenchmarkData() {
+        throw new AssertionError("Utility class should not be instantiated");
+    }
+
+    static Location randomLocation(Random random) {
+        return new Location(CENTER_LAT + (random.nextDouble() - 0.5) * SPREAD_DEGREES,
+                CENTER_LON + (random.nextDouble() - 0.5) * SPREAD_DEGREES);
+    }
+
+    static Driver newDriver(int i, Random random) {
+        Driver driver = new Driver("Driver " + i, "driver" + i + "@ridewise.com", "9000000000",
+                randomLocation(random), true);
+        driver.setCompletedRidesCount(random.nextInt(500));
+        return driver;
+    }
+
+    static Rider newRider(int i, Random random) {
+        return new Rider("Rider " + i, "rider" + i + "@ridewise.com", "9100000000", randomLocation(random));
+    }
+
+    static DriverService fleet(int size, long seed) {
+        Random random = new Random(seed);
+        DriverService driverService = new DriverService();
+        for (int i = 0; i < size; i++) {
+            driverService.registerDriver(newDriver(i, random));
+        }
+        return driverService;
+    }
+}
@@ -0,0 +1,89 @@
+package org.example.benchmark;
+
+import org.example.util.ConcurrentDataStore;
+import org.example.util.DataStore;
+import org.example.util.HashMapDataStore;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Single-threaded cost of each DataStore operation, for both implementations,
+ * at a few store sizes. addThenDelete keeps the size constant so repeated
+ * invocations measure the same store.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DataStoreBenchmark {
+
+    @Param({"concurrent", "hashmap"})
+    public String implementation;
+
+    @Param({"1000", "100000"})
+    public int size;
+
+    private DataStore<String> store;
+    private long[] ids;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        store = "concurrent".equals(implementation) ? new ConcurrentDataStore<>() : new HashMapDataStore<>();
+        ids = new long[size];
+        for (int i = 0; i < size; i++) {
+            ids[i] = i + 1;
+            store.add(ids[i], "item-" + i);
+        }
+    }
+
+    private long nextId() {
+        int i = next++;
+        if (next == size) {
+            next = 0;
+        }
+        return ids[i];
+    }
+
+    @Benchmark
+    public String findById() {
+        return store.findById(nextId());
+    }
+
+    @Benchmark
+    public void update() {
+        store.update(nextId(), "updated");
+    }
+
+    @Benchmark
+    public void addThenDelete() {
+        store.add(0, "new");
+        store.delete(0);
+    }
+
+    @Benchmark
+    public void deleteThenAdd() {
+        long id = nextId();
+        store.delete(id);
+        store.add(id, "added");
+    }
+
+    @Benchmark
+    public List<String> getAll() {
+        return store.getAll();
+    }
+}
@@ -0,0 +1,156 @@
+package org.example.benchmark;
+
+import org.example.util.ConcurrentDataStore;
+import org.example.util.DataStore;
+import org.example.util.HashMapDataStore;
+import org.example.util.Page;
+
+import java.util.List;
+import java.util.Spliterator;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * BENCHMARK - Multi-threaded DataStore throughput
+ *
+ * Compares the original HashMapDataStore (made safe with one global lock,
+ * which is the only way to share it between threads) against
+ * ConcurrentDataStore at increasing thread counts.
+ *
+ * Workload per operation: 80% findById, 10% update, 5% add, 5% delete over a
+ * pre-filled key space, so the store size stays roughly constant.
+ *
+ * Usage: DataStoreThroughputBenchmark [keys] [secondsPerRun]
+ */
+public class DataStoreThroughputBenchmark {
+
+    private static final int DEFAULT_KEYS = 100_000;
+    private static final int DEFAULT_SECONDS = 3;
+
+    public static void main(String[] args) throws InterruptedException {
+        int keys = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_KEYS;
+        int seconds = args.length > 1 ? Integer.parseInt(args[1]) : DEFAULT_SECONDS;
+        int maxThreads = Runtime.getRuntime().availableProcessors();
+
+        System.out.println("DataStore throughput (" + keys + " keys, " + seconds + "s per run)");
+        System.out.printf("%-8s %22s %22s%n", "threads", "locked HashMap (ops/s)", "concurrent (ops/s)");
+
+        for (int threads = 1; ; threads = Math.min(threads * 2, maxThreads)) {
+            double locked = run(() -> new LockedDataStore<>(new HashMapDataStore<>()), keys, threads, seconds);
+            double concurrent = run(ConcurrentDataStore::new, keys, threads, seconds);
+            System.out.printf("%-8d %22.0f %22.0f%n", threads, locked, concurrent);
+            if (threads == maxThreads) {
+                break;
+            }
+        }
+    }
+
+    private static double run(Supplier<DataStore<String>> factory, int keys, int threads, int seconds)
+            throws InterruptedException {
+        DataStore<String> store = factory.get();
+        for (int i = 0; i < keys; i++) {
+            store.add(i + 1, "item-" + i);
+        }
+
+        LongAdder operations = new LongAdder();
+        CountDownLatch start = new CountDownLatch(1);
+        CountDownLatch done = new CountDownLatch(threads);
+        long deadline = System.nanoTime() + seconds * 1_000_000_000L;
+
+        for (int t = 0; t < threads; t++) {
+            Thread worker = new Thread(() -> {
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                long count = 0;
+                try {
+                    start.await();
+                    while ((count & 1023) != 0 || System.nanoTime() < deadline) {
+                        long id = 1 + random.nextInt(keys * 2);
+                        int op = random.nextInt(100);
+                        if (op < 80) {
+                            store.findById(id);
+                        } else if (op < 90) {
+                            store.update(id, "updated");
+                        } else if (op < 95) {
+                            if (!store.contains(id)) {
+                                store.add(id, "added");
+                            }
+                        } else {
+                            store.delete(id);
+                        }
+                        count++;
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } finally {
+                    operations.add(count);
+                    done.countDown();
+                }
+            });
+            worker.start();
+        }
+
+        long began = System.nanoTime();
+        start.countDown();
+        done.await();
+        double elapsedSeconds = (System.nanoTime() - began) / 1e9;
+        return operations.sum() / elapsedSeconds;
+    }
+
+    /**
+     * Global-lock wrapper, the straightforward way to share a non thread-safe store.
+     */
+    private static final class LockedDataStore<T> implements DataStore<T> {
+        private final DataStore<T> delegate;
+
+        private LockedDataStore(DataStore<T> delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public synchronized void add(long id, T item) {
+            delegate.add(id, item);
+        }
+
+        @Override
+        public synchronized T findById(long id) {
+            return delegate.findById(id);
+        }
+
+        @Override
+        public synchronized void update(long id, T item) {
+            delegate.update(id, item);
+        }
+
+        @Override
+        public synchronized void delete(long id) {
+            delegate.delete(id);
+        }
+
+        @Override
+        public synchronized List<T> getAll() {
+            return delegate.getAll();
+        }
+
+        @Override
+        public synchronized Spliterator<T> spliterator() {
+            return delegate.getAll().spliterator();
+        }
+
+        @Override
+        public synchronized Page<T> page(long cursor, int limit) {
+            return delegate.page(cursor, limit);
+        }
+
+        @Override
+        public synchronized int size() {
+            return delegate.size();
+        }
+
+        @Override
+        public synchronized boolean contains(long id) {
+            return delegate.contains(id);
+        }
+    }
+}
@@ -0,0 +1,144 @@
+package org.example.benchmark;
+
+import org.example.exception.NoDriverAvailableException;
+import org.example.model.Driver;
+import org.example.model.Location;
+import org.example.model.Ride;
+import org.example.model.Rider;
+import org.example.model.VehicleType;
+import org.example.service.DriverService;
+import org.example.service.RideService;
+import org.example.service.RiderService;
+import org.example.strategy.DefaultFareStrategy;
+import org.example.strategy.NearestDriverStrategy;
+
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * BENCHMARK - Dispatch throughput under contention
+ *
+ * Every worker thread repeatedly requests a ride and completes it. All threads
+ * compete for the same pool of drivers clustered around one city centre, so
+ * reservations regularly collide and have to fall back to the next-best
+ * driver. The run reports request/complete cycles per second for 1..N threads,
+ * the speedup over one thread, requests that found no free driver, and any
+ * double bookings detected (which must be zero).
+ *
+ * Usage: DispatchContentionBenchmark [drivers] [secondsPerRun]
+ */
+public class DispatchContentionBenchmark {
+
+    private static final int DEFAULT_DRIVERS = 2_000;
+    private static final int DEFAULT_SECONDS = 3;
+    private static final double CENTER_LAT = 28.6139;
+    private static final double CENTER_LON = 77.2090;
+
+    public static void main(String[] args) throws InterruptedException {
+        int drivers = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_DRIVERS;
+        int seconds = args.length > 1 ? Integer.parseInt(args[1]) : DEFAULT_SECONDS;
+        int maxThreads = Runtime.getRuntime().availableProcessors();
+
+        System.out.println("Dispatch contention (" + drivers + " drivers, " + seconds + "s per run, "
+                + maxThreads + " cores)");
+        System.out.printf("%-8s %16s %12s %14s %16s%n", "threads", "rides/s", "speedup", "no-driver", "double-booked");
+
+        double baseline = 0;
+        for (int threads = 1; ; threads = Math.min(threads * 2, maxThreads)) {
+            Result result = run(drivers, threads, seconds);
+            if (threads == 1) {
+                baseline = result.ridesPerSecond;
+            }
+            System.out.printf("%-8d %16.0f %11.2fx %14d %16d%n", threads, result.ridesPerSecond,
+                    result.ridesPerSecond / baseline, result.noDriver, result.doubleBooked);
+            if (threads == maxThreads) {
+                break;
+            }
+        }
+    }
+
+    private static Result run(int driverCount, int threads, int seconds) throws InterruptedException {
+        DriverService driverService = new DriverService();
+        RiderService riderService = new RiderService();
+        RideService rideService = new RideService(driverService, riderService,
+                new NearestDriverStrategy(driverService.getLocationIndex()), new DefaultFareStrategy());
+
+        Random random = new Random(42);
+        for (int i = 0; i < driverCount; i++) {
+            driverService.registerDriver(new Driver("Driver " + i, "driver" + i + "@ridewise.com", "9000000000",
+                    nearCenter(random), true));
+        }
+        String[] riderIds = new String[threads];
+        for (int t = 0; t < threads; t++) {
+            Rider rider = new Rider("Rider " + t, "rider" + t + "@ridewise.com", "9100000000", nearCenter(random));
+            riderService.registerRider(rider);
+            riderIds[t] = rider.getRiderId();
+        }
+
+        Set<Driver> busyDrivers = ConcurrentHashMap.newKeySet();
+        LongAdder rides = new LongAdder();
+        LongAdder noDriver = new LongAdder();
+        LongAdder doubleBooked = new LongAdder();
+        CountDownLatch start = new CountDownLatch(1);
+        CountDownLatch done = new CountDownLatch(threads);
+        long deadline = System.nanoTime() + seconds * 1_000_000_000L;
+
+        for (int t = 0; t < threads; t++) {
+            String riderId = riderIds[t];
+            Thread worker = new Thread(() -> {
+                ThreadLocalRandom threadRandom = ThreadLocalRandom.current();
+                try {
+                    start.await();
+                    while (System.nanoTime() < deadline) {
+                        Location pickup = new Location(CENTER_LAT + (threadRandom.nextDouble() - 0.5) * 0.1,
+                                CENTER_LON + (threadRandom.nextDouble() - 0.5) * 0.1);
+                        Location dropOff = new Location(CENTER_LAT, CENTER_LON + 0.05);
+                        try {
+                            Ride ride = rideService.requestRide(riderId, pickup, dropOff, VehicleType.CAR);
+                            if (!busyDrivers.add(ride.getDriver())) {
+                                doubleBooked.increment();
+                            }
+                            busyDrivers.remove(ride.getDriver());
+                            rideService.completeRide(ride.getRideId());
+                            rides.increment();
+                        } catch (NoDriverAvailableException e) {
+                            noDriver.increment();
+                        }
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } finally {
+                    done.countDown();
+                }
+            });
+            worker.start();
+        }
+
+        long began = System.nanoTime();
+        start.countDown();
+        done.await();
+        double elapsedSeconds = (System.nanoTime() - began) / 1e9;
+        return new Result(rides.sum() / elapsedSeconds, noDriver.sum(), doubleBooked.sum());
+    }
+
+    private static Location nearCenter(Random random) {
+        return new Location(CENTER_LAT + (random.nextDouble() - 0.5) * 0.2,
+                CENTER_LON + (random.nextDouble() - 0.5) * 0.2);
+    }
+
+    private static final class Result {
+        private final double ridesPerSecond;
+        private final long noDriver;
+        private final long doubleBooked;
+
+        private Result(double ridesPerSecond, long noDriver, long doubleBooked) {
+            this.ridesPerSecond = ridesPerSecond;
+            this.noDriver = noDriver;
+            this.doubleBooked = doubleBooked;
+        }
+    }
+}
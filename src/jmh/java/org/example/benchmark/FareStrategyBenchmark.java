@@ -0,0 +1,88 @@
+package org.example.benchmark;
+
+import org.example.fare.RateCard;
+import org.example.model.Location;
+import org.example.model.Ride;
+import org.example.model.Rider;
+import org.example.model.RideStatus;
+import org.example.model.VehicleType;
+import org.example.strategy.DefaultFareStrategy;
+import org.example.strategy.FareCalculationStrategy;
+import org.example.strategy.PeakHourFareStrategy;
+import org.example.strategy.RateCardFareStrategy;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.LocalTime;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-fare cost of the fare strategies over rides of every vehicle type. The
+ * full rate card adds minimum fares, a night multiplier and zone surcharges
+ * matched on the rider's location.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class FareStrategyBenchmark {
+
+    private static final int RIDES = 1024;
+
+    private Ride[] rides;
+    private int next;
+
+    private FareCalculationStrategy defaultFare;
+    private FareCalculationStrategy peakHourFare;
+    private FareCalculationStrategy fullRateCardFare;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        VehicleType[] types = VehicleType.values();
+        rides = new Ride[RIDES];
+        for (int i = 0; i < RIDES; i++) {
+            Rider rider = new Rider("Rider" + i, "rider" + i + "@example.com", "9876543210",
+                    new Location(28.4 + random.nextDouble() * 0.4, 76.9 + random.nextDouble() * 0.4));
+            rides[i] = new Ride(rider, null, 0.5 + random.nextDouble() * 30, RideStatus.ASSIGNED,
+                    types[i % types.length]);
+        }
+        defaultFare = new DefaultFareStrategy();
+        peakHourFare = new PeakHourFareStrategy();
+
+        RateCard card = PeakHourFareStrategy.rateCard();
+        card.addTimeMultiplier(LocalTime.of(22, 0), LocalTime.of(6, 0), 1.25);
+        for (VehicleType type : types) {
+            card.setMinimumFare(type, 25);
+        }
+        card.addZoneSurcharge("airport", 28.54, 77.07, 28.58, 77.13, 75);
+        card.addZoneSurcharge("station", 28.64, 77.21, 28.65, 77.23, 20);
+        fullRateCardFare = new RateCardFareStrategy(card);
+    }
+
+    @Benchmark
+    public double defaultFareStrategy() {
+        return defaultFare.calculateFare(rides[next++ & (RIDES - 1)]);
+    }
+
+    @Benchmark
+    public double peakHourFareStrategy() {
+        return peakHourFare.calculateFare(rides[next++ & (RIDES - 1)]);
+    }
+
+    @Benchmark
+    public double fullRateCardFareStrategy() {
+        return fullRateCardFare.calculateFare(rides[next++ & (RIDES - 1)]);
+    }
+}
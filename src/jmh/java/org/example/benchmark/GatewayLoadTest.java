@@ -0,0 +1,170 @@
+package org.example.benchmark;
+
+import org.example.api.JsonReader;
+import org.example.api.RideWiseGateway;
+import org.example.metrics.Histogram;
+import org.example.metrics.MetricsRegistry;
+import org.example.model.Driver;
+import org.example.model.Location;
+import org.example.service.DriverService;
+import org.example.service.RideService;
+import org.example.service.RiderService;
+import org.example.strategy.DefaultFareStrategy;
+import org.example.strategy.NearestDriverStrategy;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * LOAD TEST - RideWiseGateway over local HTTP
+ *
+ * Starts the gateway in-process and keeps a fixed number of requests in
+ * flight against it: every virtual user requests a ride, completes it, and
+ * starts over until the time is up. The client is fully asynchronous
+ * (HttpClient.sendAsync), so the in-flight count is not limited by client
+ * threads. The run reports HTTP requests per second, p50/p99/p999 latency per
+ * endpoint, rides refused for lack of a driver (503) and any other errors.
+ *
+ * Usage: GatewayLoadTest [concurrency] [seconds] [drivers]
+ */
+public class GatewayLoadTest {
+
+    private static final int DEFAULT_CONCURRENCY = 1_000;
+    private static final int DEFAULT_SECONDS = 10;
+    private static final int DEFAULT_DRIVERS = 5_000;
+    private static final double CENTER_LAT = 28.6139;
+    private static final double CENTER_LON = 77.2090;
+
+    private static final MetricsRegistry registry = new MetricsRegistry();
+    private static final Histogram requestLatency = registry.latency("load_request_ride_seconds", "POST /rides");
+    private static final Histogram completeLatency = registry.latency("load_complete_ride_seconds",
+            "POST /rides/{id}/complete");
+    private static final LongAdder noDriver = new LongAdder();
+    private static final LongAdder errors = new LongAdder();
+
+    private static HttpClient client;
+    private static URI base;
+    private static long deadline;
+
+    public static void main(String[] args) throws IOException, InterruptedException {
+        int concurrency = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_CONCURRENCY;
+        int seconds = args.length > 1 ? Integer.parseInt(args[1]) : DEFAULT_SECONDS;
+        int driverCount = args.length > 2 ? Integer.parseInt(args[2]) : DEFAULT_DRIVERS;
+
+        DriverService driverService = new DriverService();
+        RiderService riderService = new RiderService();
+        RideService rideService = new RideService(driverService, riderService,
+                new NearestDriverStrategy(driverService.getLocationIndex()), new DefaultFareStrategy());
+        Random random = new Random(42);
+        for (int i = 0; i < driverCount; i++) {
+            driverService.registerDriver(new Driver("Driver " + i, "driver" + i + "@ridewise.com", "9000000000",
+                    nearCenter(random), true));
+        }
+
+        try (RideWiseGateway gateway = new RideWiseGateway(riderService, driverService, rideService, 0)) {
+            client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+            base = URI.create("http://localhost:" + gateway.getPort());
+            System.out.println("Gateway load test (" + concurrency + " in flight, " + seconds + "s, " + driverCount
+                    + " drivers, " + (gateway.isVirtualThreaded() ? "virtual threads" : "platform thread pool")
+                    + ")");
+
+            // 1. One rider per virtual user, registered through the API
+            String[] riderIds = new String[concurrency];
+            for (int u = 0; u < concurrency; u++) {
+                HttpResponse<String> response = client.send(post("/riders", "{\"name\":\"Rider " + u
+                        + "\",\"email\":\"rider" + u + "@ridewise.com\",\"phone\":\"9100000000\",\"location\":"
+                        + location(nearCenter(random)) + "}"), HttpResponse.BodyHandlers.ofString());
+                riderIds[u] = (String) JsonReader.parseObject(response.body()).get("riderId");
+            }
+
+            // 2. Every user loops request -> complete until the deadline
+            CountDownLatch done = new CountDownLatch(concurrency);
+            long began = System.nanoTime();
+            deadline = began + seconds * 1_000_000_000L;
+            for (String riderId : riderIds) {
+                cycle(riderId, done);
+            }
+            done.await();
+            double elapsedSeconds = (System.nanoTime() - began) / 1e9;
+
+            // 3. Report
+            Histogram.Snapshot requests = requestLatency.snapshot();
+            Histogram.Snapshot completes = completeLatency.snapshot();
+            long total = requests.getCount() + completes.getCount();
+            System.out.printf("%-22s %12s %10s %10s %10s%n", "endpoint", "requests", "p50 ms", "p99 ms", "p999 ms");
+            report("POST /rides", requests);
+            report("POST /rides/{id}/done", completes);
+            System.out.printf("Throughput: %.0f requests/s (%.0f rides/s), no driver: %d, errors: %d%n",
+                    total / elapsedSeconds, completes.getCount() / elapsedSeconds, noDriver.sum(), errors.sum());
+        }
+    }
+
+    // One request/complete round for a user; schedules the next one when it ends
+    private static void cycle(String riderId, CountDownLatch done) {
+        if (System.nanoTime() >= deadline) {
+            done.countDown();
+            return;
+        }
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        Location pickup = new Location(CENTER_LAT + (random.nextDouble() - 0.5) * 0.1,
+                CENTER_LON + (random.nextDouble() - 0.5) * 0.1);
+        String body = "{\"riderId\":\"" + riderId + "\",\"pickup\":" + location(pickup) + ",\"dropOff\":"
+                + location(new Location(CENTER_LAT, CENTER_LON + 0.05)) + ",\"vehicleType\":\"CAR\"}";
+
+        long requested = System.nanoTime();
+        client.sendAsync(post("/rides", body), HttpResponse.BodyHandlers.ofString())
+                .thenCompose(response -> {
+                    requestLatency.recordSince(requested);
+                    if (response.statusCode() != 201) {
+                        (response.statusCode() == 503 ? noDriver : errors).increment();
+                        return CompletableFuture.completedFuture(null);
+                    }
+                    String rideId = (String) JsonReader.parseObject(response.body()).get("rideId");
+                    long completing = System.nanoTime();
+                    return client.sendAsync(post("/rides/" + rideId + "/complete", ""),
+                            HttpResponse.BodyHandlers.ofString()).thenAccept(completed -> {
+                                completeLatency.recordSince(completing);
+                                if (completed.statusCode() != 200) {
+                                    errors.increment();
+                                }
+                            });
+                })
+                .whenComplete((ignored, failure) -> {
+                    if (failure != null) {
+                        errors.increment();
+                    }
+                    cycle(riderId, done);
+                });
+    }
+
+    private static HttpRequest post(String path, String body) {
+        return HttpRequest.newBuilder(base.resolve(path))
+                .header("Content-Type", RideWiseGateway.CONTENT_TYPE)
+                .POST(HttpRequest.BodyPublishers.ofString(body))
+                .build();
+    }
+
+    private static String location(Location location) {
+        return "{\"latitude\":" + location.getLatitude() + ",\"longitude\":" + location.getLongitude() + "}";
+    }
+
+    private static Location nearCenter(Random random) {
+        return new Location(CENTER_LAT + (random.nextDouble() - 0.5) * 0.2,
+                CENTER_LON + (random.nextDouble() - 0.5) * 0.2);
+    }
+
+    private static void report(String endpoint, Histogram.Snapshot snapshot) {
+        double toMillis = snapshot.getUnitScale() * 1e3;
+        System.out.printf("%-22s %12d %10.2f %10.2f %10.2f%n", endpoint, snapshot.getCount(),
+                snapshot.getValueAtPercentile(50) * toMillis, snapshot.getValueAtPercentile(99) * toMillis,
+                snapshot.getValueAtPercentile(99.9) * toMillis);
+    }
+}
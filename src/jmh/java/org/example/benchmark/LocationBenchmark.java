@@ -0,0 +1,65 @@
+package org.example.benchmark;
+
+import org.example.model.Location;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of the distance kernels between two points (exact Haversine,
+ * comparison-only term and bounding-box reject), cycling over a fixed set of
+ * point pairs so the inputs are not constant-folded.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class LocationBenchmark {
+
+    private static final int POINTS = 1024;
+
+    private Location[] origins;
+    private Location[] targets;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        origins = new Location[POINTS];
+        targets = new Location[POINTS];
+        for (int i = 0; i < POINTS; i++) {
+            origins[i] = BenchmarkData.randomLocation(random);
+            targets[i] = BenchmarkData.randomLocation(random);
+        }
+    }
+
+    @Benchmark
+    public double calculateDistanceTo() {
+        int i = next++ & (POINTS - 1);
+        return origins[i].calculateDistanceTo(targets[i]);
+    }
+
+    @Benchmark
+    public double comparableDistanceTo() {
+        int i = next++ & (POINTS - 1);
+        return origins[i].comparableDistanceTo(targets[i]);
+    }
+
+    @Benchmark
+    public boolean mayBeWithin() {
+        int i = next++ & (POINTS - 1);
+        return origins[i].mayBeWithin(targets[i], 5.0);
+    }
+}
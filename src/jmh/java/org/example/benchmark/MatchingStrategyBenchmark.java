@@ -0,0 +1,118 @@
+package org.example.benchmark;
+
+import org.example.model.Driver;
+import org.example.model.Rider;
+import org.example.service.DriverService;
+import org.example.strategy.HybridScoringStrategy;
+import org.example.strategy.LeastActiveDriverStrategy;
+import org.example.strategy.NearestDriverStrategy;
+import org.example.strategy.RideMatchingStrategy;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Collection;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * One findDriver call per invocation against fleets of 1k to 1M available
+ * drivers, for each matching strategy. The nearest-driver strategy is measured
+ * as an object-graph scan, on the grid index and on the struct-of-arrays
+ * position store (Vector API kernel, enabled by the fork's --add-modules);
+ * the least-active strategy as a scan and on the activity index heaps; the
+ * hybrid strategy scoring the 16 nearest drivers.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx4g", "--add-modules=jdk.incubator.vector"})
+public class MatchingStrategyBenchmark {
+
+    private static final int RIDERS = 1024;
+
+    @Param({"1000", "10000", "100000", "1000000"})
+    public int fleetSize;
+
+    private Collection<Driver> availableDrivers;
+    private Rider[] riders;
+    private int next;
+
+    private RideMatchingStrategy nearestLinear;
+    private RideMatchingStrategy nearestGrid;
+    private RideMatchingStrategy nearestPositionStore;
+    private RideMatchingStrategy leastActive;
+    private RideMatchingStrategy leastActiveIndex;
+    private RideMatchingStrategy leastRecentlyActiveIndex;
+    private RideMatchingStrategy hybridScoring;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        DriverService driverService = BenchmarkData.fleet(fleetSize, 42);
+        availableDrivers = driverService.getAvailableDrivers();
+
+        Random random = new Random(7);
+        riders = new Rider[RIDERS];
+        for (int i = 0; i < RIDERS; i++) {
+            riders[i] = BenchmarkData.newRider(i, random);
+        }
+
+        nearestLinear = new NearestDriverStrategy();
+        nearestGrid = new NearestDriverStrategy(driverService.getLocationIndex());
+        nearestPositionStore = new NearestDriverStrategy(driverService.getPositionStore());
+        leastActive = new LeastActiveDriverStrategy();
+        leastActiveIndex = new LeastActiveDriverStrategy(driverService.getActivityIndex());
+        leastRecentlyActiveIndex = new LeastActiveDriverStrategy(driverService.getActivityIndex(), true);
+        hybridScoring = new HybridScoringStrategy(driverService.getLocationIndex(), driverService.getActivityIndex());
+    }
+
+    private Rider nextRider() {
+        return riders[next++ & (RIDERS - 1)];
+    }
+
+    @Benchmark
+    public Driver nearestDriverLinearScan() {
+        return nearestLinear.findDriver(nextRider(), availableDrivers);
+    }
+
+    @Benchmark
+    public Driver nearestDriverGridIndex() {
+        return nearestGrid.findDriver(nextRider(), availableDrivers);
+    }
+
+    @Benchmark
+    public Driver nearestDriverPositionStore() {
+        return nearestPositionStore.findDriver(nextRider(), availableDrivers);
+    }
+
+    @Benchmark
+    public Driver leastActiveDriver() {
+        return leastActive.findDriver(nextRider(), availableDrivers);
+    }
+
+    @Benchmark
+    public Driver leastActiveDriverIndex() {
+        return leastActiveIndex.findDriver(nextRider(), availableDrivers);
+    }
+
+    @Benchmark
+    public Driver leastRecentlyActiveDriverIndex() {
+        return leastRecentlyActiveIndex.findDriver(nextRider(), availableDrivers);
+    }
+
+    @Benchmark
+    public Driver hybridScoringTopK() {
+        return hybridScoring.findDriver(nextRider(), availableDrivers);
+    }
+}
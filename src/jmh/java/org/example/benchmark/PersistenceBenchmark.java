@@ -0,0 +1,169 @@
+package org.example.benchmark;
+
+import org.example.exception.NoDriverAvailableException;
+import org.example.model.Driver;
+import org.example.model.Location;
+import org.example.model.Ride;
+import org.example.model.Rider;
+import org.example.model.VehicleType;
+import org.example.persistence.RecoveryManager;
+import org.example.persistence.RecoveryReport;
+import org.example.persistence.SnapshotManager;
+import org.example.persistence.WriteAheadLog;
+import org.example.service.DriverService;
+import org.example.service.RideService;
+import org.example.service.RiderService;
+import org.example.strategy.DefaultFareStrategy;
+import org.example.strategy.NearestDriverStrategy;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Stream;
+
+/**
+ * BENCHMARK - Write-ahead log cost and recovery time
+ *
+ * Runs request/complete ride cycles with the write-ahead log attached, for
+ * 1..N threads, and reports rides per second, rides per fsync (how well group
+ * commit batches) and fsync time per committed ride. The last run takes a
+ * snapshot halfway through, so the final part recovers from a snapshot plus a
+ * log tail; recovery time and the recovered entity counts are printed.
+ *
+ * Usage: PersistenceBenchmark [drivers] [secondsPerRun]
+ */
+public class PersistenceBenchmark {
+
+    private static final int DEFAULT_DRIVERS = 2_000;
+    private static final int DEFAULT_SECONDS = 3;
+    private static final double CENTER_LAT = 28.6139;
+    private static final double CENTER_LON = 77.2090;
+
+    public static void main(String[] args) throws Exception {
+        int drivers = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_DRIVERS;
+        int seconds = args.length > 1 ? Integer.parseInt(args[1]) : DEFAULT_SECONDS;
+        int maxThreads = Runtime.getRuntime().availableProcessors();
+
+        System.out.println("Write-ahead log (" + drivers + " drivers, " + seconds + "s per run, "
+                + maxThreads + " cores)");
+        System.out.printf("%-8s %12s %14s %16s %18s%n", "threads", "rides/s", "fsyncs", "rides/fsync",
+                "fsync us/ride");
+
+        for (int threads = 1; ; threads = Math.min(threads * 2, maxThreads)) {
+            boolean last = threads == maxThreads;
+            Path directory = Files.createTempDirectory("ridewise-wal");
+            try {
+                run(directory, drivers, threads, seconds, last);
+            } finally {
+                delete(directory);
+            }
+            if (last) {
+                break;
+            }
+        }
+    }
+
+    private static void run(Path directory, int driverCount, int threads, int seconds, boolean recover)
+            throws InterruptedException {
+        DriverService driverService = new DriverService();
+        RiderService riderService = new RiderService();
+        RideService rideService = new RideService(driverService, riderService,
+                new NearestDriverStrategy(driverService.getLocationIndex()), new DefaultFareStrategy());
+        WriteAheadLog log = new WriteAheadLog(directory, 0);
+        driverService.setWriteAheadLog(log);
+        riderService.setWriteAheadLog(log);
+        rideService.setWriteAheadLog(log);
+        SnapshotManager snapshots = new SnapshotManager(log, riderService, driverService, rideService);
+
+        Random random = new Random(42);
+        for (int i = 0; i < driverCount; i++) {
+            driverService.registerDriver(new Driver("Driver " + i, "driver" + i + "@ridewise.com", "9000000000",
+                    nearCenter(random), true));
+        }
+        String[] riderIds = new String[threads];
+        for (int t = 0; t < threads; t++) {
+            Rider rider = new Rider("Rider " + t, "rider" + t + "@ridewise.com", "9100000000", nearCenter(random));
+            riderService.registerRider(rider);
+            riderIds[t] = rider.getRiderId();
+        }
+
+        long fsyncsBefore = log.getFsyncCount();
+        long fsyncNanosBefore = log.getFsyncNanos();
+        LongAdder rides = new LongAdder();
+        CountDownLatch start = new CountDownLatch(1);
+        CountDownLatch done = new CountDownLatch(threads);
+        long deadline = System.nanoTime() + seconds * 1_000_000_000L;
+
+        for (int t = 0; t < threads; t++) {
+            String riderId = riderIds[t];
+            Thread worker = new Thread(() -> {
+                ThreadLocalRandom threadRandom = ThreadLocalRandom.current();
+                try {
+                    start.await();
+                    while (System.nanoTime() < deadline) {
+                        Location pickup = new Location(CENTER_LAT + (threadRandom.nextDouble() - 0.5) * 0.1,
+                                CENTER_LON + (threadRandom.nextDouble() - 0.5) * 0.1);
+                        Location dropOff = new Location(CENTER_LAT, CENTER_LON + 0.05);
+                        try {
+                            Ride ride = rideService.requestRide(riderId, pickup, dropOff, VehicleType.CAR);
+                            rideService.completeRide(ride.getRideId());
+                            rides.increment();
+                        } catch (NoDriverAvailableException e) {
+                            // Every driver busy at this instant; try again
+                        }
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } finally {
+                    done.countDown();
+                }
+            });
+            worker.start();
+        }
+
+        long began = System.nanoTime();
+        start.countDown();
+        if (recover) {
+            Thread.sleep(seconds * 500L);
+            snapshots.snapshotNow();
+        }
+        done.await();
+        double elapsedSeconds = (System.nanoTime() - began) / 1e9;
+        long fsyncs = log.getFsyncCount() - fsyncsBefore;
+        long fsyncNanos = log.getFsyncNanos() - fsyncNanosBefore;
+        long completed = rides.sum();
+        System.out.printf("%-8d %12.0f %14d %16.1f %18.1f%n", threads, completed / elapsedSeconds, fsyncs,
+                fsyncs == 0 ? 0.0 : (double) completed / fsyncs, completed == 0 ? 0.0 : fsyncNanos / 1e3 / completed);
+        log.close();
+
+        if (recover) {
+            System.out.println();
+            System.out.println("Recovering " + rideService.getRideCount() + " rides (snapshot taken at "
+                    + String.format("%.1f", snapshots.getLastSnapshotNanos() / 1e6) + " ms cost, "
+                    + snapshots.getLastSnapshotBytes() / 1024 + " KiB)");
+            DriverService recoveredDrivers = new DriverService();
+            RiderService recoveredRiders = new RiderService();
+            RideService recoveredRides = new RideService(recoveredDrivers, recoveredRiders,
+                    new NearestDriverStrategy(recoveredDrivers.getLocationIndex()), new DefaultFareStrategy());
+            RecoveryReport report = new RecoveryManager(directory)
+                    .recover(recoveredRiders, recoveredDrivers, recoveredRides);
+            report.display();
+        }
+    }
+
+    private static Location nearCenter(Random random) {
+        return new Location(CENTER_LAT + (random.nextDouble() - 0.5) * 0.2,
+                CENTER_LON + (random.nextDouble() - 0.5) * 0.2);
+    }
+
+    private static void delete(Path directory) throws IOException {
+        try (Stream<Path> files = Files.walk(directory)) {
+            files.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+        }
+    }
+}
@@ -0,0 +1,75 @@
+package org.example.benchmark;
+
+import org.example.model.FareReceipt;
+import org.example.model.Location;
+import org.example.model.Ride;
+import org.example.model.Rider;
+import org.example.model.VehicleType;
+import org.example.service.DriverService;
+import org.example.service.RideService;
+import org.example.service.RiderService;
+import org.example.strategy.DefaultFareStrategy;
+import org.example.strategy.NearestDriverStrategy;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * End-to-end requestRide followed by completeRide, with the nearest-driver
+ * strategy on the grid index and the default fare.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class RideCycleBenchmark {
+
+    private static final int PICKUPS = 1024;
+
+    @Param({"1000", "100000"})
+    public int fleetSize;
+
+    private RideService rideService;
+    private String riderId;
+    private Location[] pickups;
+    private Location dropOff;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        DriverService driverService = BenchmarkData.fleet(fleetSize, 42);
+        RiderService riderService = new RiderService();
+        rideService = new RideService(driverService, riderService,
+                new NearestDriverStrategy(driverService.getLocationIndex()), new DefaultFareStrategy());
+
+        Random random = new Random(7);
+        Rider rider = BenchmarkData.newRider(0, random);
+        riderService.registerRider(rider);
+        riderId = rider.getRiderId();
+
+        pickups = new Location[PICKUPS];
+        for (int i = 0; i < PICKUPS; i++) {
+            pickups[i] = BenchmarkData.randomLocation(random);
+        }
+        dropOff = new Location(BenchmarkData.CENTER_LAT, BenchmarkData.CENTER_LON);
+    }
+
+    @Benchmark
+    public FareReceipt requestThenComplete() {
+        Ride ride = rideService.requestRide(riderId, pickups[next++ & (PICKUPS - 1)], dropOff, VehicleType.CAR);
+        return rideService.completeRide(ride.getRideId());
+    }
+}
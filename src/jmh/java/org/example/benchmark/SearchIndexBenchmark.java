@@ -0,0 +1,89 @@
+package org.example.benchmark;
+
+import org.example.model.Rider;
+import org.example.search.SearchIndex;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * One keyword search returning at most LIMIT riders, against 10k to 1M
+ * riders: the trigram SearchIndex versus calling matchesSearchCriteria on
+ * every rider. Keywords: "selective" matches a handful of riders, "common"
+ * matches every rider, "short" is below trigram length and matches none.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class SearchIndexBenchmark {
+
+    private static final int LIMIT = 20;
+
+    @Param({"10000", "100000", "1000000"})
+    public int riderCount;
+
+    @Param({"selective", "common", "short"})
+    public String keywordKind;
+
+    private List<Rider> riders;
+    private SearchIndex<Rider> index;
+    private String keyword;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        Random random = new Random(42);
+        riders = new ArrayList<>(riderCount);
+        index = new SearchIndex<>(Rider::getId);
+        for (int i = 0; i < riderCount; i++) {
+            Rider rider = BenchmarkData.newRider(i, random);
+            riders.add(rider);
+            index.index(rider);
+        }
+        switch (keywordKind) {
+            case "selective":
+                keyword = "rider" + (riderCount / 2 + 7) + "@";
+                break;
+            case "common":
+                keyword = "RideWise";
+                break;
+            default:
+                keyword = "zq";
+        }
+    }
+
+    @Benchmark
+    public List<Rider> index() {
+        return index.search(keyword, LIMIT);
+    }
+
+    @Benchmark
+    public List<Rider> scan() {
+        List<Rider> matches = new ArrayList<>(LIMIT);
+        for (Rider rider : riders) {
+            if (rider.matchesSearchCriteria(keyword)) {
+                matches.add(rider);
+                if (matches.size() == LIMIT) {
+                    break;
+                }
+            }
+        }
+        return matches;
+    }
+}
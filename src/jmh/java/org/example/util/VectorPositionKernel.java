@@ -0,0 +1,38 @@
+package org.example.util;
+
+import jdk.incubator.vector.DoubleVector;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * SIMD kernel on the JDK Vector API. Only loaded through PositionKernel.best(),
+ * which falls back to the scalar kernel when the incubator module is missing.
+ * Kept out of the main source set so the application does not depend on an
+ * incubator module; the benchmarks compare it against the scalar kernel.
+ */
+final class VectorPositionKernel implements PositionKernel {
+
+    private static final VectorSpecies<Double> SPECIES = DoubleVector.SPECIES_PREFERRED;
+
+    @Override
+    public void squaredChords(double[] xs, double[] ys, double[] zs, int from, int count,
+            double x, double y, double z, double[] out) {
+        DoubleVector vx = DoubleVector.broadcast(SPECIES, x);
+        DoubleVector vy = DoubleVector.broadcast(SPECIES, y);
+        DoubleVector vz = DoubleVector.broadcast(SPECIES, z);
+
+        int i = 0;
+        int bound = SPECIES.loopBound(count);
+        for (; i < bound; i += SPECIES.length()) {
+            DoubleVector dx = DoubleVector.fromArray(SPECIES, xs, from + i).sub(vx);
+            DoubleVector dy = DoubleVector.fromArray(SPECIES, ys, from + i).sub(vy);
+            DoubleVector dz = DoubleVector.fromArray(SPECIES, zs, from + i).sub(vz);
+            dx.mul(dx).add(dy.mul(dy)).add(dz.mul(dz)).intoArray(out, i);
+        }
+        for (; i < count; i++) {
+            double dx = xs[from + i] - x;
+            double dy = ys[from + i] - y;
+            double dz = zs[from + i] - z;
+            out[i] = dx * dx + dy * dy + dz * dz;
+        }
+    }
+}
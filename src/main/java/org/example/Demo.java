@@ -11,6 +11,7 @@ import org.example.strategy.NearestDriverStrategy;
 import org.example.strategy.PeakHourFareStrategy;
 import org.example.strategy.RideMatchingStrategy;
 
+import java.util.Collection;
 import java.util.List;
 
 /**
@@ -28,7 +29,7 @@ public class Demo {
 
     private static DriverService driverService = new DriverService();
     private static RiderService riderService = new RiderService();
-    private static RideMatchingStrategy matchingStrategy = new NearestDriverStrategy();
+    private static RideMatchingStrategy matchingStrategy = new NearestDriverStrategy(driverService.getLocationIndex());
     private static FareCalculationStrategy fareStrategy = new DefaultFareStrategy();
     private static RideService rideService = new RideService(
             driverService, riderService, matchingStrategy, fareStrategy);
@@ -110,7 +111,7 @@ public class Demo {
         riderService.registerRider(rider3);
         System.out.println("✓ Registered Rider: " + rider3.getName() + " (ID: " + rider3.getRiderId() + ")");
 
-        System.out.println("Total Riders: " + riderService.getAllRiders().size());
+        System.out.println("Total Riders: " + riderService.getRiderCount());
         System.out.println();
     }
 
@@ -150,7 +151,7 @@ public class Demo {
         System.out.println(
                 "✓ Registered Driver: " + driver5.getName() + " (ID: " + driver5.getDriverId() + ") - Unavailable");
 
-        System.out.println("Total Drivers: " + driverService.getAllDrivers().size());
+        System.out.println("Total Drivers: " + driverService.getDriverCount());
         System.out.println("Available Drivers: " + driverService.getAvailableDrivers().size());
         System.out.println();
     }
@@ -232,7 +233,7 @@ public class Demo {
         System.out.println("DEMO 5: Viewing Available Drivers");
         System.out.println("═══════════════════════════════════════════════════════════════");
 
-        List<Driver> availableDrivers = driverService.getAvailableDrivers();
+        Collection<Driver> availableDrivers = driverService.getAvailableDrivers();
         System.out.println("Available Drivers Count: " + availableDrivers.size());
 
         if (!availableDrivers.isEmpty()) {
@@ -333,7 +334,7 @@ public class Demo {
         System.out.println("Current Strategy: Nearest Driver Strategy");
         System.out.println("Changing to: Least Active Driver Strategy");
 
-        matchingStrategy = new LeastActiveDriverStrategy();
+        matchingStrategy = new LeastActiveDriverStrategy(driverService.getActivityIndex());
         rideService = new RideService(driverService, riderService, matchingStrategy, fareStrategy);
 
         System.out.println("✓ Strategy changed successfully!");
@@ -396,15 +397,8 @@ public class Demo {
         System.out.println("DEMO 11: Peak Hour Pricing");
         System.out.println("═══════════════════════════════════════════════════════════════");
 
-        List<Ride> rides = rideService.getAllRides();
-        Ride rideToComplete = null;
-
-        for (Ride ride : rides) {
-            if (ride.getRideStatus() == RideStatus.ASSIGNED) {
-                rideToComplete = ride;
-                break;
-            }
-        }
+        List<Ride> assignedRides = rideService.getRidesByStatus(RideStatus.ASSIGNED);
+        Ride rideToComplete = assignedRides.isEmpty() ? null : assignedRides.get(0);
 
         if (rideToComplete != null) {
             try {
@@ -474,36 +468,24 @@ public class Demo {
         System.out.println("DEMO 13: Final View of All Data");
         System.out.println("═══════════════════════════════════════════════════════════════");
 
-        System.out.println("\n--- All Riders (" + riderService.getAllRiders().size() + ") ---");
-        for (Rider rider : riderService.getAllRiders()) {
-            rider.display();
-        }
+        System.out.println("\n--- All Riders (" + riderService.getRiderCount() + ") ---");
+        riderService.streamRiders().forEach(Rider::display);
 
-        System.out.println("\n--- All Drivers (" + driverService.getAllDrivers().size() + ") ---");
-        for (Driver driver : driverService.getAllDrivers()) {
-            driver.display();
-        }
+        System.out.println("\n--- All Drivers (" + driverService.getDriverCount() + ") ---");
+        driverService.streamDrivers().forEach(Driver::display);
 
-        System.out.println("\n--- All Rides (" + rideService.getAllRides().size() + ") ---");
-        for (Ride ride : rideService.getAllRides()) {
-            ride.display();
-        }
+        System.out.println("\n--- All Rides (" + rideService.getRideCount() + ") ---");
+        rideService.streamRides().forEach(Ride::display);
 
         System.out.println("\n--- Summary Statistics ---");
-        System.out.println("Total Riders: " + riderService.getAllRiders().size());
-        System.out.println("Total Drivers: " + driverService.getAllDrivers().size());
+        System.out.println("Total Riders: " + riderService.getRiderCount());
+        System.out.println("Total Drivers: " + driverService.getDriverCount());
         System.out.println("Available Drivers: " + driverService.getAvailableDrivers().size());
-        System.out.println("Total Rides: " + rideService.getAllRides().size());
-
-        long completedRides = rideService.getAllRides().stream()
-                .filter(r -> r.getRideStatus() == RideStatus.COMPLETED)
-                .count();
-        long cancelledRides = rideService.getAllRides().stream()
-                .filter(r -> r.getRideStatus() == RideStatus.CANCELLED)
-                .count();
-        long assignedRides = rideService.getAllRides().stream()
-                .filter(r -> r.getRideStatus() == RideStatus.ASSIGNED)
-                .count();
+        System.out.println("Total Rides: " + rideService.getRideCount());
+
+        long completedRides = rideService.getRidesByStatus(RideStatus.COMPLETED).size();
+        long cancelledRides = rideService.getRidesByStatus(RideStatus.CANCELLED).size();
+        long assignedRides = rideService.getRidesByStatus(RideStatus.ASSIGNED).size();
 
         System.out.println("Completed Rides: " + completedRides);
         System.out.println("Cancelled Rides: " + cancelledRides);
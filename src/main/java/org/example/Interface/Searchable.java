@@ -1,5 +1,8 @@
 package org.example.Interface;
 
+import java.util.Collections;
+import java.util.List;
+
 public interface Searchable {
     boolean matchesSearchCriteria(String keyword);
 
@@ -7,4 +10,21 @@ public interface Searchable {
     default void displaySearchResult() {
         System.out.println("Search result found");
     }
+
+    /**
+     * Field values that matchesSearchCriteria lowercases and compares with the
+     * lowercased keyword. Used by SearchIndex; must agree with
+     * matchesSearchCriteria.
+     */
+    default List<String> searchableTerms() {
+        return Collections.emptyList();
+    }
+
+    /**
+     * Field values that matchesSearchCriteria compares with the keyword as
+     * typed (case-sensitive).
+     */
+    default List<String> exactSearchableTerms() {
+        return Collections.emptyList();
+    }
 }
@@ -1,34 +1,165 @@
 package org.example;
 
+import org.example.analytics.AnalyticsSnapshot;
+import org.example.analytics.RideAnalytics;
+import org.example.analytics.RideCounts;
+import org.example.api.RideWiseGateway;
+import org.example.archive.RideArchive;
 import org.example.exception.*;
+import org.example.event.RideEventJournal;
+import org.example.fare.SurgeEngine;
+import org.example.ledger.Earnings;
+import org.example.ledger.LedgerEntry;
+import org.example.ledger.ReceiptLedger;
+import org.example.metrics.JmxExporter;
+import org.example.metrics.MetricsRegistry;
+import org.example.metrics.PrometheusExporter;
+import org.example.metrics.RideMetrics;
 import org.example.model.*;
+import org.example.persistence.RecoveryManager;
+import org.example.persistence.RecoveryReport;
+import org.example.persistence.SnapshotManager;
+import org.example.persistence.WriteAheadLog;
 import org.example.service.DriverService;
 import org.example.service.RideService;
 import org.example.service.RiderService;
 import org.example.strategy.DefaultFareStrategy;
 import org.example.strategy.FareCalculationStrategy;
+import org.example.strategy.HybridScoringStrategy;
 import org.example.strategy.LeastActiveDriverStrategy;
 import org.example.strategy.NearestDriverStrategy;
 import org.example.strategy.PeakHourFareStrategy;
+import org.example.strategy.RateCardFareStrategy;
 import org.example.strategy.RideMatchingStrategy;
-
+import org.example.strategy.SurgePricingStrategy;
+import org.example.util.IdGenerator;
+import org.example.util.Page;
+
+import javax.management.JMException;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
 import java.util.Scanner;
+import java.util.function.BiFunction;
+import java.util.function.Consumer;
 
 public class Main {
+    private static final int PAGE_SIZE = 20;
+    private static final Duration RATE_CARD_WATCH_INTERVAL = Duration.ofSeconds(5);
+    private static final Duration SURGE_INTERVAL = Duration.ofSeconds(10);
     private static Scanner scanner = new Scanner(System.in);
     private static DriverService driverService = new DriverService();
     private static RiderService riderService = new RiderService();
-    private static RideMatchingStrategy matchingStrategy = new NearestDriverStrategy();
+    private static RideMatchingStrategy matchingStrategy = new NearestDriverStrategy(driverService.getLocationIndex());
     private static FareCalculationStrategy fareStrategy = new DefaultFareStrategy();
-    private static RideService rideService = new RideService(driverService, riderService, matchingStrategy,
+    private static final RideService rideService = new RideService(driverService, riderService, matchingStrategy,
             fareStrategy);
+    private static SurgeEngine surgeEngine; // created when surge pricing is first enabled
+    private static RideMetrics rideMetrics; // set when metrics are exported
+    private static RideWiseGateway gateway; // set when the HTTP API is enabled
+    private static RideEventJournal eventJournal = new RideEventJournal();
+    private static ReceiptLedger receiptLedger = new ReceiptLedger();
+    private static RideAnalytics rideAnalytics = new RideAnalytics();
 
     public static void main(String[] args) {
         System.out.println("========================================");
         System.out.println("    Welcome to RideWise System");
         System.out.println("========================================");
 
+        // Optional node id for running several processes: -Dridewise.nodeId=<0..1023>
+        String nodeId = System.getProperty("ridewise.nodeId");
+        if (nodeId != null) {
+            IdGenerator.useNodeLayout(Integer.parseInt(nodeId));
+        }
+
+        // Receipts and analytics are fed by the ride event journal
+        eventJournal.subscribe("receipt-ledger", receiptLedger);
+        eventJournal.subscribe("analytics", rideAnalytics);
+        rideService.setEventJournal(eventJournal);
+
+        // Optional rate card, reloaded when the file changes: -Dridewise.rateCard=<file>
+        String rateCard = System.getProperty("ridewise.rateCard");
+        if (rateCard != null) {
+            try {
+                RateCardFareStrategy strategy = RateCardFareStrategy.fromFile(Paths.get(rateCard));
+                strategy.startWatching(RATE_CARD_WATCH_INTERVAL);
+                fareStrategy = strategy;
+                rideService.setFareCalculationStrategy(fareStrategy);
+            } catch (IOException e) {
+                System.out.println("✗ Could not read rate card: " + e.getMessage());
+            }
+        }
+
+        // Optional persistence: java -Dridewise.dataDir=<dir> org.example.Main
+        String dataDir = System.getProperty("ridewise.dataDir");
+        WriteAheadLog writeAheadLog = null;
+        SnapshotManager snapshotManager = null;
+        RideArchive rideArchive = null;
+        if (dataDir != null) {
+            Path directory = Paths.get(dataDir);
+            // Finished rides live in the archive, not on the heap
+            rideArchive = new RideArchive(directory.resolve("archive"), riderService::findRider,
+                    driverService::findDriver);
+            rideService.setRideArchive(rideArchive);
+            // Receipts are kept in their own file; recovery adds those of completions
+            // the ledger had not recorded yet
+            receiptLedger.open(directory.resolve("receipts.dat"));
+            RecoveryManager recoveryManager = new RecoveryManager(directory);
+            recoveryManager.setReceiptLedger(receiptLedger);
+            RecoveryReport report = recoveryManager.recover(riderService, driverService, rideService);
+            report.display();
+            // Recovery does not replay events; count the rides still open
+            for (Ride ride : rideService.getOpenRides()) {
+                rideAnalytics.load(ride);
+            }
+            writeAheadLog = new WriteAheadLog(directory, report.getNextLsn());
+            riderService.setWriteAheadLog(writeAheadLog);
+            driverService.setWriteAheadLog(writeAheadLog);
+            rideService.setWriteAheadLog(writeAheadLog);
+            snapshotManager = new SnapshotManager(writeAheadLog, riderService, driverService, rideService);
+            snapshotManager.start(Duration.ofMinutes(5));
+        }
+
+        // Optional HTTP/JSON API on http://localhost:<port>/: -Dridewise.apiPort=<port>
+        // Started before the metrics endpoint, so its TCP_NODELAY setting applies to both
+        String apiPort = System.getProperty("ridewise.apiPort");
+        if (apiPort != null) {
+            try {
+                gateway = new RideWiseGateway(riderService, driverService, rideService, Integer.parseInt(apiPort));
+                gateway.setReceiptLedger(receiptLedger);
+                gateway.setRideAnalytics(rideAnalytics);
+                System.out.println("API at http://localhost:" + gateway.getPort() + "/");
+            } catch (IOException e) {
+                System.out.println("✗ Could not start the API: " + e.getMessage());
+            }
+        }
+
+        // Optional metrics on JMX and http://localhost:<port>/metrics: -Dridewise.metricsPort=<port>
+        String metricsPort = System.getProperty("ridewise.metricsPort");
+        PrometheusExporter prometheusExporter = null;
+        if (metricsPort != null) {
+            MetricsRegistry registry = new MetricsRegistry();
+            rideMetrics = new RideMetrics(registry);
+            rideService.setMetrics(rideMetrics);
+            registry.gauge("ridewise_available_drivers", "Drivers available for matching",
+                    () -> driverService.getAvailableDriverCount());
+            registry.gauge("ridewise_drivers", "Registered drivers", () -> driverService.getDriverCount());
+            registry.gauge("ridewise_riders", "Registered riders", () -> riderService.getRiderCount());
+            registry.gauge("ridewise_open_rides", "Rides held in memory", () -> rideService.getOpenRideCount());
+            registry.gauge("ridewise_rides", "Rides, open and archived", () -> rideService.getRideCount());
+            try {
+                new JmxExporter(registry, JmxExporter.DEFAULT_OBJECT_NAME);
+                prometheusExporter = new PrometheusExporter(registry, Integer.parseInt(metricsPort));
+                System.out.println("Metrics at http://localhost:" + prometheusExporter.getPort() + "/metrics");
+            } catch (IOException | JMException e) {
+                System.out.println("✗ Could not export metrics: " + e.getMessage());
+            }
+        }
+
         boolean running = true;
         while (running) {
             displayMainMenu();
@@ -80,6 +211,15 @@ public class Main {
                 case 15:
                     viewRideDetails();
                     break;
+                case 16:
+                    findReceipt();
+                    break;
+                case 17:
+                    viewDriverEarnings();
+                    break;
+                case 18:
+                    viewAnalytics();
+                    break;
                 case 0:
                     System.out.println("Thank you for using RideWise. Goodbye!");
                     running = false;
@@ -94,6 +234,20 @@ public class Main {
             }
         }
         scanner.close();
+        if (gateway != null) {
+            gateway.close();
+        }
+        eventJournal.close();
+        receiptLedger.close();
+        if (prometheusExporter != null) {
+            prometheusExporter.close();
+        }
+        if (snapshotManager != null) {
+            snapshotManager.close();
+            snapshotManager.snapshotNow();
+            writeAheadLog.close();
+            rideArchive.close();
+        }
     }
 
     private static void displayMainMenu() {
@@ -113,6 +267,9 @@ public class Main {
         System.out.println("13. Change Matching Strategy");
         System.out.println("14. Change Fare Strategy");
         System.out.println("15. View Ride Details");
+        System.out.println("16. Find Receipt");
+        System.out.println("17. View Driver Earnings");
+        System.out.println("18. View Analytics");
         System.out.println("0.  Exit");
         System.out.println("===============================");
     }
@@ -158,7 +315,7 @@ public class Main {
 
     private static void viewAvailableDrivers() {
         System.out.println("\n=== Available Drivers ===");
-        List<Driver> drivers = driverService.getAvailableDrivers();
+        Collection<Driver> drivers = driverService.getAvailableDrivers();
         if (drivers.isEmpty()) {
             System.out.println("No available drivers at the moment.");
         } else {
@@ -171,27 +328,23 @@ public class Main {
 
     private static void viewAllDrivers() {
         System.out.println("\n=== All Drivers ===");
-        List<Driver> drivers = driverService.getAllDrivers();
-        if (drivers.isEmpty()) {
+        int count = driverService.getDriverCount();
+        if (count == 0) {
             System.out.println("No drivers registered.");
         } else {
-            System.out.println("Total Drivers: " + drivers.size());
-            for (Driver driver : drivers) {
-                driver.display();
-            }
+            System.out.println("Total Drivers: " + count);
+            showPages(driverService::getDrivers, Driver::display);
         }
     }
 
     private static void viewAllRiders() {
         System.out.println("\n=== All Riders ===");
-        List<Rider> riders = riderService.getAllRiders();
-        if (riders.isEmpty()) {
+        int count = riderService.getRiderCount();
+        if (count == 0) {
             System.out.println("No riders registered.");
         } else {
-            System.out.println("Total Riders: " + riders.size());
-            for (Rider rider : riders) {
-                rider.display();
-            }
+            System.out.println("Total Riders: " + count);
+            showPages(riderService::getRiders, Rider::display);
         }
     }
 
@@ -260,13 +413,14 @@ public class Main {
 
     private static void viewAllRides() {
         System.out.println("\n=== All Rides ===");
-        List<Ride> rides = rideService.getAllRides();
-        if (rides.isEmpty()) {
+        int count = rideService.getRideCount();
+        if (count == 0) {
             System.out.println("No rides found.");
         } else {
-            System.out.println("Total Rides: " + rides.size());
-            for (Ride ride : rides) {
-                ride.display();
+            System.out.println("Total Rides: " + count);
+            // Open rides first, then the archive
+            if (showPages(rideService::getOpenRides, Ride::display)) {
+                showPages(rideService::getArchivedRides, Ride::display);
             }
         }
     }
@@ -284,18 +438,70 @@ public class Main {
         }
     }
 
+    private static void findReceipt() {
+        System.out.println("\n=== Find Receipt ===");
+        String id = getStringInput("Enter receipt ID or ride ID: ");
+        LedgerEntry entry = receiptLedger.getByReceiptId(id);
+        if (entry == null) {
+            entry = receiptLedger.getByRideId(id);
+        }
+        if (entry == null) {
+            System.out.println("✗ No receipt found for: " + id);
+            return;
+        }
+        entry.toReceipt().display();
+    }
+
+    private static void viewDriverEarnings() {
+        System.out.println("\n=== Driver Earnings ===");
+        try {
+            Driver driver = driverService.getDriver(getStringInput("Enter driver ID: "));
+            Earnings total = receiptLedger.getDriverEarnings(driver.getDriverId());
+            Earnings today = receiptLedger.getDriverEarnings(driver.getDriverId(),
+                    LocalDate.now(receiptLedger.getZone()));
+            System.out.println("Driver: " + driver.getName() + " (" + driver.getDriverId() + ")");
+            System.out.println("Today:  ₹" + String.format("%.2f", today.getAmount()) + " from "
+                    + today.getReceiptCount() + " rides");
+            System.out.println("Total:  ₹" + String.format("%.2f", total.getAmount()) + " from "
+                    + total.getReceiptCount() + " rides");
+        } catch (DriverNotFoundException e) {
+            System.out.println("✗ Driver not found: " + e.getMessage());
+        }
+    }
+
+    private static void viewAnalytics() {
+        System.out.println("\n=== Analytics ===");
+        AnalyticsSnapshot snapshot = rideAnalytics.snapshot();
+        for (RideStatus status : RideStatus.values()) {
+            System.out.println(status + ": " + snapshot.getCount(status));
+        }
+        displayRideCounts("This hour", snapshot.getCurrentHour());
+        displayRideCounts("Last " + snapshot.getRecentWindow().toMinutes() + " minutes", snapshot.getRecent());
+        displayRideCounts("All time", snapshot.getTotal());
+    }
+
+    private static void displayRideCounts(String title, RideCounts counts) {
+        System.out.println("\n" + title + ":");
+        System.out.println("  Requested: " + counts.getRequested() + ", rejected: " + counts.getRejected()
+                + String.format(" (%.1f%%)", counts.getRejectionRate() * 100));
+        System.out.println("  Completed: " + counts.getCompleted() + ", cancelled: " + counts.getCancelled()
+                + String.format(" (%.1f%%)", counts.getCancellationRate() * 100));
+        for (VehicleType vehicleType : VehicleType.values()) {
+            if (counts.getCompleted(vehicleType) > 0) {
+                System.out.println(String.format("  %s: %d rides, %.2f km average", vehicleType,
+                        counts.getCompleted(vehicleType), counts.getAverageDistance(vehicleType)));
+            }
+        }
+    }
+
     private static void searchRiders() {
         System.out.println("\n=== Search Riders ===");
         String keyword = getStringInput("Enter search keyword: ");
-        List<Rider> riders = riderService.getAllRiders();
-        boolean found = false;
+        List<Rider> riders = riderService.searchRiders(keyword);
         for (Rider rider : riders) {
-            if (rider.matchesSearchCriteria(keyword)) {
-                rider.displaySearchResult();
-                found = true;
-            }
+            rider.displaySearchResult();
         }
-        if (!found) {
+        if (riders.isEmpty()) {
             System.out.println("No riders found matching: " + keyword);
         }
     }
@@ -303,15 +509,11 @@ public class Main {
     private static void searchDrivers() {
         System.out.println("\n=== Search Drivers ===");
         String keyword = getStringInput("Enter search keyword: ");
-        List<Driver> drivers = driverService.getAllDrivers();
-        boolean found = false;
+        List<Driver> drivers = driverService.searchDrivers(keyword);
         for (Driver driver : drivers) {
-            if (driver.matchesSearchCriteria(keyword)) {
-                driver.displaySearchResult();
-                found = true;
-            }
+            driver.displaySearchResult();
         }
-        if (!found) {
+        if (drivers.isEmpty()) {
             System.out.println("No drivers found matching: " + keyword);
         }
     }
@@ -319,15 +521,11 @@ public class Main {
     private static void searchRides() {
         System.out.println("\n=== Search Rides ===");
         String keyword = getStringInput("Enter search keyword: ");
-        List<Ride> rides = rideService.getAllRides();
-        boolean found = false;
+        List<Ride> rides = rideService.searchRides(keyword);
         for (Ride ride : rides) {
-            if (ride.matchesSearchCriteria(keyword)) {
-                ride.displaySearchResult();
-                found = true;
-            }
+            ride.displaySearchResult();
         }
-        if (!found) {
+        if (rides.isEmpty()) {
             System.out.println("No rides found matching: " + keyword);
         }
     }
@@ -336,31 +534,45 @@ public class Main {
         System.out.println("\n=== Change Matching Strategy ===");
         System.out.println("1. Nearest Driver Strategy");
         System.out.println("2. Least Active Driver Strategy");
+        System.out.println("3. Least Recently Active Driver Strategy (time-decayed)");
+        System.out.println("4. Hybrid Scoring Strategy (distance, recent activity and idle time)");
         int choice = getIntInput("Select strategy: ");
 
         switch (choice) {
             case 1:
-                matchingStrategy = new NearestDriverStrategy();
+                matchingStrategy = new NearestDriverStrategy(driverService.getLocationIndex());
                 System.out.println("✓ Changed to Nearest Driver Strategy");
                 break;
             case 2:
-                matchingStrategy = new LeastActiveDriverStrategy();
+                matchingStrategy = new LeastActiveDriverStrategy(driverService.getActivityIndex());
                 System.out.println("✓ Changed to Least Active Driver Strategy");
                 break;
+            case 3:
+                matchingStrategy = new LeastActiveDriverStrategy(driverService.getActivityIndex(), true);
+                System.out.println("✓ Changed to Least Recently Active Driver Strategy");
+                break;
+            case 4:
+                matchingStrategy = new HybridScoringStrategy(driverService.getLocationIndex(),
+                        driverService.getActivityIndex());
+                System.out.println("✓ Changed to Hybrid Scoring Strategy");
+                break;
             default:
                 System.out.println("✗ Invalid choice");
                 return;
         }
 
-        // Recreate RideService with new strategy
-        rideService = new RideService(driverService, riderService, matchingStrategy, fareStrategy);
+        // Same RideService, so its rides, log, archive and snapshots carry on
+        rideService.setRideMatchingStrategy(matchingStrategy);
     }
 
     private static void changeFareStrategy() {
         System.out.println("\n=== Change Fare Strategy ===");
         System.out.println("1. Default Fare Strategy");
         System.out.println("2. Peak Hour Fare Strategy");
+        System.out.println("3. Rate Card File");
+        System.out.println("4. Surge Pricing (on top of the current strategy)");
         int choice = getIntInput("Select strategy: ");
+        FareCalculationStrategy previous = fareStrategy;
 
         switch (choice) {
             case 1:
@@ -371,13 +583,64 @@ public class Main {
                 fareStrategy = new PeakHourFareStrategy();
                 System.out.println("✓ Changed to Peak Hour Fare Strategy");
                 break;
+            case 3:
+                String file = getStringInput("Enter rate card file: ");
+                try {
+                    RateCardFareStrategy strategy = RateCardFareStrategy.fromFile(Paths.get(file));
+                    strategy.startWatching(RATE_CARD_WATCH_INTERVAL);
+                    fareStrategy = strategy;
+                } catch (IOException | RuntimeException e) {
+                    System.out.println("✗ Could not load rate card: " + e.getMessage());
+                    return;
+                }
+                System.out.println("✓ Changed to Rate Card Fare Strategy (" + file + ")");
+                break;
+            case 4:
+                if (surgeEngine == null) {
+                    surgeEngine = new SurgeEngine(driverService::getAvailableDrivers);
+                    surgeEngine.start(SURGE_INTERVAL);
+                }
+                fareStrategy = new SurgePricingStrategy(baseOf(fareStrategy), surgeEngine);
+                System.out.println("✓ Surge pricing enabled");
+                break;
             default:
                 System.out.println("✗ Invalid choice");
                 return;
         }
 
-        // Recreate RideService with new strategy
-        rideService = new RideService(driverService, riderService, matchingStrategy, fareStrategy);
+        // Stop watching the old rate card file, if any
+        if (baseOf(previous) != baseOf(fareStrategy) && baseOf(previous) instanceof RateCardFareStrategy) {
+            ((RateCardFareStrategy) baseOf(previous)).close();
+        }
+
+        // Same RideService, so its rides, log, archive and snapshots carry on
+        rideService.setFareCalculationStrategy(fareStrategy);
+        rideService.setSurgeEngine(fareStrategy instanceof SurgePricingStrategy ? surgeEngine : null);
+    }
+
+    private static FareCalculationStrategy baseOf(FareCalculationStrategy strategy) {
+        return strategy instanceof SurgePricingStrategy ? ((SurgePricingStrategy) strategy).getBaseStrategy()
+                : strategy;
+    }
+
+    /**
+     * Displays a listing PAGE_SIZE items at a time, so only one page is held
+     * in memory. Returns false if the user stopped early.
+     */
+    private static <T> boolean showPages(BiFunction<Long, Integer, Page<T>> pages, Consumer<T> display) {
+        long cursor = Page.FIRST;
+        while (true) {
+            Page<T> page = pages.apply(cursor, PAGE_SIZE);
+            page.getItems().forEach(display);
+            if (!page.hasMore()) {
+                return true;
+            }
+            cursor = page.getNextCursor();
+            System.out.print("Press Enter for more, or 'q' to stop: ");
+            if (scanner.nextLine().trim().equalsIgnoreCase("q")) {
+                return false;
+            }
+        }
     }
 
     // Helper methods for input
@@ -0,0 +1,61 @@
+package org.example.analytics;
+
+import org.example.model.RideStatus;
+
+import java.time.Duration;
+import java.time.Instant;
+
+/**
+ * Operational figures at one moment: rides per status, all-time activity,
+ * the current hour and the recent sliding window. Immutable.
+ */
+public final class AnalyticsSnapshot {
+
+    private final Instant takenAt;
+    private final RideCounts total;
+    private final RideCounts currentHour;
+    private final RideCounts recent;
+    private final Duration recentWindow;
+
+    AnalyticsSnapshot(Instant takenAt, RideCounts total, RideCounts currentHour, RideCounts recent,
+            Duration recentWindow) {
+        this.takenAt = takenAt;
+        this.total = total;
+        this.currentHour = currentHour;
+        this.recent = recent;
+        this.recentWindow = recentWindow;
+    }
+
+    public Instant getTakenAt() {
+        return takenAt;
+    }
+
+    /**
+     * Rides in the status at the time of the snapshot.
+     */
+    public long getCount(RideStatus status) {
+        return total.inStatus(status);
+    }
+
+    public RideCounts getTotal() {
+        return total;
+    }
+
+    /**
+     * Activity since the start of the current hour (UTC-aligned).
+     */
+    public RideCounts getCurrentHour() {
+        return currentHour;
+    }
+
+    /**
+     * Activity over the last getRecentWindow(), to the minute.
+     */
+    public RideCounts getRecent() {
+        return recent;
+    }
+
+    public Duration getRecentWindow() {
+        return recentWindow;
+    }
+}
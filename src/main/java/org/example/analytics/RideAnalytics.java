@@ -0,0 +1,200 @@
+package org.example.analytics;
+
+import org.example.event.RideEvent;
+import org.example.event.RideEventHandler;
+import org.example.model.Ride;
+import org.example.model.RideStatus;
+import org.example.model.VehicleType;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * RIDE ANALYTICS - RideAnalytics
+ *
+ * Operational counters kept up to date as rides change status: rides per
+ * status right now, requests, assignments, completions, cancellations and
+ * rejections (no driver available), and completed distance per vehicle
+ * type. Each is kept for all time, per hour (tumbling windows) and per
+ * minute (for sliding windows).
+ *
+ * DESIGN DECISIONS:
+ * - Fed by the ride event journal (subscribe it as a handler), so counting
+ *   adds nothing to the request path; figures trail RideService by the
+ *   consumer's lag
+ * - Counters are LongAdders: striped, lock-free, and safe to update from
+ *   several threads if events are recorded directly
+ * - Windows are fixed rings of time slots (60 minutes, 24 hours) keyed by
+ *   event time, not arrival time, so a simulation on a virtual clock gets
+ *   windows in simulated time
+ * - Reads sum a fixed number of counters, so a snapshot costs the same
+ *   after a million rides as after ten
+ * - Rides per status are derived from the transition counts (ASSIGNED =
+ *   assigned - completed - cancelled) rather than kept as gauges that each
+ *   transition would have to move in step
+ * - Distances are whole metres, like fares in the ledger are whole paise
+ */
+public class RideAnalytics implements RideEventHandler {
+
+    public static final Duration DEFAULT_RECENT_WINDOW = Duration.ofMinutes(15);
+
+    private static final long MINUTE_MILLIS = 60_000;
+    private static final long HOUR_MILLIS = 3_600_000;
+    private static final int MINUTES_KEPT = 60;
+    private static final int HOURS_KEPT = 24;
+
+    private final Clock clock;
+    private final LongAdder[] totals;
+    private final WindowedCounts minutes;
+    private final WindowedCounts hours;
+    private volatile Duration recentWindow = DEFAULT_RECENT_WINDOW;
+
+    public RideAnalytics() {
+        this(Clock.systemUTC());
+    }
+
+    /**
+     * @param clock decides which windows are current when reading; pass the
+     *              clock RideService stamps rides with
+     */
+    public RideAnalytics(Clock clock) {
+        if (clock == null) {
+            throw new IllegalArgumentException("Clock cannot be null");
+        }
+        this.clock = clock;
+        this.totals = new LongAdder[RideCounts.WIDTH];
+        for (int i = 0; i < totals.length; i++) {
+            totals[i] = new LongAdder();
+        }
+        this.minutes = new WindowedCounts(MINUTE_MILLIS, MINUTES_KEPT, RideCounts.WIDTH);
+        this.hours = new WindowedCounts(HOUR_MILLIS, HOURS_KEPT, RideCounts.WIDTH);
+    }
+
+    @Override
+    public void onEvent(RideEvent event, long sequence, boolean endOfBatch) {
+        long timestamp = event.getTimestampMillis();
+        switch (event.getType()) {
+            case RIDE_REQUESTED:
+                count(timestamp, RideCounts.REQUESTED, 1);
+                break;
+            case RIDE_ASSIGNED:
+                count(timestamp, RideCounts.ASSIGNED, 1);
+                break;
+            case RIDE_COMPLETED:
+                count(timestamp, RideCounts.COMPLETED, 1);
+                VehicleType vehicleType = event.getVehicleType();
+                if (vehicleType != null) {
+                    count(timestamp, RideCounts.completedBy(vehicleType), 1);
+                    count(timestamp, RideCounts.metresBy(vehicleType), Math.round(event.getDistance() * 1000));
+                }
+                break;
+            case RIDE_CANCELLED:
+                count(timestamp, RideCounts.CANCELLED, 1);
+                break;
+            case RIDE_REJECTED:
+                count(timestamp, RideCounts.REJECTED, 1);
+                break;
+            default:
+                break;
+        }
+    }
+
+    /**
+     * Counts a ride that existed before the journal did, such as one
+     * restored at startup, into the all-time figures and rides per status.
+     * Windows only reflect events.
+     */
+    public void load(Ride ride) {
+        RideStatus status = ride.getRideStatus();
+        totals[RideCounts.REQUESTED].increment();
+        if (status == RideStatus.REQUESTED) {
+            return;
+        }
+        totals[RideCounts.ASSIGNED].increment();
+        if (status == RideStatus.CANCELLED) {
+            totals[RideCounts.CANCELLED].increment();
+        } else if (status == RideStatus.COMPLETED) {
+            totals[RideCounts.COMPLETED].increment();
+            if (ride.getVehicleType() != null) {
+                totals[RideCounts.completedBy(ride.getVehicleType())].increment();
+                totals[RideCounts.metresBy(ride.getVehicleType())].add(Math.round(ride.getDistance() * 1000));
+            }
+        }
+    }
+
+    /**
+     * Rides in the status right now.
+     */
+    public long getCount(RideStatus status) {
+        return getTotal().inStatus(status);
+    }
+
+    public RideCounts getTotal() {
+        // Later transitions first: a ride counted as completed is then surely
+        // counted as assigned, which keeps the per-status figures from dipping
+        long[] counts = new long[totals.length];
+        for (int i = totals.length - 1; i >= 0; i--) {
+            counts[i] = totals[i].sum();
+        }
+        return new RideCounts(counts);
+    }
+
+    /**
+     * Activity in the UTC-aligned hour containing the instant; empty for
+     * hours more than a day before the current one.
+     */
+    public RideCounts getHour(Instant hour) {
+        return new RideCounts(hours.sum(hour.toEpochMilli(), 1));
+    }
+
+    /**
+     * Activity over the last window, counted in whole minutes including the
+     * current one.
+     *
+     * @param window up to an hour
+     */
+    public RideCounts getRecent(Duration window) {
+        return new RideCounts(minutes.sum(clock.millis(), minutesIn(window)));
+    }
+
+    /**
+     * Every figure at once: rides per status, all time, this hour and the
+     * recent window.
+     */
+    public AnalyticsSnapshot snapshot() {
+        long now = clock.millis();
+        Duration recentWindow = this.recentWindow;
+        RideCounts total = getTotal();
+        return new AnalyticsSnapshot(Instant.ofEpochMilli(now), total, new RideCounts(hours.sum(now, 1)),
+                new RideCounts(minutes.sum(now, minutesIn(recentWindow))), recentWindow);
+    }
+
+    public Duration getRecentWindow() {
+        return recentWindow;
+    }
+
+    /**
+     * Sliding window reported by snapshot(); up to an hour.
+     */
+    public void setRecentWindow(Duration recentWindow) {
+        minutesIn(recentWindow);
+        this.recentWindow = recentWindow;
+    }
+
+    private void count(long timestamp, int metric, long amount) {
+        totals[metric].add(amount);
+        minutes.add(timestamp, metric, amount);
+        hours.add(timestamp, metric, amount);
+    }
+
+    private static int minutesIn(Duration window) {
+        if (window == null || window.isNegative() || window.isZero()
+                || window.compareTo(Duration.ofMinutes(MINUTES_KEPT)) > 0) {
+            throw new IllegalArgumentException("Window must be between 0 and " + MINUTES_KEPT + " minutes. Got: "
+                    + window);
+        }
+        return (int) ((window.toMillis() + MINUTE_MILLIS - 1) / MINUTE_MILLIS);
+    }
+}
@@ -0,0 +1,113 @@
+package org.example.analytics;
+
+import org.example.model.RideStatus;
+import org.example.model.VehicleType;
+
+/**
+ * Ride activity over some span: all time, one hour, or a sliding window.
+ * Immutable.
+ *
+ * Distances are those of completed rides, counted when they complete.
+ */
+public final class RideCounts {
+
+    // Layout of the counter array shared with RideAnalytics and WindowedCounts
+    static final int REQUESTED = 0;
+    static final int ASSIGNED = 1;
+    static final int COMPLETED = 2;
+    static final int CANCELLED = 3;
+    static final int REJECTED = 4;
+    private static final int VEHICLE_TYPES = VehicleType.values().length;
+    private static final int COMPLETED_BY_TYPE = 5;
+    private static final int METRES_BY_TYPE = COMPLETED_BY_TYPE + VEHICLE_TYPES;
+    static final int WIDTH = METRES_BY_TYPE + VEHICLE_TYPES;
+
+    private final long[] counts;
+
+    RideCounts(long[] counts) {
+        this.counts = counts;
+    }
+
+    static int completedBy(VehicleType vehicleType) {
+        return COMPLETED_BY_TYPE + vehicleType.ordinal();
+    }
+
+    static int metresBy(VehicleType vehicleType) {
+        return METRES_BY_TYPE + vehicleType.ordinal();
+    }
+
+    public long getRequested() {
+        return counts[REQUESTED];
+    }
+
+    public long getAssigned() {
+        return counts[ASSIGNED];
+    }
+
+    public long getCompleted() {
+        return counts[COMPLETED];
+    }
+
+    public long getCancelled() {
+        return counts[CANCELLED];
+    }
+
+    /**
+     * Requests that failed with NoDriverAvailableException.
+     */
+    public long getRejected() {
+        return counts[REJECTED];
+    }
+
+    public long getCompleted(VehicleType vehicleType) {
+        return counts[completedBy(vehicleType)];
+    }
+
+    /**
+     * Total distance of completed rides of the type, in km.
+     */
+    public double getDistance(VehicleType vehicleType) {
+        return counts[metresBy(vehicleType)] / 1000.0;
+    }
+
+    public double getAverageDistance(VehicleType vehicleType) {
+        long completed = getCompleted(vehicleType);
+        return completed == 0 ? 0 : getDistance(vehicleType) / completed;
+    }
+
+    /**
+     * Share of the rides finished in the span that were cancelled.
+     */
+    public double getCancellationRate() {
+        long finished = counts[COMPLETED] + counts[CANCELLED];
+        return finished == 0 ? 0 : (double) counts[CANCELLED] / finished;
+    }
+
+    /**
+     * Share of the requests in the span that found no driver.
+     */
+    public double getRejectionRate() {
+        return counts[REQUESTED] == 0 ? 0 : (double) counts[REJECTED] / counts[REQUESTED];
+    }
+
+    /**
+     * Rides currently in the status, for all-time counts. The counters are
+     * read without a lock, so a count is clamped at zero rather than briefly
+     * going negative while an event is applied.
+     */
+    long inStatus(RideStatus status) {
+        switch (status) {
+            case REQUESTED:
+                // Requests still being matched
+                return Math.max(0, counts[REQUESTED] - counts[ASSIGNED] - counts[REJECTED]);
+            case ASSIGNED:
+                return Math.max(0, counts[ASSIGNED] - counts[COMPLETED] - counts[CANCELLED]);
+            case COMPLETED:
+                return counts[COMPLETED];
+            case CANCELLED:
+                return counts[CANCELLED];
+            default:
+                throw new IllegalArgumentException("Unknown ride status: " + status);
+        }
+    }
+}
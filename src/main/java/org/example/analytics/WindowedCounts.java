@@ -0,0 +1,90 @@
+package org.example.analytics;
+
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Ring of time slots, each holding one striped counter per metric. A slot
+ * covers slotMillis of event time and is reused once the ring comes round
+ * to it again, so memory stays fixed however long the process runs.
+ *
+ * Adding to the current slot is a LongAdder add. The first add of a new
+ * period swaps a fresh slot in with one CAS; an add that loses the race
+ * uses the winner's slot. An event older than the period its slot now
+ * holds is dropped.
+ */
+final class WindowedCounts {
+
+    private final long slotMillis;
+    private final int width;
+    private final AtomicReferenceArray<Slot> slots;
+
+    WindowedCounts(long slotMillis, int slotCount, int width) {
+        this.slotMillis = slotMillis;
+        this.width = width;
+        this.slots = new AtomicReferenceArray<>(slotCount);
+    }
+
+    void add(long timestampMillis, int metric, long amount) {
+        Slot slot = slotFor(Math.floorDiv(timestampMillis, slotMillis));
+        if (slot != null) {
+            slot.counts[metric].add(amount);
+        }
+    }
+
+    /**
+     * Per-metric sums over the given number of slots, ending with the one
+     * that contains nowMillis.
+     */
+    long[] sum(long nowMillis, int slotCount) {
+        long now = Math.floorDiv(nowMillis, slotMillis);
+        long[] sums = new long[width];
+        for (int i = 0; i < slots.length(); i++) {
+            Slot slot = slots.get(i);
+            if (slot != null && slot.period <= now && slot.period > now - slotCount) {
+                for (int metric = 0; metric < width; metric++) {
+                    sums[metric] += slot.counts[metric].sum();
+                }
+            }
+        }
+        return sums;
+    }
+
+    long getSlotMillis() {
+        return slotMillis;
+    }
+
+    int getSlotCount() {
+        return slots.length();
+    }
+
+    private Slot slotFor(long period) {
+        int index = (int) Math.floorMod(period, (long) slots.length());
+        for (;;) {
+            Slot slot = slots.get(index);
+            if (slot != null && slot.period == period) {
+                return slot;
+            }
+            if (slot != null && slot.period > period) {
+                return null; // the slot has moved on to a later period
+            }
+            Slot fresh = new Slot(period, width);
+            if (slots.compareAndSet(index, slot, fresh)) {
+                return fresh;
+            }
+        }
+    }
+
+    private static final class Slot {
+        final long period;
+        final LongAdder[] counts;
+
+        Slot(long period, int width) {
+            this.period = period;
+            this.counts = new LongAdder[width];
+            for (int i = 0; i < width; i++) {
+                counts[i] = new LongAdder();
+            }
+        }
+    }
+}
@@ -0,0 +1,18 @@
+package org.example.api;
+
+/**
+ * A request the gateway refuses with the given HTTP status.
+ */
+public class ApiException extends RuntimeException {
+
+    private final int status;
+
+    public ApiException(int status, String message) {
+        super(message);
+        this.status = status;
+    }
+
+    public int getStatus() {
+        return status;
+    }
+}
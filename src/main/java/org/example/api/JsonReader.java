@@ -0,0 +1,266 @@
+package org.example.api;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * BOUNDED JSON PARSER - JsonReader
+ *
+ * Parses a request body into plain Java values: objects become
+ * Map<String, Object> (in document order), arrays List<Object>, numbers
+ * Double, and strings, booleans and null themselves.
+ *
+ * DESIGN DECISIONS:
+ * - The caller bounds the input size (the gateway reads at most
+ *   RideWiseGateway.MAX_BODY_BYTES); the parser bounds nesting depth, so a
+ *   hostile body can neither exhaust the heap nor the stack
+ * - Recursive descent over the whole body held as a string: request bodies
+ *   are small, and this keeps the parser short
+ * - Malformed input throws IllegalArgumentException with the offset, which
+ *   the gateway answers with 400
+ */
+public final class JsonReader {
+
+    public static final int MAX_DEPTH = 16;
+
+    private final String text;
+    private int position;
+    private int depth;
+
+    private JsonReader(String text) {
+        this.text = text;
+    }
+
+    /**
+     * Parses a document whose top-level value must be an object.
+     */
+    @SuppressWarnings("unchecked")
+    public static Map<String, Object> parseObject(String text) {
+        Object value = parse(text);
+        if (!(value instanceof Map)) {
+            throw new IllegalArgumentException("Expected a JSON object");
+        }
+        return (Map<String, Object>) value;
+    }
+
+    public static Object parse(String text) {
+        JsonReader reader = new JsonReader(text);
+        Object value = reader.readValue();
+        reader.skipWhitespace();
+        if (reader.position < text.length()) {
+            throw reader.error("Unexpected trailing content");
+        }
+        return value;
+    }
+
+    private Object readValue() {
+        skipWhitespace();
+        if (position >= text.length()) {
+            throw error("Unexpected end of input");
+        }
+        char c = text.charAt(position);
+        switch (c) {
+            case '{':
+                return readObject();
+            case '[':
+                return readArray();
+            case '"':
+                return readString();
+            case 't':
+                return readLiteral("true", Boolean.TRUE);
+            case 'f':
+                return readLiteral("false", Boolean.FALSE);
+            case 'n':
+                return readLiteral("null", null);
+            default:
+                if (c == '-' || (c >= '0' && c <= '9')) {
+                    return readNumber();
+                }
+                throw error("Unexpected character '" + c + "'");
+        }
+    }
+
+    private Map<String, Object> readObject() {
+        enter();
+        position++; // '{'
+        Map<String, Object> object = new LinkedHashMap<>();
+        skipWhitespace();
+        if (peek() == '}') {
+            position++;
+            depth--;
+            return object;
+        }
+        while (true) {
+            skipWhitespace();
+            if (peek() != '"') {
+                throw error("Expected a field name");
+            }
+            String name = readString();
+            skipWhitespace();
+            expect(':');
+            object.put(name, readValue());
+            skipWhitespace();
+            char c = next();
+            if (c == '}') {
+                depth--;
+                return object;
+            }
+            if (c != ',') {
+                throw error("Expected ',' or '}'");
+            }
+        }
+    }
+
+    private List<Object> readArray() {
+        enter();
+        position++; // '['
+        List<Object> array = new ArrayList<>();
+        skipWhitespace();
+        if (peek() == ']') {
+            position++;
+            depth--;
+            return array;
+        }
+        while (true) {
+            array.add(readValue());
+            skipWhitespace();
+            char c = next();
+            if (c == ']') {
+                depth--;
+                return array;
+            }
+            if (c != ',') {
+                throw error("Expected ',' or ']'");
+            }
+        }
+    }
+
+    private String readString() {
+        position++; // opening quote
+        StringBuilder value = null;
+        int start = position;
+        while (true) {
+            if (position >= text.length()) {
+                throw error("Unterminated string");
+            }
+            char c = text.charAt(position);
+            if (c == '"') {
+                String tail = text.substring(start, position++);
+                return value == null ? tail : value.append(tail).toString();
+            }
+            if (c < 0x20) {
+                throw error("Control character in string");
+            }
+            if (c != '\\') {
+                position++;
+                continue;
+            }
+            // Escape: move what was read so far into the builder
+            if (value == null) {
+                value = new StringBuilder();
+            }
+            value.append(text, start, position);
+            position++;
+            char escaped = next();
+            switch (escaped) {
+                case '"':
+                case '\\':
+                case '/':
+                    value.append(escaped);
+                    break;
+                case 'b':
+                    value.append('\b');
+                    break;
+                case 'f':
+                    value.append('\f');
+                    break;
+                case 'n':
+                    value.append('\n');
+                    break;
+                case 'r':
+                    value.append('\r');
+                    break;
+                case 't':
+                    value.append('\t');
+                    break;
+                case 'u':
+                    if (position + 4 > text.length()) {
+                        throw error("Truncated unicode escape");
+                    }
+                    try {
+                        value.append((char) Integer.parseInt(text.substring(position, position + 4), 16));
+                    } catch (NumberFormatException e) {
+                        throw error("Invalid unicode escape");
+                    }
+                    position += 4;
+                    break;
+                default:
+                    throw error("Invalid escape '\\" + escaped + "'");
+            }
+            start = position;
+        }
+    }
+
+    private Double readNumber() {
+        int start = position;
+        while (position < text.length() && "+-0123456789.eE".indexOf(text.charAt(position)) >= 0) {
+            position++;
+        }
+        try {
+            return Double.valueOf(text.substring(start, position));
+        } catch (NumberFormatException e) {
+            position = start;
+            throw error("Invalid number");
+        }
+    }
+
+    private Object readLiteral(String literal, Object value) {
+        if (!text.startsWith(literal, position)) {
+            throw error("Unexpected token");
+        }
+        position += literal.length();
+        return value;
+    }
+
+    private void enter() {
+        if (++depth > MAX_DEPTH) {
+            throw error("Nesting deeper than " + MAX_DEPTH);
+        }
+    }
+
+    private void skipWhitespace() {
+        while (position < text.length()) {
+            char c = text.charAt(position);
+            if (c != ' ' && c != '\t' && c != '\n' && c != '\r') {
+                return;
+            }
+            position++;
+        }
+    }
+
+    private char peek() {
+        if (position >= text.length()) {
+            throw error("Unexpected end of input");
+        }
+        return text.charAt(position);
+    }
+
+    private char next() {
+        char c = peek();
+        position++;
+        return c;
+    }
+
+    private void expect(char expected) {
+        if (next() != expected) {
+            position--;
+            throw error("Expected '" + expected + "'");
+        }
+    }
+
+    private IllegalArgumentException error(String message) {
+        return new IllegalArgumentException("Malformed JSON at offset " + position + ": " + message);
+    }
+}
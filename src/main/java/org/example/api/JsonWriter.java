@@ -0,0 +1,180 @@
+package org.example.api;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * STREAMING JSON WRITER - JsonWriter
+ *
+ * Writes a JSON document straight to an output stream as it is produced, so
+ * a listing of any length is sent without building it in memory first.
+ *
+ * DESIGN DECISIONS:
+ * - Calls chain: json.beginObject().name("id").value(id).endObject()
+ * - Commas are placed by the writer; it tracks per nesting level whether the
+ *   next element is the first one
+ * - Non-finite numbers are written as null, since JSON has no NaN
+ * - Output is buffered and sent in chunks; close() flushes and closes the
+ *   stream, which ends the HTTP response
+ */
+public final class JsonWriter implements AutoCloseable {
+
+    private static final int BUFFER_SIZE = 8 * 1024;
+    private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+    private final Writer out;
+    // first[d]: nothing written yet at nesting depth d
+    private boolean[] first = new boolean[8];
+    private int depth;
+    private boolean afterName;
+
+    public JsonWriter(OutputStream out) {
+        this.out = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), BUFFER_SIZE);
+        this.first[0] = true;
+    }
+
+    public JsonWriter beginObject() throws IOException {
+        return open('{');
+    }
+
+    public JsonWriter endObject() throws IOException {
+        return close('}');
+    }
+
+    public JsonWriter beginArray() throws IOException {
+        return open('[');
+    }
+
+    public JsonWriter endArray() throws IOException {
+        return close(']');
+    }
+
+    /**
+     * Field name of the next value inside an object.
+     */
+    public JsonWriter name(String name) throws IOException {
+        separate();
+        writeString(name);
+        out.write(':');
+        afterName = true;
+        return this;
+    }
+
+    public JsonWriter value(String value) throws IOException {
+        if (value == null) {
+            return nullValue();
+        }
+        separate();
+        writeString(value);
+        return this;
+    }
+
+    public JsonWriter value(long value) throws IOException {
+        separate();
+        out.write(Long.toString(value));
+        return this;
+    }
+
+    public JsonWriter value(double value) throws IOException {
+        if (Double.isNaN(value) || Double.isInfinite(value)) {
+            return nullValue();
+        }
+        separate();
+        out.write(Double.toString(value));
+        return this;
+    }
+
+    public JsonWriter value(boolean value) throws IOException {
+        separate();
+        out.write(value ? "true" : "false");
+        return this;
+    }
+
+    public JsonWriter nullValue() throws IOException {
+        separate();
+        out.write("null");
+        return this;
+    }
+
+    public void flush() throws IOException {
+        out.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+        out.close();
+    }
+
+    private JsonWriter open(char bracket) throws IOException {
+        separate();
+        out.write(bracket);
+        if (++depth == first.length) {
+            boolean[] grown = new boolean[first.length * 2];
+            System.arraycopy(first, 0, grown, 0, first.length);
+            first = grown;
+        }
+        first[depth] = true;
+        return this;
+    }
+
+    private JsonWriter close(char bracket) throws IOException {
+        if (depth == 0) {
+            throw new IllegalStateException("Nothing to close");
+        }
+        depth--;
+        out.write(bracket);
+        return this;
+    }
+
+    // Comma before every element but the first, and none after a field name
+    private void separate() throws IOException {
+        if (afterName) {
+            afterName = false;
+            return;
+        }
+        if (!first[depth]) {
+            out.write(',');
+        }
+        first[depth] = false;
+    }
+
+    private void writeString(String value) throws IOException {
+        out.write('"');
+        int start = 0;
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c >= 0x20 && c != '"' && c != '\\') {
+                continue;
+            }
+            out.write(value, start, i - start);
+            switch (c) {
+                case '"':
+                    out.write("\\\"");
+                    break;
+                case '\\':
+                    out.write("\\\\");
+                    break;
+                case '\n':
+                    out.write("\\n");
+                    break;
+                case '\r':
+                    out.write("\\r");
+                    break;
+                case '\t':
+                    out.write("\\t");
+                    break;
+                default:
+                    out.write("\\u00");
+                    out.write(HEX[c >> 4]);
+                    out.write(HEX[c & 0xF]);
+            }
+            start = i + 1;
+        }
+        out.write(value, start, value.length() - start);
+        out.write('"');
+    }
+}
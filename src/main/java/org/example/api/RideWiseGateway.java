@@ -0,0 +1,590 @@
+package org.example.api;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.example.analytics.AnalyticsSnapshot;
+import org.example.analytics.RideAnalytics;
+import org.example.analytics.RideCounts;
+import org.example.exception.InvalidDataException;
+import org.example.exception.NoDriverAvailableException;
+import org.example.exception.RideNotFoundException;
+import org.example.exception.RiderNotFoundException;
+import org.example.ledger.Earnings;
+import org.example.ledger.LedgerEntry;
+import org.example.ledger.ReceiptLedger;
+import org.example.model.Driver;
+import org.example.model.FareReceipt;
+import org.example.model.Location;
+import org.example.model.Ride;
+import org.example.model.RideStatus;
+import org.example.model.Rider;
+import org.example.model.VehicleType;
+import org.example.service.DriverService;
+import org.example.service.RideService;
+import org.example.service.RiderService;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * HTTP/JSON GATEWAY - RideWiseGateway
+ *
+ * Embedded HTTP API over the rider, driver and ride services, served by the
+ * JDK's built-in HTTP server:
+ *
+ *   POST /riders                  {"name","email","phone","location":{"latitude","longitude"}}
+ *   POST /drivers                 same, plus optional "available" (default true)
+ *   GET  /drivers/available       streamed listing; optional ?limit=n
+ *   POST /rides                   {"riderId","pickup":{..},"dropOff":{..},"vehicleType"}
+ *   GET  /rides/{id}
+ *   POST /rides/{id}/complete     returns the fare receipt
+ *   POST /rides/{id}/cancel
+ *   GET  /rides/{id}/receipt      from the receipt ledger, if one is set
+ *   GET  /receipts/{id}
+ *   GET  /drivers/{id}/earnings   total and one day's; optional ?day=yyyy-MM-dd
+ *   GET  /analytics               rides per status, all time, this hour and recently
+ *
+ * DESIGN DECISIONS:
+ * - Each exchange runs on its own virtual thread where the JDK has them
+ *   (21+), so a request blocked on the write-ahead log costs a few hundred
+ *   bytes, not a platform thread. Connections are multiplexed by the
+ *   server's selector either way; on older JDKs a fixed pool of platform
+ *   threads takes over and extra exchanges wait in its queue
+ * - Request bodies are capped at MAX_BODY_BYTES (413 beyond that) and parsed
+ *   by JsonReader with a nesting limit
+ * - Responses are written with JsonWriter. Single entities are buffered and
+ *   sent with a Content-Length; the driver listing is sent in chunks straight
+ *   from the live available-driver view, without a copy
+ * - Turns on TCP_NODELAY for the JDK server (sun.net.httpserver.nodelay)
+ *   unless set explicitly: with Nagle's algorithm every response waits out
+ *   the client's delayed ACK, about 40 ms. The server reads the property once,
+ *   so it only takes effect if no HttpServer was started before this class
+ *   was loaded
+ * - Service exceptions map to statuses: not found 404, invalid input 400,
+ *   wrong ride state 409, no driver 503 with Retry-After
+ * - Binds to the loopback address unless given another; put a proxy in front
+ *   to expose it
+ */
+public class RideWiseGateway implements AutoCloseable {
+
+    public static final int MAX_BODY_BYTES = 16 * 1024;
+    public static final String CONTENT_TYPE = "application/json; charset=utf-8";
+
+    // Pending connections the OS may queue while the server accepts
+    private static final int ACCEPT_BACKLOG = 4096;
+    // Threads of the fallback pool used without virtual threads
+    private static final int FALLBACK_THREADS = 256;
+
+    static {
+        if (System.getProperty("sun.net.httpserver.nodelay") == null) {
+            System.setProperty("sun.net.httpserver.nodelay", "true");
+        }
+    }
+
+    private final RiderService riderService;
+    private final DriverService driverService;
+    private final RideService rideService;
+    private volatile ReceiptLedger receiptLedger;
+    private volatile RideAnalytics rideAnalytics;
+    private final HttpServer server;
+    private final ExecutorService executor;
+
+    /**
+     * Starts serving on the loopback address; port 0 picks a free port.
+     */
+    public RideWiseGateway(RiderService riderService, DriverService driverService, RideService rideService,
+            int port) throws IOException {
+        this(riderService, driverService, rideService, new InetSocketAddress(InetAddress.getLoopbackAddress(), port));
+    }
+
+    public RideWiseGateway(RiderService riderService, DriverService driverService, RideService rideService,
+            InetSocketAddress address) throws IOException {
+        this.riderService = riderService;
+        this.driverService = driverService;
+        this.rideService = rideService;
+        this.executor = newRequestExecutor();
+        this.server = HttpServer.create(address, ACCEPT_BACKLOG);
+        server.setExecutor(executor);
+        server.createContext("/", this::handle);
+        server.start();
+    }
+
+    /**
+     * Serves receipts and earnings from the ledger; null turns those
+     * resources off (404). The ledger trails completions slightly, so a
+     * receipt may be missing for a moment after its ride completes.
+     */
+    public void setReceiptLedger(ReceiptLedger receiptLedger) {
+        this.receiptLedger = receiptLedger;
+    }
+
+    /**
+     * Serves /analytics from the counters; null turns it off (404).
+     */
+    public void setRideAnalytics(RideAnalytics rideAnalytics) {
+        this.rideAnalytics = rideAnalytics;
+    }
+
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    /**
+     * Whether requests run on virtual threads rather than the fallback pool.
+     */
+    public boolean isVirtualThreaded() {
+        return !(executor instanceof ThreadPoolExecutor);
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.shutdown();
+    }
+
+    /**
+     * A virtual-thread-per-task executor, looked up reflectively so the code
+     * still builds and runs on JDKs before 21, where a fixed pool of daemon
+     * platform threads is returned instead.
+     */
+    public static ExecutorService newRequestExecutor() {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException e) {
+            AtomicInteger threads = new AtomicInteger();
+            ThreadFactory factory = runnable -> {
+                Thread thread = new Thread(runnable, "ridewise-api-" + threads.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            };
+            return new ThreadPoolExecutor(FALLBACK_THREADS, FALLBACK_THREADS, 0, TimeUnit.MILLISECONDS,
+                    new LinkedBlockingQueue<>(), factory);
+        }
+    }
+
+    private void handle(HttpExchange exchange) {
+        try {
+            route(exchange);
+        } catch (ApiException e) {
+            sendError(exchange, e.getStatus(), e.getMessage());
+        } catch (RideNotFoundException | RiderNotFoundException e) {
+            sendError(exchange, 404, e.getMessage());
+        } catch (NoDriverAvailableException e) {
+            exchange.getResponseHeaders().set("Retry-After", "1");
+            sendError(exchange, 503, e.getMessage());
+        } catch (IllegalStateException e) {
+            sendError(exchange, 409, e.getMessage());
+        } catch (IllegalArgumentException | InvalidDataException e) {
+            sendError(exchange, 400, e.getMessage());
+        } catch (RuntimeException e) {
+            sendError(exchange, 500, "Internal error");
+        } catch (IOException e) {
+            // The client went away; nothing left to answer
+        } finally {
+            exchange.close();
+        }
+    }
+
+    private void route(HttpExchange exchange) throws IOException {
+        String method = exchange.getRequestMethod();
+        String[] path = exchange.getRequestURI().getPath().substring(1).split("/");
+        String resource = path[0];
+
+        if (resource.equals("riders") && path.length == 1) {
+            requireMethod(method, "POST");
+            registerRider(exchange);
+        } else if (resource.equals("drivers") && path.length == 1) {
+            requireMethod(method, "POST");
+            registerDriver(exchange);
+        } else if (resource.equals("drivers") && path.length == 2 && path[1].equals("available")) {
+            requireMethod(method, "GET");
+            listAvailableDrivers(exchange);
+        } else if (resource.equals("rides") && path.length == 1) {
+            requireMethod(method, "POST");
+            requestRide(exchange);
+        } else if (resource.equals("rides") && path.length == 2) {
+            requireMethod(method, "GET");
+            try (JsonWriter json = respond(exchange, 200)) {
+                writeRide(json, rideService.getRide(path[1]));
+            }
+        } else if (resource.equals("rides") && path.length == 3 && path[2].equals("complete")) {
+            requireMethod(method, "POST");
+            FareReceipt receipt = rideService.completeRide(path[1]);
+            try (JsonWriter json = respond(exchange, 200)) {
+                writeReceipt(json, receipt);
+            }
+        } else if (resource.equals("rides") && path.length == 3 && path[2].equals("receipt")) {
+            requireMethod(method, "GET");
+            LedgerEntry entry = ledger().getByRideId(path[1]);
+            if (entry == null) {
+                throw new ApiException(404, "No receipt for ride " + path[1]);
+            }
+            try (JsonWriter json = respond(exchange, 200)) {
+                writeLedgerEntry(json, entry);
+            }
+        } else if (resource.equals("receipts") && path.length == 2) {
+            requireMethod(method, "GET");
+            LedgerEntry entry = ledger().getByReceiptId(path[1]);
+            if (entry == null) {
+                throw new ApiException(404, "Receipt not found: " + path[1]);
+            }
+            try (JsonWriter json = respond(exchange, 200)) {
+                writeLedgerEntry(json, entry);
+            }
+        } else if (resource.equals("drivers") && path.length == 3 && path[2].equals("earnings")) {
+            requireMethod(method, "GET");
+            driverEarnings(exchange, path[1]);
+        } else if (resource.equals("analytics") && path.length == 1) {
+            requireMethod(method, "GET");
+            analytics(exchange);
+        } else if (resource.equals("rides") && path.length == 3 && path[2].equals("cancel")) {
+            requireMethod(method, "POST");
+            rideService.cancelRide(path[1]);
+            try (JsonWriter json = respond(exchange, 200)) {
+                writeRide(json, rideService.getRide(path[1]));
+            }
+        } else {
+            throw new ApiException(404, "No such resource: " + exchange.getRequestURI().getPath());
+        }
+    }
+
+    private void registerRider(HttpExchange exchange) throws IOException {
+        Map<String, Object> body = readBody(exchange);
+        Rider rider = new Rider(string(body, "name"), string(body, "email"), string(body, "phone"),
+                location(body, "location"));
+        riderService.registerRider(rider);
+        try (JsonWriter json = respond(exchange, 201)) {
+            writeRider(json, rider);
+        }
+    }
+
+    private void registerDriver(HttpExchange exchange) throws IOException {
+        Map<String, Object> body = readBody(exchange);
+        Object available = body.get("available");
+        if (available != null && !(available instanceof Boolean)) {
+            throw new IllegalArgumentException("Field 'available' must be true or false");
+        }
+        Driver driver = new Driver(string(body, "name"), string(body, "email"), string(body, "phone"),
+                location(body, "location"), available == null || (Boolean) available);
+        driverService.registerDriver(driver);
+        try (JsonWriter json = respond(exchange, 201)) {
+            writeDriver(json, driver);
+        }
+    }
+
+    private void requestRide(HttpExchange exchange) throws IOException {
+        Map<String, Object> body = readBody(exchange);
+        Ride ride = rideService.requestRide(string(body, "riderId"), location(body, "pickup"),
+                location(body, "dropOff"), vehicleType(string(body, "vehicleType")));
+        try (JsonWriter json = respond(exchange, 201)) {
+            writeRide(json, ride);
+        }
+    }
+
+    private void listAvailableDrivers(HttpExchange exchange) throws IOException {
+        long limit = Long.MAX_VALUE;
+        String query = exchange.getRequestURI().getQuery();
+        if (query != null) {
+            for (String parameter : query.split("&")) {
+                if (parameter.startsWith("limit=")) {
+                    limit = Long.parseLong(parameter.substring("limit=".length()));
+                    if (limit < 0) {
+                        throw new IllegalArgumentException("limit must not be negative");
+                    }
+                }
+            }
+        }
+
+        // Iterates the live view: drivers taken or freed meanwhile may or may not appear
+        long count = 0;
+        try (JsonWriter json = stream(exchange, 200)) {
+            json.beginObject().name("drivers").beginArray();
+            for (Driver driver : driverService.getAvailableDrivers()) {
+                if (count == limit) {
+                    break;
+                }
+                writeDriver(json, driver);
+                count++;
+            }
+            json.endArray().name("count").value(count).endObject();
+        }
+    }
+
+    private void driverEarnings(HttpExchange exchange, String driverId) throws IOException {
+        ReceiptLedger ledger = ledger();
+        if (driverService.findDriver(driverId) == null) {
+            throw new ApiException(404, "Driver not found: " + driverId);
+        }
+        LocalDate day = LocalDate.now(ledger.getZone());
+        String query = exchange.getRequestURI().getQuery();
+        if (query != null) {
+            for (String parameter : query.split("&")) {
+                if (parameter.startsWith("day=")) {
+                    try {
+                        day = LocalDate.parse(parameter.substring("day=".length()));
+                    } catch (DateTimeParseException e) {
+                        throw new IllegalArgumentException("day must be yyyy-MM-dd");
+                    }
+                }
+            }
+        }
+        Earnings total = ledger.getDriverEarnings(driverId);
+        Earnings daily = ledger.getDriverEarnings(driverId, day);
+        try (JsonWriter json = respond(exchange, 200)) {
+            json.beginObject()
+                    .name("driverId").value(driverId)
+                    .name("total").value(total.getAmount())
+                    .name("rides").value(total.getReceiptCount())
+                    .name("day").value(day.toString())
+                    .name("dayTotal").value(daily.getAmount())
+                    .name("dayRides").value(daily.getReceiptCount())
+                    .endObject();
+        }
+    }
+
+    private void analytics(HttpExchange exchange) throws IOException {
+        RideAnalytics analytics = rideAnalytics;
+        if (analytics == null) {
+            throw new ApiException(404, "Analytics are not kept on this server");
+        }
+        AnalyticsSnapshot snapshot = analytics.snapshot();
+        try (JsonWriter json = respond(exchange, 200)) {
+            json.beginObject().name("takenAt");
+            writeInstant(json, snapshot.getTakenAt());
+            json.name("rides").beginObject();
+            for (RideStatus status : RideStatus.values()) {
+                json.name(status.name()).value(snapshot.getCount(status));
+            }
+            json.endObject().name("total");
+            writeRideCounts(json, snapshot.getTotal());
+            json.name("currentHour");
+            writeRideCounts(json, snapshot.getCurrentHour());
+            json.name("recentMinutes").value(snapshot.getRecentWindow().toMinutes())
+                    .name("recent");
+            writeRideCounts(json, snapshot.getRecent());
+            json.endObject();
+        }
+    }
+
+    private ReceiptLedger ledger() {
+        ReceiptLedger ledger = receiptLedger;
+        if (ledger == null) {
+            throw new ApiException(404, "Receipts are not recorded on this server");
+        }
+        return ledger;
+    }
+
+    private static void requireMethod(String method, String expected) {
+        if (!expected.equals(method)) {
+            throw new ApiException(405, "Method " + method + " not allowed; use " + expected);
+        }
+    }
+
+    private static Map<String, Object> readBody(HttpExchange exchange) throws IOException {
+        String length = exchange.getRequestHeaders().getFirst("Content-Length");
+        if (length != null && Long.parseLong(length) > MAX_BODY_BYTES) {
+            throw new ApiException(413, "Request body is larger than " + MAX_BODY_BYTES + " bytes");
+        }
+        byte[] body;
+        try (InputStream in = exchange.getRequestBody()) {
+            body = in.readNBytes(MAX_BODY_BYTES + 1);
+        }
+        if (body.length > MAX_BODY_BYTES) {
+            throw new ApiException(413, "Request body is larger than " + MAX_BODY_BYTES + " bytes");
+        }
+        return JsonReader.parseObject(new String(body, StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Writer for a small response: the document is buffered and sent with a
+     * Content-Length when the writer is closed.
+     */
+    private static JsonWriter respond(HttpExchange exchange, int status) {
+        return new JsonWriter(new FixedLengthBody(exchange, status));
+    }
+
+    /**
+     * Writer for a response of unknown length, sent in chunks as it is written.
+     */
+    private static JsonWriter stream(HttpExchange exchange, int status) throws IOException {
+        exchange.getResponseHeaders().set("Content-Type", CONTENT_TYPE);
+        exchange.sendResponseHeaders(status, 0);
+        return new JsonWriter(exchange.getResponseBody());
+    }
+
+    private static void sendError(HttpExchange exchange, int status, String message) {
+        if (exchange.getResponseCode() != -1) {
+            return; // Headers are out already; closing the exchange cuts the body short
+        }
+        try (JsonWriter json = respond(exchange, status)) {
+            json.beginObject().name("error").value(message).name("status").value(status).endObject();
+        } catch (IOException e) {
+            // The client went away
+        }
+    }
+
+    private static String string(Map<String, Object> body, String field) {
+        Object value = body.get(field);
+        if (!(value instanceof String)) {
+            throw new IllegalArgumentException("Field '" + field + "' must be a string");
+        }
+        return (String) value;
+    }
+
+    private static double number(Map<String, Object> body, String field) {
+        Object value = body.get(field);
+        if (!(value instanceof Double)) {
+            throw new IllegalArgumentException("Field '" + field + "' must be a number");
+        }
+        return (Double) value;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Location location(Map<String, Object> body, String field) {
+        Object value = body.get(field);
+        if (!(value instanceof Map)) {
+            throw new IllegalArgumentException("Field '" + field + "' must be an object with latitude and longitude");
+        }
+        Map<String, Object> location = (Map<String, Object>) value;
+        return new Location(number(location, "latitude"), number(location, "longitude"));
+    }
+
+    private static VehicleType vehicleType(String name) {
+        try {
+            return VehicleType.valueOf(name.toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Unknown vehicle type: " + name);
+        }
+    }
+
+    private static void writeLocation(JsonWriter json, Location location) throws IOException {
+        if (location == null) {
+            json.nullValue();
+            return;
+        }
+        json.beginObject()
+                .name("latitude").value(location.getLatitude())
+                .name("longitude").value(location.getLongitude())
+                .endObject();
+    }
+
+    private static void writeInstant(JsonWriter json, Instant instant) throws IOException {
+        json.value(instant == null ? null : instant.toString());
+    }
+
+    private static void writeRider(JsonWriter json, Rider rider) throws IOException {
+        json.beginObject()
+                .name("riderId").value(rider.getRiderId())
+                .name("name").value(rider.getName())
+                .name("email").value(rider.getEmail())
+                .name("phone").value(rider.getPhone())
+                .name("location");
+        writeLocation(json, rider.getRiderLocation());
+        json.endObject();
+    }
+
+    private static void writeDriver(JsonWriter json, Driver driver) throws IOException {
+        json.beginObject()
+                .name("driverId").value(driver.getDriverId())
+                .name("name").value(driver.getName())
+                .name("email").value(driver.getEmail())
+                .name("phone").value(driver.getPhone())
+                .name("available").value(driver.isAvailable())
+                .name("completedRides").value(driver.getCompletedRidesCount())
+                .name("location");
+        writeLocation(json, driver.getDriverLocation());
+        json.endObject();
+    }
+
+    private static void writeRide(JsonWriter json, Ride ride) throws IOException {
+        Driver driver = ride.getDriver();
+        json.beginObject()
+                .name("rideId").value(ride.getRideId())
+                .name("riderId").value(ride.getRider() == null ? null : ride.getRider().getRiderId())
+                .name("driverId").value(driver == null ? null : driver.getDriverId())
+                .name("status").value(ride.getRideStatus() == null ? null : ride.getRideStatus().name())
+                .name("vehicleType").value(ride.getVehicleType() == null ? null : ride.getVehicleType().name())
+                .name("distance").value(ride.getDistance())
+                .name("fare").value(ride.getFare())
+                .name("requestedAt");
+        writeInstant(json, ride.getRequestedAt());
+        json.name("finishedAt");
+        writeInstant(json, ride.getFinishedAt());
+        json.endObject();
+    }
+
+    private static void writeLedgerEntry(JsonWriter json, LedgerEntry entry) throws IOException {
+        json.beginObject()
+                .name("receiptId").value(entry.getReceiptId())
+                .name("rideId").value(entry.getRideId())
+                .name("driverId").value(entry.getDriverId())
+                .name("vehicleType").value(entry.getVehicleType() == null ? null : entry.getVehicleType().name())
+                .name("amount").value(entry.getAmount())
+                .name("generatedAt");
+        writeInstant(json, entry.getGeneratedAt());
+        json.endObject();
+    }
+
+    private static void writeRideCounts(JsonWriter json, RideCounts counts) throws IOException {
+        json.beginObject()
+                .name("requested").value(counts.getRequested())
+                .name("assigned").value(counts.getAssigned())
+                .name("completed").value(counts.getCompleted())
+                .name("cancelled").value(counts.getCancelled())
+                .name("rejected").value(counts.getRejected())
+                .name("cancellationRate").value(counts.getCancellationRate())
+                .name("rejectionRate").value(counts.getRejectionRate())
+                .name("averageDistance").beginObject();
+        for (VehicleType vehicleType : VehicleType.values()) {
+            json.name(vehicleType.name()).value(counts.getAverageDistance(vehicleType));
+        }
+        json.endObject().endObject();
+    }
+
+    private static void writeReceipt(JsonWriter json, FareReceipt receipt) throws IOException {
+        json.beginObject()
+                .name("receiptId").value(receipt.getReceiptId())
+                .name("rideId").value(receipt.getRideId())
+                .name("amount").value(receipt.getAmount())
+                .name("generatedAt");
+        writeInstant(json, receipt.getGeneratedAt());
+        json.endObject();
+    }
+
+    private static final class FixedLengthBody extends ByteArrayOutputStream {
+        private final HttpExchange exchange;
+        private final int status;
+
+        FixedLengthBody(HttpExchange exchange, int status) {
+            super(512);
+            this.exchange = exchange;
+            this.status = status;
+        }
+
+        @Override
+        public void close() throws IOException {
+            exchange.getResponseHeaders().set("Content-Type", CONTENT_TYPE);
+            exchange.sendResponseHeaders(status, count);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(buf, 0, count);
+            }
+        }
+    }
+}
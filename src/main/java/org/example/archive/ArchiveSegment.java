@@ -0,0 +1,188 @@
+package org.example.archive;
+
+import org.example.model.Ride;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+
+/**
+ * One memory-mapped archive file holding up to capacity rides.
+ *
+ * Layout: a 64-byte header (magic, version, capacity, row count) followed by
+ * one fixed-width column per field, each capacity entries long:
+ * distance, fare, requestedAt and finishedAt, then ride, rider and driver id
+ * (8 bytes each), then status and vehicle type (1 byte each, enum ordinal or
+ * -1). Ids are the numeric part the entities carry, so ids of any layout fit;
+ * NO_ID stands for no rider or driver. Timestamps are epoch millis, NO_TIME
+ * for null.
+ *
+ * Appends are serialized by RideArchive. A row is written first and then
+ * published by raising the row count, so readers never see a partial row.
+ */
+final class ArchiveSegment implements AutoCloseable {
+
+    static final long NO_ID = 0;
+    static final long NO_TIME = Long.MIN_VALUE;
+
+    private static final int MAGIC = 0x52574152; // "RWAR"
+    private static final int VERSION = 2;
+    private static final int HEADER_BYTES = 64;
+    private static final int CAPACITY_OFFSET = 8;
+    private static final int ROW_COUNT_OFFSET = 12;
+    private static final int ROW_BYTES = 7 * Long.BYTES + 2;
+    // Column offsets are ints
+    static final int MAX_CAPACITY = (Integer.MAX_VALUE - HEADER_BYTES) / ROW_BYTES;
+
+    private final int capacity;
+    private final FileChannel channel;
+    private final MappedByteBuffer buffer;
+
+    private final int distanceColumn;
+    private final int fareColumn;
+    private final int requestedAtColumn;
+    private final int finishedAtColumn;
+    private final int rideIdColumn;
+    private final int riderIdColumn;
+    private final int driverIdColumn;
+    private final int statusColumn;
+    private final int vehicleTypeColumn;
+
+    private volatile int rowCount;
+
+    private ArchiveSegment(FileChannel channel, int capacity, boolean create) throws IOException {
+        this.capacity = capacity;
+        this.channel = channel;
+        this.buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, HEADER_BYTES + (long) capacity * ROW_BYTES);
+
+        int offset = HEADER_BYTES;
+        this.distanceColumn = offset;
+        this.fareColumn = offset += capacity * Long.BYTES;
+        this.requestedAtColumn = offset += capacity * Long.BYTES;
+        this.finishedAtColumn = offset += capacity * Long.BYTES;
+        this.rideIdColumn = offset += capacity * Long.BYTES;
+        this.riderIdColumn = offset += capacity * Long.BYTES;
+        this.driverIdColumn = offset += capacity * Long.BYTES;
+        this.statusColumn = offset += capacity * Long.BYTES;
+        this.vehicleTypeColumn = offset + capacity;
+
+        if (create) {
+            buffer.putInt(0, MAGIC);
+            buffer.putInt(4, VERSION);
+            buffer.putInt(CAPACITY_OFFSET, capacity);
+            buffer.putInt(ROW_COUNT_OFFSET, 0);
+        } else {
+            this.rowCount = buffer.getInt(ROW_COUNT_OFFSET);
+        }
+    }
+
+    static ArchiveSegment create(Path file, int capacity) throws IOException {
+        FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE_NEW, StandardOpenOption.READ,
+                StandardOpenOption.WRITE);
+        return new ArchiveSegment(channel, capacity, true);
+    }
+
+    static ArchiveSegment open(Path file) throws IOException {
+        FileChannel channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        MappedByteBuffer header = channel.map(FileChannel.MapMode.READ_ONLY, 0, HEADER_BYTES);
+        if (header.getInt(0) != MAGIC) {
+            channel.close();
+            throw new IOException("Not a ride archive segment: " + file);
+        }
+        if (header.getInt(4) != VERSION) {
+            channel.close();
+            throw new IOException("Unsupported archive segment version " + header.getInt(4) + ": " + file);
+        }
+        return new ArchiveSegment(channel, header.getInt(CAPACITY_OFFSET), false);
+    }
+
+    boolean isFull() {
+        return rowCount == capacity;
+    }
+
+    int rowCount() {
+        return rowCount;
+    }
+
+    /**
+     * Writes the ride into the next row. Callers serialize appends and check
+     * the ride has an id.
+     *
+     * @return the row
+     */
+    int append(Ride ride) {
+        int row = rowCount;
+        buffer.putDouble(distanceColumn + row * Long.BYTES, ride.getDistance());
+        buffer.putDouble(fareColumn + row * Long.BYTES, ride.getFare());
+        buffer.putLong(requestedAtColumn + row * Long.BYTES, toMillis(ride.getRequestedAt()));
+        buffer.putLong(finishedAtColumn + row * Long.BYTES, toMillis(ride.getFinishedAt()));
+        buffer.putLong(rideIdColumn + row * Long.BYTES, ride.getId());
+        buffer.putLong(riderIdColumn + row * Long.BYTES, ride.getRider() != null ? ride.getRider().getId() : NO_ID);
+        buffer.putLong(driverIdColumn + row * Long.BYTES,
+                ride.getDriver() != null ? ride.getDriver().getId() : NO_ID);
+        buffer.put(statusColumn + row, (byte) (ride.getRideStatus() != null ? ride.getRideStatus().ordinal() : -1));
+        buffer.put(vehicleTypeColumn + row,
+                (byte) (ride.getVehicleType() != null ? ride.getVehicleType().ordinal() : -1));
+
+        buffer.putInt(ROW_COUNT_OFFSET, row + 1);
+        rowCount = row + 1;
+        return row;
+    }
+
+    double distance(int row) {
+        return buffer.getDouble(distanceColumn + row * Long.BYTES);
+    }
+
+    double fare(int row) {
+        return buffer.getDouble(fareColumn + row * Long.BYTES);
+    }
+
+    long requestedAt(int row) {
+        return buffer.getLong(requestedAtColumn + row * Long.BYTES);
+    }
+
+    long finishedAt(int row) {
+        return buffer.getLong(finishedAtColumn + row * Long.BYTES);
+    }
+
+    long rideId(int row) {
+        return buffer.getLong(rideIdColumn + row * Long.BYTES);
+    }
+
+    long riderId(int row) {
+        return buffer.getLong(riderIdColumn + row * Long.BYTES);
+    }
+
+    long driverId(int row) {
+        return buffer.getLong(driverIdColumn + row * Long.BYTES);
+    }
+
+    byte status(int row) {
+        return buffer.get(statusColumn + row);
+    }
+
+    byte vehicleType(int row) {
+        return buffer.get(vehicleTypeColumn + row);
+    }
+
+    void force() {
+        buffer.force();
+    }
+
+    @Override
+    public void close() throws IOException {
+        buffer.force();
+        channel.close();
+    }
+
+    static long toMillis(Instant instant) {
+        return instant != null ? instant.toEpochMilli() : NO_TIME;
+    }
+
+    static Instant toInstant(long millis) {
+        return millis != NO_TIME ? Instant.ofEpochMilli(millis) : null;
+    }
+}
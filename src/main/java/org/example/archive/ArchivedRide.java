@@ -0,0 +1,151 @@
+package org.example.archive;
+
+import org.example.model.Driver;
+import org.example.model.Ride;
+import org.example.model.RideStatus;
+import org.example.model.Rider;
+import org.example.model.VehicleType;
+import org.example.util.IdGenerator;
+
+import java.time.Instant;
+
+/**
+ * Read-only view of one archived ride. Every getter reads its column in the
+ * mapped segment on demand; the rider and driver are looked up by id, so a
+ * deleted rider or driver comes back as null.
+ */
+public class ArchivedRide extends Ride {
+
+    private final RideArchive archive;
+    private final ArchiveSegment segment;
+    private final int row;
+
+    ArchivedRide(RideArchive archive, ArchiveSegment segment, int row) {
+        this.archive = archive;
+        this.segment = segment;
+        this.row = row;
+    }
+
+    @Override
+    public long getId() {
+        return segment.rideId(row);
+    }
+
+    @Override
+    public String getRideId() {
+        return IdGenerator.RIDES.format(segment.rideId(row));
+    }
+
+    @Override
+    public Rider getRider() {
+        return archive.lookupRider(getRiderId());
+    }
+
+    @Override
+    public Driver getDriver() {
+        return archive.lookupDriver(getDriverId());
+    }
+
+    @Override
+    public double getDistance() {
+        return segment.distance(row);
+    }
+
+    @Override
+    public RideStatus getRideStatus() {
+        byte status = segment.status(row);
+        return status >= 0 ? RideStatus.values()[status] : null;
+    }
+
+    @Override
+    public VehicleType getVehicleType() {
+        byte vehicleType = segment.vehicleType(row);
+        return vehicleType >= 0 ? VehicleType.values()[vehicleType] : null;
+    }
+
+    @Override
+    public double getFare() {
+        return segment.fare(row);
+    }
+
+    @Override
+    public Instant getRequestedAt() {
+        return ArchiveSegment.toInstant(segment.requestedAt(row));
+    }
+
+    @Override
+    public Instant getFinishedAt() {
+        return ArchiveSegment.toInstant(segment.finishedAt(row));
+    }
+
+    /**
+     * Id of the rider, available even if the rider has since been deleted.
+     */
+    public String getRiderId() {
+        long riderId = segment.riderId(row);
+        return riderId != ArchiveSegment.NO_ID ? IdGenerator.RIDERS.format(riderId) : null;
+    }
+
+    /**
+     * Id of the driver, available even if the driver has since been deleted.
+     */
+    public String getDriverId() {
+        long driverId = segment.driverId(row);
+        return driverId != ArchiveSegment.NO_ID ? IdGenerator.DRIVERS.format(driverId) : null;
+    }
+
+    @Override
+    public void setRideId(String rideId) {
+        throw readOnly();
+    }
+
+    @Override
+    public void setRider(Rider rider) {
+        throw readOnly();
+    }
+
+    @Override
+    public void setDriver(Driver driver) {
+        throw readOnly();
+    }
+
+    @Override
+    public void setDistance(double distance) {
+        throw readOnly();
+    }
+
+    @Override
+    public void setRideStatus(RideStatus rideStatus) {
+        throw readOnly();
+    }
+
+    // Archived rides never change status, so no transition succeeds
+    @Override
+    public boolean compareAndSetRideStatus(RideStatus expected, RideStatus rideStatus) {
+        return false;
+    }
+
+    @Override
+    public void setVehicleType(VehicleType vehicleType) {
+        throw readOnly();
+    }
+
+    @Override
+    public void setFare(double fare) {
+        throw readOnly();
+    }
+
+    @Override
+    public void setRequestedAt(Instant requestedAt) {
+        throw readOnly();
+    }
+
+    @Override
+    public void setFinishedAt(Instant finishedAt) {
+        throw readOnly();
+    }
+
+    private static UnsupportedOperationException readOnly() {
+        return new UnsupportedOperationException("Archived rides are read-only");
+    }
+}
@@ -0,0 +1,297 @@
+package org.example.archive;
+
+import org.example.exception.PersistenceException;
+import org.example.model.Driver;
+import org.example.model.Ride;
+import org.example.model.RideStatus;
+import org.example.model.Rider;
+import org.example.model.VehicleType;
+import org.example.util.ConcurrentLongMap;
+import org.example.util.IdGenerator;
+import org.example.util.Page;
+
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Function;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+/**
+ * COLUMNAR ARCHIVE - RideArchive
+ *
+ * Off-heap home for finished (completed or cancelled) rides. Each ride is
+ * written once into fixed-width columns of a memory-mapped segment file and
+ * can then be dropped from the heap; only its id and row position stay in
+ * memory.
+ *
+ * DESIGN DECISIONS:
+ * - Rides come back as ArchivedRide views that read their columns on demand,
+ *   so lookups and searches copy nothing up front
+ * - Riders and drivers are stored by id and resolved through the lookups
+ *   given at construction, instead of pinning the objects
+ * - Aggregates such as revenueByVehicleType scan the relevant columns of the
+ *   mapped buffers directly, without creating any ride objects
+ * - Segments are filled one after the other; a new segment file is created
+ *   when the current one is full. Existing segments are reopened and indexed
+ *   on construction
+ * - Data reaches the disk when the OS writes the mapped pages back, or on
+ *   force()
+ */
+public class RideArchive implements AutoCloseable {
+
+    public static final int DEFAULT_SEGMENT_ROWS = 1 << 16;
+
+    private static final String SEGMENT_PREFIX = "rides-";
+    private static final String SEGMENT_SUFFIX = ".col";
+
+    private final Path directory;
+    private final int segmentRows;
+    private final Function<String, Rider> riderLookup;
+    private final Function<String, Driver> driverLookup;
+    private final CopyOnWriteArrayList<ArchiveSegment> segments;
+    // numeric ride id -> segment index << 32 | row
+    private final ConcurrentLongMap<Long> locations;
+
+    /**
+     * @param riderLookup  rider by id, or null if unknown
+     * @param driverLookup driver by id, or null if unknown
+     */
+    public RideArchive(Path directory, Function<String, Rider> riderLookup, Function<String, Driver> driverLookup) {
+        this(directory, DEFAULT_SEGMENT_ROWS, riderLookup, driverLookup);
+    }
+
+    public RideArchive(Path directory, int segmentRows, Function<String, Rider> riderLookup,
+            Function<String, Driver> driverLookup) {
+        if (segmentRows <= 0 || segmentRows > ArchiveSegment.MAX_CAPACITY) {
+            throw new IllegalArgumentException("Segment rows must be between 1 and "
+                    + ArchiveSegment.MAX_CAPACITY + ". Got: " + segmentRows);
+        }
+        this.directory = directory;
+        this.segmentRows = segmentRows;
+        this.riderLookup = riderLookup;
+        this.driverLookup = driverLookup;
+        this.segments = new CopyOnWriteArrayList<>();
+        this.locations = new ConcurrentLongMap<>();
+        try {
+            Files.createDirectories(directory);
+            openSegments();
+        } catch (IOException e) {
+            throw new PersistenceException("Cannot open ride archive in " + directory, e);
+        }
+    }
+
+    /**
+     * Archives a finished ride. A ride that is already archived is left as is.
+     */
+    public synchronized void append(Ride ride) {
+        RideStatus status = ride.getRideStatus();
+        if (status != RideStatus.COMPLETED && status != RideStatus.CANCELLED) {
+            throw new IllegalArgumentException("Only completed or cancelled rides can be archived: "
+                    + ride.getRideId());
+        }
+        if (ride.getId() <= 0) {
+            throw new IllegalArgumentException("Ride has no id and cannot be archived");
+        }
+        if (locations.containsKey(ride.getId())) {
+            return;
+        }
+        int index = segments.size() - 1;
+        if (index < 0 || segments.get(index).isFull()) {
+            index = segments.size();
+            try {
+                segments.add(ArchiveSegment.create(segmentFile(index), segmentRows));
+            } catch (IOException e) {
+                throw new PersistenceException("Cannot create archive segment " + segmentFile(index), e);
+            }
+        }
+        int row = segments.get(index).append(ride);
+        locations.put(ride.getId(), location(index, row));
+    }
+
+    /**
+     * @return a view of the archived ride, or null if it is not archived
+     */
+    public Ride find(String rideId) {
+        return find(IdGenerator.RIDES.parse(rideId));
+    }
+
+    public Ride find(long rideId) {
+        Long location = locations.get(rideId);
+        if (location == null) {
+            return null;
+        }
+        return new ArchivedRide(this, segments.get((int) (location >>> 32)), (int) (long) location);
+    }
+
+    public boolean contains(String rideId) {
+        return locations.containsKey(IdGenerator.RIDES.parse(rideId));
+    }
+
+    public int size() {
+        return locations.size();
+    }
+
+    /**
+     * Views of every archived ride, in archive order.
+     */
+    public List<Ride> getAll() {
+        return new ArrayList<>(getAllArchived());
+    }
+
+    /**
+     * Views of every archived ride, in archive order, for callers that need the
+     * rider and driver ids even when those entities are not (yet) registered.
+     */
+    public List<ArchivedRide> getAllArchived() {
+        List<ArchivedRide> rides = new ArrayList<>(locations.size());
+        for (ArchiveSegment segment : segments) {
+            int rows = segment.rowCount();
+            for (int row = 0; row < rows; row++) {
+                rides.add(new ArchivedRide(this, segment, row));
+            }
+        }
+        return rides;
+    }
+
+    /**
+     * Views of the archived rides in archive order, created as the stream is
+     * consumed.
+     */
+    public Stream<Ride> stream() {
+        return segments.stream().flatMap(segment -> IntStream.range(0, segment.rowCount())
+                .mapToObj(row -> new ArchivedRide(this, segment, row)));
+    }
+
+    /**
+     * Up to limit archived rides from the cursor on. The cursor is an archive
+     * location (segment and row), and the archive only grows, so pages never
+     * shift; pass Page.FIRST to start and the returned cursor to continue.
+     */
+    public Page<Ride> page(long cursor, int limit) {
+        List<Ride> rides = new ArrayList<>(Math.min(Math.max(limit, 0), 1024));
+        int index = (int) (cursor >>> 32);
+        int row = (int) cursor;
+        while (index < segments.size() && rides.size() < limit) {
+            ArchiveSegment segment = segments.get(index);
+            if (row < segment.rowCount()) {
+                rides.add(new ArchivedRide(this, segment, row++));
+            } else if (index + 1 < segments.size()) {
+                index++;
+                row = 0;
+            } else {
+                break;
+            }
+        }
+        boolean more = index < segments.size()
+                && (row < segments.get(index).rowCount() || index + 1 < segments.size());
+        return new Page<>(rides, location(index, row), more);
+    }
+
+    /**
+     * Archived rides matching the keyword, as in Ride.matchesSearchCriteria.
+     */
+    public List<Ride> search(String keyword) {
+        List<Ride> matches = new ArrayList<>();
+        for (ArchiveSegment segment : segments) {
+            int rows = segment.rowCount();
+            for (int row = 0; row < rows; row++) {
+                ArchivedRide ride = new ArchivedRide(this, segment, row);
+                if (ride.matchesSearchCriteria(keyword)) {
+                    matches.add(ride);
+                }
+            }
+        }
+        return matches;
+    }
+
+    /**
+     * Total fare of completed rides per vehicle type, scanned straight from
+     * the status, vehicle type and fare columns.
+     */
+    public Map<VehicleType, Double> revenueByVehicleType() {
+        VehicleType[] types = VehicleType.values();
+        double[] revenue = new double[types.length];
+        byte completed = (byte) RideStatus.COMPLETED.ordinal();
+        for (ArchiveSegment segment : segments) {
+            int rows = segment.rowCount();
+            for (int row = 0; row < rows; row++) {
+                byte vehicleType = segment.vehicleType(row);
+                if (segment.status(row) == completed && vehicleType >= 0) {
+                    revenue[vehicleType] += segment.fare(row);
+                }
+            }
+        }
+        Map<VehicleType, Double> result = new EnumMap<>(VehicleType.class);
+        for (VehicleType type : types) {
+            result.put(type, revenue[type.ordinal()]);
+        }
+        return Collections.unmodifiableMap(result);
+    }
+
+    /**
+     * Writes all mapped pages back to disk.
+     */
+    public void force() {
+        for (ArchiveSegment segment : segments) {
+            segment.force();
+        }
+    }
+
+    @Override
+    public synchronized void close() {
+        try {
+            for (ArchiveSegment segment : segments) {
+                segment.close();
+            }
+        } catch (IOException e) {
+            throw new PersistenceException("Cannot close ride archive", e);
+        }
+    }
+
+    Rider lookupRider(String riderId) {
+        return riderId != null ? riderLookup.apply(riderId) : null;
+    }
+
+    Driver lookupDriver(String driverId) {
+        return driverId != null ? driverLookup.apply(driverId) : null;
+    }
+
+    private void openSegments() throws IOException {
+        List<Path> files = new ArrayList<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory,
+                SEGMENT_PREFIX + "*" + SEGMENT_SUFFIX)) {
+            for (Path file : stream) {
+                files.add(file);
+            }
+        }
+        Collections.sort(files);
+        for (Path file : files) {
+            int index = segments.size();
+            if (!file.equals(segmentFile(index))) {
+                throw new IOException("Archive segment out of sequence: " + file);
+            }
+            ArchiveSegment segment = ArchiveSegment.open(file);
+            segments.add(segment);
+            int rows = segment.rowCount();
+            for (int row = 0; row < rows; row++) {
+                locations.put(segment.rideId(row), location(index, row));
+            }
+        }
+    }
+
+    private Path segmentFile(int index) {
+        return directory.resolve(String.format("%s%06d%s", SEGMENT_PREFIX, index, SEGMENT_SUFFIX));
+    }
+
+    private static long location(int segment, int row) {
+        return ((long) segment << 32) | (row & 0xffffffffL);
+    }
+}
@@ -0,0 +1,152 @@
+package org.example.event;
+
+import org.example.model.VehicleType;
+import org.example.util.IdGenerator;
+
+/**
+ * One slot of the RideEventJournal. Slots are allocated once with the
+ * journal and overwritten as it wraps, so a handler must copy whatever it
+ * keeps before returning.
+ *
+ * Ids are the numeric ids of the entities (0 when not applicable: a
+ * RIDE_REQUESTED or RIDE_REJECTED event has no ride or driver, only a
+ * completion has a receipt); the getters ending in "Id" give the display
+ * form.
+ */
+public final class RideEvent {
+
+    private RideEventType type;
+    private long timestampMillis;
+    private long ride;
+    private long rider;
+    private long driver;
+    private long receipt;
+    private VehicleType vehicleType;
+    // Trip distance for assignments and later, 0 for requests
+    private double distance;
+    // Driver to pickup, for assignments
+    private double pickupDistance;
+    private double fare;
+    private double pickupLatitude;
+    private double pickupLongitude;
+
+    RideEvent() {
+    }
+
+    // Clears every field, so nothing leaks from the event the slot held before
+    void reset(RideEventType type, long timestampMillis) {
+        this.type = type;
+        this.timestampMillis = timestampMillis;
+        this.ride = 0;
+        this.rider = 0;
+        this.driver = 0;
+        this.receipt = 0;
+        this.vehicleType = null;
+        this.distance = 0;
+        this.pickupDistance = 0;
+        this.fare = 0;
+        this.pickupLatitude = 0;
+        this.pickupLongitude = 0;
+    }
+
+    void setRide(long ride) {
+        this.ride = ride;
+    }
+
+    void setRider(long rider) {
+        this.rider = rider;
+    }
+
+    void setDriver(long driver) {
+        this.driver = driver;
+    }
+
+    void setReceipt(long receipt) {
+        this.receipt = receipt;
+    }
+
+    void setVehicleType(VehicleType vehicleType) {
+        this.vehicleType = vehicleType;
+    }
+
+    void setDistance(double distance) {
+        this.distance = distance;
+    }
+
+    void setPickupDistance(double pickupDistance) {
+        this.pickupDistance = pickupDistance;
+    }
+
+    void setFare(double fare) {
+        this.fare = fare;
+    }
+
+    void setPickup(double latitude, double longitude) {
+        this.pickupLatitude = latitude;
+        this.pickupLongitude = longitude;
+    }
+
+    public RideEventType getType() {
+        return type;
+    }
+
+    public long getTimestampMillis() {
+        return timestampMillis;
+    }
+
+    public long getRide() {
+        return ride;
+    }
+
+    public String getRideId() {
+        return ride == 0 ? null : IdGenerator.RIDES.format(ride);
+    }
+
+    public long getRider() {
+        return rider;
+    }
+
+    public String getRiderId() {
+        return rider == 0 ? null : IdGenerator.RIDERS.format(rider);
+    }
+
+    public long getDriver() {
+        return driver;
+    }
+
+    public String getDriverId() {
+        return driver == 0 ? null : IdGenerator.DRIVERS.format(driver);
+    }
+
+    public long getReceipt() {
+        return receipt;
+    }
+
+    public String getReceiptId() {
+        return receipt == 0 ? null : IdGenerator.RECEIPTS.format(receipt);
+    }
+
+    public VehicleType getVehicleType() {
+        return vehicleType;
+    }
+
+    public double getDistance() {
+        return distance;
+    }
+
+    public double getPickupDistance() {
+        return pickupDistance;
+    }
+
+    public double getFare() {
+        return fare;
+    }
+
+    public double getPickupLatitude() {
+        return pickupLatitude;
+    }
+
+    public double getPickupLongitude() {
+        return pickupLongitude;
+    }
+}
@@ -0,0 +1,118 @@
+package org.example.event;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A subscription to a RideEventJournal: one daemon thread that hands events
+ * to a handler in batches and tracks how far it has read.
+ *
+ * A handler that throws loses only that event: the failure is reported and
+ * counted, and the consumer moves on.
+ */
+public final class RideEventConsumer implements AutoCloseable {
+
+    public static final int MAX_BATCH = 1024;
+
+    private final RideEventJournal journal;
+    private final String name;
+    private final RideEventHandler handler;
+    // Next sequence to read; everything before it has been handled
+    private final AtomicLong cursor;
+    private final AtomicLong failures = new AtomicLong();
+    private final Thread thread;
+    private volatile boolean running = true;
+
+    RideEventConsumer(RideEventJournal journal, String name, RideEventHandler handler, long start) {
+        this.journal = journal;
+        this.name = name;
+        this.handler = handler;
+        this.cursor = new AtomicLong(start);
+        this.thread = new Thread(this::run, "ride-events-" + name);
+        thread.setDaemon(true);
+    }
+
+    void start() {
+        thread.start();
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public long getCursor() {
+        return cursor.get();
+    }
+
+    /**
+     * Events claimed in the journal but not yet handled here.
+     */
+    public long getLag() {
+        return Math.max(0, journal.getClaimedCount() - cursor.get());
+    }
+
+    public long getFailures() {
+        return failures.get();
+    }
+
+    /**
+     * Waits until every event claimed before this call has been handled.
+     *
+     * @return false if the timeout passed first
+     */
+    public boolean awaitCaughtUp(Duration timeout) {
+        long target = journal.getClaimedCount();
+        long deadline = System.nanoTime() + timeout.toNanos();
+        int idle = 0;
+        while (cursor.get() < target) {
+            if (System.nanoTime() - deadline >= 0 || !thread.isAlive()) {
+                return cursor.get() >= target;
+            }
+            idle = RideEventJournal.idle(idle);
+        }
+        return true;
+    }
+
+    /**
+     * Handles what is already published, then stops the thread and stops
+     * holding back producers.
+     */
+    @Override
+    public void close() {
+        running = false;
+        try {
+            thread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        journal.unsubscribe(this);
+    }
+
+    private void run() {
+        long next = cursor.get();
+        int idle = 0;
+        while (true) {
+            boolean stopping = !running;
+            long available = journal.highestPublished(next, next + MAX_BATCH - 1);
+            if (available < next) {
+                if (stopping) {
+                    return;
+                }
+                idle = RideEventJournal.idle(idle);
+                continue;
+            }
+            idle = 0;
+            for (long sequence = next; sequence <= available; sequence++) {
+                try {
+                    handler.onEvent(journal.slot(sequence), sequence, sequence == available);
+                } catch (RuntimeException e) {
+                    failures.incrementAndGet();
+                    System.err.println("Ride event consumer " + name + " failed on event " + sequence + ": "
+                            + e.getMessage());
+                }
+            }
+            next = available + 1;
+            cursor.set(next);
+        }
+    }
+}
@@ -0,0 +1,16 @@
+package org.example.event;
+
+/**
+ * Consumer of journal events, called on the consumer's own thread in
+ * sequence order.
+ */
+public interface RideEventHandler {
+
+    /**
+     * @param event the slot; valid only until this call returns
+     * @param sequence position of the event in the journal
+     * @param endOfBatch true for the last event currently available, the
+     *        moment to flush anything batched up
+     */
+    void onEvent(RideEvent event, long sequence, boolean endOfBatch);
+}
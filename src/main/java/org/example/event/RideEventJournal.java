@@ -0,0 +1,226 @@
+package org.example.event;
+
+import org.example.model.Driver;
+import org.example.model.FareReceipt;
+import org.example.model.Location;
+import org.example.model.Ride;
+import org.example.model.VehicleType;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * RIDE EVENT JOURNAL - RideEventJournal
+ *
+ * In-process ring buffer of ride lifecycle events. RideService records each
+ * transition; consumers (analytics, receipts, replication) read it on their
+ * own threads at their own cursors, so adding one costs the request path
+ * nothing.
+ *
+ * DESIGN DECISIONS:
+ * - Every slot is a RideEvent allocated with the journal and overwritten in
+ *   place: recording an event allocates nothing
+ * - Recording is one slot claim (getAndIncrement on the claim counter), the
+ *   field writes, and one publish (an ordered write of the sequence into the
+ *   slot's published marker). Every slot has exactly one writer per lap, so
+ *   concurrent requests never contend on a slot, only on the claim counter
+ * - Consumers read from their cursor up to the first slot not yet published
+ *   and hand the whole run to the handler as a batch, then move the cursor
+ *   once. A slow consumer never holds back others
+ * - A producer that laps the slowest consumer waits for it (spin, yield, then
+ *   park) rather than overwrite unread events. The slowest cursor is cached,
+ *   so producers only look at consumers when close to lapping
+ * - The capacity is a power of two so the slot is the sequence's low bits
+ */
+public class RideEventJournal implements AutoCloseable {
+
+    public static final int DEFAULT_CAPACITY = 1 << 16;
+
+    private final RideEvent[] slots;
+    private final int mask;
+    // published[slot] = sequence last published there, -1 before the first lap
+    private final AtomicLongArray published;
+    // Next sequence to claim
+    private final AtomicLong claimed = new AtomicLong();
+    private final List<RideEventConsumer> consumers = new CopyOnWriteArrayList<>();
+    // Slowest consumer cursor seen by a producer; never ahead of the real one
+    private volatile long cachedGate;
+
+    public RideEventJournal() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    public RideEventJournal(int capacity) {
+        if (capacity < 2 || Integer.bitCount(capacity) != 1) {
+            throw new IllegalArgumentException("Capacity must be a power of two, got " + capacity);
+        }
+        this.slots = new RideEvent[capacity];
+        for (int i = 0; i < capacity; i++) {
+            slots[i] = new RideEvent();
+        }
+        this.mask = capacity - 1;
+        this.published = new AtomicLongArray(capacity);
+        for (int i = 0; i < capacity; i++) {
+            published.set(i, -1);
+        }
+    }
+
+    /**
+     * Starts a consumer thread that receives every event recorded from now
+     * on. Subscribe consumers before traffic starts to see all of it.
+     */
+    public RideEventConsumer subscribe(String name, RideEventHandler handler) {
+        RideEventConsumer consumer = new RideEventConsumer(this, name, handler, claimed.get());
+        consumers.add(consumer);
+        consumer.start();
+        return consumer;
+    }
+
+    public void rideRequested(long rider, Location pickup, VehicleType vehicleType, long timestampMillis) {
+        long sequence = claim();
+        RideEvent event = slots[(int) sequence & mask];
+        event.reset(RideEventType.RIDE_REQUESTED, timestampMillis);
+        event.setRider(rider);
+        event.setVehicleType(vehicleType);
+        event.setPickup(pickup.getLatitude(), pickup.getLongitude());
+        publish(sequence);
+    }
+
+    public void rideRejected(long rider, Location pickup, VehicleType vehicleType, long timestampMillis) {
+        long sequence = claim();
+        RideEvent event = slots[(int) sequence & mask];
+        event.reset(RideEventType.RIDE_REJECTED, timestampMillis);
+        event.setRider(rider);
+        event.setVehicleType(vehicleType);
+        event.setPickup(pickup.getLatitude(), pickup.getLongitude());
+        publish(sequence);
+    }
+
+    public void rideAssigned(Ride ride, Location pickup, long timestampMillis) {
+        long sequence = claim();
+        RideEvent event = fill(sequence, RideEventType.RIDE_ASSIGNED, ride, timestampMillis);
+        event.setPickup(pickup.getLatitude(), pickup.getLongitude());
+        Driver driver = ride.getDriver();
+        if (driver != null && driver.getDriverLocation() != null) {
+            event.setPickupDistance(driver.getDriverLocation().calculateDistanceTo(pickup));
+        }
+        publish(sequence);
+    }
+
+    public void rideCompleted(Ride ride, FareReceipt receipt, long timestampMillis) {
+        long sequence = claim();
+        RideEvent event = fill(sequence, RideEventType.RIDE_COMPLETED, ride, timestampMillis);
+        event.setFare(receipt.getAmount());
+        event.setReceipt(receipt.getId());
+        publish(sequence);
+    }
+
+    public void rideCancelled(Ride ride, long timestampMillis) {
+        long sequence = claim();
+        fill(sequence, RideEventType.RIDE_CANCELLED, ride, timestampMillis);
+        publish(sequence);
+    }
+
+    public int getCapacity() {
+        return slots.length;
+    }
+
+    /**
+     * Events claimed so far; the next event gets this sequence.
+     */
+    public long getClaimedCount() {
+        return claimed.get();
+    }
+
+    public List<RideEventConsumer> getConsumers() {
+        return List.copyOf(consumers);
+    }
+
+    /**
+     * Stops every consumer after it has handled what was published.
+     */
+    @Override
+    public void close() {
+        for (RideEventConsumer consumer : consumers) {
+            consumer.close();
+        }
+    }
+
+    void unsubscribe(RideEventConsumer consumer) {
+        consumers.remove(consumer);
+    }
+
+    RideEvent slot(long sequence) {
+        return slots[(int) sequence & mask];
+    }
+
+    /**
+     * Highest sequence in [from, limit] such that it and every sequence
+     * before it from `from` are published; from - 1 if `from` is not.
+     */
+    long highestPublished(long from, long limit) {
+        long sequence = from;
+        while (sequence <= limit && published.get((int) sequence & mask) == sequence) {
+            sequence++;
+        }
+        return sequence - 1;
+    }
+
+    private RideEvent fill(long sequence, RideEventType type, Ride ride, long timestampMillis) {
+        RideEvent event = slots[(int) sequence & mask];
+        event.reset(type, timestampMillis);
+        event.setRide(ride.getId());
+        if (ride.getRider() != null) {
+            event.setRider(ride.getRider().getId());
+        }
+        if (ride.getDriver() != null) {
+            event.setDriver(ride.getDriver().getId());
+        }
+        event.setVehicleType(ride.getVehicleType());
+        event.setDistance(ride.getDistance());
+        return event;
+    }
+
+    private long claim() {
+        long sequence = claimed.getAndIncrement();
+        long wrapPoint = sequence - slots.length;
+        if (wrapPoint >= cachedGate) {
+            // The slot still holds an event from the previous lap; wait until
+            // every consumer has read it
+            int idle = 0;
+            long gate;
+            while (wrapPoint >= (gate = slowestCursor(sequence))) {
+                idle = idle(idle);
+            }
+            cachedGate = gate;
+        }
+        return sequence;
+    }
+
+    private void publish(long sequence) {
+        published.lazySet((int) sequence & mask, sequence);
+    }
+
+    private long slowestCursor(long sequence) {
+        long slowest = sequence;
+        for (RideEventConsumer consumer : consumers) {
+            slowest = Math.min(slowest, consumer.getCursor());
+        }
+        return slowest;
+    }
+
+    // Spin, then yield, then park; returns the next idle count
+    static int idle(int idle) {
+        if (idle < 64) {
+            Thread.onSpinWait();
+        } else if (idle < 128) {
+            Thread.yield();
+        } else {
+            LockSupport.parkNanos(50_000);
+        }
+        return idle + 1;
+    }
+}
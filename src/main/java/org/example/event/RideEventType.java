@@ -0,0 +1,17 @@
+package org.example.event;
+
+/**
+ * Ride lifecycle transitions recorded in the RideEventJournal.
+ */
+public enum RideEventType {
+
+    // A rider asked for a ride; no ride exists yet
+    RIDE_REQUESTED,
+    // A driver was reserved and the ride created
+    RIDE_ASSIGNED,
+    RIDE_COMPLETED,
+    RIDE_CANCELLED,
+    // A request found no available driver; no ride was created
+    RIDE_REJECTED,
+
+}
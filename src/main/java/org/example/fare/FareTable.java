@@ -0,0 +1,73 @@
+package org.example.fare;
+
+import org.example.model.Location;
+import org.example.model.VehicleType;
+
+/**
+ * COMPILED FARE TABLE - FareTable
+ *
+ * A RateCard flattened into arrays, so a fare costs a couple of array loads
+ * and a multiply instead of a switch and a walk over the pipeline steps.
+ *
+ * DESIGN DECISIONS:
+ * - The day is cut into BUCKETS buckets of BUCKET_MINUTES; the per-km rate of
+ *   every vehicle type and bucket (base rate times every multiplier whose
+ *   window covers the bucket) is computed once, at compile time
+ * - Zones are kept as a flat array of boxes and only scanned when the table
+ *   has any; a table without zones never looks at the pickup location
+ * - Tables are immutable, so one can be swapped in atomically while fares are
+ *   being computed from the previous one
+ */
+public final class FareTable {
+
+    public static final int BUCKET_MINUTES = 15;
+    public static final int BUCKETS = 24 * 60 / BUCKET_MINUTES;
+
+    // minLat, minLon, maxLat, maxLon, surcharge
+    static final int ZONE_FIELDS = 5;
+
+    private final double[] ratePerKm;
+    private final double[] minimumFare;
+    private final double[] zones;
+    private final double roundingFactor;
+
+    FareTable(double[] ratePerKm, double[] minimumFare, double[] zones, double roundingFactor) {
+        this.ratePerKm = ratePerKm;
+        this.minimumFare = minimumFare;
+        this.zones = zones;
+        this.roundingFactor = roundingFactor;
+    }
+
+    /**
+     * @param minuteOfDay minutes since local midnight, 0 to 1439
+     * @param pickup      pickup location for zone surcharges, or null
+     */
+    public double fare(VehicleType vehicleType, double distance, int minuteOfDay, Location pickup) {
+        int type = vehicleType.ordinal();
+        double fare = ratePerKm[type * BUCKETS + minuteOfDay / BUCKET_MINUTES] * distance;
+        if (zones.length > 0 && pickup != null) {
+            fare += zoneSurcharge(pickup.getLatitude(), pickup.getLongitude());
+        }
+        fare = Math.max(fare, minimumFare[type]);
+        return Math.round(fare * roundingFactor) / roundingFactor;
+    }
+
+    /**
+     * Per-km rate of the vehicle type in the bucket holding minuteOfDay, after
+     * time-of-day multipliers.
+     */
+    public double ratePerKm(VehicleType vehicleType, int minuteOfDay) {
+        return ratePerKm[vehicleType.ordinal() * BUCKETS + minuteOfDay / BUCKET_MINUTES];
+    }
+
+    private double zoneSurcharge(double latitude, double longitude) {
+        double surcharge = 0;
+        for (int at = 0; at < zones.length; at += ZONE_FIELDS) {
+            if (latitude >= zones[at] && longitude >= zones[at + 1]
+                    && latitude <= zones[at + 2] && longitude <= zones[at + 3]) {
+                surcharge += zones[at + 4];
+            }
+        }
+        return surcharge;
+    }
+}
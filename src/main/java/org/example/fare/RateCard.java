@@ -0,0 +1,291 @@
+package org.example.fare;
+
+import org.example.exception.InvalidDataException;
+import org.example.model.VehicleType;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+
+/**
+ * RATE CARD - RateCard
+ *
+ * Describes a fare as a pipeline of steps, applied in this order:
+ * 1. base rate per kilometer for the vehicle type
+ * 2. time-of-day multipliers (overlapping windows multiply)
+ * 3. pickup zone surcharges (a flat amount per zone the pickup lies in)
+ * 4. minimum fare for the vehicle type
+ * 5. rounding to a step (0.01 by default)
+ *
+ * A rate card is only a description; compile() turns it into the FareTable
+ * that fares are computed from.
+ *
+ * Rate-card file format (java.util.Properties):
+ *
+ *   base.CAR=5.0                           per-km rate, one per vehicle type
+ *   minimum.CAR=30                         optional minimum fare
+ *   multiplier.morning=07:00-09:00,1.5     window [from, to), may wrap midnight
+ *   zone.airport=28.54,77.07,28.58,77.13,75  minLat,minLon,maxLat,maxLon,surcharge
+ *   rounding=0.01                          optional rounding step
+ *
+ * Window boundaries must fall on FareTable.BUCKET_MINUTES boundaries.
+ */
+public class RateCard {
+
+    // Base rates per kilometer for each vehicle type
+    public static final double BIKE_BASE_RATE = 2.0;
+    public static final double AUTO_BASE_RATE = 3.5;
+    public static final double CAR_BASE_RATE = 5.0;
+    public static final double BUS_BASE_RATE = 1.5;
+
+    public static final double DEFAULT_ROUNDING_STEP = 0.01;
+
+    private final Map<VehicleType, Double> baseRates;
+    private final Map<VehicleType, Double> minimumFares;
+    private final List<TimeMultiplier> timeMultipliers;
+    private final List<ZoneSurcharge> zoneSurcharges;
+    private double roundingStep;
+
+    public RateCard() {
+        this.baseRates = new EnumMap<>(VehicleType.class);
+        this.minimumFares = new EnumMap<>(VehicleType.class);
+        this.timeMultipliers = new ArrayList<>();
+        this.zoneSurcharges = new ArrayList<>();
+        this.roundingStep = DEFAULT_ROUNDING_STEP;
+    }
+
+    /**
+     * The standard per-km rates, with no multipliers, surcharges or minimums.
+     */
+    public static RateCard standard() {
+        RateCard card = new RateCard();
+        card.setBaseRate(VehicleType.BIKE, BIKE_BASE_RATE);
+        card.setBaseRate(VehicleType.AUTO, AUTO_BASE_RATE);
+        card.setBaseRate(VehicleType.CAR, CAR_BASE_RATE);
+        card.setBaseRate(VehicleType.BUS, BUS_BASE_RATE);
+        return card;
+    }
+
+    public static RateCard load(Path file) throws IOException {
+        Properties properties = new Properties();
+        try (Reader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            properties.load(reader);
+        }
+        try {
+            return parse(properties);
+        } catch (InvalidDataException e) {
+            throw new InvalidDataException(file + ": " + e.getMessage());
+        }
+    }
+
+    public static RateCard parse(Properties properties) {
+        RateCard card = new RateCard();
+        for (String key : properties.stringPropertyNames()) {
+            String value = properties.getProperty(key).trim();
+            if (key.startsWith("base.")) {
+                card.setBaseRate(vehicleType(key, "base."), number(key, value));
+            } else if (key.startsWith("minimum.")) {
+                card.setMinimumFare(vehicleType(key, "minimum."), number(key, value));
+            } else if (key.startsWith("multiplier.")) {
+                String[] parts = fields(key, value, 2);
+                String[] window = parts[0].split("-");
+                if (window.length != 2) {
+                    throw new InvalidDataException(key + ": expected HH:mm-HH:mm, got " + parts[0]);
+                }
+                card.addTimeMultiplier(time(key, window[0]), time(key, window[1]), number(key, parts[1]));
+            } else if (key.startsWith("zone.")) {
+                String[] parts = fields(key, value, 5);
+                card.addZoneSurcharge(key.substring("zone.".length()), number(key, parts[0]), number(key, parts[1]),
+                        number(key, parts[2]), number(key, parts[3]), number(key, parts[4]));
+            } else if (key.equals("rounding")) {
+                card.setRoundingStep(number(key, value));
+            } else {
+                throw new InvalidDataException("Unknown rate-card key: " + key);
+            }
+        }
+        return card;
+    }
+
+    public void setBaseRate(VehicleType vehicleType, double ratePerKm) {
+        if (vehicleType == null) {
+            throw new IllegalArgumentException("Vehicle type cannot be null");
+        }
+        if (!(ratePerKm > 0) || Double.isInfinite(ratePerKm)) {
+            throw new InvalidDataException("Base rate for " + vehicleType + " must be positive. Got: " + ratePerKm);
+        }
+        baseRates.put(vehicleType, ratePerKm);
+    }
+
+    public void setMinimumFare(VehicleType vehicleType, double minimumFare) {
+        if (vehicleType == null) {
+            throw new IllegalArgumentException("Vehicle type cannot be null");
+        }
+        if (!(minimumFare >= 0) || Double.isInfinite(minimumFare)) {
+            throw new InvalidDataException("Minimum fare for " + vehicleType + " cannot be negative. Got: "
+                    + minimumFare);
+        }
+        minimumFares.put(vehicleType, minimumFare);
+    }
+
+    /**
+     * Multiplies fares of rides priced in [from, to). A window whose end is
+     * not after its start wraps past midnight.
+     */
+    public void addTimeMultiplier(LocalTime from, LocalTime to, double multiplier) {
+        if (from == null || to == null) {
+            throw new IllegalArgumentException("Multiplier window cannot be null");
+        }
+        if (!(multiplier > 0) || Double.isInfinite(multiplier)) {
+            throw new InvalidDataException("Multiplier must be positive. Got: " + multiplier);
+        }
+        timeMultipliers.add(new TimeMultiplier(bucketBoundary(from), bucketBoundary(to), multiplier));
+    }
+
+    /**
+     * Adds a flat surcharge to rides picked up inside the box.
+     */
+    public void addZoneSurcharge(String name, double minLatitude, double minLongitude, double maxLatitude,
+            double maxLongitude, double surcharge) {
+        if (!(minLatitude <= maxLatitude) || !(minLongitude <= maxLongitude)) {
+            throw new InvalidDataException("Zone " + name + " has an empty box");
+        }
+        if (!(surcharge >= 0) || Double.isInfinite(surcharge)) {
+            throw new InvalidDataException("Surcharge of zone " + name + " cannot be negative. Got: " + surcharge);
+        }
+        zoneSurcharges.add(new ZoneSurcharge(minLatitude, minLongitude, maxLatitude, maxLongitude, surcharge));
+    }
+
+    public void setRoundingStep(double roundingStep) {
+        if (!(roundingStep > 0) || Double.isInfinite(roundingStep)) {
+            throw new InvalidDataException("Rounding step must be positive. Got: " + roundingStep);
+        }
+        this.roundingStep = roundingStep;
+    }
+
+    /**
+     * Compiles the pipeline into a lookup table.
+     *
+     * @throws InvalidDataException if a vehicle type has no base rate
+     */
+    public FareTable compile() {
+        VehicleType[] types = VehicleType.values();
+        double[] ratePerKm = new double[types.length * FareTable.BUCKETS];
+        double[] minimumFare = new double[types.length];
+        for (VehicleType type : types) {
+            Double baseRate = baseRates.get(type);
+            if (baseRate == null) {
+                throw new InvalidDataException("Rate card has no base rate for " + type);
+            }
+            int row = type.ordinal() * FareTable.BUCKETS;
+            for (int bucket = 0; bucket < FareTable.BUCKETS; bucket++) {
+                double rate = baseRate;
+                for (TimeMultiplier window : timeMultipliers) {
+                    if (window.covers(bucket)) {
+                        rate *= window.multiplier;
+                    }
+                }
+                ratePerKm[row + bucket] = rate;
+            }
+            minimumFare[type.ordinal()] = minimumFares.getOrDefault(type, 0.0);
+        }
+
+        double[] zones = new double[zoneSurcharges.size() * FareTable.ZONE_FIELDS];
+        for (int i = 0; i < zoneSurcharges.size(); i++) {
+            ZoneSurcharge zone = zoneSurcharges.get(i);
+            int at = i * FareTable.ZONE_FIELDS;
+            zones[at] = zone.minLatitude;
+            zones[at + 1] = zone.minLongitude;
+            zones[at + 2] = zone.maxLatitude;
+            zones[at + 3] = zone.maxLongitude;
+            zones[at + 4] = zone.surcharge;
+        }
+        return new FareTable(ratePerKm, minimumFare, zones, 1 / roundingStep);
+    }
+
+    private static int bucketBoundary(LocalTime time) {
+        int minutes = time.getHour() * 60 + time.getMinute();
+        if (minutes % FareTable.BUCKET_MINUTES != 0 || time.getSecond() != 0 || time.getNano() != 0) {
+            throw new InvalidDataException("Multiplier windows must start and end on a multiple of "
+                    + FareTable.BUCKET_MINUTES + " minutes. Got: " + time);
+        }
+        return minutes / FareTable.BUCKET_MINUTES;
+    }
+
+    private static VehicleType vehicleType(String key, String prefix) {
+        try {
+            return VehicleType.valueOf(key.substring(prefix.length()));
+        } catch (IllegalArgumentException e) {
+            throw new InvalidDataException("Unknown vehicle type in " + key);
+        }
+    }
+
+    private static double number(String key, String value) {
+        try {
+            return Double.parseDouble(value.trim());
+        } catch (NumberFormatException e) {
+            throw new InvalidDataException(key + ": not a number: " + value);
+        }
+    }
+
+    private static LocalTime time(String key, String value) {
+        try {
+            return LocalTime.parse(value.trim());
+        } catch (DateTimeParseException e) {
+            throw new InvalidDataException(key + ": not a time: " + value);
+        }
+    }
+
+    private static String[] fields(String key, String value, int count) {
+        String[] parts = value.split(",");
+        if (parts.length != count) {
+            throw new InvalidDataException(key + ": expected " + count + " comma-separated values, got " + value);
+        }
+        return parts;
+    }
+
+    private static final class TimeMultiplier {
+        final int fromBucket;
+        final int toBucket;
+        final double multiplier;
+
+        TimeMultiplier(int fromBucket, int toBucket, double multiplier) {
+            this.fromBucket = fromBucket;
+            this.toBucket = toBucket;
+            this.multiplier = multiplier;
+        }
+
+        boolean covers(int bucket) {
+            if (fromBucket < toBucket) {
+                return bucket >= fromBucket && bucket < toBucket;
+            }
+            // Wraps past midnight (or covers the whole day when from == to)
+            return bucket >= fromBucket || bucket < toBucket;
+        }
+    }
+
+    private static final class ZoneSurcharge {
+        final double minLatitude;
+        final double minLongitude;
+        final double maxLatitude;
+        final double maxLongitude;
+        final double surcharge;
+
+        ZoneSurcharge(double minLatitude, double minLongitude, double maxLatitude, double maxLongitude,
+                double surcharge) {
+            this.minLatitude = minLatitude;
+            this.minLongitude = minLongitude;
+            this.maxLatitude = maxLatitude;
+            this.maxLongitude = maxLongitude;
+            this.surcharge = surcharge;
+        }
+    }
+}
@@ -0,0 +1,375 @@
+package org.example.fare;
+
+import org.example.model.Driver;
+import org.example.model.Location;
+import org.example.util.CoarseClock;
+import org.example.util.ConcurrentLongMap;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.Supplier;
+
+/**
+ * SURGE PRICING ENGINE - SurgeEngine
+ *
+ * Keeps sliding-window counts of ride requests and of requests rejected for
+ * lack of drivers per grid cell, and turns them into a fare multiplier per
+ * cell by comparing demand with the available drivers around the cell.
+ *
+ * DESIGN DECISIONS:
+ * - Each cell counts in SLOTS ring slots covering the window; a slot packs
+ *   the slot's epoch and its count into one long, so an increment is a single
+ *   CAS that also resets a stale slot. Recording never takes a lock (except
+ *   a stripe lock the first time a cell is seen) and never blocks dispatch
+ * - Epochs are counted from the engine's creation, not from 1970, so they
+ *   fit the 40 bits left beside the count even with 1 ms slots
+ * - Multipliers are recomputed on a background tick, not on the request path.
+ *   Supply is counted from the available drivers at each tick over the cell
+ *   and its eight neighbours, since those drivers serve the cell too
+ * - multiplier = 1 + sensitivity * (demand / supply - 1), clamped to
+ *   [1, maxMultiplier], smoothed against the previous tick and published in
+ *   MULTIPLIER_STEP steps; demand counts each rejection rejectionWeight times
+ * - Published multipliers are an immutable open-addressing table swapped in
+ *   whole, so multiplierAt is a hash and a probe
+ * - Cells with no demand in the window and no surge are dropped at the tick;
+ *   a request racing the drop may go uncounted
+ */
+public class SurgeEngine implements AutoCloseable {
+
+    public static final double DEFAULT_CELL_SIZE_DEGREES = 0.02; // ~2.2 km at the equator
+    public static final Duration DEFAULT_WINDOW = Duration.ofMinutes(5);
+    public static final double MULTIPLIER_STEP = 0.1;
+
+    private static final double STEPS_PER_UNIT = 1 / MULTIPLIER_STEP;
+    private static final int SLOTS = 10;
+    private static final int COUNT_BITS = 24;
+    private static final long COUNT_MASK = (1L << COUNT_BITS) - 1;
+
+    private final Supplier<? extends Collection<Driver>> availableDrivers;
+    private final CoarseClock clock;
+    private final double cellSizeDegrees;
+    private final int lonCells;
+    private final long slotMillis;
+    private final long startMillis;
+    private final ConcurrentLongMap<Cell> cells;
+    private final Object scheduleLock = new Object();
+    private ScheduledExecutorService scheduler; // guarded by scheduleLock
+    private volatile SurgeTable table;
+
+    private volatile double sensitivity = 0.5;
+    private volatile double maxMultiplier = 3.0;
+    private volatile double rejectionWeight = 2.0;
+    private volatile double smoothing = 0.5;
+
+    /**
+     * @param availableDrivers the available drivers, read at each tick; pass
+     *                         DriverService::getAvailableDrivers
+     */
+    public SurgeEngine(Supplier<? extends Collection<Driver>> availableDrivers) {
+        this(availableDrivers, CoarseClock.system(), DEFAULT_CELL_SIZE_DEGREES, DEFAULT_WINDOW);
+    }
+
+    public SurgeEngine(Supplier<? extends Collection<Driver>> availableDrivers, CoarseClock clock, double cellSizeDegrees,
+            Duration window) {
+        if (availableDrivers == null || clock == null) {
+            throw new IllegalArgumentException("Driver supplier and clock cannot be null");
+        }
+        if (cellSizeDegrees <= 0 || cellSizeDegrees > 90) {
+            throw new IllegalArgumentException("Cell size must be between 0 and 90 degrees. Got: " + cellSizeDegrees);
+        }
+        if (window == null || window.toMillis() < SLOTS) {
+            throw new IllegalArgumentException("Window must be at least " + SLOTS + " ms");
+        }
+        this.availableDrivers = availableDrivers;
+        this.clock = clock;
+        this.cellSizeDegrees = cellSizeDegrees;
+        this.lonCells = (int) Math.ceil(360 / cellSizeDegrees);
+        this.slotMillis = window.toMillis() / SLOTS;
+        this.startMillis = clock.currentTimeMillis();
+        this.cells = new ConcurrentLongMap<>();
+        this.table = SurgeTable.EMPTY;
+    }
+
+    /**
+     * Counts a ride request picked up at the location.
+     */
+    public void recordRequest(Location pickup) {
+        if (pickup != null) {
+            Cell cell = cellFor(cellOf(pickup));
+            cell.increment(cell.requests, epoch());
+        }
+    }
+
+    /**
+     * Counts a request at the location that found no available driver.
+     */
+    public void recordRejection(Location pickup) {
+        if (pickup != null) {
+            Cell cell = cellFor(cellOf(pickup));
+            cell.increment(cell.rejections, epoch());
+        }
+    }
+
+    /**
+     * Current multiplier for rides picked up at the location; 1.0 outside
+     * surging cells.
+     */
+    public double multiplierAt(Location location) {
+        return location != null ? table.get(cellOf(location)) : 1.0;
+    }
+
+    /**
+     * Recomputes every cell's multiplier from the window and the available
+     * drivers, and publishes them.
+     */
+    public synchronized void recompute() {
+        long epoch = epoch();
+
+        // 1. Available drivers per cell
+        Map<Long, Integer> drivers = new HashMap<>();
+        for (Driver driver : availableDrivers.get()) {
+            if (driver.getDriverLocation() != null) {
+                drivers.merge(cellOf(driver.getDriverLocation()), 1, Integer::sum);
+            }
+        }
+
+        // 2. New multiplier per cell with demand or a surge to wind down
+        double sensitivity = this.sensitivity;
+        double maxMultiplier = this.maxMultiplier;
+        double rejectionWeight = this.rejectionWeight;
+        double smoothing = this.smoothing;
+        Map<Long, Double> surging = new HashMap<>();
+        cells.forEach((key, cell) -> {
+            long requests = cell.sum(cell.requests, epoch);
+            long rejections = cell.sum(cell.rejections, epoch);
+            double demand = requests + rejectionWeight * rejections;
+            if (demand == 0 && cell.multiplier <= 1.0) {
+                cells.computeIfPresent(key, (k, current) -> current.isIdle(epoch) ? null : current);
+                return;
+            }
+            double target = 1 + sensitivity * (demand / Math.max(1, supplyAround(drivers, key)) - 1);
+            target = Math.min(maxMultiplier, Math.max(1.0, target));
+            cell.multiplier += smoothing * (target - cell.multiplier);
+            double published = Math.round(cell.multiplier * STEPS_PER_UNIT) / STEPS_PER_UNIT;
+            if (published > 1.0) {
+                surging.put(key, published);
+            } else if (target <= 1.0) {
+                cell.multiplier = 1.0; // wound down; the cell can be dropped once idle
+            }
+        });
+
+        // 3. Publish
+        table = new SurgeTable(surging);
+    }
+
+    /**
+     * Recomputes multipliers every interval on a background thread.
+     */
+    public void start(Duration interval) {
+        if (interval == null || interval.isNegative() || interval.isZero()) {
+            throw new IllegalArgumentException("Surge interval must be positive");
+        }
+        long intervalNanos = interval.toNanos();
+        synchronized (scheduleLock) {
+            if (scheduler != null) {
+                throw new IllegalStateException("Surge recomputation is already scheduled");
+            }
+            scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "surge-engine");
+                thread.setDaemon(true);
+                return thread;
+            });
+            scheduler.scheduleWithFixedDelay(() -> {
+                try {
+                    recompute();
+                } catch (RuntimeException e) {
+                    // Keep the schedule alive; the last multipliers stay published
+                    System.err.println("Surge recomputation failed: " + e.getMessage());
+                }
+            }, intervalNanos, intervalNanos, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    @Override
+    public void close() {
+        synchronized (scheduleLock) {
+            if (scheduler != null) {
+                scheduler.shutdownNow();
+                scheduler = null;
+            }
+        }
+    }
+
+    public double getCellSizeDegrees() {
+        return cellSizeDegrees;
+    }
+
+    /**
+     * Number of cells with a multiplier above 1.
+     */
+    public int getSurgingCellCount() {
+        return table.size();
+    }
+
+    public void setSensitivity(double sensitivity) {
+        if (!(sensitivity >= 0)) {
+            throw new IllegalArgumentException("Sensitivity cannot be negative. Got: " + sensitivity);
+        }
+        this.sensitivity = sensitivity;
+    }
+
+    public void setMaxMultiplier(double maxMultiplier) {
+        if (!(maxMultiplier >= 1)) {
+            throw new IllegalArgumentException("Maximum multiplier must be at least 1. Got: " + maxMultiplier);
+        }
+        this.maxMultiplier = maxMultiplier;
+    }
+
+    public void setRejectionWeight(double rejectionWeight) {
+        if (!(rejectionWeight >= 0)) {
+            throw new IllegalArgumentException("Rejection weight cannot be negative. Got: " + rejectionWeight);
+        }
+        this.rejectionWeight = rejectionWeight;
+    }
+
+    /**
+     * Share of the gap to the new target closed at each tick, in (0, 1]; 1
+     * jumps straight to the target.
+     */
+    public void setSmoothing(double smoothing) {
+        if (!(smoothing > 0 && smoothing <= 1)) {
+            throw new IllegalArgumentException("Smoothing must be in (0, 1]. Got: " + smoothing);
+        }
+        this.smoothing = smoothing;
+    }
+
+    // Slots since the engine was created; a clock stepped back before then reads as 0
+    private long epoch() {
+        return Math.max(0, clock.currentTimeMillis() - startMillis) / slotMillis;
+    }
+
+    private Cell cellFor(long key) {
+        Cell cell = cells.get(key);
+        if (cell == null) {
+            cell = cells.compute(key, (k, existing) -> existing != null ? existing : new Cell());
+        }
+        return cell;
+    }
+
+    private int supplyAround(Map<Long, Integer> drivers, long key) {
+        long row = key / lonCells;
+        long column = key % lonCells;
+        int supply = 0;
+        for (long r = row - 1; r <= row + 1; r++) {
+            for (long c = column - 1; c <= column + 1; c++) {
+                // Wrap around the antimeridian
+                long wrapped = (c + lonCells) % lonCells;
+                supply += drivers.getOrDefault(r * lonCells + wrapped, 0);
+            }
+        }
+        return supply;
+    }
+
+    private long cellOf(Location location) {
+        long row = (long) Math.floor((location.getLatitude() + 90) / cellSizeDegrees);
+        long column = (long) Math.floor((location.getLongitude() + 180) / cellSizeDegrees);
+        column = Math.max(0, Math.min(lonCells - 1, column));
+        return row * lonCells + column;
+    }
+
+    private static final class Cell {
+        // Per slot: epoch << COUNT_BITS | count
+        final AtomicLongArray requests = new AtomicLongArray(SLOTS);
+        final AtomicLongArray rejections = new AtomicLongArray(SLOTS);
+        // Smoothed multiplier; only touched by recompute
+        double multiplier = 1.0;
+
+        void increment(AtomicLongArray slots, long epoch) {
+            int slot = (int) (epoch % SLOTS);
+            for (;;) {
+                long current = slots.get(slot);
+                long seen = current >>> COUNT_BITS;
+                long updated;
+                if (seen == epoch) {
+                    if ((current & COUNT_MASK) == COUNT_MASK) {
+                        return; // saturated
+                    }
+                    updated = current + 1;
+                } else if (seen < epoch) {
+                    updated = epoch << COUNT_BITS | 1; // stale slot, start it over
+                } else {
+                    return; // slot already belongs to a later epoch
+                }
+                if (slots.compareAndSet(slot, current, updated)) {
+                    return;
+                }
+            }
+        }
+
+        long sum(AtomicLongArray slots, long epoch) {
+            long sum = 0;
+            for (int i = 0; i < SLOTS; i++) {
+                long value = slots.get(i);
+                long seen = value >>> COUNT_BITS;
+                if (seen <= epoch && seen > epoch - SLOTS) {
+                    sum += value & COUNT_MASK;
+                }
+            }
+            return sum;
+        }
+
+        boolean isIdle(long epoch) {
+            return sum(requests, epoch) == 0 && sum(rejections, epoch) == 0 && multiplier <= 1.0;
+        }
+    }
+
+    // Immutable cell -> multiplier table, linear probing
+    private static final class SurgeTable {
+        static final SurgeTable EMPTY = new SurgeTable(new HashMap<>());
+
+        private final long[] keys;
+        private final double[] multipliers;
+        private final int mask;
+        private final int size;
+
+        SurgeTable(Map<Long, Double> surging) {
+            int capacity = Integer.highestOneBit(Math.max(1, surging.size()) * 2) * 2;
+            this.keys = new long[capacity];
+            this.multipliers = new double[capacity];
+            this.mask = capacity - 1;
+            this.size = surging.size();
+            for (Map.Entry<Long, Double> entry : surging.entrySet()) {
+                int slot = home(entry.getKey(), mask);
+                while (multipliers[slot] != 0) {
+                    slot = (slot + 1) & mask;
+                }
+                keys[slot] = entry.getKey();
+                multipliers[slot] = entry.getValue();
+            }
+        }
+
+        double get(long key) {
+            for (int slot = home(key, mask); multipliers[slot] != 0; slot = (slot + 1) & mask) {
+                if (keys[slot] == key) {
+                    return multipliers[slot];
+                }
+            }
+            return 1.0;
+        }
+
+        int size() {
+            return size;
+        }
+
+        private static int home(long key, int mask) {
+            long hash = key * 0x9E3779B97F4A7C15L;
+            return (int) (hash ^ (hash >>> 32)) & mask;
+        }
+    }
+}
@@ -0,0 +1,38 @@
+package org.example.ledger;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Running total of fares and the number of receipts behind it, for one
+ * rollup key (a driver, a driver's day, a vehicle type, an hour).
+ *
+ * Amounts are kept in whole paise in LongAdders: adding never takes a lock
+ * or retries on contention, and sums do not drift the way repeated double
+ * additions do.
+ */
+public final class Earnings {
+
+    private final LongAdder paise = new LongAdder();
+    private final LongAdder receipts = new LongAdder();
+
+    Earnings() {
+    }
+
+    void add(long amountPaise) {
+        paise.add(amountPaise);
+        receipts.increment();
+    }
+
+    public double getAmount() {
+        return paise.sum() / 100.0;
+    }
+
+    public long getReceiptCount() {
+        return receipts.sum();
+    }
+
+    public double getAverageFare() {
+        long count = receipts.sum();
+        return count == 0 ? 0 : paise.sum() / 100.0 / count;
+    }
+}
@@ -0,0 +1,84 @@
+package org.example.ledger;
+
+import org.example.model.FareReceipt;
+import org.example.model.VehicleType;
+import org.example.util.IdGenerator;
+
+import java.time.Instant;
+
+/**
+ * One receipt as recorded in the ledger. Immutable.
+ */
+public final class LedgerEntry {
+
+    private final long receipt;
+    private final long ride;
+    private final long driver;
+    private final VehicleType vehicleType;
+    private final long amountPaise;
+    private final long generatedAtMillis;
+
+    LedgerEntry(long receipt, long ride, long driver, VehicleType vehicleType, long amountPaise,
+            long generatedAtMillis) {
+        this.receipt = receipt;
+        this.ride = ride;
+        this.driver = driver;
+        this.vehicleType = vehicleType;
+        this.amountPaise = amountPaise;
+        this.generatedAtMillis = generatedAtMillis;
+    }
+
+    public String getReceiptId() {
+        return IdGenerator.RECEIPTS.format(receipt);
+    }
+
+    public String getRideId() {
+        return IdGenerator.RIDES.format(ride);
+    }
+
+    /**
+     * The driver who was paid, or null if the ride had none.
+     */
+    public String getDriverId() {
+        return driver == 0 ? null : IdGenerator.DRIVERS.format(driver);
+    }
+
+    public VehicleType getVehicleType() {
+        return vehicleType;
+    }
+
+    public double getAmount() {
+        return amountPaise / 100.0;
+    }
+
+    public Instant getGeneratedAt() {
+        return Instant.ofEpochMilli(generatedAtMillis);
+    }
+
+    /**
+     * The receipt as RideService issued it.
+     */
+    public FareReceipt toReceipt() {
+        return new FareReceipt(receipt, getRideId(), getAmount(), getGeneratedAt());
+    }
+
+    long getReceipt() {
+        return receipt;
+    }
+
+    long getRide() {
+        return ride;
+    }
+
+    long getDriver() {
+        return driver;
+    }
+
+    long getAmountPaise() {
+        return amountPaise;
+    }
+
+    long getGeneratedAtMillis() {
+        return generatedAtMillis;
+    }
+}
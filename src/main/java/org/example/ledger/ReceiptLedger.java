@@ -0,0 +1,298 @@
+package org.example.ledger;
+
+import org.example.event.RideEvent;
+import org.example.event.RideEventHandler;
+import org.example.event.RideEventType;
+import org.example.exception.PersistenceException;
+import org.example.model.VehicleType;
+import org.example.util.ConcurrentLongMap;
+import org.example.util.IdGenerator;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * RECEIPT LEDGER - ReceiptLedger
+ *
+ * Append-only record of every fare receipt, looked up by receipt id or ride
+ * id, with earnings rolled up per driver, per driver and day, per vehicle
+ * type and per hour as receipts arrive.
+ *
+ * DESIGN DECISIONS:
+ * - Fed by the ride event journal (subscribe it as a handler); completions
+ *   reach the ledger shortly after completeRide returns, off the request
+ *   path. append() may also be called directly
+ * - Every rollup is updated on append, so an earnings query is one or two
+ *   hash lookups and a sum over a few LongAdder cells, however many
+ *   receipts there are
+ * - Entries and rollups are keyed by the numeric ids in ConcurrentLongMaps;
+ *   amounts are whole paise
+ * - A receipt id is recorded once: appending it again is ignored, so a
+ *   replayed event cannot count a fare twice
+ * - Days are calendar days in the ledger's zone; hours are clock hours
+ * - Optionally kept in a file of fixed-size entry records (open): the file
+ *   is read back on open and every new receipt is appended to it. Records
+ *   are not fsynced one by one; receipts whose completion is still in the
+ *   write-ahead log are restored by RecoveryManager, and a torn last record
+ *   is dropped
+ */
+public class ReceiptLedger implements RideEventHandler, AutoCloseable {
+
+    private static final long HOUR_MILLIS = 3_600_000;
+    // receipt, ride, driver, vehicle type, amount in paise, generated at
+    private static final int RECORD_BYTES = 8 + 8 + 8 + 1 + 8 + 8;
+
+    private final ZoneId zone;
+    private final ConcurrentLongMap<LedgerEntry> byReceipt;
+    private final ConcurrentLongMap<LedgerEntry> byRide;
+    private final ConcurrentLongMap<DriverEarnings> byDriver;
+    private final ConcurrentLongMap<Earnings> byHour; // key: hours since the epoch
+    private final Earnings[] byVehicleType;
+    private final Earnings total;
+    private volatile FileChannel file;
+
+    public ReceiptLedger() {
+        this(ZoneId.systemDefault());
+    }
+
+    public ReceiptLedger(ZoneId zone) {
+        this.zone = zone;
+        this.byReceipt = new ConcurrentLongMap<>();
+        this.byRide = new ConcurrentLongMap<>();
+        this.byDriver = new ConcurrentLongMap<>();
+        this.byHour = new ConcurrentLongMap<>();
+        this.byVehicleType = new Earnings[VehicleType.values().length];
+        for (int i = 0; i < byVehicleType.length; i++) {
+            byVehicleType[i] = new Earnings();
+        }
+        this.total = new Earnings();
+    }
+
+    /**
+     * Loads the receipts recorded in the file, creating it if needed, and
+     * records every receipt appended from now on there as well.
+     */
+    public synchronized void open(Path file) {
+        if (this.file != null) {
+            throw new IllegalStateException("Ledger file is already open");
+        }
+        try {
+            if (file.getParent() != null) {
+                Files.createDirectories(file.getParent());
+            }
+            FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                    StandardOpenOption.WRITE);
+            long records = channel.size() / RECORD_BYTES;
+            ByteBuffer buffer = ByteBuffer.allocate(RECORD_BYTES * 1024);
+            channel.position(0);
+            for (long read = 0; read < records; ) {
+                buffer.clear().limit((int) Math.min(buffer.capacity(), (records - read) * RECORD_BYTES));
+                while (buffer.hasRemaining()) {
+                    if (channel.read(buffer) < 0) {
+                        throw new IOException("Ledger file shrank while loading");
+                    }
+                }
+                buffer.flip();
+                while (buffer.remaining() >= RECORD_BYTES) {
+                    long receipt = buffer.getLong();
+                    long ride = buffer.getLong();
+                    long driver = buffer.getLong();
+                    byte vehicleType = buffer.get();
+                    long paise = buffer.getLong();
+                    long generatedAtMillis = buffer.getLong();
+                    record(new LedgerEntry(receipt, ride, driver,
+                            vehicleType >= 0 ? VehicleType.values()[vehicleType] : null, paise, generatedAtMillis));
+                    read++;
+                }
+            }
+            // Drop a torn last record, so appends stay aligned
+            channel.truncate(records * RECORD_BYTES);
+            channel.position(records * RECORD_BYTES);
+            this.file = channel;
+        } catch (IOException e) {
+            throw new PersistenceException("Cannot open receipt ledger " + file, e);
+        }
+    }
+
+    @Override
+    public void onEvent(RideEvent event, long sequence, boolean endOfBatch) {
+        if (event.getType() == RideEventType.RIDE_COMPLETED) {
+            append(event.getReceipt(), event.getRide(), event.getDriver(), event.getVehicleType(), event.getFare(),
+                    event.getTimestampMillis());
+        }
+    }
+
+    /**
+     * Records a receipt and adds it to every rollup.
+     *
+     * @param driver numeric driver id, 0 if the ride had none
+     * @return false if the receipt was already recorded
+     */
+    public boolean append(long receipt, long ride, long driver, VehicleType vehicleType, double amount,
+            long generatedAtMillis) {
+        if (receipt <= 0 || ride <= 0) {
+            throw new IllegalArgumentException("Receipt and ride ids are required");
+        }
+        LedgerEntry entry = new LedgerEntry(receipt, ride, driver, vehicleType, Math.round(amount * 100),
+                generatedAtMillis);
+        if (!record(entry)) {
+            return false;
+        }
+        FileChannel file = this.file;
+        if (file != null) {
+            write(file, entry);
+        }
+        return true;
+    }
+
+    private boolean record(LedgerEntry entry) {
+        long ride = entry.getRide();
+        long driver = entry.getDriver();
+        VehicleType vehicleType = entry.getVehicleType();
+        long paise = entry.getAmountPaise();
+        long generatedAtMillis = entry.getGeneratedAtMillis();
+
+        // 1. Store, once per receipt id
+        if (byReceipt.compute(entry.getReceipt(), (key, existing) -> existing == null ? entry : existing) != entry) {
+            return false;
+        }
+        byRide.put(ride, entry);
+
+        // 2. Rollups
+        total.add(paise);
+        if (vehicleType != null) {
+            byVehicleType[vehicleType.ordinal()].add(paise);
+        }
+        hourly(Math.floorDiv(generatedAtMillis, HOUR_MILLIS)).add(paise);
+        if (driver != 0) {
+            DriverEarnings earnings = byDriver.get(driver);
+            if (earnings == null) {
+                earnings = byDriver.compute(driver, (key, existing) -> existing != null ? existing
+                        : new DriverEarnings());
+            }
+            earnings.total.add(paise);
+            earnings.daily(epochDay(generatedAtMillis)).add(paise);
+        }
+        return true;
+    }
+
+    private static void write(FileChannel file, LedgerEntry entry) {
+        ByteBuffer record = ByteBuffer.allocate(RECORD_BYTES);
+        record.putLong(entry.getReceipt()).putLong(entry.getRide()).putLong(entry.getDriver())
+                .put((byte) (entry.getVehicleType() != null ? entry.getVehicleType().ordinal() : -1))
+                .putLong(entry.getAmountPaise()).putLong(entry.getGeneratedAtMillis()).flip();
+        try {
+            // Whole records only, whatever the number of writers
+            synchronized (file) {
+                while (record.hasRemaining()) {
+                    file.write(record);
+                }
+            }
+        } catch (IOException e) {
+            throw new PersistenceException("Cannot record receipt " + entry.getReceiptId(), e);
+        }
+    }
+
+    public LedgerEntry getByReceiptId(String receiptId) {
+        return byReceipt.get(IdGenerator.RECEIPTS.parse(receiptId));
+    }
+
+    public LedgerEntry getByRideId(String rideId) {
+        return byRide.get(IdGenerator.RIDES.parse(rideId));
+    }
+
+    /**
+     * Everything the driver has earned; zero for an unknown driver.
+     */
+    public Earnings getDriverEarnings(String driverId) {
+        DriverEarnings earnings = byDriver.get(IdGenerator.DRIVERS.parse(driverId));
+        return earnings == null ? new Earnings() : earnings.total;
+    }
+
+    /**
+     * What the driver earned on the given day in the ledger's zone.
+     */
+    public Earnings getDriverEarnings(String driverId, LocalDate day) {
+        DriverEarnings earnings = byDriver.get(IdGenerator.DRIVERS.parse(driverId));
+        Earnings daily = earnings == null ? null : earnings.byDay.get(day.toEpochDay());
+        return daily == null ? new Earnings() : daily;
+    }
+
+    public Earnings getVehicleTypeEarnings(VehicleType vehicleType) {
+        return byVehicleType[vehicleType.ordinal()];
+    }
+
+    /**
+     * Receipts issued in the clock hour containing the given instant.
+     */
+    public Earnings getHourlyEarnings(Instant hour) {
+        Earnings earnings = byHour.get(Math.floorDiv(hour.toEpochMilli(), HOUR_MILLIS));
+        return earnings == null ? new Earnings() : earnings;
+    }
+
+    public Earnings getTotalEarnings() {
+        return total;
+    }
+
+    public int size() {
+        return byReceipt.size();
+    }
+
+    public ZoneId getZone() {
+        return zone;
+    }
+
+    /**
+     * Writes the ledger file back to disk and closes it; the ledger stays
+     * readable and keeps further receipts in memory only.
+     */
+    @Override
+    public synchronized void close() {
+        FileChannel file = this.file;
+        if (file == null) {
+            return;
+        }
+        this.file = null;
+        try {
+            synchronized (file) {
+                file.force(false);
+                file.close();
+            }
+        } catch (IOException e) {
+            throw new PersistenceException("Cannot close receipt ledger", e);
+        }
+    }
+
+    private Earnings hourly(long hour) {
+        Earnings earnings = byHour.get(hour);
+        if (earnings == null) {
+            earnings = byHour.compute(hour, (key, existing) -> existing != null ? existing : new Earnings());
+        }
+        return earnings;
+    }
+
+    private long epochDay(long millis) {
+        Instant instant = Instant.ofEpochMilli(millis);
+        long offsetSeconds = zone.getRules().getOffset(instant).getTotalSeconds();
+        return Math.floorDiv(Math.floorDiv(millis, 1000) + offsetSeconds, 86_400);
+    }
+
+    private static final class DriverEarnings {
+        final Earnings total = new Earnings();
+        // Key: epoch day. A driver works a few hundred days at most, which does not
+        // warrant a striped primitive map per driver
+        final ConcurrentHashMap<Long, Earnings> byDay = new ConcurrentHashMap<>();
+
+        Earnings daily(long day) {
+            return byDay.computeIfAbsent(day, key -> new Earnings());
+        }
+    }
+}
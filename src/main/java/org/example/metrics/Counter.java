@@ -0,0 +1,42 @@
+package org.example.metrics;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Monotonic count. Increments go to a LongAdder, so threads do not contend on
+ * one cache line; reads add up its cells.
+ */
+public final class Counter implements Metric {
+
+    private final String name;
+    private final String help;
+    private final LongAdder count;
+
+    Counter(String name, String help) {
+        this.name = name;
+        this.help = help;
+        this.count = new LongAdder();
+    }
+
+    public void increment() {
+        count.increment();
+    }
+
+    public void add(long amount) {
+        count.add(amount);
+    }
+
+    public long get() {
+        return count.sum();
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public String getHelp() {
+        return help;
+    }
+}
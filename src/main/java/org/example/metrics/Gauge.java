@@ -0,0 +1,33 @@
+package org.example.metrics;
+
+import java.util.function.LongSupplier;
+
+/**
+ * Current value read from its source each time it is exported.
+ */
+public final class Gauge implements Metric {
+
+    private final String name;
+    private final String help;
+    private final LongSupplier source;
+
+    Gauge(String name, String help, LongSupplier source) {
+        this.name = name;
+        this.help = help;
+        this.source = source;
+    }
+
+    public long get() {
+        return source.getAsLong();
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public String getHelp() {
+        return help;
+    }
+}
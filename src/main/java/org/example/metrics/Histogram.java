@@ -0,0 +1,199 @@
+package org.example.metrics;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * LOG-LINEAR HISTOGRAM - Histogram
+ *
+ * Distribution of non-negative long values (latencies in nanoseconds, counts
+ * per operation) with a bounded relative error, in the style of
+ * HdrHistogram.
+ *
+ * DESIGN DECISIONS:
+ * - Values below 2 * SUB_BUCKETS are counted exactly; above that every power
+ *   of two is split into SUB_BUCKETS linear buckets, so a reported percentile
+ *   is within 1 / SUB_BUCKETS (about 3%) of the recorded value. Values up to
+ *   2^MAX_VALUE_BITS (about 4.9 hours in nanoseconds) fit; larger ones are
+ *   clamped
+ * - Recording goes to one of several stripes picked by the recording thread,
+ *   so threads do not contend on the same counters; snapshot() merges the
+ *   stripes. A fixed set of stripes rather than one recorder per thread keeps
+ *   memory bounded when many short-lived (virtual) threads record
+ * - record is allocation-free: a bucket index from the leading zeros of the
+ *   value and three atomic updates on the thread's stripe
+ * - unitScale converts recorded values to the exported unit (1e-9 turns
+ *   nanoseconds into seconds)
+ */
+public final class Histogram implements Metric {
+
+    public static final int SUB_BUCKET_BITS = 5;
+    public static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    public static final int MAX_VALUE_BITS = 44;
+
+    private static final long MAX_VALUE = (1L << MAX_VALUE_BITS) - 1;
+    static final int BUCKETS = index(MAX_VALUE) + 1;
+
+    private final String name;
+    private final String help;
+    private final double unitScale;
+    private final Stripe[] stripes;
+
+    Histogram(String name, String help, double unitScale) {
+        this.name = name;
+        this.help = help;
+        this.unitScale = unitScale;
+        int count = Integer.highestOneBit(Math.min(64, Runtime.getRuntime().availableProcessors() * 2 - 1)) * 2;
+        this.stripes = new Stripe[count];
+        for (int i = 0; i < count; i++) {
+            stripes[i] = new Stripe();
+        }
+    }
+
+    public void record(long value) {
+        long clamped = Math.max(0, Math.min(value, MAX_VALUE));
+        Stripe stripe = stripes[stripeIndex()];
+        stripe.counts.getAndIncrement(index(clamped));
+        stripe.sum.getAndAdd(clamped);
+        long max = stripe.max.get();
+        while (clamped > max && !stripe.max.compareAndSet(max, clamped)) {
+            max = stripe.max.get();
+        }
+    }
+
+    /**
+     * Records the time elapsed since startNanos, a System.nanoTime() reading.
+     */
+    public void recordSince(long startNanos) {
+        record(System.nanoTime() - startNanos);
+    }
+
+    /**
+     * Merged counts of every stripe. Recording may go on meanwhile, so the
+     * snapshot is not an atomic cut, but every value it sees is counted once.
+     */
+    public Snapshot snapshot() {
+        long[] counts = new long[BUCKETS];
+        long sum = 0;
+        long max = 0;
+        for (Stripe stripe : stripes) {
+            for (int i = 0; i < BUCKETS; i++) {
+                counts[i] += stripe.counts.get(i);
+            }
+            sum += stripe.sum.get();
+            max = Math.max(max, stripe.max.get());
+        }
+        return new Snapshot(counts, sum, max, unitScale);
+    }
+
+    public double getUnitScale() {
+        return unitScale;
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public String getHelp() {
+        return help;
+    }
+
+    static int index(long value) {
+        if (value < 2 * SUB_BUCKETS) {
+            return (int) value;
+        }
+        int shift = 63 - Long.numberOfLeadingZeros(value) - SUB_BUCKET_BITS;
+        return shift * SUB_BUCKETS + (int) (value >>> shift);
+    }
+
+    // Largest value counted in the bucket
+    static long highestValue(int index) {
+        if (index < 2 * SUB_BUCKETS) {
+            return index;
+        }
+        int shift = index / SUB_BUCKETS - 1;
+        long mantissa = index - (long) shift * SUB_BUCKETS;
+        return ((mantissa + 1) << shift) - 1;
+    }
+
+    private int stripeIndex() {
+        long h = Thread.currentThread().getId() * 0x9E3779B97F4A7C15L;
+        return (int) (h >>> 32) & (stripes.length - 1);
+    }
+
+    private static final class Stripe {
+        final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+        final AtomicLong sum = new AtomicLong();
+        final AtomicLong max = new AtomicLong();
+    }
+
+    /**
+     * Point-in-time view of a histogram; values are in the recorded unit
+     * unless stated otherwise.
+     */
+    public static final class Snapshot {
+        private final long[] counts;
+        private final long count;
+        private final long sum;
+        private final long max;
+        private final double unitScale;
+
+        Snapshot(long[] counts, long sum, long max, double unitScale) {
+            long total = 0;
+            for (long c : counts) {
+                total += c;
+            }
+            this.counts = counts;
+            this.count = total;
+            this.sum = sum;
+            this.max = max;
+            this.unitScale = unitScale;
+        }
+
+        public long getCount() {
+            return count;
+        }
+
+        public long getSum() {
+            return sum;
+        }
+
+        public long getMax() {
+            return max;
+        }
+
+        public double getMean() {
+            return count == 0 ? 0 : (double) sum / count;
+        }
+
+        /**
+         * Smallest value that at least the given percentage of recorded values
+         * do not exceed, to within the bucket resolution.
+         *
+         * @param percentile between 0 and 100
+         */
+        public long getValueAtPercentile(double percentile) {
+            if (count == 0) {
+                return 0;
+            }
+            long rank = Math.max(1, (long) Math.ceil(count * Math.min(100, Math.max(0, percentile)) / 100));
+            long seen = 0;
+            for (int i = 0; i < counts.length; i++) {
+                seen += counts[i];
+                if (seen >= rank) {
+                    return Math.min(highestValue(i), max);
+                }
+            }
+            return max;
+        }
+
+        /**
+         * Factor that converts recorded values to the exported unit.
+         */
+        public double getUnitScale() {
+            return unitScale;
+        }
+    }
+}
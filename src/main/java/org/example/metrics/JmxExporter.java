@@ -0,0 +1,137 @@
+package org.example.metrics;
+
+import javax.management.Attribute;
+import javax.management.AttributeList;
+import javax.management.AttributeNotFoundException;
+import javax.management.DynamicMBean;
+import javax.management.JMException;
+import javax.management.MBeanAttributeInfo;
+import javax.management.MBeanInfo;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * JMX VIEW OF A REGISTRY - JmxExporter
+ *
+ * A DynamicMBean with one read-only attribute per counter and gauge, and
+ * name_count, name_mean, name_p50, name_p99, name_p999 and name_max per
+ * histogram (in the histogram's exported unit).
+ *
+ * DESIGN DECISIONS:
+ * - The attribute list is rebuilt from the registry whenever a JMX client
+ *   asks for it, so metrics registered later show up without re-registering
+ * - Histogram attributes take a fresh snapshot on every read
+ */
+public class JmxExporter implements DynamicMBean, AutoCloseable {
+
+    public static final String DEFAULT_OBJECT_NAME = "org.example.ridewise:type=Metrics";
+
+    private static final String[] HISTOGRAM_SUFFIXES = {"_count", "_mean", "_p50", "_p99", "_p999", "_max"};
+
+    private final MetricsRegistry registry;
+    private final MBeanServer server;
+    private final ObjectName objectName;
+
+    /**
+     * Registers the registry with the platform MBean server under the name.
+     */
+    public JmxExporter(MetricsRegistry registry, String objectName) throws JMException {
+        this.registry = registry;
+        this.server = ManagementFactory.getPlatformMBeanServer();
+        this.objectName = new ObjectName(objectName);
+        server.registerMBean(this, this.objectName);
+    }
+
+    @Override
+    public Object getAttribute(String attribute) throws AttributeNotFoundException {
+        Metric metric = registry.get(attribute);
+        if (metric instanceof Counter) {
+            return ((Counter) metric).get();
+        }
+        if (metric instanceof Gauge) {
+            return ((Gauge) metric).get();
+        }
+        for (String suffix : HISTOGRAM_SUFFIXES) {
+            if (attribute.endsWith(suffix)) {
+                Metric base = registry.get(attribute.substring(0, attribute.length() - suffix.length()));
+                if (base instanceof Histogram) {
+                    return histogramAttribute(((Histogram) base).snapshot(), suffix);
+                }
+            }
+        }
+        throw new AttributeNotFoundException(attribute);
+    }
+
+    @Override
+    public AttributeList getAttributes(String[] attributes) {
+        AttributeList list = new AttributeList();
+        for (String attribute : attributes) {
+            try {
+                list.add(new Attribute(attribute, getAttribute(attribute)));
+            } catch (AttributeNotFoundException e) {
+                // Left out, as the DynamicMBean contract allows
+            }
+        }
+        return list;
+    }
+
+    @Override
+    public void setAttribute(Attribute attribute) throws AttributeNotFoundException {
+        throw new AttributeNotFoundException("Metrics are read-only: " + attribute.getName());
+    }
+
+    @Override
+    public AttributeList setAttributes(AttributeList attributes) {
+        return new AttributeList();
+    }
+
+    @Override
+    public Object invoke(String actionName, Object[] params, String[] signature) {
+        throw new UnsupportedOperationException("No operations: " + actionName);
+    }
+
+    @Override
+    public MBeanInfo getMBeanInfo() {
+        List<MBeanAttributeInfo> attributes = new ArrayList<>();
+        for (Metric metric : registry.getMetrics()) {
+            if (metric instanceof Histogram) {
+                for (String suffix : HISTOGRAM_SUFFIXES) {
+                    String type = suffix.equals("_count") ? Long.class.getName() : Double.class.getName();
+                    attributes.add(new MBeanAttributeInfo(metric.getName() + suffix, type, metric.getHelp(),
+                            true, false, false));
+                }
+            } else {
+                attributes.add(new MBeanAttributeInfo(metric.getName(), Long.class.getName(), metric.getHelp(),
+                        true, false, false));
+            }
+        }
+        return new MBeanInfo(getClass().getName(), "RideWise metrics",
+                attributes.toArray(new MBeanAttributeInfo[0]), null, null, null);
+    }
+
+    @Override
+    public void close() throws JMException {
+        server.unregisterMBean(objectName);
+    }
+
+    private static Object histogramAttribute(Histogram.Snapshot snapshot, String suffix) {
+        double scale = snapshot.getUnitScale();
+        switch (suffix) {
+            case "_count":
+                return snapshot.getCount();
+            case "_mean":
+                return snapshot.getMean() * scale;
+            case "_p50":
+                return snapshot.getValueAtPercentile(50) * scale;
+            case "_p99":
+                return snapshot.getValueAtPercentile(99) * scale;
+            case "_p999":
+                return snapshot.getValueAtPercentile(99.9) * scale;
+            default:
+                return snapshot.getMax() * scale;
+        }
+    }
+}
@@ -0,0 +1,14 @@
+package org.example.metrics;
+
+/**
+ * A named, documented instrument held by a MetricsRegistry.
+ */
+public interface Metric {
+
+    /**
+     * Prometheus-style name: lower case, words separated by underscores.
+     */
+    String getName();
+
+    String getHelp();
+}
@@ -0,0 +1,83 @@
+package org.example.metrics;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.function.LongSupplier;
+import java.util.regex.Pattern;
+
+/**
+ * METRICS REGISTRY - MetricsRegistry
+ *
+ * Creates and holds the instruments of a process under unique names, for the
+ * exporters to read.
+ *
+ * DESIGN DECISIONS:
+ * - Instruments are created once and then used directly by the code they
+ *   measure; the registry is only consulted to export them
+ * - Asking for an existing name returns the existing instrument if it is of
+ *   the same kind, so independent components can share one
+ * - Metrics are kept sorted by name, which gives a stable export order
+ */
+public class MetricsRegistry {
+
+    private static final Pattern NAME = Pattern.compile("[a-z_][a-z0-9_]*");
+
+    private final ConcurrentSkipListMap<String, Metric> metrics;
+
+    public MetricsRegistry() {
+        this.metrics = new ConcurrentSkipListMap<>();
+    }
+
+    public Counter counter(String name, String help) {
+        return register(Counter.class, new Counter(checkName(name), help));
+    }
+
+    /**
+     * Histogram of durations recorded in nanoseconds and exported in seconds.
+     */
+    public Histogram latency(String name, String help) {
+        return register(Histogram.class, new Histogram(checkName(name), help, 1e-9));
+    }
+
+    /**
+     * Histogram of plain values, exported as recorded.
+     */
+    public Histogram histogram(String name, String help) {
+        return register(Histogram.class, new Histogram(checkName(name), help, 1));
+    }
+
+    public Gauge gauge(String name, String help, LongSupplier source) {
+        return register(Gauge.class, new Gauge(checkName(name), help, source));
+    }
+
+    public Metric get(String name) {
+        return metrics.get(name);
+    }
+
+    /**
+     * Every metric, sorted by name.
+     */
+    public List<Metric> getMetrics() {
+        return new ArrayList<>(metrics.values());
+    }
+
+    private <M extends Metric> M register(Class<M> kind, M metric) {
+        Metric existing = metrics.putIfAbsent(metric.getName(), metric);
+        if (existing == null) {
+            return metric;
+        }
+        if (!kind.isInstance(existing)) {
+            throw new IllegalArgumentException("Metric " + metric.getName() + " is already registered as a "
+                    + existing.getClass().getSimpleName());
+        }
+        return kind.cast(existing);
+    }
+
+    private static String checkName(String name) {
+        if (name == null || !NAME.matcher(name).matches()) {
+            throw new IllegalArgumentException("Invalid metric name: " + name);
+        }
+        return name;
+    }
+}
@@ -0,0 +1,105 @@
+package org.example.metrics;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * PROMETHEUS ENDPOINT - PrometheusExporter
+ *
+ * Serves a registry in the Prometheus text format (version 0.0.4) at
+ * /metrics on a local port, using the JDK's built-in HTTP server.
+ *
+ * DESIGN DECISIONS:
+ * - Histograms are exported as summaries (quantiles, _sum, _count) because a
+ *   log-linear histogram has far more buckets than a scrape should carry
+ * - Binds to the loopback address only; put a proxy in front to expose it
+ * - One handler thread: a scrape is cheap and scrapes are seconds apart
+ */
+public class PrometheusExporter implements AutoCloseable {
+
+    public static final String CONTENT_TYPE = "text/plain; version=0.0.4; charset=utf-8";
+
+    private static final double[] QUANTILES = {0.5, 0.9, 0.99, 0.999};
+
+    private final MetricsRegistry registry;
+    private final HttpServer server;
+
+    /**
+     * Starts serving; port 0 picks a free port.
+     */
+    public PrometheusExporter(MetricsRegistry registry, int port) throws IOException {
+        this.registry = registry;
+        this.server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), 0);
+        server.createContext("/metrics", this::handle);
+        server.start();
+    }
+
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    /**
+     * The registry in the text exposition format.
+     */
+    public static String scrape(MetricsRegistry registry) {
+        StringBuilder out = new StringBuilder(4096);
+        for (Metric metric : registry.getMetrics()) {
+            String name = metric.getName();
+            out.append("# HELP ").append(name).append(' ').append(escapeHelp(metric.getHelp())).append('\n');
+            if (metric instanceof Counter) {
+                out.append("# TYPE ").append(name).append(" counter\n");
+                out.append(name).append(' ').append(((Counter) metric).get()).append('\n');
+            } else if (metric instanceof Gauge) {
+                out.append("# TYPE ").append(name).append(" gauge\n");
+                out.append(name).append(' ').append(((Gauge) metric).get()).append('\n');
+            } else if (metric instanceof Histogram) {
+                Histogram.Snapshot snapshot = ((Histogram) metric).snapshot();
+                double scale = snapshot.getUnitScale();
+                out.append("# TYPE ").append(name).append(" summary\n");
+                for (double quantile : QUANTILES) {
+                    out.append(name).append("{quantile=\"").append(quantile).append("\"} ")
+                            .append(format(snapshot.getValueAtPercentile(quantile * 100) * scale)).append('\n');
+                }
+                out.append(name).append("_sum ").append(format(snapshot.getSum() * scale)).append('\n');
+                out.append(name).append("_count ").append(snapshot.getCount()).append('\n');
+            }
+        }
+        return out.toString();
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        try {
+            if (!"GET".equals(exchange.getRequestMethod())) {
+                exchange.sendResponseHeaders(405, -1);
+                return;
+            }
+            byte[] body = scrape(registry).getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().set("Content-Type", CONTENT_TYPE);
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        } finally {
+            exchange.close();
+        }
+    }
+
+    private static String format(double value) {
+        return Double.toString(value);
+    }
+
+    private static String escapeHelp(String help) {
+        return help.replace("\\", "\\\\").replace("\n", "\\n");
+    }
+}
@@ -0,0 +1,53 @@
+package org.example.metrics;
+
+/**
+ * The instruments RideService records into, registered under ridewise_*
+ * names. Attach one with RideService.setMetrics.
+ */
+public class RideMetrics {
+
+    private final Histogram requestRideLatency;
+    private final Histogram completeRideLatency;
+    private final Histogram cancelRideLatency;
+    private final Histogram findDriverLatency;
+    private final Histogram driversScanned;
+    private final Counter noDriverAvailable;
+
+    public RideMetrics(MetricsRegistry registry) {
+        this.requestRideLatency = registry.latency("ridewise_request_ride_seconds",
+                "Time to match, reserve and record a requested ride, including failed requests");
+        this.completeRideLatency = registry.latency("ridewise_complete_ride_seconds",
+                "Time to complete a ride and issue its receipt");
+        this.cancelRideLatency = registry.latency("ridewise_cancel_ride_seconds", "Time to cancel a ride");
+        this.findDriverLatency = registry.latency("ridewise_find_driver_seconds",
+                "Time spent in the matching strategy per attempt");
+        this.driversScanned = registry.histogram("ridewise_drivers_scanned",
+                "Drivers the matching strategy looked at per attempt");
+        this.noDriverAvailable = registry.counter("ridewise_no_driver_available_total",
+                "Ride requests rejected because no driver was available");
+    }
+
+    public Histogram getRequestRideLatency() {
+        return requestRideLatency;
+    }
+
+    public Histogram getCompleteRideLatency() {
+        return completeRideLatency;
+    }
+
+    public Histogram getCancelRideLatency() {
+        return cancelRideLatency;
+    }
+
+    public Histogram getFindDriverLatency() {
+        return findDriverLatency;
+    }
+
+    public Histogram getDriversScanned() {
+        return driversScanned;
+    }
+
+    public Counter getNoDriverAvailable() {
+        return noDriverAvailable;
+    }
+}
@@ -0,0 +1,68 @@
+package org.example.model;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Outcome of dispatching a batch of ride requests together.
+ */
+public class BatchDispatchResult {
+
+    private final Map<RideRequest, Ride> assignedRides;
+    private final List<RideRequest> unassignedRequests;
+    private final double totalPickupDistance;
+    private final long solveTimeNanos;
+    private final long totalTimeNanos;
+
+    public BatchDispatchResult(Map<RideRequest, Ride> assignedRides, List<RideRequest> unassignedRequests,
+            double totalPickupDistance, long solveTimeNanos, long totalTimeNanos) {
+        this.assignedRides = Collections.unmodifiableMap(assignedRides);
+        this.unassignedRequests = Collections.unmodifiableList(unassignedRequests);
+        this.totalPickupDistance = totalPickupDistance;
+        this.solveTimeNanos = solveTimeNanos;
+        this.totalTimeNanos = totalTimeNanos;
+    }
+
+    /**
+     * Rides created for the batch, keyed by the request they serve, in request order.
+     */
+    public Map<RideRequest, Ride> getAssignedRides() {
+        return assignedRides;
+    }
+
+    public List<RideRequest> getUnassignedRequests() {
+        return unassignedRequests;
+    }
+
+    /**
+     * Sum of driver-to-pickup distances (km) over the assigned rides.
+     */
+    public double getTotalPickupDistance() {
+        return totalPickupDistance;
+    }
+
+    /**
+     * Time spent in the assignment solver alone.
+     */
+    public long getSolveTimeNanos() {
+        return solveTimeNanos;
+    }
+
+    /**
+     * Time for the whole batch: candidate lookup, solve, reservation and ride creation.
+     */
+    public long getTotalTimeNanos() {
+        return totalTimeNanos;
+    }
+
+    public void display() {
+        System.out.println("Batch Size: " + (assignedRides.size() + unassignedRequests.size()));
+        System.out.println("Assigned: " + assignedRides.size());
+        System.out.println("Unassigned: " + unassignedRequests.size());
+        System.out.println("Total Pickup Distance: " + String.format("%.2f", totalPickupDistance) + " km");
+        System.out.println("Solve Time: " + String.format("%.3f", solveTimeNanos / 1e6) + " ms");
+        System.out.println("Total Time: " + String.format("%.3f", totalTimeNanos / 1e6) + " ms");
+        System.out.println("-------------------");
+    }
+}
@@ -3,32 +3,64 @@ package org.example.model;
 import org.example.Interface.Searchable;
 import org.example.util.IdGenerator;
 
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
 public class Driver implements Searchable {
 
+    private static final int OFFLINE = 0;
+    private static final int AVAILABLE = 1;
+    private static final int RESERVED = 2;
+
+    private long id;
+    // Display form of the id, built on first use
     private String driverId;
     private String name;
     private String email;
     private String phone;
-    private Location driverLocation;
-    private boolean isAvailable;
-    private int completedRidesCount;
+    // Replaced as a whole on every move, so readers always see a consistent position
+    private volatile Location driverLocation;
+    private volatile long locationTimestamp;
+    // Availability word: OFFLINE, AVAILABLE or RESERVED for a ride. tryReserve flips it with a
+    // CAS so only one dispatcher can claim the driver
+    private final AtomicInteger state = new AtomicInteger(OFFLINE);
+    // Several rides of one driver can complete concurrently, so the count is atomic too
+    private final AtomicInteger completedRidesCount = new AtomicInteger();
 
     public Driver() {
-        this.completedRidesCount = 0;
     }
 
     public Driver(String name, String email, String phone, Location driverLocation, boolean isAvailable) {
-        this.driverId = IdGenerator.generateDriverId();
+        this.id = IdGenerator.DRIVERS.next();
         this.name = name;
         this.email = email;
         this.phone = phone;
         this.driverLocation = driverLocation;
-        this.isAvailable = isAvailable;
-        this.completedRidesCount = 0;
+        this.state.set(isAvailable ? AVAILABLE : OFFLINE);
+    }
+
+    public long getId() {
+        return id;
     }
 
     public String getDriverId() {
-        return driverId;
+        String display = driverId;
+        if (display == null && id > 0) {
+            display = IdGenerator.DRIVERS.format(id);
+            driverId = display;
+        }
+        return display;
+    }
+
+    // Used when restoring persisted entities
+    public void setDriverId(String driverId) {
+        long parsed = IdGenerator.DRIVERS.parse(driverId);
+        if (parsed <= 0) {
+            throw new IllegalArgumentException("Not a driver id: " + driverId);
+        }
+        this.id = parsed;
+        this.driverId = driverId;
     }
 
     public String getName() {
@@ -63,27 +95,79 @@ public class Driver implements Searchable {
         this.driverLocation = driverLocation;
     }
 
+    /**
+     * Device time (epoch millis) of the position in driverLocation, or 0 if it
+     * was never reported through location ingestion.
+     */
+    public long getLocationTimestamp() {
+        return locationTimestamp;
+    }
+
+    public void setLocationTimestamp(long locationTimestamp) {
+        this.locationTimestamp = locationTimestamp;
+    }
+
     public boolean isAvailable() {
-        return isAvailable;
+        return state.get() == AVAILABLE;
     }
 
+    /**
+     * Makes the driver available, or takes them offline. Either ends a
+     * reservation.
+     */
     public void setAvailable(boolean available) {
-        isAvailable = available;
+        state.set(available ? AVAILABLE : OFFLINE);
+    }
+
+    /**
+     * True while the driver is held for a ride by tryReserve or
+     * markReserved, as opposed to being offline.
+     */
+    public boolean isReserved() {
+        return state.get() == RESERVED;
+    }
+
+    /**
+     * Atomically claims an available driver.
+     *
+     * @return true if this call moved the driver from available to unavailable,
+     *         false if someone else already holds it
+     */
+    public boolean tryReserve() {
+        return state.compareAndSet(AVAILABLE, RESERVED);
+    }
+
+    /**
+     * Holds the driver for a ride whatever their availability, e.g. for an
+     * assigned ride restored at startup.
+     */
+    public void markReserved() {
+        state.set(RESERVED);
     }
 
     public int getCompletedRidesCount() {
-        return completedRidesCount;
+        return completedRidesCount.get();
     }
 
     public void setCompletedRidesCount(int completedRidesCount) {
-        this.completedRidesCount = completedRidesCount;
+        this.completedRidesCount.set(completedRidesCount);
     }
 
     /**
      * Increments the completed rides count by 1
      */
     public void incrementCompletedRides() {
-        this.completedRidesCount++;
+        completedRidesCount.incrementAndGet();
+    }
+
+    @Override
+    public List<String> searchableTerms() {
+        return Arrays.asList(name, email, getDriverId());
+    }
+
+    @Override
+    public List<String> exactSearchableTerms() {
+        return Arrays.asList(phone);
     }
 
     @Override
@@ -95,7 +179,7 @@ public class Driver implements Searchable {
         return (name != null && name.toLowerCase().contains(lowerKeyword)) ||
                 (email != null && email.toLowerCase().contains(lowerKeyword)) ||
                 (phone != null && phone.contains(keyword)) ||
-                (driverId != null && driverId.toLowerCase().contains(lowerKeyword));
+                (getDriverId() != null && getDriverId().toLowerCase().contains(lowerKeyword));
     }
 
     @Override
@@ -105,7 +189,7 @@ public class Driver implements Searchable {
     }
 
     public void display() {
-        System.out.println("Driver ID: " + driverId);
+        System.out.println("Driver ID: " + getDriverId());
         System.out.println("Name: " + name);
         System.out.println("Email: " + email);
         System.out.println("Phone: " + phone);
@@ -113,8 +197,8 @@ public class Driver implements Searchable {
             System.out
                     .println("Location: (" + driverLocation.getLatitude() + ", " + driverLocation.getLongitude() + ")");
         }
-        System.out.println("Available: " + (isAvailable ? "Yes" : "No"));
-        System.out.println("Completed Rides: " + completedRidesCount);
+        System.out.println("Available: " + (isAvailable() ? "Yes" : "No"));
+        System.out.println("Completed Rides: " + completedRidesCount.get());
         System.out.println("-------------------");
     }
 }
@@ -4,10 +4,15 @@ import org.example.Interface.Searchable;
 import org.example.util.IdGenerator;
 
 import java.time.Instant;
+import java.time.ZoneId;
 import java.time.format.DateTimeFormatter;
+import java.util.Arrays;
+import java.util.List;
 
 public class FareReceipt implements Searchable {
 
+    private long id;
+    // Display form of the id, built on first use
     private String receiptId;
     private String rideId;
     private double amount;
@@ -17,14 +22,33 @@ public class FareReceipt implements Searchable {
     }
 
     public FareReceipt(String rideId, double amount, Instant generatedAt) {
-        this.receiptId = IdGenerator.generateReceiptId();
+        this.id = IdGenerator.RECEIPTS.next();
         this.rideId = rideId;
         this.amount = amount;
         this.generatedAt = generatedAt;
     }
 
+    /**
+     * A receipt issued earlier, with its original id.
+     */
+    public FareReceipt(long id, String rideId, double amount, Instant generatedAt) {
+        this.id = id;
+        this.rideId = rideId;
+        this.amount = amount;
+        this.generatedAt = generatedAt;
+    }
+
+    public long getId() {
+        return id;
+    }
+
     public String getReceiptId() {
-        return receiptId;
+        String display = receiptId;
+        if (display == null && id > 0) {
+            display = IdGenerator.RECEIPTS.format(id);
+            receiptId = display;
+        }
+        return display;
     }
 
     public String getRideId() {
@@ -51,13 +75,23 @@ public class FareReceipt implements Searchable {
         this.generatedAt = generatedAt;
     }
 
+    @Override
+    public List<String> searchableTerms() {
+        return Arrays.asList(getReceiptId(), rideId);
+    }
+
+    @Override
+    public List<String> exactSearchableTerms() {
+        return Arrays.asList(String.valueOf(amount));
+    }
+
     @Override
     public boolean matchesSearchCriteria(String keyword) {
         if (keyword == null || keyword.trim().isEmpty()) {
             return false;
         }
         String lowerKeyword = keyword.toLowerCase();
-        return (receiptId != null && receiptId.toLowerCase().contains(lowerKeyword)) ||
+        return (getReceiptId() != null && getReceiptId().toLowerCase().contains(lowerKeyword)) ||
                 (rideId != null && rideId.toLowerCase().contains(lowerKeyword)) ||
                 String.valueOf(amount).contains(keyword);
     }
@@ -69,11 +103,12 @@ public class FareReceipt implements Searchable {
     }
 
     public void display() {
-        System.out.println("Receipt ID: " + receiptId);
+        System.out.println("Receipt ID: " + getReceiptId());
         System.out.println("Ride ID: " + rideId);
         System.out.println("Amount: ₹" + String.format("%.2f", amount));
         if (generatedAt != null) {
-            DateTimeFormatter formatter = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+            DateTimeFormatter formatter = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss")
+                    .withZone(ZoneId.systemDefault());
             System.out.println("Generated At: " + formatter.format(generatedAt));
         }
         System.out.println("-------------------");
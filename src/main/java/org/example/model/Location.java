@@ -2,14 +2,24 @@ package org.example.model;
 
 public class Location {
 
+    private static final double EARTH_RADIUS_KM = 6371; // Radius of the Earth in kilometers
+
     private final double latitude;
 
     private final double longitude;
 
+    // Cached trigonometry so distance calls do not repeat toRadians/cos per point
+    private final double latitudeRad;
+    private final double longitudeRad;
+    private final double cosLatitude;
+
     public Location(double latitude, double longitude) {
         validateCoordinates(latitude, longitude);
         this.latitude = latitude;
         this.longitude = longitude;
+        this.latitudeRad = Math.toRadians(latitude);
+        this.longitudeRad = Math.toRadians(longitude);
+        this.cosLatitude = Math.cos(latitudeRad);
     }
 
     public double getLatitude() {
@@ -33,20 +43,67 @@ public class Location {
         if (other == null) {
             throw new IllegalArgumentException("Other location cannot be null");
         }
+        return distanceFromComparable(comparableDistanceTo(other));
+    }
 
-        final double R = 6371; // Radius of the Earth in kilometers
+    /**
+     * Comparison-only distance: the haversine term
+     * a = sin^2(dLat/2) + cos(lat1) * cos(lat2) * sin^2(dLon/2).
+     *
+     * It grows monotonically with the great-circle distance, so candidates can
+     * be ranked on it without the sqrt/atan2 of the full formula. Convert the
+     * winner with distanceFromComparable.
+     */
+    public double comparableDistanceTo(Location other) {
+        double sinHalfDeltaLat = Math.sin((other.latitudeRad - this.latitudeRad) / 2);
+        double sinHalfDeltaLon = Math.sin((other.longitudeRad - this.longitudeRad) / 2);
+        return sinHalfDeltaLat * sinHalfDeltaLat +
+                this.cosLatitude * other.cosLatitude * sinHalfDeltaLon * sinHalfDeltaLon;
+    }
 
-        double lat1Rad = Math.toRadians(this.latitude);
-        double lat2Rad = Math.toRadians(other.latitude);
-        double deltaLatRad = Math.toRadians(other.latitude - this.latitude);
-        double deltaLonRad = Math.toRadians(other.longitude - this.longitude);
+    /**
+     * Converts a value from comparableDistanceTo into kilometres.
+     */
+    public static double distanceFromComparable(double comparable) {
+        double a = Math.min(1, Math.max(0, comparable));
+        return EARTH_RADIUS_KM * 2 * Math.atan2(Math.sqrt(a), Math.sqrt(1 - a));
+    }
 
-        double a = Math.sin(deltaLatRad / 2) * Math.sin(deltaLatRad / 2) +
-                Math.cos(lat1Rad) * Math.cos(lat2Rad) *
-                        Math.sin(deltaLonRad / 2) * Math.sin(deltaLonRad / 2);
-        double c = 2 * Math.atan2(Math.sqrt(a), Math.sqrt(1 - a));
+    /**
+     * Converts a distance in kilometres into the comparableDistanceTo scale, so
+     * a km threshold can be checked against ranked values.
+     */
+    public static double comparableFromDistance(double distanceKm) {
+        if (distanceKm <= 0) {
+            return 0;
+        }
+        if (distanceKm >= Math.PI * EARTH_RADIUS_KM) {
+            return 1;
+        }
+        double sinHalfAngle = Math.sin(distanceKm / (2 * EARTH_RADIUS_KM));
+        return sinHalfAngle * sinHalfAngle;
+    }
 
-        return R * c;
+    /**
+     * Cheap reject test: returns false only if the other location is certainly
+     * farther than radiusKm away. Uses the latitude gap and a linear lower bound
+     * on the longitude gap, with no trigonometry.
+     */
+    public boolean mayBeWithin(Location other, double radiusKm) {
+        double deltaLat = Math.abs(other.latitudeRad - this.latitudeRad);
+        if (deltaLat * EARTH_RADIUS_KM > radiusKm) {
+            return false;
+        }
+        double deltaLon = Math.abs(other.longitudeRad - this.longitudeRad);
+        if (deltaLon > Math.PI) {
+            deltaLon = 2 * Math.PI - deltaLon;
+        }
+        if (deltaLon <= Math.PI / 2) {
+            // distance >= R * asin(cos(lat) * sin(dLon)) >= R * cos(lat) * dLon * 2/pi
+            double cos = Math.max(this.cosLatitude, other.cosLatitude);
+            return EARTH_RADIUS_KM * cos * deltaLon * (2 / Math.PI) <= radiusKm;
+        }
+        return true;
     }
 
     @Override
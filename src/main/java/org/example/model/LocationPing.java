@@ -0,0 +1,38 @@
+package org.example.model;
+
+/**
+ * One GPS report from a driver's device.
+ */
+public class LocationPing {
+
+    private final String driverId;
+    private final double latitude;
+    private final double longitude;
+    private final long timestamp;
+
+    public LocationPing(String driverId, double latitude, double longitude, long timestamp) {
+        this.driverId = driverId;
+        this.latitude = latitude;
+        this.longitude = longitude;
+        this.timestamp = timestamp;
+    }
+
+    public String getDriverId() {
+        return driverId;
+    }
+
+    public double getLatitude() {
+        return latitude;
+    }
+
+    public double getLongitude() {
+        return longitude;
+    }
+
+    /**
+     * Device time of the fix, in epoch milliseconds.
+     */
+    public long getTimestamp() {
+        return timestamp;
+    }
+}
@@ -3,29 +3,60 @@ package org.example.model;
 import org.example.Interface.Searchable;
 import org.example.util.IdGenerator;
 
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+
 public class Ride implements Searchable {
 
+    private long id;
+    // Display form of the id, built on first use
     private String rideId;
     private Rider rider;
     private Driver driver;
     private double distance;
-    private RideStatus rideStatus;
+    // Completion and cancellation race for the ride; compareAndSetRideStatus lets exactly one
+    // of them move it out of ASSIGNED
+    private final AtomicReference<RideStatus> rideStatus = new AtomicReference<>();
     private VehicleType vehicleType;
+    private double fare;
+    private Instant requestedAt;
+    private Instant finishedAt;
 
     public Ride() {
     }
 
     public Ride(Rider rider, Driver driver, double distance, RideStatus rideStatus, VehicleType vehicleType) {
-        this.rideId = IdGenerator.generateRideId();
+        this.id = IdGenerator.RIDES.next();
         this.rider = rider;
         this.driver = driver;
         this.distance = distance;
-        this.rideStatus = rideStatus;
+        this.rideStatus.set(rideStatus);
         this.vehicleType = vehicleType;
     }
 
+    public long getId() {
+        return id;
+    }
+
     public String getRideId() {
-        return rideId;
+        String display = rideId;
+        if (display == null && id > 0) {
+            display = IdGenerator.RIDES.format(id);
+            rideId = display;
+        }
+        return display;
+    }
+
+    // Used when restoring persisted entities
+    public void setRideId(String rideId) {
+        long parsed = IdGenerator.RIDES.parse(rideId);
+        if (parsed <= 0) {
+            throw new IllegalArgumentException("Not a ride id: " + rideId);
+        }
+        this.id = parsed;
+        this.rideId = rideId;
     }
 
     public Rider getRider() {
@@ -53,11 +84,22 @@ public class Ride implements Searchable {
     }
 
     public RideStatus getRideStatus() {
-        return rideStatus;
+        return rideStatus.get();
     }
 
     public void setRideStatus(RideStatus rideStatus) {
-        this.rideStatus = rideStatus;
+        this.rideStatus.set(rideStatus);
+    }
+
+    /**
+     * Moves the ride from the expected status to the new one in one atomic
+     * step.
+     *
+     * @return false if the ride was not in the expected status, e.g. because
+     *         another thread completed or cancelled it first
+     */
+    public boolean compareAndSetRideStatus(RideStatus expected, RideStatus rideStatus) {
+        return this.rideStatus.compareAndSet(expected, rideStatus);
     }
 
     public VehicleType getVehicleType() {
@@ -68,12 +110,61 @@ public class Ride implements Searchable {
         this.vehicleType = vehicleType;
     }
 
+    /**
+     * Fare charged on completion; 0 until the ride is completed.
+     */
+    public double getFare() {
+        return fare;
+    }
+
+    public void setFare(double fare) {
+        this.fare = fare;
+    }
+
+    public Instant getRequestedAt() {
+        return requestedAt;
+    }
+
+    public void setRequestedAt(Instant requestedAt) {
+        this.requestedAt = requestedAt;
+    }
+
+    /**
+     * When the ride was completed or cancelled; null while it is still open.
+     */
+    public Instant getFinishedAt() {
+        return finishedAt;
+    }
+
+    public void setFinishedAt(Instant finishedAt) {
+        this.finishedAt = finishedAt;
+    }
+
+    @Override
+    public List<String> searchableTerms() {
+        Rider rider = getRider();
+        Driver driver = getDriver();
+        RideStatus rideStatus = getRideStatus();
+        VehicleType vehicleType = getVehicleType();
+        return Arrays.asList(getRideId(),
+                rider != null ? rider.getName() : null,
+                driver != null ? driver.getName() : null,
+                rideStatus != null ? rideStatus.name() : null,
+                vehicleType != null ? vehicleType.name() : null);
+    }
+
     @Override
     public boolean matchesSearchCriteria(String keyword) {
         if (keyword == null || keyword.trim().isEmpty()) {
             return false;
         }
         String lowerKeyword = keyword.toLowerCase();
+        // Through the getters, so archived rides (which override them) match the same way
+        String rideId = getRideId();
+        Rider rider = getRider();
+        Driver driver = getDriver();
+        RideStatus rideStatus = getRideStatus();
+        VehicleType vehicleType = getVehicleType();
         return (rideId != null && rideId.toLowerCase().contains(lowerKeyword)) ||
                 (rider != null && rider.getName() != null && rider.getName().toLowerCase().contains(lowerKeyword)) ||
                 (driver != null && driver.getName() != null && driver.getName().toLowerCase().contains(lowerKeyword)) ||
@@ -88,16 +179,23 @@ public class Ride implements Searchable {
     }
 
     public void display() {
-        System.out.println("Ride ID: " + rideId);
+        Rider rider = getRider();
+        Driver driver = getDriver();
+        RideStatus rideStatus = getRideStatus();
+        VehicleType vehicleType = getVehicleType();
+        System.out.println("Ride ID: " + getRideId());
         if (rider != null) {
             System.out.println("Rider: " + rider.getName() + " (ID: " + rider.getRiderId() + ")");
         }
         if (driver != null) {
             System.out.println("Driver: " + driver.getName() + " (ID: " + driver.getDriverId() + ")");
         }
-        System.out.println("Distance: " + String.format("%.2f", distance) + " km");
+        System.out.println("Distance: " + String.format("%.2f", getDistance()) + " km");
         System.out.println("Status: " + (rideStatus != null ? rideStatus.name() : "N/A"));
         System.out.println("Vehicle Type: " + (vehicleType != null ? vehicleType.name() : "N/A"));
+        if (rideStatus == RideStatus.COMPLETED) {
+            System.out.println("Fare: ₹" + String.format("%.2f", getFare()));
+        }
         System.out.println("-------------------");
     }
 }
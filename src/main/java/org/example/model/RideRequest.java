@@ -0,0 +1,45 @@
+package org.example.model;
+
+/**
+ * A rider's request for a ride, as submitted to batch dispatch.
+ */
+public class RideRequest {
+
+    private final String riderId;
+    private final Location pickup;
+    private final Location dropOff;
+    private final VehicleType vehicleType;
+
+    public RideRequest(String riderId, Location pickup, Location dropOff, VehicleType vehicleType) {
+        this.riderId = riderId;
+        this.pickup = pickup;
+        this.dropOff = dropOff;
+        this.vehicleType = vehicleType;
+    }
+
+    public String getRiderId() {
+        return riderId;
+    }
+
+    public Location getPickup() {
+        return pickup;
+    }
+
+    public Location getDropOff() {
+        return dropOff;
+    }
+
+    public VehicleType getVehicleType() {
+        return vehicleType;
+    }
+
+    @Override
+    public String toString() {
+        return "RideRequest{" +
+                "riderId='" + riderId + '\'' +
+                ", pickup=" + pickup +
+                ", dropOff=" + dropOff +
+                ", vehicleType=" + vehicleType +
+                '}';
+    }
+}
@@ -3,8 +3,13 @@ package org.example.model;
 import org.example.Interface.Searchable;
 import org.example.util.IdGenerator;
 
+import java.util.Arrays;
+import java.util.List;
+
 public class Rider implements Searchable {
 
+    private long id;
+    // Display form of the id, built on first use
     private String riderId;
     private String name;
     private String email;
@@ -15,15 +20,34 @@ public class Rider implements Searchable {
     }
 
     public Rider(String name, String email, String phone, Location riderLocation) {
-        this.riderId = IdGenerator.generateRiderId();
+        this.id = IdGenerator.RIDERS.next();
         this.name = name;
         this.email = email;
         this.phone = phone;
         this.riderLocation = riderLocation;
     }
 
+    public long getId() {
+        return id;
+    }
+
     public String getRiderId() {
-        return riderId;
+        String display = riderId;
+        if (display == null && id > 0) {
+            display = IdGenerator.RIDERS.format(id);
+            riderId = display;
+        }
+        return display;
+    }
+
+    // Used when restoring persisted entities
+    public void setRiderId(String riderId) {
+        long parsed = IdGenerator.RIDERS.parse(riderId);
+        if (parsed <= 0) {
+            throw new IllegalArgumentException("Not a rider id: " + riderId);
+        }
+        this.id = parsed;
+        this.riderId = riderId;
     }
 
     public String getName() {
@@ -58,6 +82,16 @@ public class Rider implements Searchable {
         this.riderLocation = riderLocation;
     }
 
+    @Override
+    public List<String> searchableTerms() {
+        return Arrays.asList(name, email, getRiderId());
+    }
+
+    @Override
+    public List<String> exactSearchableTerms() {
+        return Arrays.asList(phone);
+    }
+
     @Override
     public boolean matchesSearchCriteria(String keyword) {
         if (keyword == null || keyword.trim().isEmpty()) {
@@ -67,7 +101,7 @@ public class Rider implements Searchable {
         return (name != null && name.toLowerCase().contains(lowerKeyword)) ||
                 (email != null && email.toLowerCase().contains(lowerKeyword)) ||
                 (phone != null && phone.contains(keyword)) ||
-                (riderId != null && riderId.toLowerCase().contains(lowerKeyword));
+                (getRiderId() != null && getRiderId().toLowerCase().contains(lowerKeyword));
     }
 
     @Override
@@ -77,7 +111,7 @@ public class Rider implements Searchable {
     }
 
     public void display() {
-        System.out.println("Rider ID: " + riderId);
+        System.out.println("Rider ID: " + getRiderId());
         System.out.println("Name: " + name);
         System.out.println("Email: " + email);
         System.out.println("Phone: " + phone);
@@ -0,0 +1,156 @@
+package org.example.persistence;
+
+import org.example.model.Driver;
+import org.example.model.Location;
+import org.example.model.Ride;
+import org.example.model.RideStatus;
+import org.example.model.Rider;
+import org.example.model.VehicleType;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.time.Instant;
+
+/**
+ * Binary layout of riders, drivers and rides, shared by log records and
+ * snapshots. Every image starts with the entity id so the log reader can
+ * partition records without decoding them.
+ *
+ * Rides refer to their rider and driver by id; they are linked back to the
+ * recovered objects once all images are loaded.
+ */
+final class EntityCodec {
+
+    private EntityCodec() {
+        throw new AssertionError("Utility class should not be instantiated");
+    }
+
+    static void writeRider(DataOutput out, Rider rider) throws IOException {
+        out.writeUTF(rider.getRiderId());
+        writeString(out, rider.getName());
+        writeString(out, rider.getEmail());
+        writeString(out, rider.getPhone());
+        writeLocation(out, rider.getRiderLocation());
+    }
+
+    static Rider readRider(DataInput in) throws IOException {
+        Rider rider = new Rider();
+        rider.setRiderId(in.readUTF());
+        rider.setName(readString(in));
+        rider.setEmail(readString(in));
+        rider.setPhone(readString(in));
+        rider.setRiderLocation(readLocation(in));
+        return rider;
+    }
+
+    static void writeDriver(DataOutput out, Driver driver) throws IOException {
+        out.writeUTF(driver.getDriverId());
+        writeString(out, driver.getName());
+        writeString(out, driver.getEmail());
+        writeString(out, driver.getPhone());
+        writeLocation(out, driver.getDriverLocation());
+        out.writeLong(driver.getLocationTimestamp());
+        // A reservation is not part of the driver's image: the open ride's record holds it, and
+        // recovery reserves the driver again from that ride
+        out.writeBoolean(driver.isAvailable() || driver.isReserved());
+        out.writeInt(driver.getCompletedRidesCount());
+    }
+
+    static Driver readDriver(DataInput in) throws IOException {
+        Driver driver = new Driver();
+        driver.setDriverId(in.readUTF());
+        driver.setName(readString(in));
+        driver.setEmail(readString(in));
+        driver.setPhone(readString(in));
+        driver.setDriverLocation(readLocation(in));
+        driver.setLocationTimestamp(in.readLong());
+        driver.setAvailable(in.readBoolean());
+        driver.setCompletedRidesCount(in.readInt());
+        return driver;
+    }
+
+    static void writeRide(DataOutput out, Ride ride) throws IOException {
+        out.writeUTF(ride.getRideId());
+        writeString(out, ride.getRider() != null ? ride.getRider().getRiderId() : null);
+        writeString(out, ride.getDriver() != null ? ride.getDriver().getDriverId() : null);
+        out.writeDouble(ride.getDistance());
+        out.writeByte(ride.getRideStatus() != null ? ride.getRideStatus().ordinal() : -1);
+        out.writeByte(ride.getVehicleType() != null ? ride.getVehicleType().ordinal() : -1);
+        out.writeDouble(ride.getFare());
+        writeInstant(out, ride.getRequestedAt());
+        writeInstant(out, ride.getFinishedAt());
+    }
+
+    static RideImage readRide(DataInput in) throws IOException {
+        RideImage image = new RideImage();
+        image.rideId = in.readUTF();
+        image.riderId = readString(in);
+        image.driverId = readString(in);
+        image.distance = in.readDouble();
+        image.status = readStatus(in);
+        byte vehicleType = in.readByte();
+        image.vehicleType = vehicleType >= 0 ? VehicleType.values()[vehicleType] : null;
+        image.fare = in.readDouble();
+        image.requestedAt = readInstant(in);
+        image.finishedAt = readInstant(in);
+        return image;
+    }
+
+    static void writeStatus(DataOutput out, RideStatus status) throws IOException {
+        out.writeByte(status != null ? status.ordinal() : -1);
+    }
+
+    static RideStatus readStatus(DataInput in) throws IOException {
+        byte status = in.readByte();
+        return status >= 0 ? RideStatus.values()[status] : null;
+    }
+
+    static void writeString(DataOutput out, String value) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) {
+            out.writeUTF(value);
+        }
+    }
+
+    static String readString(DataInput in) throws IOException {
+        return in.readBoolean() ? in.readUTF() : null;
+    }
+
+    static void writeInstant(DataOutput out, Instant instant) throws IOException {
+        out.writeLong(instant != null ? instant.toEpochMilli() : Long.MIN_VALUE);
+    }
+
+    static Instant readInstant(DataInput in) throws IOException {
+        long millis = in.readLong();
+        return millis != Long.MIN_VALUE ? Instant.ofEpochMilli(millis) : null;
+    }
+
+    private static void writeLocation(DataOutput out, Location location) throws IOException {
+        out.writeBoolean(location != null);
+        if (location != null) {
+            out.writeDouble(location.getLatitude());
+            out.writeDouble(location.getLongitude());
+        }
+    }
+
+    private static Location readLocation(DataInput in) throws IOException {
+        return in.readBoolean() ? new Location(in.readDouble(), in.readDouble()) : null;
+    }
+
+    /**
+     * A ride as stored, with its rider and driver still unresolved.
+     */
+    static final class RideImage {
+        String rideId;
+        String riderId;
+        String driverId;
+        double distance;
+        RideStatus status;
+        VehicleType vehicleType;
+        double fare;
+        Instant requestedAt;
+        Instant finishedAt;
+        String receiptId; // from the completion's status record; not part of the ride record
+    }
+}
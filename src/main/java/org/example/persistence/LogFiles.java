@@ -0,0 +1,66 @@
+package org.example.persistence;
+
+import org.example.exception.PersistenceException;
+
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * File naming for log segments and snapshots. Both are named after a log
+ * sequence number (LSN), zero-padded so that names sort in LSN order:
+ * a segment after the LSN of its first record, a snapshot after the first
+ * LSN that is not covered by it.
+ */
+final class LogFiles {
+
+    static final String SEGMENT_PREFIX = "wal-";
+    static final String SEGMENT_SUFFIX = ".log";
+    static final String SNAPSHOT_PREFIX = "snapshot-";
+    static final String SNAPSHOT_SUFFIX = ".bin";
+
+    private LogFiles() {
+        throw new AssertionError("Utility class should not be instantiated");
+    }
+
+    static Path segment(Path directory, long firstLsn) {
+        return directory.resolve(String.format("%s%020d%s", SEGMENT_PREFIX, firstLsn, SEGMENT_SUFFIX));
+    }
+
+    static Path snapshot(Path directory, long lsn) {
+        return directory.resolve(String.format("%s%020d%s", SNAPSHOT_PREFIX, lsn, SNAPSHOT_SUFFIX));
+    }
+
+    /**
+     * LSN in a segment or snapshot file name.
+     */
+    static long lsnOf(Path file) {
+        String name = file.getFileName().toString();
+        int start = name.indexOf('-') + 1;
+        int end = name.lastIndexOf('.');
+        return Long.parseLong(name.substring(start, end));
+    }
+
+    /**
+     * Files with the given prefix and suffix, sorted by LSN ascending.
+     */
+    static List<Path> list(Path directory, String prefix, String suffix) {
+        List<Path> files = new ArrayList<>();
+        if (!Files.isDirectory(directory)) {
+            return files;
+        }
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory, prefix + "*" + suffix)) {
+            for (Path file : stream) {
+                files.add(file);
+            }
+        } catch (IOException e) {
+            throw new PersistenceException("Cannot list " + directory, e);
+        }
+        files.sort(Comparator.comparingLong(LogFiles::lsnOf));
+        return files;
+    }
+}
@@ -0,0 +1,432 @@
+package org.example.persistence;
+
+import org.example.exception.InvalidDataException;
+import org.example.exception.PersistenceException;
+import org.example.ledger.ReceiptLedger;
+import org.example.model.Driver;
+import org.example.model.Ride;
+import org.example.model.RideStatus;
+import org.example.model.Rider;
+import org.example.service.DriverService;
+import org.example.service.RideService;
+import org.example.service.RiderService;
+import org.example.util.IdGenerator;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedInputStream;
+
+/**
+ * Rebuilds the services from the latest snapshot and the log written after it.
+ * Must run on empty services before a WriteAheadLog is attached to them.
+ *
+ * DESIGN DECISIONS:
+ * - The newest snapshot that passes its checksum is loaded; older ones are
+ *   only tried if it is damaged
+ * - Log segments are read sequentially, but records are only split into
+ *   partitions by entity id there; decoding and folding them into the final
+ *   image of each entity runs on several threads. Records of one entity stay
+ *   in one partition, so they are applied in log order
+ * - Reading stops at the first torn or corrupt record of a segment; the next
+ *   segment is only used if it starts exactly where the valid records ended
+ * - Entities are handed to the services in their original order (snapshot
+ *   order, then first appearance in the log), which keeps registration-order
+ *   tie-breaking stable across restarts
+ * - Id counters are raised past every recovered id and receipt
+ * - Driver records never carry a reservation. Each restored ASSIGNED ride
+ *   reserves its driver again, so availability always agrees with the open
+ *   rides, whatever order reservations and releases were logged in
+ * - Receipts issued by completions still in the log are handed to the
+ *   receipt ledger, if one is set; it ignores those it has already recorded
+ */
+public class RecoveryManager {
+
+    private static final int FRAME_HEADER_BYTES = 8;
+
+    private final Path directory;
+    private final int replayThreads;
+    private ReceiptLedger receiptLedger;
+
+    public RecoveryManager(Path directory) {
+        this(directory, Runtime.getRuntime().availableProcessors());
+    }
+
+    public RecoveryManager(Path directory, int replayThreads) {
+        if (replayThreads < 1) {
+            throw new IllegalArgumentException("Replay needs at least one thread. Got: " + replayThreads);
+        }
+        this.directory = directory;
+        this.replayThreads = replayThreads;
+    }
+
+    /**
+     * Records the receipts of recovered completions in the ledger; null skips
+     * them. Open the ledger's file first, so it can tell which it already has.
+     */
+    public void setReceiptLedger(ReceiptLedger receiptLedger) {
+        this.receiptLedger = receiptLedger;
+    }
+
+    public RecoveryReport recover(RiderService riderService, DriverService driverService, RideService rideService) {
+        long started = System.nanoTime();
+        Images images = new Images();
+
+        // 1. Load the newest readable snapshot
+        long snapshotLsn = -1;
+        List<Path> snapshots = LogFiles.list(directory, LogFiles.SNAPSHOT_PREFIX, LogFiles.SNAPSHOT_SUFFIX);
+        for (int i = snapshots.size() - 1; i >= 0 && snapshotLsn < 0; i--) {
+            try {
+                snapshotLsn = loadSnapshot(snapshots.get(i), images);
+            } catch (IOException e) {
+                images = new Images();
+            }
+        }
+        long snapshotLoaded = System.nanoTime();
+
+        // 2. Read the log tail and split it by entity
+        List<Path> segments = LogFiles.list(directory, LogFiles.SEGMENT_PREFIX, LogFiles.SEGMENT_SUFFIX);
+        long expected = snapshotLsn >= 0 ? snapshotLsn : segments.isEmpty() ? 0 : LogFiles.lsnOf(segments.get(0));
+        List<List<Frame>> partitions = new ArrayList<>(replayThreads);
+        for (int i = 0; i < replayThreads; i++) {
+            partitions.add(new ArrayList<>());
+        }
+        int segmentsRead = 0;
+        long recordsReplayed = 0;
+        boolean tornTail = false;
+        long orderBase = images.nextOrder;
+        for (Path segment : segments) {
+            long lsn = LogFiles.lsnOf(segment);
+            if (lsn > expected) {
+                break;
+            }
+            byte[] data = readSegment(segment);
+            ByteBuffer buffer = ByteBuffer.wrap(data);
+            int position = 0;
+            tornTail = false;
+            while (position < data.length) {
+                Frame frame = nextFrame(data, buffer, position, orderBase + lsn);
+                if (frame == null) {
+                    tornTail = true;
+                    break;
+                }
+                if (lsn >= expected) {
+                    partitions.get(frame.partition(replayThreads)).add(frame);
+                    recordsReplayed++;
+                }
+                position = frame.offset + frame.length;
+                lsn++;
+            }
+            segmentsRead++;
+            expected = Math.max(expected, lsn);
+        }
+
+        // 3. Fold each partition into final entity images, in parallel
+        replay(partitions, images);
+        long replayed = System.nanoTime();
+
+        // 4. Hand the entities to the services in their original order
+        int skipped = 0;
+        int riders = 0;
+        for (Image<Rider> image : live(images.riders)) {
+            try {
+                riderService.registerRider(image.value);
+                riders++;
+            } catch (InvalidDataException | IllegalArgumentException e) {
+                skipped++;
+            }
+        }
+        int drivers = 0;
+        for (Image<Driver> image : live(images.drivers)) {
+            try {
+                driverService.registerDriver(image.value);
+                drivers++;
+            } catch (InvalidDataException | IllegalArgumentException e) {
+                skipped++;
+            }
+        }
+        int rides = 0;
+        for (Image<EntityCodec.RideImage> image : live(images.rides)) {
+            Ride ride = link(image.value, images);
+            rideService.restoreRide(ride);
+            if (receiptLedger != null) {
+                recordReceipt(image.value, ride);
+            }
+            rides++;
+        }
+
+        // 5. Never hand out a recovered id again
+        IdGenerator.advanceCounters(images.counters);
+        for (String id : images.riders.keySet()) {
+            IdGenerator.advancePast(id);
+        }
+        for (String id : images.drivers.keySet()) {
+            IdGenerator.advancePast(id);
+        }
+        for (String id : images.rides.keySet()) {
+            IdGenerator.advancePast(id);
+        }
+
+        long finished = System.nanoTime();
+        return new RecoveryReport(snapshotLsn, expected, segmentsRead, recordsReplayed, tornTail,
+                riders, drivers, rides, skipped, snapshotLoaded - started, replayed - snapshotLoaded,
+                finished - replayed, finished - started);
+    }
+
+    private long loadSnapshot(Path file, Images images) throws IOException {
+        try (BufferedInputStream buffered = new BufferedInputStream(new FileInputStream(file.toFile()), 1 << 16)) {
+            CRC32 crc = new CRC32();
+            DataInputStream in = new DataInputStream(new CheckedInputStream(buffered, crc));
+            if (in.readInt() != SnapshotManager.MAGIC || in.readInt() != SnapshotManager.VERSION) {
+                throw new IOException("Not a snapshot: " + file);
+            }
+            long lsn = in.readLong();
+            for (int i = 0; i < images.counters.length; i++) {
+                images.counters[i] = in.readLong();
+            }
+            int riders = in.readInt();
+            for (int i = 0; i < riders; i++) {
+                Rider rider = EntityCodec.readRider(in);
+                images.riders.put(rider.getRiderId(), new Image<>(images.nextOrder++, rider));
+            }
+            int drivers = in.readInt();
+            for (int i = 0; i < drivers; i++) {
+                Driver driver = EntityCodec.readDriver(in);
+                images.drivers.put(driver.getDriverId(), new Image<>(images.nextOrder++, driver));
+            }
+            int rides = in.readInt();
+            for (int i = 0; i < rides; i++) {
+                EntityCodec.RideImage ride = EntityCodec.readRide(in);
+                images.rides.put(ride.rideId, new Image<>(images.nextOrder++, ride));
+            }
+            long checksum = crc.getValue();
+            if (new DataInputStream(buffered).readLong() != checksum) {
+                throw new IOException("Snapshot checksum mismatch: " + file);
+            }
+            return lsn;
+        }
+    }
+
+    private static byte[] readSegment(Path segment) {
+        try {
+            return Files.readAllBytes(segment);
+        } catch (IOException e) {
+            throw new PersistenceException("Cannot read log segment " + segment, e);
+        }
+    }
+
+    /**
+     * Frame starting at position, or null if it is incomplete or corrupt.
+     */
+    private static Frame nextFrame(byte[] data, ByteBuffer buffer, int position, long order) {
+        if (data.length - position < FRAME_HEADER_BYTES) {
+            return null;
+        }
+        int length = buffer.getInt(position);
+        int checksum = buffer.getInt(position + 4);
+        int offset = position + FRAME_HEADER_BYTES;
+        if (length < 3 || length > data.length - offset) {
+            return null;
+        }
+        CRC32 crc = new CRC32();
+        crc.update(data, offset, length);
+        if ((int) crc.getValue() != checksum) {
+            return null;
+        }
+        return new Frame(data, offset, length, order);
+    }
+
+    private void replay(List<List<Frame>> partitions, Images images) {
+        ExecutorService pool = Executors.newFixedThreadPool(replayThreads, runnable -> {
+            Thread thread = new Thread(runnable, "wal-replay");
+            thread.setDaemon(true);
+            return thread;
+        });
+        try {
+            List<Callable<Void>> tasks = new ArrayList<>(partitions.size());
+            for (List<Frame> partition : partitions) {
+                tasks.add(() -> {
+                    for (Frame frame : partition) {
+                        apply(frame, images);
+                    }
+                    return null;
+                });
+            }
+            for (Future<Void> result : pool.invokeAll(tasks)) {
+                result.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new PersistenceException("Interrupted during log replay");
+        } catch (ExecutionException e) {
+            throw new PersistenceException("Log replay failed", e.getCause());
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    // Only the partition owning an entity id touches that id's image
+    private static void apply(Frame frame, Images images) throws IOException {
+        DataInputStream in = new DataInputStream(
+                new ByteArrayInputStream(frame.data, frame.offset + 1, frame.length - 1));
+        switch (frame.data[frame.offset]) {
+            case WriteAheadLog.RIDER: {
+                Rider rider = EntityCodec.readRider(in);
+                image(images.riders, rider.getRiderId(), frame.order).set(rider);
+                break;
+            }
+            case WriteAheadLog.RIDER_DELETED: {
+                Image<Rider> image = images.riders.get(in.readUTF());
+                if (image != null) {
+                    image.deleted = true;
+                }
+                break;
+            }
+            case WriteAheadLog.DRIVER: {
+                Driver driver = EntityCodec.readDriver(in);
+                image(images.drivers, driver.getDriverId(), frame.order).set(driver);
+                break;
+            }
+            case WriteAheadLog.DRIVER_DELETED: {
+                Image<Driver> image = images.drivers.get(in.readUTF());
+                if (image != null) {
+                    image.deleted = true;
+                }
+                break;
+            }
+            case WriteAheadLog.RIDE: {
+                EntityCodec.RideImage ride = EntityCodec.readRide(in);
+                image(images.rides, ride.rideId, frame.order).set(ride);
+                break;
+            }
+            case WriteAheadLog.RIDE_STATUS: {
+                Image<EntityCodec.RideImage> image = images.rides.get(in.readUTF());
+                if (image != null) {
+                    image.value.status = EntityCodec.readStatus(in);
+                    image.value.receiptId = EntityCodec.readString(in);
+                    IdGenerator.advancePast(image.value.receiptId);
+                    image.value.fare = in.readDouble();
+                    image.value.finishedAt = EntityCodec.readInstant(in);
+                }
+                break;
+            }
+            default:
+                throw new IOException("Unknown log record type " + frame.data[frame.offset]);
+        }
+    }
+
+    private static <T> Image<T> image(Map<String, Image<T>> images, String id, long order) {
+        Image<T> image = images.get(id);
+        if (image == null) {
+            image = new Image<>(order, null);
+            images.put(id, image);
+        }
+        return image;
+    }
+
+    private static <T> List<Image<T>> live(Map<String, Image<T>> images) {
+        List<Image<T>> live = new ArrayList<>(images.size());
+        for (Image<T> image : images.values()) {
+            if (!image.deleted && image.value != null) {
+                live.add(image);
+            }
+        }
+        live.sort(Comparator.comparingLong(image -> image.order));
+        return live;
+    }
+
+    private void recordReceipt(EntityCodec.RideImage image, Ride ride) {
+        long receipt = IdGenerator.RECEIPTS.parse(image.receiptId);
+        if (receipt <= 0 || ride.getRideStatus() != RideStatus.COMPLETED) {
+            return;
+        }
+        // The driver may have been deleted since; their id is still in the image
+        long driver = Math.max(0, IdGenerator.DRIVERS.parse(image.driverId));
+        Instant finishedAt = ride.getFinishedAt();
+        receiptLedger.append(receipt, ride.getId(), driver, ride.getVehicleType(), ride.getFare(),
+                finishedAt != null ? finishedAt.toEpochMilli() : 0);
+    }
+
+    // Riders and drivers deleted after the ride was taken are still linked
+    private static Ride link(EntityCodec.RideImage image, Images images) {
+        Ride ride = new Ride();
+        ride.setRideId(image.rideId);
+        Image<Rider> rider = image.riderId != null ? images.riders.get(image.riderId) : null;
+        Image<Driver> driver = image.driverId != null ? images.drivers.get(image.driverId) : null;
+        ride.setRider(rider != null ? rider.value : null);
+        ride.setDriver(driver != null ? driver.value : null);
+        ride.setDistance(image.distance);
+        ride.setRideStatus(image.status);
+        ride.setVehicleType(image.vehicleType);
+        ride.setFare(image.fare);
+        ride.setRequestedAt(image.requestedAt);
+        ride.setFinishedAt(image.finishedAt);
+        return ride;
+    }
+
+    private static final class Images {
+        private final ConcurrentHashMap<String, Image<Rider>> riders = new ConcurrentHashMap<>();
+        private final ConcurrentHashMap<String, Image<Driver>> drivers = new ConcurrentHashMap<>();
+        private final ConcurrentHashMap<String, Image<EntityCodec.RideImage>> rides = new ConcurrentHashMap<>();
+        private final long[] counters = new long[4];
+        private long nextOrder;
+    }
+
+    private static final class Image<T> {
+        private final long order;
+        private T value;
+        private boolean deleted;
+
+        private Image(long order, T value) {
+            this.order = order;
+            this.value = value;
+        }
+
+        private void set(T value) {
+            this.value = value;
+            this.deleted = false;
+        }
+    }
+
+    private static final class Frame {
+        private final byte[] data;
+        private final int offset;
+        private final int length;
+        private final long order;
+
+        private Frame(byte[] data, int offset, int length, long order) {
+            this.data = data;
+            this.offset = offset;
+            this.length = length;
+            this.order = order;
+        }
+
+        // Hash of the entity id that every record starts with, as written by writeUTF
+        private int partition(int partitions) {
+            int idLength = ((data[offset + 1] & 0xff) << 8) | (data[offset + 2] & 0xff);
+            int end = Math.min(offset + 3 + idLength, offset + length);
+            int hash = 1;
+            for (int i = offset + 3; i < end; i++) {
+                hash = 31 * hash + data[i];
+            }
+            return Math.floorMod(hash, partitions);
+        }
+    }
+}
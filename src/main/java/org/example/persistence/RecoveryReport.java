@@ -0,0 +1,115 @@
+package org.example.persistence;
+
+/**
+ * Outcome and timings of one RecoveryManager run.
+ */
+public class RecoveryReport {
+
+    private final long snapshotLsn;
+    private final long nextLsn;
+    private final int segmentsRead;
+    private final long recordsReplayed;
+    private final boolean tornTail;
+    private final int riders;
+    private final int drivers;
+    private final int rides;
+    private final int skipped;
+    private final long snapshotLoadNanos;
+    private final long replayNanos;
+    private final long applyNanos;
+    private final long totalNanos;
+
+    RecoveryReport(long snapshotLsn, long nextLsn, int segmentsRead, long recordsReplayed, boolean tornTail,
+            int riders, int drivers, int rides, int skipped, long snapshotLoadNanos, long replayNanos,
+            long applyNanos, long totalNanos) {
+        this.snapshotLsn = snapshotLsn;
+        this.nextLsn = nextLsn;
+        this.segmentsRead = segmentsRead;
+        this.recordsReplayed = recordsReplayed;
+        this.tornTail = tornTail;
+        this.riders = riders;
+        this.drivers = drivers;
+        this.rides = rides;
+        this.skipped = skipped;
+        this.snapshotLoadNanos = snapshotLoadNanos;
+        this.replayNanos = replayNanos;
+        this.applyNanos = applyNanos;
+        this.totalNanos = totalNanos;
+    }
+
+    /**
+     * First LSN not covered by the snapshot that was loaded, or -1 if there was none.
+     */
+    public long getSnapshotLsn() {
+        return snapshotLsn;
+    }
+
+    /**
+     * LSN the write-ahead log must continue from.
+     */
+    public long getNextLsn() {
+        return nextLsn;
+    }
+
+    public int getSegmentsRead() {
+        return segmentsRead;
+    }
+
+    public long getRecordsReplayed() {
+        return recordsReplayed;
+    }
+
+    /**
+     * True if the log ended in an incomplete or corrupt record, which was ignored.
+     */
+    public boolean hasTornTail() {
+        return tornTail;
+    }
+
+    public int getRiders() {
+        return riders;
+    }
+
+    public int getDrivers() {
+        return drivers;
+    }
+
+    public int getRides() {
+        return rides;
+    }
+
+    /**
+     * Recovered entities the services refused (e.g. failed validation).
+     */
+    public int getSkipped() {
+        return skipped;
+    }
+
+    public long getSnapshotLoadNanos() {
+        return snapshotLoadNanos;
+    }
+
+    public long getReplayNanos() {
+        return replayNanos;
+    }
+
+    public long getApplyNanos() {
+        return applyNanos;
+    }
+
+    public long getTotalNanos() {
+        return totalNanos;
+    }
+
+    public void display() {
+        System.out.println("=== Recovery Report ===");
+        System.out.println("Snapshot: " + (snapshotLsn >= 0 ? "up to LSN " + snapshotLsn : "none"));
+        System.out.println("Log: " + recordsReplayed + " records from " + segmentsRead + " segment(s)"
+                + (tornTail ? ", torn tail ignored" : ""));
+        System.out.println("Recovered: " + riders + " riders, " + drivers + " drivers, " + rides + " rides"
+                + (skipped > 0 ? " (" + skipped + " skipped)" : ""));
+        System.out.println(String.format("Time: %.1f ms (snapshot %.1f ms, replay %.1f ms, apply %.1f ms)",
+                totalNanos / 1e6, snapshotLoadNanos / 1e6, replayNanos / 1e6, applyNanos / 1e6));
+        System.out.println("-------------------");
+    }
+}
@@ -0,0 +1,208 @@
+package org.example.persistence;
+
+import org.example.exception.PersistenceException;
+import org.example.model.Driver;
+import org.example.model.Ride;
+import org.example.model.Rider;
+import org.example.service.DriverService;
+import org.example.service.RideService;
+import org.example.service.RiderService;
+import org.example.util.IdGenerator;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedOutputStream;
+
+/**
+ * Writes compact binary snapshots of all riders, drivers and rides, on demand
+ * or periodically from a background thread.
+ *
+ * A snapshot is taken while the services keep running. It first rolls the
+ * log, then copies the stores; every change logged before the roll is already
+ * applied in memory (services apply before they log), so the snapshot plus the
+ * segments from the roll onwards reproduce the full state. Rides that were
+ * moved to a RideArchive are not copied; the archive is flushed instead. Once
+ * the snapshot is on disk, older snapshots and log segments are deleted.
+ *
+ * File layout: magic, version, first uncovered LSN, id counters, then the
+ * rider, driver and ride images (each list prefixed by its size), followed
+ * by a CRC32 of everything before it.
+ */
+public class SnapshotManager implements AutoCloseable {
+
+    static final int MAGIC = 0x52575350; // "RWSP"
+    static final int VERSION = 2;
+
+    private final WriteAheadLog writeAheadLog;
+    private final RiderService riderService;
+    private final DriverService driverService;
+    private final RideService rideService;
+    private final Object scheduleLock = new Object();
+    private ScheduledExecutorService scheduler; // guarded by scheduleLock
+
+    private volatile long lastSnapshotLsn = -1;
+    private volatile long lastSnapshotNanos;
+    private volatile long lastSnapshotBytes;
+
+    public SnapshotManager(WriteAheadLog writeAheadLog, RiderService riderService, DriverService driverService,
+            RideService rideService) {
+        this.writeAheadLog = writeAheadLog;
+        this.riderService = riderService;
+        this.driverService = driverService;
+        this.rideService = rideService;
+    }
+
+    /**
+     * Takes a snapshot every interval on a background thread.
+     */
+    public void start(Duration interval) {
+        if (interval == null || interval.isNegative() || interval.isZero()) {
+            throw new IllegalArgumentException("Snapshot interval must be positive");
+        }
+        long intervalNanos = interval.toNanos();
+        synchronized (scheduleLock) {
+            if (scheduler != null) {
+                throw new IllegalStateException("Snapshots are already scheduled");
+            }
+            scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "snapshot-writer");
+                thread.setDaemon(true);
+                return thread;
+            });
+            scheduler.scheduleWithFixedDelay(() -> {
+                try {
+                    snapshotNow();
+                } catch (PersistenceException e) {
+                    // Keep the schedule alive; the log still holds everything
+                    System.err.println("Snapshot failed: " + e.getMessage());
+                }
+            }, intervalNanos, intervalNanos, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    /**
+     * Writes a snapshot and deletes the files it supersedes.
+     *
+     * @return the snapshot file
+     */
+    public synchronized Path snapshotNow() {
+        long started = System.nanoTime();
+        Path directory = writeAheadLog.getDirectory();
+
+        // 1. Roll the log; segments before the boundary are covered by this snapshot
+        long boundary = writeAheadLog.rollSegment();
+
+        // 2. Copy the state and write it to a temporary file
+        long[] counters = IdGenerator.getCounters();
+        List<Rider> riders = riderService.getAllRiders();
+        List<Driver> drivers = driverService.getAllDrivers();
+        List<Ride> rides = rideService.getOpenRides();
+        // Rides archived before the copy are not in it; make sure the archive has them.
+        // Rides archived later are in the copy, and their final status is logged after the roll.
+        if (rideService.getRideArchive() != null) {
+            rideService.getRideArchive().force();
+        }
+
+        Path target = LogFiles.snapshot(directory, boundary);
+        Path temporary = directory.resolve(target.getFileName() + ".tmp");
+        try (FileOutputStream file = new FileOutputStream(temporary.toFile())) {
+            BufferedOutputStream buffered = new BufferedOutputStream(file, 1 << 16);
+            CRC32 crc = new CRC32();
+            DataOutputStream out = new DataOutputStream(new CheckedOutputStream(buffered, crc));
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeLong(boundary);
+            for (long counter : counters) {
+                out.writeLong(counter);
+            }
+            out.writeInt(riders.size());
+            for (Rider rider : riders) {
+                EntityCodec.writeRider(out, rider);
+            }
+            out.writeInt(drivers.size());
+            for (Driver driver : drivers) {
+                EntityCodec.writeDriver(out, driver);
+            }
+            out.writeInt(rides.size());
+            for (Ride ride : rides) {
+                EntityCodec.writeRide(out, ride);
+            }
+            out.flush();
+
+            DataOutputStream trailer = new DataOutputStream(buffered);
+            trailer.writeLong(crc.getValue());
+            trailer.flush();
+            file.getChannel().force(true);
+            lastSnapshotBytes = file.getChannel().size();
+        } catch (IOException e) {
+            throw new PersistenceException("Cannot write snapshot " + temporary, e);
+        }
+
+        // 3. Publish it atomically, then drop what it supersedes
+        try {
+            Files.move(temporary, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            for (Path snapshot : LogFiles.list(directory, LogFiles.SNAPSHOT_PREFIX, LogFiles.SNAPSHOT_SUFFIX)) {
+                if (LogFiles.lsnOf(snapshot) < boundary) {
+                    Files.deleteIfExists(snapshot);
+                }
+            }
+            for (Path segment : LogFiles.list(directory, LogFiles.SEGMENT_PREFIX, LogFiles.SEGMENT_SUFFIX)) {
+                if (LogFiles.lsnOf(segment) < boundary) {
+                    Files.deleteIfExists(segment);
+                }
+            }
+        } catch (IOException e) {
+            throw new PersistenceException("Cannot publish snapshot " + target, e);
+        }
+
+        lastSnapshotLsn = boundary;
+        lastSnapshotNanos = System.nanoTime() - started;
+        return target;
+    }
+
+    /**
+     * First LSN not covered by the last snapshot, or -1 if none was taken.
+     */
+    public long getLastSnapshotLsn() {
+        return lastSnapshotLsn;
+    }
+
+    public long getLastSnapshotNanos() {
+        return lastSnapshotNanos;
+    }
+
+    public long getLastSnapshotBytes() {
+        return lastSnapshotBytes;
+    }
+
+    /**
+     * Stops the background schedule. Does not take a final snapshot.
+     */
+    @Override
+    public void close() {
+        ScheduledExecutorService running;
+        synchronized (scheduleLock) {
+            running = scheduler;
+        }
+        if (running == null) {
+            return;
+        }
+        running.shutdown();
+        try {
+            running.awaitTermination(1, TimeUnit.MINUTES);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,392 @@
+package org.example.persistence;
+
+import org.example.exception.PersistenceException;
+import org.example.model.Driver;
+import org.example.model.Ride;
+import org.example.model.Rider;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.zip.CRC32;
+
+/**
+ * WRITE-AHEAD LOG - WriteAheadLog
+ *
+ * Append-only log of entity mutations and ride status transitions. Services
+ * apply a change in memory, append its record here and wait for the record to
+ * be durable before returning.
+ *
+ * DESIGN DECISIONS:
+ * - Group commit: appends only queue a framed record; a single writer thread
+ *   writes everything queued since its last pass and issues one fsync for the
+ *   whole group, then wakes every caller whose record it covered
+ * - Records carry no LSN; the LSN of a record is its segment's first LSN plus
+ *   its position, so a torn or corrupt frame ends the readable log
+ * - Frames are [length][CRC32][type][image]; images are full entity states, so
+ *   replaying a record twice, or over a snapshot that already contains it,
+ *   leaves the same state
+ * - rollSegment() starts a new segment file, which lets SnapshotManager drop
+ *   whole segments once a snapshot covers them
+ * - Driver position pings are not logged; the position in the last snapshot or
+ *   driver record is restored and the next ping corrects it
+ */
+public class WriteAheadLog implements AutoCloseable {
+
+    static final byte RIDER = 1;
+    static final byte RIDER_DELETED = 2;
+    static final byte DRIVER = 3;
+    static final byte DRIVER_DELETED = 4;
+    static final byte RIDE = 5;
+    static final byte RIDE_STATUS = 6;
+
+    // Queue marker for a segment roll; compared by identity
+    private static final byte[] ROLL = new byte[0];
+
+    private final Path directory;
+    private final Object appendLock = new Object();
+    private final Object durableLock = new Object();
+    private final Thread writer;
+
+    private List<byte[]> pending = new ArrayList<>(); // guarded by appendLock
+    private long nextLsn;                             // guarded by appendLock
+    private boolean closed;                           // guarded by appendLock
+
+    private volatile long durableLsn;
+    private volatile IOException failure;
+
+    // Owned by the writer thread
+    private FileChannel channel;
+    private long writerLsn;
+
+    private final LongAdder recordCount = new LongAdder();
+    private final LongAdder rideCount = new LongAdder();
+    private volatile long fsyncCount;
+    private volatile long fsyncNanos;
+    private volatile long bytesWritten;
+
+    /**
+     * Opens a new segment starting at nextLsn, which must be the
+     * RecoveryReport.getNextLsn() of the recovery run on the same directory.
+     */
+    public WriteAheadLog(Path directory, long nextLsn) {
+        this.directory = directory;
+        this.nextLsn = nextLsn;
+        this.durableLsn = nextLsn;
+        this.writerLsn = nextLsn;
+        try {
+            Files.createDirectories(directory);
+            this.channel = openSegment(nextLsn);
+        } catch (IOException e) {
+            throw new PersistenceException("Cannot open write-ahead log in " + directory, e);
+        }
+        this.writer = new Thread(this::runWriter, "wal-writer");
+        this.writer.setDaemon(true);
+        this.writer.start();
+    }
+
+    public long logRider(Rider rider) {
+        try {
+            RecordBuffer out = begin(RIDER);
+            EntityCodec.writeRider(out, rider);
+            return append(out);
+        } catch (IOException e) {
+            throw new PersistenceException("Cannot encode rider " + rider.getRiderId(), e);
+        }
+    }
+
+    public long logRiderDeleted(String riderId) {
+        return logDeletion(RIDER_DELETED, riderId);
+    }
+
+    public long logDriver(Driver driver) {
+        try {
+            RecordBuffer out = begin(DRIVER);
+            EntityCodec.writeDriver(out, driver);
+            return append(out);
+        } catch (IOException e) {
+            throw new PersistenceException("Cannot encode driver " + driver.getDriverId(), e);
+        }
+    }
+
+    public long logDriverDeleted(String driverId) {
+        return logDeletion(DRIVER_DELETED, driverId);
+    }
+
+    /**
+     * Logs a ride with its current status, normally at creation.
+     */
+    public long logRide(Ride ride) {
+        try {
+            RecordBuffer out = begin(RIDE);
+            EntityCodec.writeRide(out, ride);
+            rideCount.increment();
+            return append(out);
+        } catch (IOException e) {
+            throw new PersistenceException("Cannot encode ride " + ride.getRideId(), e);
+        }
+    }
+
+    /**
+     * Logs a status transition of an existing ride, with the fare and finish
+     * time it set.
+     *
+     * @param receiptId receipt issued with the transition, or null
+     */
+    public long logRideStatus(Ride ride, String receiptId) {
+        try {
+            RecordBuffer out = begin(RIDE_STATUS);
+            out.writeUTF(ride.getRideId());
+            EntityCodec.writeStatus(out, ride.getRideStatus());
+            EntityCodec.writeString(out, receiptId);
+            out.writeDouble(ride.getFare());
+            EntityCodec.writeInstant(out, ride.getFinishedAt());
+            return append(out);
+        } catch (IOException e) {
+            throw new PersistenceException("Cannot encode status of ride " + ride.getRideId(), e);
+        }
+    }
+
+    /**
+     * Blocks until the record with the given LSN, and every record before it,
+     * has been written and fsynced.
+     */
+    public void awaitDurable(long lsn) {
+        if (durableLsn > lsn) {
+            return;
+        }
+        synchronized (durableLock) {
+            while (durableLsn <= lsn) {
+                if (failure != null) {
+                    throw new PersistenceException("Write-ahead log failed", failure);
+                }
+                try {
+                    durableLock.wait();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new PersistenceException("Interrupted while waiting for the write-ahead log");
+                }
+            }
+        }
+        if (failure != null) {
+            throw new PersistenceException("Write-ahead log failed", failure);
+        }
+    }
+
+    /**
+     * Closes the current segment and starts a new one. Returns once every
+     * earlier record is durable.
+     *
+     * @return LSN of the first record of the new segment
+     */
+    public long rollSegment() {
+        long boundary;
+        synchronized (appendLock) {
+            ensureOpen();
+            boundary = nextLsn;
+            pending.add(ROLL);
+            appendLock.notifyAll();
+        }
+        awaitDurable(boundary - 1);
+        return boundary;
+    }
+
+    public Path getDirectory() {
+        return directory;
+    }
+
+    public long getRecordCount() {
+        return recordCount.sum();
+    }
+
+    /**
+     * Rides logged at creation.
+     */
+    public long getRideCount() {
+        return rideCount.sum();
+    }
+
+    /**
+     * Number of fsyncs; each covers one group of records.
+     */
+    public long getFsyncCount() {
+        return fsyncCount;
+    }
+
+    public long getFsyncNanos() {
+        return fsyncNanos;
+    }
+
+    public long getBytesWritten() {
+        return bytesWritten;
+    }
+
+    /**
+     * Total fsync time divided by the number of rides logged, i.e. what
+     * durability costs per committed ride once group commit has amortized it.
+     */
+    public double getFsyncNanosPerRide() {
+        long rides = rideCount.sum();
+        return rides == 0 ? 0 : (double) fsyncNanos / rides;
+    }
+
+    /**
+     * Writes and fsyncs everything appended so far, then stops the writer.
+     */
+    @Override
+    public void close() {
+        synchronized (appendLock) {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            appendLock.notifyAll();
+        }
+        try {
+            writer.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        try {
+            channel.close();
+        } catch (IOException e) {
+            throw new PersistenceException("Cannot close write-ahead log", e);
+        }
+    }
+
+    private long logDeletion(byte type, String id) {
+        try {
+            RecordBuffer out = begin(type);
+            out.writeUTF(id);
+            return append(out);
+        } catch (IOException e) {
+            throw new PersistenceException("Cannot encode deletion of " + id, e);
+        }
+    }
+
+    private static RecordBuffer begin(byte type) throws IOException {
+        RecordBuffer out = new RecordBuffer();
+        // Room for the length and checksum, filled in by frame()
+        out.writeInt(0);
+        out.writeInt(0);
+        out.writeByte(type);
+        return out;
+    }
+
+    private long append(RecordBuffer out) throws IOException {
+        byte[] frame = frame(out.toByteArray());
+        recordCount.increment();
+        synchronized (appendLock) {
+            ensureOpen();
+            pending.add(frame);
+            long lsn = nextLsn++;
+            if (pending.size() == 1) {
+                appendLock.notifyAll();
+            }
+            return lsn;
+        }
+    }
+
+    private static byte[] frame(byte[] record) {
+        int payloadLength = record.length - 8;
+        CRC32 crc = new CRC32();
+        crc.update(record, 8, payloadLength);
+        ByteBuffer header = ByteBuffer.wrap(record, 0, 8);
+        header.putInt(payloadLength);
+        header.putInt((int) crc.getValue());
+        return record;
+    }
+
+    private void ensureOpen() {
+        if (closed) {
+            throw new PersistenceException("Write-ahead log is closed");
+        }
+    }
+
+    private void runWriter() {
+        while (true) {
+            List<byte[]> batch;
+            long batchEnd;
+            synchronized (appendLock) {
+                while (pending.isEmpty() && !closed) {
+                    try {
+                        appendLock.wait();
+                    } catch (InterruptedException e) {
+                        // Only close() stops the writer
+                    }
+                }
+                if (pending.isEmpty()) {
+                    return;
+                }
+                batch = pending;
+                pending = new ArrayList<>();
+                batchEnd = nextLsn;
+            }
+
+            if (failure == null) {
+                try {
+                    writeBatch(batch);
+                } catch (IOException e) {
+                    failure = e;
+                }
+            }
+            synchronized (durableLock) {
+                durableLsn = batchEnd;
+                durableLock.notifyAll();
+            }
+        }
+    }
+
+    private void writeBatch(List<byte[]> batch) throws IOException {
+        long bytes = 0;
+        for (byte[] frame : batch) {
+            if (frame == ROLL) {
+                force();
+                channel.close();
+                channel = openSegment(writerLsn);
+                continue;
+            }
+            ByteBuffer buffer = ByteBuffer.wrap(frame);
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            bytes += frame.length;
+            writerLsn++;
+        }
+        force();
+        bytesWritten += bytes;
+    }
+
+    private void force() throws IOException {
+        long started = System.nanoTime();
+        channel.force(false);
+        fsyncNanos += System.nanoTime() - started;
+        fsyncCount++;
+    }
+
+    private FileChannel openSegment(long firstLsn) throws IOException {
+        // A leftover file with this name holds no valid records, or recovery
+        // would have moved nextLsn past it
+        return FileChannel.open(LogFiles.segment(directory, firstLsn),
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+    }
+
+    private static final class RecordBuffer extends DataOutputStream {
+        private RecordBuffer() {
+            super(new ByteArrayOutputStream(96));
+        }
+
+        private byte[] toByteArray() throws IOException {
+            flush();
+            return ((ByteArrayOutputStream) out).toByteArray();
+        }
+    }
+}
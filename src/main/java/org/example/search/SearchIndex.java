@@ -0,0 +1,457 @@
+package org.example.search;
+
+import org.example.Interface.Searchable;
+import org.example.util.ConcurrentLongMap;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.PrimitiveIterator;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.ToLongFunction;
+import java.util.stream.IntStream;
+
+/**
+ * TRIGRAM SEARCH INDEX - SearchIndex
+ *
+ * Answers the same keyword queries as Searchable.matchesSearchCriteria
+ * (substring match on the lowercased searchableTerms, or on the
+ * exactSearchableTerms as typed) without scanning every item.
+ *
+ * DESIGN DECISIONS:
+ * - Every indexed item gets a document number; each trigram (three
+ *   consecutive chars) of its terms has a postings list of the document
+ *   numbers containing it, kept sorted because numbers only grow
+ * - Lowercased and case-sensitive terms are posted under separate keys, so
+ *   both kinds of match are answered from the index
+ * - A query intersects the postings of its trigrams lazily, stepping through
+ *   the smallest list and skipping ahead in the others, and checks each
+ *   remaining candidate with String.contains against the terms
+ *   stored at indexing time. Results are therefore exact, and no strings are
+ *   created per item. Keywords shorter than a trigram check every item
+ * - Re-indexing an item with unchanged terms only swaps the stored item;
+ *   changed terms retire the old document and post a new one. Retired
+ *   documents are dropped from the postings when they outnumber the live ones
+ * - Results come back in the order items were first indexed. Until an item's
+ *   terms change, document numbers follow that order and a limited query
+ *   stops at the limit; compaction restores the order
+ * - One read-write lock: queries run in parallel, changes one at a time
+ */
+public class SearchIndex<T extends Searchable> {
+
+    public static final int NO_LIMIT = Integer.MAX_VALUE;
+
+    private static final int GRAM = 3;
+    // Separates trigrams of case-sensitive terms from those of lowercased terms
+    private static final long EXACT = 1L << 48;
+    private static final int MIN_RETIRED_FOR_COMPACTION = 1024;
+    private static final String[] NO_TERMS = new String[0];
+
+    private final ToLongFunction<T> keyOf;
+    private final ReentrantReadWriteLock lock;
+
+    private ConcurrentLongMap<Postings> postings;
+    // item key -> document number
+    private ConcurrentLongMap<Integer> documents;
+    // Per document number; a retired document has a null item
+    private Object[] items;
+    private String[][] lowerTerms;
+    private String[][] exactTerms;
+    private long[] order;
+    private int documentCount;
+    private int liveCount;
+    private long nextOrder;
+    // True while document numbers follow first-index order, so a limited query can stop early
+    private boolean inOrder = true;
+
+    /**
+     * @param keyOf unique key of an item, e.g. its numeric id
+     */
+    public SearchIndex(ToLongFunction<T> keyOf) {
+        this.keyOf = keyOf;
+        this.lock = new ReentrantReadWriteLock();
+        this.postings = new ConcurrentLongMap<>();
+        this.documents = new ConcurrentLongMap<>();
+        this.items = new Object[16];
+        this.lowerTerms = new String[16][];
+        this.exactTerms = new String[16][];
+        this.order = new long[16];
+    }
+
+    /**
+     * Adds the item, or refreshes it if an item with the same key is indexed.
+     */
+    public void index(T item) {
+        long key = keyOf.applyAsLong(item);
+        String[] lower = terms(item.searchableTerms(), true);
+        String[] exact = terms(item.exactSearchableTerms(), false);
+        // Services re-index on every save; most saves leave the terms alone
+        lock.readLock().lock();
+        try {
+            Integer existing = documents.get(key);
+            if (existing != null && items[existing] == item && unchanged(existing, lower, exact)) {
+                return;
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        lock.writeLock().lock();
+        try {
+            Integer existing = documents.get(key);
+            long position;
+            if (existing != null) {
+                int document = existing;
+                if (unchanged(document, lower, exact)) {
+                    items[document] = item;
+                    return;
+                }
+                position = order[document];
+                retire(document);
+                inOrder = false;
+            } else {
+                position = nextOrder++;
+            }
+            documents.put(key, add(item, lower, exact, position));
+            compactIfMostlyRetired();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(T item) {
+        remove(keyOf.applyAsLong(item));
+    }
+
+    public void remove(long key) {
+        lock.writeLock().lock();
+        try {
+            Integer document = documents.remove(key);
+            if (document != null) {
+                retire(document);
+                compactIfMostlyRetired();
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public List<T> search(String keyword) {
+        return search(keyword, NO_LIMIT);
+    }
+
+    /**
+     * Items for which matchesSearchCriteria(keyword) holds, at most limit of
+     * them, in the order they were first indexed.
+     */
+    public List<T> search(String keyword, int limit) {
+        if (keyword == null || keyword.trim().isEmpty() || limit <= 0) {
+            return Collections.emptyList();
+        }
+        String lowerKeyword = keyword.toLowerCase();
+        lock.readLock().lock();
+        try {
+            PrimitiveIterator.OfInt candidates = lowerKeyword.length() < GRAM || keyword.length() < GRAM
+                    ? IntStream.range(0, documentCount).iterator()
+                    : new Union(intersect(lowerKeyword, 0), intersect(keyword, EXACT));
+            List<Match> matches = new ArrayList<>();
+            while (candidates.hasNext()) {
+                int document = candidates.nextInt();
+                if (items[document] != null && (containsIn(lowerTerms[document], lowerKeyword)
+                        || containsIn(exactTerms[document], keyword))) {
+                    matches.add(new Match(order[document], items[document]));
+                    if (inOrder && matches.size() == limit) {
+                        break;
+                    }
+                }
+            }
+            if (!inOrder) {
+                matches.sort(null);
+            }
+            List<T> results = new ArrayList<>(Math.min(limit, matches.size()));
+            for (int i = 0; i < matches.size() && results.size() < limit; i++) {
+                results.add(cast(matches.get(i).item));
+            }
+            return results;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return liveCount;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private int add(Object item, String[] lower, String[] exact, long position) {
+        if (documentCount == items.length) {
+            int capacity = items.length * 2;
+            items = Arrays.copyOf(items, capacity);
+            lowerTerms = Arrays.copyOf(lowerTerms, capacity);
+            exactTerms = Arrays.copyOf(exactTerms, capacity);
+            order = Arrays.copyOf(order, capacity);
+        }
+        int document = documentCount++;
+        items[document] = item;
+        lowerTerms[document] = lower;
+        exactTerms[document] = exact;
+        order[document] = position;
+        post(document, lower, 0);
+        post(document, exact, EXACT);
+        liveCount++;
+        return document;
+    }
+
+    private boolean unchanged(int document, String[] lower, String[] exact) {
+        return Arrays.equals(lower, lowerTerms[document]) && Arrays.equals(exact, exactTerms[document]);
+    }
+
+    private void retire(int document) {
+        items[document] = null;
+        lowerTerms[document] = null;
+        exactTerms[document] = null;
+        liveCount--;
+    }
+
+    private void compactIfMostlyRetired() {
+        if (documentCount - liveCount > Math.max(MIN_RETIRED_FOR_COMPACTION, liveCount)) {
+            compact();
+        }
+    }
+
+    // Renumbers the live documents in first-index order and rebuilds the
+    // postings without the retired ones
+    private void compact() {
+        Object[] oldItems = items;
+        String[][] oldLower = lowerTerms;
+        String[][] oldExact = exactTerms;
+        long[] oldOrder = order;
+        int oldCount = documentCount;
+        int capacity = Math.max(16, Integer.highestOneBit(Math.max(1, liveCount)) * 2);
+        postings = new ConcurrentLongMap<>();
+        documents = new ConcurrentLongMap<>();
+        items = new Object[capacity];
+        lowerTerms = new String[capacity][];
+        exactTerms = new String[capacity][];
+        order = new long[capacity];
+        documentCount = 0;
+        liveCount = 0;
+        List<Integer> live = new ArrayList<>();
+        for (int document = 0; document < oldCount; document++) {
+            if (oldItems[document] != null) {
+                live.add(document);
+            }
+        }
+        live.sort((a, b) -> Long.compare(oldOrder[a], oldOrder[b]));
+        for (int document : live) {
+            T item = cast(oldItems[document]);
+            documents.put(keyOf.applyAsLong(item),
+                    add(item, oldLower[document], oldExact[document], oldOrder[document]));
+        }
+        inOrder = true;
+    }
+
+    private void post(int document, String[] terms, long channel) {
+        for (String term : terms) {
+            for (int i = 0; i + GRAM <= term.length(); i++) {
+                long gram = gram(term, i, channel);
+                Postings list = postings.get(gram);
+                if (list == null) {
+                    list = new Postings();
+                    postings.put(gram, list);
+                }
+                list.add(document);
+            }
+        }
+    }
+
+    // Document numbers holding every trigram of the keyword, in ascending order
+    private PrimitiveIterator.OfInt intersect(String keyword, long channel) {
+        int grams = keyword.length() - GRAM + 1;
+        Postings[] lists = new Postings[grams];
+        for (int i = 0; i < grams; i++) {
+            Postings list = postings.get(gram(keyword, i, channel));
+            if (list == null) {
+                return IntStream.empty().iterator();
+            }
+            lists[i] = list;
+        }
+        Arrays.sort(lists, (a, b) -> Integer.compare(a.size, b.size));
+        return new Intersection(lists);
+    }
+
+    // First index at or after from whose value is >= target, galloping then binary search
+    private static int seek(int[] values, int from, int size, int target) {
+        int step = 1;
+        int high = from;
+        while (high < size && values[high] < target) {
+            from = high + 1;
+            high += step;
+            step <<= 1;
+        }
+        int index = Arrays.binarySearch(values, from, Math.min(high + 1, size), target);
+        return index >= 0 ? index : -index - 1;
+    }
+
+    private static long gram(String text, int start, long channel) {
+        return channel | (long) text.charAt(start) << 32 | (long) text.charAt(start + 1) << 16
+                | text.charAt(start + 2);
+    }
+
+    private static boolean containsIn(String[] terms, String keyword) {
+        for (String term : terms) {
+            if (term.contains(keyword)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static String[] terms(List<String> values, boolean lowercase) {
+        if (values.isEmpty()) {
+            return NO_TERMS;
+        }
+        List<String> terms = new ArrayList<>(values.size());
+        for (String value : values) {
+            if (value != null) {
+                terms.add(lowercase ? value.toLowerCase() : value);
+            }
+        }
+        return terms.toArray(NO_TERMS);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T cast(Object item) {
+        return (T) item;
+    }
+
+    // Appended to only under the write lock, always with the highest document number so far
+    private static final class Postings {
+        private int[] documents = new int[4];
+        private int size;
+
+        private void add(int document) {
+            if (size > 0 && documents[size - 1] == document) {
+                return;
+            }
+            if (size == documents.length) {
+                documents = Arrays.copyOf(documents, size * 2);
+            }
+            documents[size++] = document;
+        }
+    }
+
+    // Leapfrog join: walks the smallest list and skips ahead in the others,
+    // producing matches lazily so a limited query reads only what it needs
+    private static final class Intersection implements PrimitiveIterator.OfInt {
+        private final Postings[] lists;
+        private final int[] positions;
+        private int next = -1;
+
+        private Intersection(Postings[] lists) {
+            this.lists = lists;
+            this.positions = new int[lists.length];
+        }
+
+        @Override
+        public boolean hasNext() {
+            if (next >= 0) {
+                return true;
+            }
+            Postings first = lists[0];
+            while (positions[0] < first.size) {
+                int target = first.documents[positions[0]];
+                int highest = target;
+                for (int l = 1; l < lists.length; l++) {
+                    positions[l] = seek(lists[l].documents, positions[l], lists[l].size, target);
+                    if (positions[l] == lists[l].size) {
+                        positions[0] = first.size;
+                        return false;
+                    }
+                    highest = Math.max(highest, lists[l].documents[positions[l]]);
+                }
+                if (highest == target) {
+                    positions[0]++;
+                    next = target;
+                    return true;
+                }
+                positions[0] = seek(first.documents, positions[0], first.size, highest);
+            }
+            return false;
+        }
+
+        @Override
+        public int nextInt() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            int document = next;
+            next = -1;
+            return document;
+        }
+    }
+
+    // Ascending merge of two ascending streams, without duplicates
+    private static final class Union implements PrimitiveIterator.OfInt {
+        private final PrimitiveIterator.OfInt a;
+        private final PrimitiveIterator.OfInt b;
+        private int headA = -1;
+        private int headB = -1;
+
+        private Union(PrimitiveIterator.OfInt a, PrimitiveIterator.OfInt b) {
+            this.a = a;
+            this.b = b;
+        }
+
+        @Override
+        public boolean hasNext() {
+            if (headA < 0 && a.hasNext()) {
+                headA = a.nextInt();
+            }
+            if (headB < 0 && b.hasNext()) {
+                headB = b.nextInt();
+            }
+            return headA >= 0 || headB >= 0;
+        }
+
+        @Override
+        public int nextInt() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            int document;
+            if (headB < 0 || (headA >= 0 && headA <= headB)) {
+                document = headA;
+            } else {
+                document = headB;
+            }
+            if (headA == document) {
+                headA = -1;
+            }
+            if (headB == document) {
+                headB = -1;
+            }
+            return document;
+        }
+    }
+
+    private static final class Match implements Comparable<Match> {
+        private final long order;
+        private final Object item;
+
+        private Match(long order, Object item) {
+            this.order = order;
+            this.item = item;
+        }
+
+        @Override
+        public int compareTo(Match other) {
+            return Long.compare(order, other.order);
+        }
+    }
+}
@@ -0,0 +1,129 @@
+package org.example.service;
+
+import org.example.exception.NoDriverAvailableException;
+import org.example.model.BatchDispatchResult;
+import org.example.model.Ride;
+import org.example.model.RideRequest;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Time-windowed dispatcher that collects ride requests for a fixed interval
+ * and hands each window to RideService.requestRides as one batch.
+ *
+ * Callers get a future per request; it completes with the ride, or
+ * exceptionally with NoDriverAvailableException if the batch could not serve
+ * it. An optional listener receives every batch result (pickup distance and
+ * solve time) for reporting.
+ */
+public class BatchDispatcher implements AutoCloseable {
+
+    private final RideService rideService;
+    private final ConcurrentLinkedQueue<PendingRequest> pending;
+    private final ScheduledExecutorService scheduler;
+    private final Consumer<BatchDispatchResult> resultListener;
+
+    public BatchDispatcher(RideService rideService, Duration window) {
+        this(rideService, window, result -> {
+        });
+    }
+
+    public BatchDispatcher(RideService rideService, Duration window, Consumer<BatchDispatchResult> resultListener) {
+        if (window == null || window.isNegative() || window.isZero()) {
+            throw new IllegalArgumentException("Dispatch window must be positive");
+        }
+        this.rideService = rideService;
+        this.resultListener = resultListener;
+        this.pending = new ConcurrentLinkedQueue<>();
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "batch-dispatcher");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long windowNanos = window.toNanos();
+        this.scheduler.scheduleWithFixedDelay(this::flush, windowNanos, windowNanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Queues a request for the next dispatch window.
+     */
+    public CompletableFuture<Ride> submit(RideRequest request) {
+        if (scheduler.isShutdown()) {
+            throw new IllegalStateException("Dispatcher is closed");
+        }
+        CompletableFuture<Ride> future = new CompletableFuture<>();
+        pending.add(new PendingRequest(request, future));
+        return future;
+    }
+
+    /**
+     * Dispatches everything queued so far as one batch.
+     */
+    public synchronized void flush() {
+        List<PendingRequest> batch = new ArrayList<>();
+        PendingRequest next;
+        while ((next = pending.poll()) != null) {
+            batch.add(next);
+        }
+        if (batch.isEmpty()) {
+            return;
+        }
+
+        List<RideRequest> requests = new ArrayList<>(batch.size());
+        for (PendingRequest request : batch) {
+            requests.add(request.request);
+        }
+
+        try {
+            BatchDispatchResult result = rideService.requestRides(requests);
+            Map<RideRequest, Ride> rides = result.getAssignedRides();
+            for (PendingRequest request : batch) {
+                Ride ride = rides.get(request.request);
+                if (ride != null) {
+                    request.future.complete(ride);
+                } else {
+                    request.future.completeExceptionally(
+                            new NoDriverAvailableException("No driver available for " + request.request));
+                }
+            }
+            resultListener.accept(result);
+        } catch (RuntimeException e) {
+            for (PendingRequest request : batch) {
+                request.future.completeExceptionally(e);
+            }
+        }
+    }
+
+    /**
+     * Stops the window timer and dispatches whatever is still queued.
+     */
+    @Override
+    public void close() {
+        scheduler.shutdown();
+        try {
+            scheduler.awaitTermination(1, TimeUnit.MINUTES);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        flush();
+    }
+
+    private static final class PendingRequest {
+        private final RideRequest request;
+        private final CompletableFuture<Ride> future;
+
+        private PendingRequest(RideRequest request, CompletableFuture<Ride> future) {
+            this.request = request;
+            this.future = future;
+        }
+    }
+}
@@ -0,0 +1,245 @@
+package org.example.service;
+
+import org.example.exception.DriverNotFoundException;
+import org.example.model.Driver;
+import org.example.model.Location;
+import org.example.model.LocationPing;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Ingestion path for driver GPS pings.
+ *
+ * Pings are buffered per driver as plain coordinates and published to
+ * DriverService once per tick, so a driver reporting several times within a
+ * tick costs one Location object and one index update instead of one per
+ * ping. A ping that is not newer than the last one seen for its driver is
+ * dropped.
+ *
+ * With a tick interval the ingestor publishes on its own timer; without one
+ * the caller drives it through flush().
+ */
+public class DriverLocationIngestor implements AutoCloseable {
+
+    private final DriverService driverService;
+    private final ConcurrentHashMap<String, Track> tracks;
+    private final ConcurrentLinkedQueue<Track> dirtyTracks;
+    private final ScheduledExecutorService scheduler;
+
+    private final LongAdder accepted = new LongAdder();
+    private final LongAdder coalesced = new LongAdder();
+    private final LongAdder outOfOrder = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder published = new LongAdder();
+
+    public DriverLocationIngestor(DriverService driverService) {
+        this.driverService = driverService;
+        this.tracks = new ConcurrentHashMap<>();
+        this.dirtyTracks = new ConcurrentLinkedQueue<>();
+        this.scheduler = null;
+    }
+
+    public DriverLocationIngestor(DriverService driverService, Duration tick) {
+        if (tick == null || tick.isNegative() || tick.isZero()) {
+            throw new IllegalArgumentException("Tick interval must be positive");
+        }
+        this.driverService = driverService;
+        this.tracks = new ConcurrentHashMap<>();
+        this.dirtyTracks = new ConcurrentLinkedQueue<>();
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "location-ingestor");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long tickNanos = tick.toNanos();
+        this.scheduler.scheduleWithFixedDelay(this::flush, tickNanos, tickNanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Buffers one ping for the next tick.
+     *
+     * @param timestamp device time of the fix, in epoch milliseconds
+     * @return false if the ping was dropped (unknown driver, invalid
+     *         coordinates, or not newer than the driver's last ping)
+     */
+    public boolean ingest(String driverId, double latitude, double longitude, long timestamp) {
+        if (!(latitude >= -90 && latitude <= 90 && longitude >= -180 && longitude <= 180)) {
+            rejected.increment();
+            return false;
+        }
+        Track track = trackFor(driverId);
+        if (track == null) {
+            rejected.increment();
+            return false;
+        }
+
+        synchronized (track) {
+            long newest = track.dirty ? track.pendingTimestamp : track.publishedTimestamp;
+            if (timestamp <= newest) {
+                outOfOrder.increment();
+                return false;
+            }
+            track.pendingLatitude = latitude;
+            track.pendingLongitude = longitude;
+            track.pendingTimestamp = timestamp;
+            if (track.dirty) {
+                coalesced.increment();
+            } else {
+                track.dirty = true;
+                dirtyTracks.add(track);
+            }
+        }
+        accepted.increment();
+        return true;
+    }
+
+    /**
+     * Buffers a batch given as parallel columns; only the first count entries
+     * are read.
+     *
+     * @return number of pings accepted
+     */
+    public int ingest(String[] driverIds, double[] latitudes, double[] longitudes, long[] timestamps, int count) {
+        if (count > driverIds.length || count > latitudes.length
+                || count > longitudes.length || count > timestamps.length) {
+            throw new IllegalArgumentException("Count exceeds batch length: " + count);
+        }
+        int acceptedPings = 0;
+        for (int i = 0; i < count; i++) {
+            if (ingest(driverIds[i], latitudes[i], longitudes[i], timestamps[i])) {
+                acceptedPings++;
+            }
+        }
+        return acceptedPings;
+    }
+
+    /**
+     * @return number of pings accepted
+     */
+    public int ingest(List<LocationPing> pings) {
+        int acceptedPings = 0;
+        for (LocationPing ping : pings) {
+            if (ingest(ping.getDriverId(), ping.getLatitude(), ping.getLongitude(), ping.getTimestamp())) {
+                acceptedPings++;
+            }
+        }
+        return acceptedPings;
+    }
+
+    /**
+     * Publishes the newest buffered position of every driver that pinged since
+     * the last tick.
+     *
+     * @return number of drivers moved
+     */
+    public synchronized int flush() {
+        int moved = 0;
+        Track track;
+        while ((track = dirtyTracks.poll()) != null) {
+            double latitude;
+            double longitude;
+            long timestamp;
+            synchronized (track) {
+                latitude = track.pendingLatitude;
+                longitude = track.pendingLongitude;
+                timestamp = track.pendingTimestamp;
+                track.publishedTimestamp = timestamp;
+                track.dirty = false;
+            }
+
+            Driver driver = track.driver;
+            Location current = driver.getDriverLocation();
+            // A parked driver keeps its Location and index entries
+            Location location = current != null
+                    && current.getLatitude() == latitude && current.getLongitude() == longitude
+                    ? current
+                    : new Location(latitude, longitude);
+            if (driverService.moveDriver(driver, location, timestamp)) {
+                moved++;
+            } else {
+                // Deleted since it started pinging
+                tracks.remove(driver.getDriverId(), track);
+            }
+        }
+        published.add(moved);
+        return moved;
+    }
+
+    /**
+     * Stops the tick timer and publishes whatever is still buffered.
+     */
+    @Override
+    public void close() {
+        if (scheduler != null) {
+            scheduler.shutdown();
+            try {
+                scheduler.awaitTermination(1, TimeUnit.MINUTES);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        flush();
+    }
+
+    public long getAcceptedCount() {
+        return accepted.sum();
+    }
+
+    /**
+     * Pings that were accepted but superseded by a newer ping in the same tick.
+     */
+    public long getCoalescedCount() {
+        return coalesced.sum();
+    }
+
+    public long getOutOfOrderCount() {
+        return outOfOrder.sum();
+    }
+
+    public long getRejectedCount() {
+        return rejected.sum();
+    }
+
+    public long getPublishedCount() {
+        return published.sum();
+    }
+
+    private Track trackFor(String driverId) {
+        if (driverId == null) {
+            return null;
+        }
+        Track track = tracks.get(driverId);
+        if (track != null) {
+            return track;
+        }
+        Driver driver;
+        try {
+            driver = driverService.getDriver(driverId);
+        } catch (DriverNotFoundException e) {
+            return null;
+        }
+        return tracks.computeIfAbsent(driverId, id -> new Track(driver));
+    }
+
+    // Per-driver buffer, guarded by its own monitor
+    private static final class Track {
+        private final Driver driver;
+        private long publishedTimestamp;
+        private long pendingTimestamp;
+        private double pendingLatitude;
+        private double pendingLongitude;
+        private boolean dirty;
+
+        private Track(Driver driver) {
+            this.driver = driver;
+            this.publishedTimestamp = driver.getLocationTimestamp();
+        }
+    }
+}
@@ -2,27 +2,79 @@ package org.example.service;
 
 import org.example.exception.DriverNotFoundException;
 import org.example.model.Driver;
+import org.example.model.Location;
+import org.example.persistence.WriteAheadLog;
+import org.example.search.SearchIndex;
+import org.example.util.ConcurrentDataStore;
 import org.example.util.DataStore;
+import org.example.util.DriverActivityIndex;
+import org.example.util.DriverPositionStore;
+import org.example.util.GeoGridIndex;
+import org.example.util.IdGenerator;
+import org.example.util.LiveOrderedSet;
+import org.example.util.Page;
 import org.example.util.Validator;
 
-import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 public class DriverService {
 
     private DataStore<Driver> driverStore;
+    private GeoGridIndex locationIndex;
+    private DriverPositionStore positionStore;
+    private DriverActivityIndex activityIndex;
+    private SearchIndex<Driver> searchIndex;
+    private WriteAheadLog writeAheadLog;
+    private volatile Consumer<Driver> updateListener;
+
+    // Available drivers in registration order, maintained on every availability change
+    private LiveOrderedSet<Driver> availableDrivers;
+    private ConcurrentHashMap<String, Long> registrationOrder;
+    private AtomicLong registrationSequence;
 
     public DriverService() {
-        this.driverStore = new DataStore<Driver>();
+        this.driverStore = new ConcurrentDataStore<Driver>();
+        this.locationIndex = new GeoGridIndex();
+        this.positionStore = new DriverPositionStore();
+        this.activityIndex = new DriverActivityIndex();
+        this.searchIndex = new SearchIndex<>(Driver::getId);
+        this.availableDrivers = new LiveOrderedSet<>();
+        this.registrationOrder = new ConcurrentHashMap<>();
+        this.registrationSequence = new AtomicLong();
+    }
+
+    /**
+     * Logs every driver change to the given log; null turns logging off.
+     * Position pings from moveDriver are not logged.
+     */
+    public void setWriteAheadLog(WriteAheadLog writeAheadLog) {
+        this.writeAheadLog = writeAheadLog;
+    }
+
+    /**
+     * Called after every updateDriver, so indexes that copy driver fields,
+     * like the names in ride search, can refresh them; null for none.
+     */
+    public void setUpdateListener(Consumer<Driver> updateListener) {
+        this.updateListener = updateListener;
     }
 
     public void registerDriver(Driver driver) {
         Validator.validDriver(driver);
-        driverStore.add(driver.getDriverId(), driver);
+        driverStore.add(driver.getId(), driver);
+        registrationOrder.computeIfAbsent(driver.getDriverId(), id -> registrationSequence.incrementAndGet());
+        syncIndexes(driver);
+        searchIndex.index(driver);
+        commit(log(driver));
     }
 
     public Driver getDriver(String driverId) throws DriverNotFoundException {
-        Driver driver = driverStore.findById(driverId);
+        Driver driver = driverStore.findById(IdGenerator.DRIVERS.parse(driverId));
 
         if (driver == null) {
             throw new DriverNotFoundException(driverId);
@@ -30,27 +82,207 @@ public class DriverService {
         return driver;
     }
 
+    /**
+     * Same as getDriver, but returns null for an unknown id.
+     */
+    public Driver findDriver(String driverId) {
+        return driverStore.findById(IdGenerator.DRIVERS.parse(driverId));
+    }
+
     public void updateDriver(Driver driver) {
         Validator.validDriver(driver);
-        driverStore.update(driver.getDriverId(), driver);
+        driverStore.update(driver.getId(), driver);
+        // Picks up location and availability changes
+        syncIndexes(driver);
+        searchIndex.index(driver);
+        long lsn = log(driver);
+        Consumer<Driver> updateListener = this.updateListener;
+        if (updateListener != null) {
+            updateListener.accept(driver);
+        }
+        commit(lsn);
+    }
+
+    /**
+     * Changes a driver's availability and updates the available set and the
+     * location index in one step, without re-validating the driver.
+     * The log record is made durable by the ride transition that follows.
+     */
+    public void setDriverAvailability(Driver driver, boolean available) {
+        driver.setAvailable(available);
+        syncIndexes(driver);
+        log(driver);
+    }
+
+    /**
+     * Atomically reserves an available driver for a ride. Nothing is logged:
+     * the ride's own record is what reserves the driver after a restart, so a
+     * crash before that record is durable leaves the driver available.
+     *
+     * @return false if another request reserved the driver first
+     */
+    public boolean reserveDriver(Driver driver) {
+        if (!driver.tryReserve()) {
+            return false;
+        }
+        syncIndexes(driver);
+        return true;
+    }
+
+    /**
+     * Holds a driver for an assigned ride restored at startup, whatever
+     * availability their own record shows.
+     */
+    public void restoreReservation(Driver driver) {
+        driver.markReserved();
+        if (registrationOrder.containsKey(driver.getDriverId())) {
+            syncIndexes(driver);
+        }
+    }
+
+    /**
+     * Counts a ride the driver completed at the given time, in the driver's
+     * completed rides and in the activity index.
+     */
+    public void recordCompletedRide(Driver driver, long timestampMillis) {
+        driver.incrementCompletedRides();
+        activityIndex.recordCompletedRide(driver, timestampMillis);
+    }
+
+    /**
+     * Moves a driver to a reported position. Used by location ingestion; skips
+     * validation and the store write since only the position changes.
+     *
+     * @return false if the driver is no longer registered
+     */
+    public boolean moveDriver(Driver driver, Location location, long timestamp) {
+        if (!registrationOrder.containsKey(driver.getDriverId())) {
+            return false;
+        }
+        Location previous = driver.getDriverLocation();
+        driver.setDriverLocation(location);
+        driver.setLocationTimestamp(timestamp);
+        if (location != previous) {
+            locationIndex.update(driver);
+            positionStore.update(driver);
+        }
+        return true;
     }
 
     public void deleteDriver(String driverId) {
-        driverStore.delete(driverId);
+        long id = IdGenerator.DRIVERS.parse(driverId);
+        driverStore.delete(id);
+        searchIndex.remove(id);
+        Long sequence = registrationOrder.remove(driverId);
+        if (sequence != null) {
+            availableDrivers.remove(sequence);
+        }
+        locationIndex.remove(driverId);
+        positionStore.remove(driverId);
+        activityIndex.remove(id);
+        if (writeAheadLog != null) {
+            commit(writeAheadLog.logDriverDeleted(driverId));
+        }
+    }
+
+    /**
+     * Grid index of available drivers, kept in sync on register, update and delete.
+     */
+    public GeoGridIndex getLocationIndex() {
+        return locationIndex;
+    }
+
+    /**
+     * Struct-of-arrays copy of driver positions and availability, kept in sync
+     * on register, update, availability change and delete.
+     */
+    public DriverPositionStore getPositionStore() {
+        return positionStore;
+    }
+
+    /**
+     * Available drivers ordered by lifetime and by recent workload, kept in
+     * sync on register, update, availability change, completed ride and
+     * delete.
+     */
+    public DriverActivityIndex getActivityIndex() {
+        return activityIndex;
     }
 
     public List<Driver> getAllDrivers() {
-        return new ArrayList<>(driverStore.getAll());
+        return driverStore.getAll();
     }
 
-    public List<Driver> getAvailableDrivers() {
-        List<Driver> allDrivers = getAllDrivers();
-        List<Driver> availableDrivers = new ArrayList<>();
-        for (Driver driver : allDrivers) {
-            if (driver != null && driver.isAvailable()) {
-                availableDrivers.add(driver);
-            }
+    /**
+     * Drivers in registration order, read from the store as the stream is
+     * consumed.
+     */
+    public Stream<Driver> streamDrivers() {
+        return driverStore.stream();
+    }
+
+    /**
+     * Up to limit drivers from the cursor on, in registration order. Start with
+     * Page.FIRST and continue with the page's next cursor.
+     */
+    public Page<Driver> getDrivers(long cursor, int limit) {
+        return driverStore.page(cursor, limit);
+    }
+
+    public int getDriverCount() {
+        return driverStore.size();
+    }
+
+    /**
+     * Live, read-only view of the available drivers in registration order.
+     * Nothing is copied.
+     */
+    public Collection<Driver> getAvailableDrivers() {
+        return availableDrivers.view();
+    }
+
+    public int getAvailableDriverCount() {
+        return availableDrivers.size();
+    }
+
+    /**
+     * Drivers matching the keyword as in Driver.matchesSearchCriteria, answered
+     * from the search index, in registration order.
+     */
+    public List<Driver> searchDrivers(String keyword) {
+        return searchIndex.search(keyword);
+    }
+
+    public List<Driver> searchDrivers(String keyword, int limit) {
+        return searchIndex.search(keyword, limit);
+    }
+
+    private long log(Driver driver) {
+        return writeAheadLog != null ? writeAheadLog.logDriver(driver) : -1;
+    }
+
+    private void commit(long lsn) {
+        if (writeAheadLog != null && lsn >= 0) {
+            writeAheadLog.awaitDurable(lsn);
         }
-        return availableDrivers;
+    }
+
+    private void syncIndexes(Driver driver) {
+        syncAvailability(driver);
+        locationIndex.update(driver);
+        positionStore.update(driver);
+        activityIndex.update(driver);
+    }
+
+    private void syncAvailability(Driver driver) {
+        // compute locks the driver's entry so concurrent changes apply in order
+        registrationOrder.computeIfPresent(driver.getDriverId(), (id, sequence) -> {
+            if (driver.isAvailable()) {
+                availableDrivers.add(sequence, driver);
+            } else {
+                availableDrivers.remove(sequence);
+            }
+            return sequence;
+        });
     }
 }
@@ -1,50 +1,353 @@
 package org.example.service;
 
+import org.example.archive.ArchivedRide;
+import org.example.archive.RideArchive;
+import org.example.event.RideEventJournal;
 import org.example.exception.NoDriverAvailableException;
 import org.example.exception.RideNotFoundException;
+import org.example.exception.RiderNotFoundException;
+import org.example.fare.SurgeEngine;
+import org.example.metrics.RideMetrics;
 import org.example.model.*;
+import org.example.persistence.WriteAheadLog;
+import org.example.search.SearchIndex;
 import org.example.strategy.FareCalculationStrategy;
 import org.example.strategy.RideMatchingStrategy;
+import org.example.util.ConcurrentDataStore;
 import org.example.util.DataStore;
+import org.example.util.IdGenerator;
+import org.example.util.MinCostAssignment;
+import org.example.util.Page;
+import org.example.util.RideIndex;
+import org.example.util.ScanCounter;
 
+import java.time.Clock;
 import java.time.Instant;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
 
 public class RideService {
 
+    // Nearest drivers considered per request when a batch is solved jointly
+    private static final int BATCH_CANDIDATES_PER_REQUEST = 8;
+
     private DataStore<Ride> rideStore;
+    private SearchIndex<Ride> searchIndex;
+    private RideIndex rideIndex;
     private DriverService driverService;
     private RiderService riderService;
-    private FareCalculationStrategy fareCalculationStrategy;
-    private RideMatchingStrategy rideMatchingStrategy;
+    // Swapped while requests run; each operation reads them once
+    private volatile FareCalculationStrategy fareCalculationStrategy;
+    private volatile RideMatchingStrategy rideMatchingStrategy;
+    private WriteAheadLog writeAheadLog;
+    private RideArchive rideArchive;
+    private SurgeEngine surgeEngine;
+    private RideMetrics metrics;
+    private RideEventJournal eventJournal;
+    private Clock clock;
 
     public RideService(DriverService driverService, RiderService riderService,
             RideMatchingStrategy rideMatchingStrategy,
             FareCalculationStrategy fareCalculationStrategy) {
-        this.rideStore = new DataStore<>();
+        this.rideStore = new ConcurrentDataStore<>();
+        this.searchIndex = new SearchIndex<>(Ride::getId);
+        this.rideIndex = new RideIndex();
         this.driverService = driverService;
         this.riderService = riderService;
         this.rideMatchingStrategy = rideMatchingStrategy;
         this.fareCalculationStrategy = fareCalculationStrategy;
+        this.clock = Clock.systemUTC();
+        // Ride search copies rider and driver names when a ride is indexed
+        riderService.setUpdateListener(rider -> reindex(rideIndex.ridesOfRider(rider.getId())));
+        driverService.setUpdateListener(driver -> reindex(rideIndex.ridesOfDriver(driver.getId())));
+    }
+
+    /**
+     * Matches later requests with the given strategy. Rides, the log, the
+     * archive and every other attachment stay as they are; requests already
+     * matching finish with the previous strategy.
+     */
+    public void setRideMatchingStrategy(RideMatchingStrategy rideMatchingStrategy) {
+        if (rideMatchingStrategy == null) {
+            throw new IllegalArgumentException("Matching strategy cannot be null");
+        }
+        this.rideMatchingStrategy = rideMatchingStrategy;
+    }
+
+    /**
+     * Prices later completions with the given strategy.
+     */
+    public void setFareCalculationStrategy(FareCalculationStrategy fareCalculationStrategy) {
+        if (fareCalculationStrategy == null) {
+            throw new IllegalArgumentException("Fare strategy cannot be null");
+        }
+        this.fareCalculationStrategy = fareCalculationStrategy;
+    }
+
+    /**
+     * Logs rides and their status transitions to the given log; every ride
+     * operation returns only once its records are durable. null turns logging
+     * off. Attach the same log to RiderService and DriverService.
+     */
+    public void setWriteAheadLog(WriteAheadLog writeAheadLog) {
+        this.writeAheadLog = writeAheadLog;
+    }
+
+    /**
+     * Moves rides into the archive as soon as they are completed or
+     * cancelled; null keeps them in memory. Set it before recovery so
+     * recovered finished rides are archived too.
+     */
+    public void setRideArchive(RideArchive rideArchive) {
+        this.rideArchive = rideArchive;
+        if (rideArchive != null) {
+            // Rides archived in earlier runs are not replayed by recovery
+            for (ArchivedRide ride : rideArchive.getAllArchived()) {
+                rideIndex.add(ride.getId(), IdGenerator.RIDERS.parse(ride.getRiderId()),
+                        IdGenerator.DRIVERS.parse(ride.getDriverId()), ride.getRideStatus(), ride.getVehicleType());
+            }
+        }
+    }
+
+    /**
+     * Reports every request, and every request that finds no available
+     * driver, to the surge engine; null stops reporting.
+     */
+    public void setSurgeEngine(SurgeEngine surgeEngine) {
+        this.surgeEngine = surgeEngine;
+    }
+
+    /**
+     * Records latencies of requestRide, completeRide, cancelRide and the
+     * matching strategy, drivers scanned per match and rejected requests;
+     * null stops recording.
+     */
+    public void setMetrics(RideMetrics metrics) {
+        this.metrics = metrics;
+    }
+
+    /**
+     * Records every request, assignment, completion and cancellation in the
+     * journal for asynchronous consumers; null stops recording. Events are
+     * recorded as the in-memory state changes, before the log record is
+     * durable.
+     */
+    public void setEventJournal(RideEventJournal eventJournal) {
+        this.eventJournal = eventJournal;
+    }
+
+    public RideEventJournal getEventJournal() {
+        return eventJournal;
+    }
+
+    /**
+     * Clock for ride and receipt timestamps. A simulation passes a
+     * VirtualClock so they advance faster than real time.
+     */
+    public void setClock(Clock clock) {
+        if (clock == null) {
+            throw new IllegalArgumentException("Clock cannot be null");
+        }
+        this.clock = clock;
+    }
+
+    public RideArchive getRideArchive() {
+        return rideArchive;
     }
 
     public Ride requestRide(String riderId, Location pickup, Location dropOff, VehicleType vehicleType) {
+        RideMetrics metrics = this.metrics;
+        long started = System.nanoTime();
+        try {
+            return matchRide(riderId, pickup, dropOff, vehicleType, metrics);
+        } catch (NoDriverAvailableException e) {
+            SurgeEngine surgeEngine = this.surgeEngine;
+            if (surgeEngine != null) {
+                surgeEngine.recordRejection(pickup);
+            }
+            RideEventJournal eventJournal = this.eventJournal;
+            if (eventJournal != null) {
+                // Only thrown once the rider was found, so the id parses
+                eventJournal.rideRejected(IdGenerator.RIDERS.parse(riderId), pickup, vehicleType, clock.millis());
+            }
+            if (metrics != null) {
+                metrics.getNoDriverAvailable().increment();
+            }
+            throw e;
+        } finally {
+            if (metrics != null) {
+                metrics.getRequestRideLatency().recordSince(started);
+            }
+        }
+    }
+
+    private Ride matchRide(String riderId, Location pickup, Location dropOff, VehicleType vehicleType,
+            RideMetrics metrics) {
         Rider rider = riderService.getRider(riderId);
+        SurgeEngine surgeEngine = this.surgeEngine;
+        if (surgeEngine != null) {
+            surgeEngine.recordRequest(pickup);
+        }
+        RideEventJournal eventJournal = this.eventJournal;
+        if (eventJournal != null) {
+            eventJournal.rideRequested(rider.getId(), pickup, vehicleType, clock.millis());
+        }
 
-        // Update rider location to pickup location
+        // Update rider location to pickup location; logged with the ride
         rider.setRiderLocation(pickup);
-        riderService.updateRider(rider);
+        riderService.applyUpdate(rider);
+
+        // Live view of available drivers, nothing is copied
+        Collection<Driver> availableDrivers = driverService.getAvailableDrivers();
+
+        // Use strategy to find the best driver and reserve it atomically. If another
+        // request reserved it first it is no longer available, so the next pass
+        // picks the next-best candidate.
+        Driver driver = null;
+        while (driver == null) {
+            if (availableDrivers.isEmpty()) {
+                throw new NoDriverAvailableException("No drivers available");
+            }
+            Driver candidate = findDriver(rider, availableDrivers, metrics);
+            if (driverService.reserveDriver(candidate)) {
+                driver = candidate;
+            } else {
+                Thread.onSpinWait();
+            }
+        }
+
+        Ride ride = createAssignedRide(rider, driver, pickup, dropOff, vehicleType);
+        commit(log(ride));
+        return ride;
+    }
 
-        // Get only available drivers
-        List<Driver> availableDrivers = driverService.getAvailableDrivers();
-        if (availableDrivers.isEmpty()) {
-            throw new NoDriverAvailableException("No drivers available");
+    private Driver findDriver(Rider rider, Collection<Driver> availableDrivers, RideMetrics metrics) {
+        RideMatchingStrategy rideMatchingStrategy = this.rideMatchingStrategy;
+        if (metrics == null) {
+            return rideMatchingStrategy.findDriver(rider, availableDrivers);
+        }
+        ScanCounter.take(); // drop counts left by other callers on this thread
+        long started = System.nanoTime();
+        try {
+            return rideMatchingStrategy.findDriver(rider, availableDrivers);
+        } finally {
+            metrics.getFindDriverLatency().recordSince(started);
+            metrics.getDriversScanned().record(ScanCounter.take());
+        }
+    }
+
+    /**
+     * Dispatches a batch of requests together. Candidate drivers (the nearest
+     * few per request) are collected once for the whole batch, and riders are
+     * paired with drivers by a minimum-cost assignment over pickup distance
+     * instead of one greedy match at a time.
+     *
+     * A request whose assigned driver was reserved by a concurrent single
+     * request falls back to requestRide; requests that cannot be served end up
+     * in the unassigned list instead of failing the batch.
+     */
+    public BatchDispatchResult requestRides(List<RideRequest> requests) {
+        long started = System.nanoTime();
+        Map<RideRequest, Ride> assignedRides = new LinkedHashMap<>();
+        List<RideRequest> unassigned = new ArrayList<>();
+        long lastLsn = -1;
+
+        // 1. Resolve riders; unknown riders cannot be served
+        List<RideRequest> valid = new ArrayList<>(requests.size());
+        List<Rider> riders = new ArrayList<>(requests.size());
+        for (RideRequest request : requests) {
+            try {
+                Rider rider = riderService.getRider(request.getRiderId());
+                rider.setRiderLocation(request.getPickup());
+                lastLsn = Math.max(lastLsn, riderService.applyUpdate(rider));
+                valid.add(request);
+                riders.add(rider);
+            } catch (RiderNotFoundException e) {
+                unassigned.add(request);
+            }
+        }
+
+        // 2. Shared candidate set: union of each request's nearest available drivers.
+        //    Each request's search radius is the distance to its farthest own candidate.
+        Map<Driver, Integer> candidateColumns = new LinkedHashMap<>();
+        double[] searchRadius = new double[valid.size()];
+        for (int i = 0; i < valid.size(); i++) {
+            Location pickup = valid.get(i).getPickup();
+            List<Driver> nearest = driverService.getLocationIndex().findNearest(pickup, BATCH_CANDIDATES_PER_REQUEST);
+            for (Driver candidate : nearest) {
+                candidateColumns.putIfAbsent(candidate, candidateColumns.size());
+            }
+            searchRadius[i] = nearest.isEmpty() ? 0
+                    : pickup.calculateDistanceTo(nearest.get(nearest.size() - 1).getDriverLocation());
+        }
+        List<Driver> candidates = new ArrayList<>(candidateColumns.keySet());
+
+        // 3. Pickup distance from every request to every candidate within its radius,
+        //    computed once; the bounding-box test skips the exact distance for the rest
+        double[][] pickupDistance = new double[valid.size()][candidates.size()];
+        for (int i = 0; i < valid.size(); i++) {
+            Location pickup = valid.get(i).getPickup();
+            for (int j = 0; j < candidates.size(); j++) {
+                Location driverLocation = candidates.get(j).getDriverLocation();
+                double distance = pickup.mayBeWithin(driverLocation, searchRadius[i])
+                        ? pickup.calculateDistanceTo(driverLocation)
+                        : MinCostAssignment.FORBIDDEN;
+                pickupDistance[i][j] = distance <= searchRadius[i] ? distance : MinCostAssignment.FORBIDDEN;
+            }
+        }
+
+        // 4. Solve the assignment for the whole batch
+        long solveStarted = System.nanoTime();
+        int[] assignment = MinCostAssignment.solve(pickupDistance);
+        long solveTime = System.nanoTime() - solveStarted;
+
+        // 5. Reserve the assigned drivers and create the rides; the whole batch
+        //    is committed to the log at once
+        double totalPickupDistance = 0;
+        for (int i = 0; i < valid.size(); i++) {
+            RideRequest request = valid.get(i);
+            Driver driver = assignment[i] >= 0 ? candidates.get(assignment[i]) : null;
+            Ride ride = null;
+            if (driver != null && driverService.reserveDriver(driver)) {
+                // Requests that fall back to requestRide are counted there
+                SurgeEngine surgeEngine = this.surgeEngine;
+                if (surgeEngine != null) {
+                    surgeEngine.recordRequest(request.getPickup());
+                }
+                RideEventJournal eventJournal = this.eventJournal;
+                if (eventJournal != null) {
+                    eventJournal.rideRequested(riders.get(i).getId(), request.getPickup(), request.getVehicleType(),
+                            clock.millis());
+                }
+                ride = createAssignedRide(riders.get(i), driver, request.getPickup(), request.getDropOff(),
+                        request.getVehicleType());
+                lastLsn = Math.max(lastLsn, log(ride));
+            } else {
+                try {
+                    ride = requestRide(request.getRiderId(), request.getPickup(), request.getDropOff(),
+                            request.getVehicleType());
+                } catch (NoDriverAvailableException e) {
+                    unassigned.add(request);
+                }
+            }
+            if (ride != null) {
+                assignedRides.put(request, ride);
+                totalPickupDistance += request.getPickup().calculateDistanceTo(ride.getDriver().getDriverLocation());
+            }
         }
 
-        // Use strategy to find the best driver
-        Driver driver = rideMatchingStrategy.findDriver(rider, availableDrivers);
+        commit(lastLsn);
 
+        return new BatchDispatchResult(assignedRides, unassigned, totalPickupDistance, solveTime,
+                System.nanoTime() - started);
+    }
+
+    private Ride createAssignedRide(Rider rider, Driver driver, Location pickup, Location dropOff,
+            VehicleType vehicleType) {
         // Calculate distance
         double distance = pickup.calculateDistanceTo(dropOff);
 
@@ -53,73 +356,352 @@ public class RideService {
 
         // Update ride status to ASSIGNED
         ride.setRideStatus(RideStatus.ASSIGNED);
-
-        // Mark driver as unavailable
-        driver.setAvailable(false);
-        driverService.updateDriver(driver);
+        ride.setRequestedAt(clock.instant());
 
         // Store the ride
-        rideStore.add(ride.getRideId(), ride);
-        rideStore.update(ride.getRideId(), ride); // Update to save ASSIGNED status
+        rideStore.add(ride.getId(), ride);
+        rideIndex.add(ride.getId(), rider.getId(), driver.getId(), RideStatus.ASSIGNED, vehicleType);
+        searchIndex.index(ride);
+
+        RideEventJournal eventJournal = this.eventJournal;
+        if (eventJournal != null) {
+            eventJournal.rideAssigned(ride, pickup, ride.getRequestedAt().toEpochMilli());
+        }
 
         return ride;
     }
 
     public FareReceipt completeRide(String rideId) throws RideNotFoundException {
-        Ride ride = rideStore.findById(rideId);
+        long started = System.nanoTime();
+        try {
+            Ride ride = findRide(rideId);
 
-        if (ride == null) {
-            throw new RideNotFoundException("Ride not found");
-        }
+            if (ride == null) {
+                throw new RideNotFoundException("Ride not found");
+            }
 
-        // The ride status is expected to be ASSIGNED before completion, not just any
-        // status
-        if (!ride.getRideStatus().equals(RideStatus.ASSIGNED)) {
-            throw new IllegalStateException("Ride must be in ASSIGNED status to complete");
-        }
+            // The ride status is expected to be ASSIGNED before completion, not just any
+            // status
+            if (ride.getRideStatus() != RideStatus.ASSIGNED) {
+                throw new IllegalStateException("Ride must be in ASSIGNED status to complete");
+            }
 
-        double fare = fareCalculationStrategy.calculateFare(ride);
+            double fare = fareCalculationStrategy.calculateFare(ride);
+            Instant finishedAt = clock.instant();
 
-        ride.setRideStatus(RideStatus.COMPLETED);
-        rideStore.update(ride.getRideId(), ride);
+            // Only the caller that moves the ride out of ASSIGNED goes on; a concurrent
+            // completion or cancellation that got there first wins
+            if (!ride.compareAndSetRideStatus(RideStatus.ASSIGNED, RideStatus.COMPLETED)) {
+                throw new IllegalStateException("Ride must be in ASSIGNED status to complete");
+            }
+            Driver driver = ride.getDriver();
+            boolean releaseDriver = isServing(driver, ride);
+            finish(ride, fare, finishedAt);
+            rideIndex.transition(ride.getId(), driverId(ride), RideStatus.ASSIGNED, RideStatus.COMPLETED);
 
-        Driver driver = ride.getDriver();
-        driver.setAvailable(true);
-        driver.incrementCompletedRides();
-        driverService.updateDriver(driver);
+            if (driver != null) {
+                driverService.recordCompletedRide(driver, finishedAt.toEpochMilli());
+            }
+            if (releaseDriver) {
+                driverService.setDriverAvailability(driver, true);
+            }
+            storeFinished(ride);
 
-        FareReceipt receipt = new FareReceipt(rideId, fare, Instant.now());
+            FareReceipt receipt = new FareReceipt(rideId, fare, finishedAt);
+            RideEventJournal eventJournal = this.eventJournal;
+            if (eventJournal != null) {
+                eventJournal.rideCompleted(ride, receipt, finishedAt.toEpochMilli());
+            }
+            commit(logStatus(ride, receipt.getReceiptId()));
 
-        return receipt;
+            return receipt;
+        } finally {
+            RideMetrics metrics = this.metrics;
+            if (metrics != null) {
+                metrics.getCompleteRideLatency().recordSince(started);
+            }
+        }
     }
 
     public void cancelRide(String rideId) throws RideNotFoundException {
-        Ride ride = rideStore.findById(rideId);
-        if (ride == null) {
-            throw new RideNotFoundException("Ride not found");
-        }
-        if (ride.getRideStatus().equals(RideStatus.ASSIGNED)) {
-            ride.setRideStatus(RideStatus.CANCELLED);
-            rideStore.update(ride.getRideId(), ride);
+        long started = System.nanoTime();
+        try {
+            Ride ride = findRide(rideId);
+            if (ride == null) {
+                throw new RideNotFoundException("Ride not found");
+            }
+            // Cancelling a ride that is no longer assigned, or that a concurrent call
+            // completed or cancelled first, does nothing
+            if (ride.compareAndSetRideStatus(RideStatus.ASSIGNED, RideStatus.CANCELLED)) {
+                Driver driver = ride.getDriver();
+                boolean releaseDriver = isServing(driver, ride);
+                finish(ride, ride.getFare(), clock.instant());
+                rideIndex.transition(ride.getId(), driverId(ride), RideStatus.ASSIGNED, RideStatus.CANCELLED);
 
-            // Mark driver as available again
-            Driver driver = ride.getDriver();
-            if (driver != null) {
-                driver.setAvailable(true);
-                driverService.updateDriver(driver);
+                // Mark driver as available again
+                if (releaseDriver) {
+                    driverService.setDriverAvailability(driver, true);
+                }
+                storeFinished(ride);
+                RideEventJournal eventJournal = this.eventJournal;
+                if (eventJournal != null) {
+                    eventJournal.rideCancelled(ride, ride.getFinishedAt().toEpochMilli());
+                }
+                commit(logStatus(ride, null));
+            }
+        } finally {
+            RideMetrics metrics = this.metrics;
+            if (metrics != null) {
+                metrics.getCancelRideLatency().recordSince(started);
             }
         }
     }
 
     public Ride getRide(String rideId) throws RideNotFoundException {
-        Ride ride = rideStore.findById(rideId);
+        Ride ride = findRide(rideId);
         if (ride == null) {
             throw new RideNotFoundException("Ride not found");
         }
         return ride;
     }
 
+    /**
+     * Every ride of the rider, open or archived, in id order. Runs in time
+     * proportional to the number of rides returned, as do the other indexed
+     * queries below.
+     */
+    public List<Ride> getRidesByRider(String riderId) {
+        return resolve(rideIndex.ridesOfRider(IdGenerator.RIDERS.parse(riderId)));
+    }
+
+    public List<Ride> getRidesByDriver(String driverId) {
+        return resolve(rideIndex.ridesOfDriver(IdGenerator.DRIVERS.parse(driverId)));
+    }
+
+    public List<Ride> getRidesByStatus(RideStatus status) {
+        return resolve(rideIndex.ridesWithStatus(status));
+    }
+
+    public List<Ride> getRidesByVehicleType(VehicleType vehicleType) {
+        return resolve(rideIndex.ridesWithVehicleType(vehicleType));
+    }
+
+    /**
+     * @return the ride the driver is currently serving, or null if none
+     */
+    public Ride getActiveRide(String driverId) {
+        long rideId = rideIndex.activeRideOfDriver(IdGenerator.DRIVERS.parse(driverId));
+        return rideId >= 0 ? findRide(rideId) : null;
+    }
+
+    /**
+     * Open rides followed by archived ones; archived rides are read-only views.
+     */
     public List<Ride> getAllRides() {
-        return new ArrayList<>(rideStore.getAll());
+        List<Ride> rides = rideStore.getAll();
+        if (rideArchive != null) {
+            rides.addAll(rideArchive.getAll());
+        }
+        return rides;
+    }
+
+    /**
+     * Open rides followed by archived ones, read as the stream is consumed.
+     */
+    public Stream<Ride> streamRides() {
+        return rideArchive != null ? Stream.concat(rideStore.stream(), rideArchive.stream()) : rideStore.stream();
+    }
+
+    /**
+     * Total number of rides, open and archived.
+     */
+    public int getRideCount() {
+        return rideStore.size() + (rideArchive != null ? rideArchive.size() : 0);
+    }
+
+    /**
+     * Rides still held in memory: open rides, or every ride when there is no
+     * archive.
+     */
+    public List<Ride> getOpenRides() {
+        return rideStore.getAll();
+    }
+
+    /**
+     * Up to limit rides held in memory from the cursor on, in creation order.
+     * Start with Page.FIRST and continue with the page's next cursor.
+     */
+    public Page<Ride> getOpenRides(long cursor, int limit) {
+        return rideStore.page(cursor, limit);
+    }
+
+    public int getOpenRideCount() {
+        return rideStore.size();
+    }
+
+    /**
+     * Up to limit archived rides from the cursor on, in archive order; empty
+     * when there is no archive.
+     */
+    public Page<Ride> getArchivedRides(long cursor, int limit) {
+        return rideArchive != null ? rideArchive.page(cursor, limit) : Page.empty(cursor);
+    }
+
+    /**
+     * Rides matching the keyword, open rides first. Rides in memory are
+     * answered from the search index, archived rides are matched straight from
+     * the archive columns.
+     *
+     * Updating a rider or driver re-indexes their rides in memory, so renames
+     * are found under the new name only.
+     */
+    public List<Ride> searchRides(String keyword) {
+        return searchRides(keyword, SearchIndex.NO_LIMIT);
+    }
+
+    public List<Ride> searchRides(String keyword, int limit) {
+        List<Ride> matches = new ArrayList<>(searchIndex.search(keyword, limit));
+        if (rideArchive != null && matches.size() < limit) {
+            List<Ride> archived = rideArchive.search(keyword);
+            matches.addAll(archived.subList(0, Math.min(archived.size(), limit - matches.size())));
+        }
+        return matches;
+    }
+
+    /**
+     * Stores a recovered ride as is, without logging it again. Finished rides
+     * go to the archive when there is one. A ride already in the archive is
+     * final whatever status the log shows, and an assigned ride reserves its
+     * driver again.
+     */
+    public void restoreRide(Ride ride) {
+        if (rideArchive != null && rideArchive.contains(ride.getRideId())) {
+            // Archived, and indexed by setRideArchive, before its final status
+            // reached the log; reopening it would let it complete twice
+            return;
+        }
+        if (rideArchive != null && isFinished(ride)) {
+            rideArchive.append(ride);
+            index(ride);
+            return;
+        }
+        rideStore.add(ride.getId(), ride);
+        index(ride);
+        searchIndex.index(ride);
+        if (ride.getRideStatus() == RideStatus.ASSIGNED && ride.getDriver() != null) {
+            driverService.restoreReservation(ride.getDriver());
+        }
+    }
+
+    private Ride findRide(String rideId) {
+        Ride ride = rideStore.findById(IdGenerator.RIDES.parse(rideId));
+        if (ride == null && rideArchive != null) {
+            ride = rideArchive.find(rideId);
+        }
+        return ride;
+    }
+
+    private Ride findRide(long rideId) {
+        Ride ride = rideStore.findById(rideId);
+        if (ride == null && rideArchive != null) {
+            ride = rideArchive.find(rideId);
+        }
+        return ride;
+    }
+
+    private List<Ride> resolve(List<Long> rideIds) {
+        List<Ride> rides = new ArrayList<>(rideIds.size());
+        for (long rideId : rideIds) {
+            Ride ride = findRide(rideId);
+            if (ride != null) {
+                rides.add(ride);
+            }
+        }
+        return rides;
+    }
+
+    // Refreshes the search terms of the rides still in memory; archived rides
+    // are searched through their live rider and driver
+    private void reindex(List<Long> rideIds) {
+        for (long rideId : rideIds) {
+            Ride ride = rideStore.findById(rideId);
+            if (ride == null) {
+                continue;
+            }
+            searchIndex.index(ride);
+            if (rideStore.findById(rideId) == null) {
+                // Archived meanwhile; storeFinished may have unindexed it first
+                searchIndex.remove(ride);
+            }
+        }
+    }
+
+    private void index(Ride ride) {
+        rideIndex.add(ride.getId(), ride.getRider() != null ? ride.getRider().getId() : 0, driverId(ride),
+                ride.getRideStatus(), ride.getVehicleType());
+    }
+
+    // The driver is only released if this ride is the one they are serving
+    private boolean isServing(Driver driver, Ride ride) {
+        return driver != null && rideIndex.activeRideOfDriver(driver.getId()) == ride.getId();
+    }
+
+    private static long driverId(Ride ride) {
+        return ride.getDriver() != null ? ride.getDriver().getId() : 0;
+    }
+
+    // Called by the thread that moved the ride to its final status. Records the
+    // outcome and writes the ride to the archive before any other state
+    // changes. Archiving is the step that can fail; if it does, the ride is put
+    // back as it was and nothing else is touched.
+    private void finish(Ride ride, double fare, Instant finishedAt) {
+        double previousFare = ride.getFare();
+        Instant previousFinishedAt = ride.getFinishedAt();
+        ride.setFare(fare);
+        ride.setFinishedAt(finishedAt);
+        if (rideArchive != null) {
+            try {
+                rideArchive.append(ride);
+            } catch (RuntimeException e) {
+                ride.setRideStatus(RideStatus.ASSIGNED);
+                ride.setFare(previousFare);
+                ride.setFinishedAt(previousFinishedAt);
+                throw e;
+            }
+        }
+    }
+
+    // Lets go of the heap copy of an archived ride; without an archive the
+    // ride stays and is re-indexed under its new status
+    private void storeFinished(Ride ride) {
+        if (rideArchive != null) {
+            rideStore.delete(ride.getId());
+            searchIndex.remove(ride);
+        } else {
+            rideStore.update(ride.getId(), ride);
+            searchIndex.index(ride);
+        }
+    }
+
+    private static boolean isFinished(Ride ride) {
+        return ride.getRideStatus() == RideStatus.COMPLETED || ride.getRideStatus() == RideStatus.CANCELLED;
+    }
+
+    // Rides are created already assigned, so the creation record carries the
+    // REQUESTED -> ASSIGNED transition
+    private long log(Ride ride) {
+        return writeAheadLog != null ? writeAheadLog.logRide(ride) : -1;
+    }
+
+    private long logStatus(Ride ride, String receiptId) {
+        return writeAheadLog != null
+                ? writeAheadLog.logRideStatus(ride, receiptId)
+                : -1;
+    }
+
+    private void commit(long lsn) {
+        if (writeAheadLog != null && lsn >= 0) {
+            writeAheadLog.awaitDurable(lsn);
+        }
     }
 }
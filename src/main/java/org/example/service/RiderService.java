@@ -2,27 +2,55 @@ package org.example.service;
 
 import org.example.exception.RiderNotFoundException;
 import org.example.model.Rider;
+import org.example.persistence.WriteAheadLog;
+import org.example.search.SearchIndex;
+import org.example.util.ConcurrentDataStore;
 import org.example.util.DataStore;
+import org.example.util.IdGenerator;
+import org.example.util.Page;
 import org.example.util.Validator;
 
-import java.util.ArrayList;
 import java.util.List;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 public class RiderService {
 
     private DataStore<Rider> riderStore;
+    private SearchIndex<Rider> searchIndex;
+    private WriteAheadLog writeAheadLog;
+    private volatile Consumer<Rider> updateListener;
 
     public RiderService() {
-        this.riderStore = new DataStore<Rider>();
+        this.riderStore = new ConcurrentDataStore<Rider>();
+        this.searchIndex = new SearchIndex<>(Rider::getId);
+    }
+
+    /**
+     * Logs every rider change to the given log and waits for it to be durable;
+     * null turns logging off.
+     */
+    public void setWriteAheadLog(WriteAheadLog writeAheadLog) {
+        this.writeAheadLog = writeAheadLog;
+    }
+
+    /**
+     * Called after every updateRider, so indexes that copy rider fields, like
+     * the names in ride search, can refresh them; null for none.
+     */
+    public void setUpdateListener(Consumer<Rider> updateListener) {
+        this.updateListener = updateListener;
     }
 
     public void registerRider(Rider rider) {
         Validator.validRider(rider);
-        riderStore.add(rider.getRiderId(), rider);
+        riderStore.add(rider.getId(), rider);
+        searchIndex.index(rider);
+        commit(log(rider));
     }
 
     public Rider getRider(String riderId) {
-        Rider rider = riderStore.findById(riderId);
+        Rider rider = riderStore.findById(IdGenerator.RIDERS.parse(riderId));
 
         if (rider == null) {
             throw new RiderNotFoundException(riderId);
@@ -30,16 +58,86 @@ public class RiderService {
         return rider;
     }
 
+    /**
+     * Same as getRider, but returns null for an unknown id.
+     */
+    public Rider findRider(String riderId) {
+        return riderStore.findById(IdGenerator.RIDERS.parse(riderId));
+    }
+
     public void updateRider(Rider rider) {
+        long lsn = applyUpdate(rider);
+        Consumer<Rider> updateListener = this.updateListener;
+        if (updateListener != null) {
+            updateListener.accept(rider);
+        }
+        commit(lsn);
+    }
+
+    /**
+     * updateRider without waiting for the log; RideService commits the rider
+     * update together with the ride it belongs to.
+     *
+     * @return LSN of the log record, or -1 if logging is off
+     */
+    long applyUpdate(Rider rider) {
         Validator.validRider(rider);
-        riderStore.update(rider.getRiderId(), rider);
+        riderStore.update(rider.getId(), rider);
+        searchIndex.index(rider);
+        return log(rider);
     }
 
     public void deleteRider(Rider rider) {
-        riderStore.delete(rider.getRiderId());
+        riderStore.delete(rider.getId());
+        searchIndex.remove(rider);
+        if (writeAheadLog != null) {
+            commit(writeAheadLog.logRiderDeleted(rider.getRiderId()));
+        }
     }
 
     public List<Rider> getAllRiders() {
-        return new ArrayList<>(riderStore.getAll());
+        return riderStore.getAll();
+    }
+
+    /**
+     * Riders in registration order, read from the store as the stream is
+     * consumed.
+     */
+    public Stream<Rider> streamRiders() {
+        return riderStore.stream();
+    }
+
+    /**
+     * Up to limit riders from the cursor on, in registration order. Start with
+     * Page.FIRST and continue with the page's next cursor.
+     */
+    public Page<Rider> getRiders(long cursor, int limit) {
+        return riderStore.page(cursor, limit);
+    }
+
+    public int getRiderCount() {
+        return riderStore.size();
+    }
+
+    /**
+     * Riders matching the keyword as in Rider.matchesSearchCriteria, answered
+     * from the search index, in registration order.
+     */
+    public List<Rider> searchRiders(String keyword) {
+        return searchIndex.search(keyword);
+    }
+
+    public List<Rider> searchRiders(String keyword, int limit) {
+        return searchIndex.search(keyword, limit);
+    }
+
+    private long log(Rider rider) {
+        return writeAheadLog != null ? writeAheadLog.logRider(rider) : -1;
+    }
+
+    private void commit(long lsn) {
+        if (writeAheadLog != null && lsn >= 0) {
+            writeAheadLog.awaitDurable(lsn);
+        }
     }
 }
@@ -0,0 +1,418 @@
+package org.example.simulation;
+
+import org.example.exception.NoDriverAvailableException;
+import org.example.fare.SurgeEngine;
+import org.example.metrics.MetricsRegistry;
+import org.example.metrics.RideMetrics;
+import org.example.model.Driver;
+import org.example.model.FareReceipt;
+import org.example.model.Location;
+import org.example.model.Ride;
+import org.example.model.Rider;
+import org.example.model.VehicleType;
+import org.example.service.DriverService;
+import org.example.service.RideService;
+import org.example.service.RiderService;
+import org.example.strategy.DefaultFareStrategy;
+import org.example.strategy.FareCalculationStrategy;
+import org.example.strategy.HybridScoringStrategy;
+import org.example.strategy.LeastActiveDriverStrategy;
+import org.example.strategy.NearestDriverStrategy;
+import org.example.strategy.PeakHourFareStrategy;
+import org.example.strategy.RideMatchingStrategy;
+import org.example.strategy.SurgePricingStrategy;
+import org.example.util.CoarseClock;
+import org.example.util.VirtualClock;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Random;
+
+/**
+ * CITY SIMULATOR - CitySimulator
+ *
+ * Where Demo walks a handful of riders and drivers through one scripted pass,
+ * the simulator runs a synthetic city for hours of virtual time: a seeded
+ * population of drivers and riders, demand concentrated around hotspots,
+ * Poisson ride requests whose rate follows the time of day, rides that end
+ * in completion (the driver moves to the drop-off) or cancellation, and idle
+ * drivers drifting about between rides.
+ *
+ * Each run builds fresh services around one matching and one fare strategy
+ * and reports dispatch throughput, requestRide latency, match rate, average
+ * and longest pickup distance, the variance of rides per driver and average
+ * fare, so strategies can be compared on the same demand.
+ *
+ * DESIGN DECISIONS:
+ * - Discrete-event: a priority queue of timed events drives a VirtualClock,
+ *   and RideService, the fare strategy and the surge engine all read that
+ *   clock, so a day of peak-hour pricing and receipt timestamps takes
+ *   seconds. The coarse clock is manual and ticked on every event
+ * - Reproducible: the city, the arrival times and everything drawn per
+ *   request come from their own seeded generators, consumed the same way
+ *   whatever the strategy does, so every run with the same seed sees the
+ *   same riders asking for the same rides at the same moments
+ * - Latency and throughput are real time, measured around the service
+ *   calls by the service's own RideMetrics
+ *
+ * Usage: CitySimulator [drivers] [riders] [hours] [seed]
+ */
+public class CitySimulator {
+
+    private static final double CENTER_LAT = 28.6139;
+    private static final double CENTER_LON = 77.2090;
+
+    private static final Instant START = Instant.parse("2026-01-05T00:00:00Z"); // a Monday, midnight UTC
+    private static final long MINUTE_MILLIS = 60_000;
+    // Demand per hour of the day relative to the base rate
+    private static final double[] HOURLY_DEMAND = {
+            0.3, 0.2, 0.15, 0.1, 0.1, 0.2, 0.5, 1.6, 1.8, 1.2, 0.9, 0.9,
+            1.0, 1.0, 0.9, 0.9, 1.1, 1.8, 2.0, 1.4, 1.1, 0.9, 0.7, 0.5};
+
+    private final long seed;
+    private final int driverCount;
+    private final int riderCount;
+    private double cityRadiusKm = 15;
+    private int hotspotCount = 4;
+    private double hotspotShare = 0.6;
+    private double hotspotRadiusKm = 1.5;
+    private double requestsPerMinute = 60;
+    private double cancelProbability = 0.05;
+    private double speedKmh = 30;
+    private double driftShare = 0.01;
+    private Duration duration = Duration.ofHours(24);
+
+    public CitySimulator(long seed, int driverCount, int riderCount) {
+        if (driverCount <= 0 || riderCount <= 0) {
+            throw new IllegalArgumentException("The city needs drivers and riders");
+        }
+        this.seed = seed;
+        this.driverCount = driverCount;
+        this.riderCount = riderCount;
+    }
+
+    public static void main(String[] args) {
+        int drivers = args.length > 0 ? Integer.parseInt(args[0]) : 2_000;
+        int riders = args.length > 1 ? Integer.parseInt(args[1]) : 20_000;
+        int hours = args.length > 2 ? Integer.parseInt(args[2]) : 24;
+        long seed = args.length > 3 ? Long.parseLong(args[3]) : 42;
+
+        CitySimulator simulator = new CitySimulator(seed, drivers, riders);
+        simulator.setDuration(Duration.ofHours(hours));
+
+        Map<String, StrategyFactory<RideMatchingStrategy>> matching = new LinkedHashMap<>();
+        matching.put("Nearest", (driverService, clock) -> new NearestDriverStrategy(driverService.getLocationIndex()));
+        matching.put("LeastActive", (driverService, clock) -> new LeastActiveDriverStrategy(
+                driverService.getActivityIndex()));
+        matching.put("LeastRecent", (driverService, clock) -> new LeastActiveDriverStrategy(
+                driverService.getActivityIndex(), true));
+        matching.put("Hybrid", (driverService, clock) -> new HybridScoringStrategy(driverService.getLocationIndex(),
+                driverService.getActivityIndex(), clock));
+
+        Map<String, StrategyFactory<FareCalculationStrategy>> fares = new LinkedHashMap<>();
+        fares.put("Default", (driverService, clock) -> new DefaultFareStrategy());
+        fares.put("PeakHour", (driverService, clock) -> new PeakHourFareStrategy(clock));
+        fares.put("Surge", (driverService, clock) -> new SurgePricingStrategy(new DefaultFareStrategy(),
+                new SurgeEngine(driverService::getAvailableDrivers, clock, SurgeEngine.DEFAULT_CELL_SIZE_DEGREES,
+                        SurgeEngine.DEFAULT_WINDOW)));
+
+        System.out.println("City simulation (" + drivers + " drivers, " + riders + " riders, " + hours
+                + "h of virtual time, seed " + seed + ")");
+        System.out.printf("%-12s %-9s %9s %8s %11s %8s %9s %9s %11s %9s %9s%n", "matching", "fare", "requests",
+                "matched", "pickup km", "max km", "work var", "avg fare", "requests/s", "p50 us", "p99 us");
+        for (Map.Entry<String, StrategyFactory<RideMatchingStrategy>> m : matching.entrySet()) {
+            for (Map.Entry<String, StrategyFactory<FareCalculationStrategy>> f : fares.entrySet()) {
+                SimulationReport report = simulator.run(m.getKey(), m.getValue(), f.getKey(), f.getValue());
+                System.out.printf("%-12s %-9s %9d %7.1f%% %11.2f %8.2f %9.2f %9.2f %11.0f %9.1f %9.1f%n",
+                        report.getMatchingStrategy(), report.getFareStrategy(), report.getRequests(),
+                        report.getMatchRate() * 100, report.getAveragePickupDistance(),
+                        report.getMaxPickupDistance(), report.getWorkloadVariance(), report.getAverageFare(),
+                        report.getDispatchThroughput(), report.getRequestLatency().getValueAtPercentile(50) / 1e3,
+                        report.getRequestLatency().getValueAtPercentile(99) / 1e3);
+            }
+        }
+    }
+
+    /**
+     * Creates a strategy for one run, given that run's drivers and clock.
+     */
+    public interface StrategyFactory<S> {
+        S create(DriverService driverService, CoarseClock clock);
+    }
+
+    /**
+     * Runs the city once with fresh services around the given strategies.
+     * The strategies see the run's virtual clock; a SurgePricingStrategy's
+     * engine is fed by the ride service and recomputed every virtual minute.
+     */
+    public SimulationReport run(String matchingName, StrategyFactory<RideMatchingStrategy> matchingFactory,
+            String fareName, StrategyFactory<FareCalculationStrategy> fareFactory) {
+        // 1. Virtual time and fresh services
+        VirtualClock virtualClock = new VirtualClock(START, ZoneOffset.UTC);
+        CoarseClock clock = CoarseClock.manual(virtualClock);
+        DriverService driverService = new DriverService();
+        RiderService riderService = new RiderService();
+        FareCalculationStrategy fareStrategy = fareFactory.create(driverService, clock);
+        RideService rideService = new RideService(driverService, riderService,
+                matchingFactory.create(driverService, clock), fareStrategy);
+        rideService.setClock(virtualClock);
+        RideMetrics metrics = new RideMetrics(new MetricsRegistry());
+        rideService.setMetrics(metrics);
+        SurgeEngine surgeEngine = fareStrategy instanceof SurgePricingStrategy
+                ? ((SurgePricingStrategy) fareStrategy).getSurgeEngine() : null;
+        rideService.setSurgeEngine(surgeEngine);
+
+        // 2. The city: hotspots, drivers and riders, all from the seed
+        Random cityRandom = new Random(seed);
+        Location[] hotspots = new Location[hotspotCount];
+        for (int i = 0; i < hotspotCount; i++) {
+            hotspots[i] = around(cityRandom, CENTER_LAT, CENTER_LON, cityRadiusKm * 0.6);
+        }
+        Driver[] drivers = new Driver[driverCount];
+        for (int i = 0; i < driverCount; i++) {
+            drivers[i] = new Driver("Driver " + i, "driver" + i + "@ridewise.com", "9000000000",
+                    somewhere(cityRandom, hotspots), true);
+            driverService.registerDriver(drivers[i]);
+        }
+        String[] riderIds = new String[riderCount];
+        for (int i = 0; i < riderCount; i++) {
+            Rider rider = new Rider("Rider " + i, "rider" + i + "@ridewise.com", "9100000000",
+                    somewhere(cityRandom, hotspots));
+            riderService.registerRider(rider);
+            riderIds[i] = rider.getRiderId();
+        }
+
+        // 3. Event loop
+        Random arrivalRandom = new Random(seed * 31 + 1);
+        Random driftRandom = new Random(seed * 31 + 2);
+        VehicleType[] vehicleTypes = VehicleType.values();
+        long end = START.toEpochMilli() + duration.toMillis();
+        PriorityQueue<Event> events = new PriorityQueue<>();
+        long sequence = 0;
+        events.add(new Event(START.toEpochMilli() + nextArrival(arrivalRandom, START.toEpochMilli()), sequence++,
+                Event.ARRIVAL, null, null));
+        events.add(new Event(START.toEpochMilli() + MINUTE_MILLIS, sequence++, Event.MINUTE, null, null));
+
+        long requests = 0;
+        long matched = 0;
+        long completed = 0;
+        long cancelled = 0;
+        double pickupDistance = 0;
+        double maxPickupDistance = 0;
+        double fares = 0;
+        long started = System.nanoTime();
+        while (!events.isEmpty() && events.peek().at < end) {
+            Event event = events.poll();
+            long now = event.at;
+            virtualClock.advanceTo(Instant.ofEpochMilli(now));
+            clock.tick();
+
+            switch (event.kind) {
+                case Event.ARRIVAL: {
+                    // Everything about the request is drawn before dispatch, so the demand
+                    // does not depend on the strategy
+                    String riderId = riderIds[arrivalRandom.nextInt(riderCount)];
+                    Location pickup = somewhere(arrivalRandom, hotspots);
+                    Location dropOff = somewhere(arrivalRandom, hotspots);
+                    VehicleType vehicleType = vehicleTypes[arrivalRandom.nextInt(vehicleTypes.length)];
+                    boolean cancels = arrivalRandom.nextDouble() < cancelProbability;
+                    long cancelAfter = (long) (arrivalRandom.nextDouble() * 5 * MINUTE_MILLIS);
+                    events.add(new Event(now + nextArrival(arrivalRandom, now), sequence++, Event.ARRIVAL, null,
+                            null));
+
+                    requests++;
+                    try {
+                        Ride ride = rideService.requestRide(riderId, pickup, dropOff, vehicleType);
+                        matched++;
+                        double toPickup = ride.getDriver().getDriverLocation().calculateDistanceTo(pickup);
+                        pickupDistance += toPickup;
+                        maxPickupDistance = Math.max(maxPickupDistance, toPickup);
+                        long tripMillis = (long) ((toPickup + ride.getDistance()) / speedKmh * 3_600_000);
+                        if (cancels && cancelAfter < tripMillis) {
+                            events.add(new Event(now + cancelAfter, sequence++, Event.CANCEL, ride, null));
+                        } else {
+                            events.add(new Event(now + tripMillis, sequence++, Event.COMPLETE, ride, dropOff));
+                        }
+                    } catch (NoDriverAvailableException e) {
+                        // Counted as a rejection; the rider gives up
+                    }
+                    break;
+                }
+                case Event.COMPLETE: {
+                    driverService.moveDriver(event.ride.getDriver(), event.dropOff, now);
+                    FareReceipt receipt = rideService.completeRide(event.ride.getRideId());
+                    fares += receipt.getAmount();
+                    completed++;
+                    break;
+                }
+                case Event.CANCEL:
+                    rideService.cancelRide(event.ride.getRideId());
+                    cancelled++;
+                    break;
+                default: {
+                    // Once a minute: idle drivers reposition and the surge map is redrawn
+                    int drifting = (int) Math.ceil(driverCount * driftShare);
+                    for (int i = 0; i < drifting; i++) {
+                        Driver driver = drivers[driftRandom.nextInt(driverCount)];
+                        double bearing = driftRandom.nextDouble() * 2 * Math.PI;
+                        double distanceKm = driftRandom.nextDouble();
+                        if (driver.isAvailable()) {
+                            driverService.moveDriver(driver, offset(driver.getDriverLocation(), bearing, distanceKm),
+                                    now);
+                        }
+                    }
+                    if (surgeEngine != null) {
+                        surgeEngine.recompute();
+                    }
+                    events.add(new Event(now + MINUTE_MILLIS, sequence++, Event.MINUTE, null, null));
+                }
+            }
+        }
+        long wallNanos = System.nanoTime() - started;
+
+        if (fareStrategy instanceof AutoCloseable) {
+            try {
+                ((AutoCloseable) fareStrategy).close();
+            } catch (Exception e) {
+                // Nothing was started that could fail to stop
+            }
+        }
+        return new SimulationReport(matchingName, fareName, requests, matched, completed, cancelled,
+                pickupDistance, maxPickupDistance, workloadVariance(drivers), fares, wallNanos,
+                metrics.getRequestRideLatency().snapshot());
+    }
+
+    public void setCityRadiusKm(double cityRadiusKm) {
+        requirePositive(cityRadiusKm, "City radius");
+        this.cityRadiusKm = cityRadiusKm;
+    }
+
+    public void setHotspots(int hotspotCount, double hotspotShare, double hotspotRadiusKm) {
+        if (hotspotCount < 0 || hotspotShare < 0 || hotspotShare > 1 || (hotspotCount == 0 && hotspotShare > 0)) {
+            throw new IllegalArgumentException("Hotspot share must be between 0 and 1 and needs hotspots");
+        }
+        requirePositive(hotspotRadiusKm, "Hotspot radius");
+        this.hotspotCount = hotspotCount;
+        this.hotspotShare = hotspotShare;
+        this.hotspotRadiusKm = hotspotRadiusKm;
+    }
+
+    /**
+     * Base request rate; the rate at any moment is this times the demand of
+     * the hour (from 0.1 at night to 2 in the evening peak).
+     */
+    public void setRequestsPerMinute(double requestsPerMinute) {
+        requirePositive(requestsPerMinute, "Request rate");
+        this.requestsPerMinute = requestsPerMinute;
+    }
+
+    public void setCancelProbability(double cancelProbability) {
+        if (cancelProbability < 0 || cancelProbability > 1) {
+            throw new IllegalArgumentException("Cancel probability must be between 0 and 1");
+        }
+        this.cancelProbability = cancelProbability;
+    }
+
+    public void setSpeedKmh(double speedKmh) {
+        requirePositive(speedKmh, "Speed");
+        this.speedKmh = speedKmh;
+    }
+
+    /**
+     * Share of drivers picked each virtual minute to move up to 1 km if idle.
+     */
+    public void setDriftShare(double driftShare) {
+        if (driftShare < 0 || driftShare > 1) {
+            throw new IllegalArgumentException("Drift share must be between 0 and 1");
+        }
+        this.driftShare = driftShare;
+    }
+
+    public void setDuration(Duration duration) {
+        if (duration == null || duration.isNegative() || duration.isZero()) {
+            throw new IllegalArgumentException("Duration must be positive");
+        }
+        this.duration = duration;
+    }
+
+    // Population variance of completed rides per driver
+    private static double workloadVariance(Driver[] drivers) {
+        double mean = 0;
+        for (Driver driver : drivers) {
+            mean += driver.getCompletedRidesCount();
+        }
+        mean /= drivers.length;
+        double variance = 0;
+        for (Driver driver : drivers) {
+            double deviation = driver.getCompletedRidesCount() - mean;
+            variance += deviation * deviation;
+        }
+        return variance / drivers.length;
+    }
+
+    // Exponential gap to the next request at the rate of the current hour
+    private long nextArrival(Random random, long nowMillis) {
+        int hour = (int) Math.floorMod(Math.floorDiv(nowMillis, 3_600_000L), 24L);
+        double perMillis = requestsPerMinute * HOURLY_DEMAND[hour] / MINUTE_MILLIS;
+        return Math.max(1, (long) (-Math.log(1 - random.nextDouble()) / perMillis));
+    }
+
+    // A point near a hotspot, or anywhere in the city
+    private Location somewhere(Random random, Location[] hotspots) {
+        if (hotspots.length > 0 && random.nextDouble() < hotspotShare) {
+            Location hotspot = hotspots[random.nextInt(hotspots.length)];
+            return around(random, hotspot.getLatitude(), hotspot.getLongitude(), hotspotRadiusKm);
+        }
+        return around(random, CENTER_LAT, CENTER_LON, cityRadiusKm);
+    }
+
+    // Uniform over a disc of the given radius
+    private static Location around(Random random, double latitude, double longitude, double radiusKm) {
+        return offset(new Location(latitude, longitude), random.nextDouble() * 2 * Math.PI,
+                radiusKm * Math.sqrt(random.nextDouble()));
+    }
+
+    private static Location offset(Location from, double bearing, double distanceKm) {
+        double dLat = distanceKm * Math.cos(bearing) / 111.32;
+        double dLon = distanceKm * Math.sin(bearing) / (111.32 * Math.cos(Math.toRadians(from.getLatitude())));
+        return new Location(Math.max(-90, Math.min(90, from.getLatitude() + dLat)),
+                Math.max(-180, Math.min(180, from.getLongitude() + dLon)));
+    }
+
+    private static void requirePositive(double value, String what) {
+        if (!(value > 0)) {
+            throw new IllegalArgumentException(what + " must be positive");
+        }
+    }
+
+    private static final class Event implements Comparable<Event> {
+        static final int ARRIVAL = 0;
+        static final int COMPLETE = 1;
+        static final int CANCEL = 2;
+        static final int MINUTE = 3;
+
+        final long at;
+        final long sequence; // orders events at the same millisecond by creation
+        final int kind;
+        final Ride ride;
+        final Location dropOff;
+
+        Event(long at, long sequence, int kind, Ride ride, Location dropOff) {
+            this.at = at;
+            this.sequence = sequence;
+            this.kind = kind;
+            this.ride = ride;
+            this.dropOff = dropOff;
+        }
+
+        @Override
+        public int compareTo(Event other) {
+            int byTime = Long.compare(at, other.at);
+            return byTime != 0 ? byTime : Long.compare(sequence, other.sequence);
+        }
+    }
+}
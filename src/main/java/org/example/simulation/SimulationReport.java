@@ -0,0 +1,121 @@
+package org.example.simulation;
+
+import org.example.metrics.Histogram;
+
+/**
+ * Outcome of one CitySimulator run: what the city asked for, what dispatch
+ * made of it (including how fairly work was spread over drivers) and how
+ * long dispatch took in real time.
+ */
+public class SimulationReport {
+
+    private final String matchingStrategy;
+    private final String fareStrategy;
+    private final long requests;
+    private final long matched;
+    private final long completed;
+    private final long cancelled;
+    private final double totalPickupDistance;
+    private final double maxPickupDistance;
+    private final double workloadVariance;
+    private final double totalFare;
+    private final long wallNanos;
+    private final Histogram.Snapshot requestLatency;
+
+    SimulationReport(String matchingStrategy, String fareStrategy, long requests, long matched, long completed,
+            long cancelled, double totalPickupDistance, double maxPickupDistance, double workloadVariance,
+            double totalFare, long wallNanos, Histogram.Snapshot requestLatency) {
+        this.matchingStrategy = matchingStrategy;
+        this.fareStrategy = fareStrategy;
+        this.requests = requests;
+        this.matched = matched;
+        this.completed = completed;
+        this.cancelled = cancelled;
+        this.totalPickupDistance = totalPickupDistance;
+        this.maxPickupDistance = maxPickupDistance;
+        this.workloadVariance = workloadVariance;
+        this.totalFare = totalFare;
+        this.wallNanos = wallNanos;
+        this.requestLatency = requestLatency;
+    }
+
+    public String getMatchingStrategy() {
+        return matchingStrategy;
+    }
+
+    public String getFareStrategy() {
+        return fareStrategy;
+    }
+
+    public long getRequests() {
+        return requests;
+    }
+
+    public long getMatched() {
+        return matched;
+    }
+
+    /**
+     * Requests refused with NoDriverAvailableException.
+     */
+    public long getRejected() {
+        return requests - matched;
+    }
+
+    public long getCompleted() {
+        return completed;
+    }
+
+    public long getCancelled() {
+        return cancelled;
+    }
+
+    public double getMatchRate() {
+        return requests == 0 ? 0 : (double) matched / requests;
+    }
+
+    /**
+     * Mean distance in km from the assigned driver to the pickup.
+     */
+    public double getAveragePickupDistance() {
+        return matched == 0 ? 0 : totalPickupDistance / matched;
+    }
+
+    /**
+     * Longest distance in km a driver was sent to a pickup.
+     */
+    public double getMaxPickupDistance() {
+        return maxPickupDistance;
+    }
+
+    /**
+     * Variance over all drivers of the rides each completed in the run; 0
+     * when every driver did the same amount of work.
+     */
+    public double getWorkloadVariance() {
+        return workloadVariance;
+    }
+
+    public double getAverageFare() {
+        return completed == 0 ? 0 : totalFare / completed;
+    }
+
+    /**
+     * Ride requests handled per second of real time, over the whole run
+     * including completions, cancellations and driver moves.
+     */
+    public double getDispatchThroughput() {
+        return wallNanos == 0 ? 0 : requests / (wallNanos / 1e9);
+    }
+
+    public long getWallNanos() {
+        return wallNanos;
+    }
+
+    /**
+     * Real-time latency of RideService.requestRide, in nanoseconds.
+     */
+    public Histogram.Snapshot getRequestLatency() {
+        return requestLatency;
+    }
+}
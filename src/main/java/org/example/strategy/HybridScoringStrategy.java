@@ -0,0 +1,180 @@
+package org.example.strategy;
+
+import org.example.exception.NoDriverAvailableException;
+import org.example.model.Driver;
+import org.example.model.Location;
+import org.example.model.Rider;
+import org.example.util.CoarseClock;
+import org.example.util.DriverActivityIndex;
+import org.example.util.GeoGridIndex;
+import org.example.util.ScanCounter;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * STRATEGY PATTERN - HybridScoringStrategy
+ *
+ * Weighs pickup distance against fairness. NearestDriverStrategy sends the
+ * same well-placed drivers again and again; LeastActiveDriverStrategy sends
+ * whoever has worked least, however far away. This strategy takes the k
+ * nearest available drivers and picks the one with the lowest score:
+ *
+ *   score = distanceWeight * pickup km
+ *         + activityWeight * recent rides (decayed, from DriverActivityIndex)
+ *         - idleWeight * hours since the last completed ride (up to maxIdle)
+ *
+ * With the defaults, two more rides in the last day or an hour of idling are
+ * worth about a kilometre of extra pickup.
+ *
+ * DESIGN DECISIONS:
+ * - Candidates come from GeoGridIndex.findNearest(pickup, k), so a match
+ *   costs a grid search and k scores however large the fleet
+ * - If every one of the k was reserved by another request since the index
+ *   was read, the search is repeated with twice as many candidates, until a
+ *   driver is found or the index has no more drivers to offer. A burst of
+ *   requests around one spot therefore spills over to the next nearest
+ *   drivers instead of being refused
+ * - Recent activity and idle time are read from the activity index that
+ *   DriverService keeps up to date; drivers with no recorded ride count as
+ *   idle for the full maxIdle
+ * - Ties go to the nearer driver
+ * - Weights and k are volatile and can be tuned while matching runs
+ */
+public class HybridScoringStrategy implements RideMatchingStrategy {
+
+    public static final int DEFAULT_CANDIDATES = 16;
+    public static final Duration DEFAULT_MAX_IDLE = Duration.ofHours(1);
+
+    private static final double HOUR_MILLIS = 3_600_000;
+
+    private final GeoGridIndex locationIndex;
+    private final DriverActivityIndex activityIndex;
+    private final CoarseClock clock;
+
+    private volatile int candidates = DEFAULT_CANDIDATES;
+    private volatile double distanceWeight = 1.0;
+    private volatile double activityWeight = 0.5;
+    private volatile double idleWeight = 1.0;
+    private volatile long maxIdleMillis = DEFAULT_MAX_IDLE.toMillis();
+
+    public HybridScoringStrategy(GeoGridIndex locationIndex, DriverActivityIndex activityIndex) {
+        this(locationIndex, activityIndex, CoarseClock.system());
+    }
+
+    /**
+     * @param clock the time idle time and recent activity are measured at;
+     *              pass the clock rides are completed on
+     */
+    public HybridScoringStrategy(GeoGridIndex locationIndex, DriverActivityIndex activityIndex, CoarseClock clock) {
+        if (locationIndex == null || activityIndex == null || clock == null) {
+            throw new IllegalArgumentException("Location index, activity index and clock cannot be null");
+        }
+        this.locationIndex = locationIndex;
+        this.activityIndex = activityIndex;
+        this.clock = clock;
+    }
+
+    @Override
+    public Driver findDriver(Rider rider, Collection<Driver> availableDrivers) {
+        // 1. Validate inputs
+        if (rider == null) {
+            throw new IllegalArgumentException("Rider cannot be null");
+        }
+
+        if (rider.getRiderLocation() == null) {
+            throw new IllegalArgumentException("Rider location cannot be null");
+        }
+
+        if (availableDrivers == null || availableDrivers.isEmpty()) {
+            throw new NoDriverAvailableException(rider.getRiderLocation(), 0);
+        }
+
+        // 2. Score the k nearest available drivers, nearest first; widen the search while
+        //    all of them have been reserved in the meantime and the index has more
+        Location pickup = rider.getRiderLocation();
+        int k = candidates;
+        while (true) {
+            List<Driver> nearest = locationIndex.findNearest(pickup, k);
+            ScanCounter.add(nearest.size());
+            Driver bestDriver = best(pickup, nearest);
+            if (bestDriver != null) {
+                return bestDriver;
+            }
+            // 3. Handle case where no valid driver was found
+            if (nearest.size() < k || k == Integer.MAX_VALUE) {
+                throw new NoDriverAvailableException(pickup, availableDrivers.size());
+            }
+            k = k > Integer.MAX_VALUE / 2 ? Integer.MAX_VALUE : k * 2;
+        }
+    }
+
+    // The first lowest score wins, so ties go to the nearer driver; null if none
+    // of the drivers is still available
+    private Driver best(Location pickup, List<Driver> nearest) {
+        long now = clock.currentTimeMillis();
+        double distanceWeight = this.distanceWeight;
+        double activityWeight = this.activityWeight;
+        double idleWeight = this.idleWeight;
+        long maxIdleMillis = this.maxIdleMillis;
+        Driver bestDriver = null;
+        double bestScore = Double.POSITIVE_INFINITY;
+        for (Driver driver : nearest) {
+            Location location = driver.getDriverLocation();
+            if (location == null || !driver.isAvailable()) {
+                continue; // Reserved since the index was read
+            }
+            long lastRide = activityIndex.getLastCompletedRide(driver);
+            long idleMillis = lastRide == Long.MIN_VALUE ? maxIdleMillis
+                    : Math.max(0, Math.min(maxIdleMillis, now - lastRide));
+            double score = distanceWeight * pickup.calculateDistanceTo(location)
+                    + activityWeight * activityIndex.getRecentActivity(driver, now)
+                    - idleWeight * (idleMillis / HOUR_MILLIS);
+            if (score < bestScore) {
+                bestScore = score;
+                bestDriver = driver;
+            }
+        }
+        return bestDriver;
+    }
+
+    /**
+     * How many of the nearest drivers are scored at first; more are scored
+     * only when none of these is still available.
+     */
+    public void setCandidates(int candidates) {
+        if (candidates < 1) {
+            throw new IllegalArgumentException("At least one candidate is needed. Got: " + candidates);
+        }
+        this.candidates = candidates;
+    }
+
+    /**
+     * @param distanceWeight score per km of pickup distance
+     * @param activityWeight score per recent ride
+     * @param idleWeight     score taken off per hour idle
+     */
+    public void setWeights(double distanceWeight, double activityWeight, double idleWeight) {
+        if (!(distanceWeight >= 0 && activityWeight >= 0 && idleWeight >= 0)) {
+            throw new IllegalArgumentException("Weights cannot be negative");
+        }
+        this.distanceWeight = distanceWeight;
+        this.activityWeight = activityWeight;
+        this.idleWeight = idleWeight;
+    }
+
+    /**
+     * Idle time beyond this earns no further credit.
+     */
+    public void setMaxIdle(Duration maxIdle) {
+        if (maxIdle == null || maxIdle.isNegative()) {
+            throw new IllegalArgumentException("Maximum idle time cannot be negative");
+        }
+        this.maxIdleMillis = maxIdle.toMillis();
+    }
+
+    public int getCandidates() {
+        return candidates;
+    }
+}
@@ -3,8 +3,10 @@ package org.example.strategy;
 import org.example.exception.NoDriverAvailableException;
 import org.example.model.Driver;
 import org.example.model.Rider;
+import org.example.util.DriverActivityIndex;
+import org.example.util.ScanCounter;
 
-import java.util.List;
+import java.util.Collection;
 
 /**
  * STRATEGY PATTERN - LeastActiveDriverStrategy
@@ -14,15 +16,44 @@ import java.util.List;
  * In case of ties (same ride count), returns the first driver found for
  * simplicity.
  * 
+ * When constructed with a DriverActivityIndex the driver is read off the
+ * index's heap instead of found by a scan, and returns the same driver the
+ * scan would pick. The index can also rank drivers by recent, time-decayed
+ * activity, so fairness follows today's workload rather than a lifetime
+ * count that new drivers need weeks to catch up on.
+ *
  * DESIGN DECISIONS:
- * - "Least active" = fewest completed rides
+ * - "Least active" = fewest completed rides, or least recent activity
  * - Driver maintains completedRidesCount field for performance
  * - Tie-breaking: return first driver found (could be enhanced with distance)
  */
 public class LeastActiveDriverStrategy implements RideMatchingStrategy {
 
+    private final DriverActivityIndex activityIndex;
+    private final boolean timeDecayed;
+
+    public LeastActiveDriverStrategy() {
+        this.activityIndex = null;
+        this.timeDecayed = false;
+    }
+
+    public LeastActiveDriverStrategy(DriverActivityIndex activityIndex) {
+        this(activityIndex, false);
+    }
+
+    /**
+     * @param timeDecayed rank by recent activity instead of lifetime rides
+     */
+    public LeastActiveDriverStrategy(DriverActivityIndex activityIndex, boolean timeDecayed) {
+        if (activityIndex == null) {
+            throw new IllegalArgumentException("Activity index cannot be null");
+        }
+        this.activityIndex = activityIndex;
+        this.timeDecayed = timeDecayed;
+    }
+
     @Override
-    public Driver findDriver(Rider rider, List<Driver> availableDrivers) {
+    public Driver findDriver(Rider rider, Collection<Driver> availableDrivers) {
         
         if (rider == null) {
             throw new IllegalArgumentException("Rider cannot be null");
@@ -33,13 +64,25 @@ public class LeastActiveDriverStrategy implements RideMatchingStrategy {
                     rider.getRiderLocation() != null ? rider.getRiderLocation() : null, 0);
         }
 
+        // Use the activity index when one is available
+        if (activityIndex != null) {
+            Driver leastActiveDriver = timeDecayed ? activityIndex.findLeastRecentlyActive()
+                    : activityIndex.findLeastActive();
+            if (leastActiveDriver == null) {
+                throw new NoDriverAvailableException(rider.getRiderLocation(), availableDrivers.size());
+            }
+            return leastActiveDriver;
+        }
+
         Driver leastActiveDriver = null;
         int minRideCount = Integer.MAX_VALUE;
 
         // find the least active driver
+        int scanned = 0;
         for (Driver driver : availableDrivers) {
-            if (driver == null) {
-                continue;
+            scanned++;
+            if (driver == null || !driver.isAvailable()) {
+                continue; // Skip drivers reserved since the list was read
             }
 
             int driverRideCount = driver.getCompletedRidesCount();
@@ -52,6 +95,8 @@ public class LeastActiveDriverStrategy implements RideMatchingStrategy {
             // In case of tie, keep the first one found
         }
 
+        ScanCounter.add(scanned);
+
         // 4. Handle case where no valid driver was found
         if (leastActiveDriver == null) {
             throw new NoDriverAvailableException(
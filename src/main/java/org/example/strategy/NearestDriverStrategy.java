@@ -3,20 +3,48 @@ package org.example.strategy;
 import org.example.exception.NoDriverAvailableException;
 import org.example.model.Driver;
 import org.example.model.Rider;
+import org.example.util.DriverPositionStore;
+import org.example.util.GeoGridIndex;
+import org.example.util.ScanCounter;
 
-import java.util.List;
+import java.util.Collection;
 
 /**
  * STRATEGY PATTERN - NearestDriverStrategy
  * 
  * Finds the driver closest to the rider's location using geographic distance.
  * Uses the Haversine formula implemented in the Location class for accurate
- * distance calculations between GPS coordinates.
+ * distance calculations between GPS coordinates. Candidates are ranked on the
+ * comparison-only haversine term, which orders drivers exactly like the full
+ * distance without its sqrt/atan2.
+ *
+ * When constructed with a GeoGridIndex the lookup searches only the grid cells
+ * around the rider and returns the same driver the linear scan would pick.
+ * When constructed with a DriverPositionStore it runs the batch distance
+ * kernel over the store's primitive arrays instead of walking Driver objects.
  */
 public class NearestDriverStrategy implements RideMatchingStrategy {
 
+    private final GeoGridIndex locationIndex;
+    private final DriverPositionStore positionStore;
+
+    public NearestDriverStrategy() {
+        this.locationIndex = null;
+        this.positionStore = null;
+    }
+
+    public NearestDriverStrategy(GeoGridIndex locationIndex) {
+        this.locationIndex = locationIndex;
+        this.positionStore = null;
+    }
+
+    public NearestDriverStrategy(DriverPositionStore positionStore) {
+        this.locationIndex = null;
+        this.positionStore = positionStore;
+    }
+
     @Override
-    public Driver findDriver(Rider rider, List<Driver> availableDrivers) {
+    public Driver findDriver(Rider rider, Collection<Driver> availableDrivers) {
         // 1. Validate inputs
         if (rider == null) {
             throw new IllegalArgumentException("Rider cannot be null");
@@ -30,18 +58,31 @@ public class NearestDriverStrategy implements RideMatchingStrategy {
             throw new NoDriverAvailableException(rider.getRiderLocation(), 0);
         }
 
-        // 2. Initialize variables to track nearest driver and minimum distance
+        // 2. Use the grid index or the position store when one is available
+        if (locationIndex != null || positionStore != null) {
+            Driver nearestDriver = locationIndex != null
+                    ? locationIndex.findNearest(rider.getRiderLocation())
+                    : positionStore.findNearest(rider.getRiderLocation());
+            if (nearestDriver == null) {
+                throw new NoDriverAvailableException(rider.getRiderLocation(), availableDrivers.size());
+            }
+            return nearestDriver;
+        }
+
+        // 3. Initialize variables to track nearest driver and minimum distance
         Driver nearestDriver = null;
-        double minDistance = Double.MAX_VALUE;
+        double minDistance = Double.MAX_VALUE; // comparable scale, see Location.comparableDistanceTo
 
-        // 3. Loop through available drivers to find the nearest one
+        // 4. Loop through available drivers to find the nearest one
+        int scanned = 0;
         for (Driver driver : availableDrivers) {
-            if (driver == null || driver.getDriverLocation() == null) {
-                continue; // Skip invalid drivers
+            scanned++;
+            if (driver == null || driver.getDriverLocation() == null || !driver.isAvailable()) {
+                continue; // Skip invalid drivers and drivers reserved since the list was read
             }
 
             // Calculate distance between rider and driver locations
-            double distance = rider.getRiderLocation().calculateDistanceTo(driver.getDriverLocation());
+            double distance = rider.getRiderLocation().comparableDistanceTo(driver.getDriverLocation());
 
             // Update nearest driver if this one is closer
             if (distance < minDistance) {
@@ -50,7 +91,9 @@ public class NearestDriverStrategy implements RideMatchingStrategy {
             }
         }
 
-        // 4. Handle case where no valid driver was found
+        ScanCounter.add(scanned);
+
+        // 5. Handle case where no valid driver was found
         if (nearestDriver == null) {
             throw new NoDriverAvailableException(
                     String.format("No valid drivers found at location %s (checked %d drivers)",
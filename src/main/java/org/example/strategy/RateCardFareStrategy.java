@@ -0,0 +1,172 @@
+package org.example.strategy;
+
+import org.example.exception.InvalidDataException;
+import org.example.fare.FareTable;
+import org.example.fare.RateCard;
+import org.example.model.Ride;
+import org.example.model.Rider;
+import org.example.util.CoarseClock;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Duration;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * RATE CARD FARE STRATEGY
+ *
+ * Prices rides from a compiled FareTable. The fare path reads the current
+ * table, the minute of the day from a CoarseClock and the per-km rate from
+ * the table: no switch, no LocalTime and no allocation.
+ *
+ * DESIGN DECISIONS:
+ * - The table lives in an AtomicReference; setRateCard and reload compile the
+ *   new card first and then swap it in, so a fare is always priced from one
+ *   complete table and a bad card never replaces a good one
+ * - A strategy created from a file can watch it and reload when its
+ *   modification time changes
+ * - Zone surcharges are matched on the rider's location, which requestRide
+ *   sets to the pickup point
+ */
+public class RateCardFareStrategy implements FareCalculationStrategy, AutoCloseable {
+
+    private final AtomicReference<FareTable> table;
+    private final CoarseClock clock;
+    private final Path rateCardFile;
+    private final Object watchLock = new Object();
+    private ScheduledExecutorService watcher; // guarded by watchLock
+    private volatile FileTime loadedVersion;
+
+    public RateCardFareStrategy(RateCard rateCard) {
+        this(rateCard, CoarseClock.system());
+    }
+
+    public RateCardFareStrategy(RateCard rateCard, CoarseClock clock) {
+        this(rateCard.compile(), clock, null);
+    }
+
+    private RateCardFareStrategy(FareTable table, CoarseClock clock, Path rateCardFile) {
+        if (clock == null) {
+            throw new IllegalArgumentException("Clock cannot be null");
+        }
+        this.table = new AtomicReference<>(table);
+        this.clock = clock;
+        this.rateCardFile = rateCardFile;
+    }
+
+    /**
+     * Prices rides from a rate-card file; see RateCard for the format.
+     */
+    public static RateCardFareStrategy fromFile(Path rateCardFile) throws IOException {
+        FileTime version = Files.getLastModifiedTime(rateCardFile);
+        RateCardFareStrategy strategy = new RateCardFareStrategy(RateCard.load(rateCardFile).compile(),
+                CoarseClock.system(), rateCardFile);
+        strategy.loadedVersion = version;
+        return strategy;
+    }
+
+    @Override
+    public double calculateFare(Ride ride) {
+        if (ride == null) {
+            throw new IllegalArgumentException("Ride cannot be null");
+        }
+
+        if (ride.getDistance() <= 0) {
+            throw new IllegalArgumentException("Ride distance must be positive");
+        }
+
+        if (ride.getVehicleType() == null) {
+            throw new IllegalArgumentException("Vehicle type cannot be null");
+        }
+
+        Rider rider = ride.getRider();
+        return table.get().fare(ride.getVehicleType(), ride.getDistance(), clock.minuteOfDay(),
+                rider != null ? rider.getRiderLocation() : null);
+    }
+
+    /**
+     * Compiles the rate card and swaps it in for the following fares.
+     */
+    public void setRateCard(RateCard rateCard) {
+        table.set(rateCard.compile());
+    }
+
+    public FareTable getFareTable() {
+        return table.get();
+    }
+
+    /**
+     * Re-reads the rate-card file this strategy was created from. On an
+     * unreadable or invalid file the current table is kept.
+     *
+     * @return true if a new table was swapped in
+     */
+    public boolean reload() {
+        if (rateCardFile == null) {
+            throw new IllegalStateException("Strategy was not created from a rate-card file");
+        }
+        try {
+            FileTime version = Files.getLastModifiedTime(rateCardFile);
+            table.set(RateCard.load(rateCardFile).compile());
+            loadedVersion = version;
+            return true;
+        } catch (IOException | InvalidDataException e) {
+            System.err.println("Rate card not reloaded: " + e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * Checks the rate-card file every interval on a background thread and
+     * reloads it when it changed.
+     */
+    public void startWatching(Duration interval) {
+        if (rateCardFile == null) {
+            throw new IllegalStateException("Strategy was not created from a rate-card file");
+        }
+        if (interval == null || interval.isNegative() || interval.isZero()) {
+            throw new IllegalArgumentException("Watch interval must be positive");
+        }
+        long intervalNanos = interval.toNanos();
+        synchronized (watchLock) {
+            if (watcher != null) {
+                throw new IllegalStateException("Rate card is already watched");
+            }
+            watcher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "rate-card-watcher");
+                thread.setDaemon(true);
+                return thread;
+            });
+            watcher.scheduleWithFixedDelay(this::reloadIfChanged, intervalNanos, intervalNanos,
+                    TimeUnit.NANOSECONDS);
+        }
+    }
+
+    @Override
+    public void close() {
+        synchronized (watchLock) {
+            if (watcher != null) {
+                watcher.shutdownNow();
+                watcher = null;
+            }
+        }
+    }
+
+    private void reloadIfChanged() {
+        try {
+            FileTime version = Files.getLastModifiedTime(rateCardFile);
+            if (!version.equals(loadedVersion)) {
+                // Remember the version even if it fails, so a bad file is reported once
+                loadedVersion = version;
+                reload();
+            }
+        } catch (IOException e) {
+            System.err.println("Rate card not reloaded: " + e.getMessage());
+        }
+    }
+}
@@ -3,9 +3,9 @@ package org.example.strategy;
 import org.example.model.Driver;
 import org.example.model.Rider;
 
-import java.util.List;
+import java.util.Collection;
 
 public interface RideMatchingStrategy {
 
-    Driver findDriver(Rider rider, List<Driver> availableDrivers);
+    Driver findDriver(Rider rider, Collection<Driver> availableDrivers);
 }
@@ -0,0 +1,48 @@
+package org.example.strategy;
+
+import org.example.fare.SurgeEngine;
+import org.example.model.Ride;
+import org.example.model.Rider;
+
+/**
+ * SURGE PRICING STRATEGY
+ *
+ * Decorates another fare strategy with the SurgeEngine multiplier of the
+ * pickup cell. The multiplier is looked up in the engine's published table,
+ * so surge pricing adds a hash and a probe to the wrapped strategy's cost.
+ *
+ * The pickup is the rider's location, which requestRide sets to the pickup
+ * point; the multiplier is the one published when the fare is calculated.
+ */
+public class SurgePricingStrategy implements FareCalculationStrategy {
+
+    private final FareCalculationStrategy baseStrategy;
+    private final SurgeEngine surgeEngine;
+
+    public SurgePricingStrategy(FareCalculationStrategy baseStrategy, SurgeEngine surgeEngine) {
+        if (baseStrategy == null || surgeEngine == null) {
+            throw new IllegalArgumentException("Base strategy and surge engine cannot be null");
+        }
+        this.baseStrategy = baseStrategy;
+        this.surgeEngine = surgeEngine;
+    }
+
+    @Override
+    public double calculateFare(Ride ride) {
+        double fare = baseStrategy.calculateFare(ride);
+        Rider rider = ride.getRider();
+        double multiplier = rider != null ? surgeEngine.multiplierAt(rider.getRiderLocation()) : 1.0;
+        if (multiplier == 1.0) {
+            return fare;
+        }
+        return Math.round(fare * multiplier * 100.0) / 100.0; // Round to 2 decimal places
+    }
+
+    public FareCalculationStrategy getBaseStrategy() {
+        return baseStrategy;
+    }
+
+    public SurgeEngine getSurgeEngine() {
+        return surgeEngine;
+    }
+}
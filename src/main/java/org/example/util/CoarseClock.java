@@ -0,0 +1,117 @@
+package org.example.util;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * COARSE CLOCK - CoarseClock
+ *
+ * The current time and minute of the day, refreshed on a background tick so
+ * hot paths read two volatile fields instead of asking the system clock and
+ * the time-zone rules on every call.
+ *
+ * DESIGN DECISIONS:
+ * - Readings lag the source clock by at most one tick; callers that need
+ *   minute resolution (fare time buckets) lose nothing with the default one
+ *   second tick
+ * - The minute of the day is computed in the source clock's zone, including
+ *   its daylight-saving offset, once per tick
+ * - system() is a shared instance over the system clock; other instances
+ *   (another zone, a test clock) own their ticker thread and are closed by
+ *   their owner
+ * - tick() refreshes immediately, for callers that move the source clock;
+ *   manual() clocks have no ticker at all and change only on tick(), so a
+ *   simulation stepping a VirtualClock sees every step and nothing else
+ */
+public final class CoarseClock implements AutoCloseable {
+
+    public static final Duration DEFAULT_TICK = Duration.ofSeconds(1);
+
+    private static final int MINUTES_PER_DAY = 24 * 60;
+
+    private static volatile CoarseClock system;
+
+    private final Clock source;
+    private ScheduledExecutorService ticker; // null for manual clocks
+    private volatile long millis;
+    private volatile int minuteOfDay;
+
+    public CoarseClock(Clock source, Duration tick) {
+        this(source);
+        if (tick == null || tick.isNegative() || tick.isZero()) {
+            throw new IllegalArgumentException("Clock tick must be positive");
+        }
+        this.ticker = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "coarse-clock");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long tickNanos = tick.toNanos();
+        ticker.scheduleAtFixedRate(this::tick, tickNanos, tickNanos, TimeUnit.NANOSECONDS);
+    }
+
+    private CoarseClock(Clock source) {
+        if (source == null) {
+            throw new IllegalArgumentException("Source clock cannot be null");
+        }
+        this.source = source;
+        tick();
+    }
+
+    /**
+     * Clock without a ticker: readings change only when tick() is called.
+     */
+    public static CoarseClock manual(Clock source) {
+        return new CoarseClock(source);
+    }
+
+    /**
+     * Shared clock over the system clock in the default time zone.
+     */
+    public static CoarseClock system() {
+        CoarseClock clock = system;
+        if (clock == null) {
+            synchronized (CoarseClock.class) {
+                clock = system;
+                if (clock == null) {
+                    clock = new CoarseClock(Clock.systemDefaultZone(), DEFAULT_TICK);
+                    system = clock;
+                }
+            }
+        }
+        return clock;
+    }
+
+    public long currentTimeMillis() {
+        return millis;
+    }
+
+    /**
+     * Minutes since local midnight, 0 to 1439.
+     */
+    public int minuteOfDay() {
+        return minuteOfDay;
+    }
+
+    public void tick() {
+        Instant now = source.instant();
+        long offsetSeconds = source.getZone().getRules().getOffset(now).getTotalSeconds();
+        long localMinutes = Math.floorDiv(now.getEpochSecond() + offsetSeconds, 60);
+        minuteOfDay = Math.floorMod(localMinutes, MINUTES_PER_DAY);
+        millis = now.toEpochMilli();
+    }
+
+    @Override
+    public void close() {
+        if (this == system) {
+            return; // shared, lives as long as the process
+        }
+        if (ticker != null) {
+            ticker.shutdownNow();
+        }
+    }
+}
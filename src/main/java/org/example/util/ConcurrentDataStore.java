@@ -0,0 +1,400 @@
+package org.example.util;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Spliterator;
+import java.util.function.Consumer;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Thread-safe DataStore for many concurrent request threads.
+ *
+ * DESIGN DECISIONS:
+ * - Lookups go through a ConcurrentLongMap from id to a node holding the item,
+ *   keyed on the primitive id
+ * - Every node gets a slot in a log of fixed-size chunks, in insertion order;
+ *   iteration walks the log and skips deleted nodes
+ * - add/update/delete are O(1): add claims the next slot, update swaps the
+ *   node's item, delete clears the node's item
+ * - Changes to one id run inside the map's per-key compute, so the map and the
+ *   log never disagree about which items are live
+ * - Once deleted nodes make up half the log, the deleting thread compacts it:
+ *   the log is sealed, live nodes are copied in order into a fresh log, and
+ *   the old one is dropped. Compaction copies at most twice the live count
+ *   and happens at most once per that many deletes, so the log stays within
+ *   about twice the live size and iteration cost follows the live count.
+ *   Adds wait while a compaction runs; lookups, updates and deletes do not
+ * - Each node keeps the sequence number it was added with. Cursors are
+ *   sequence numbers rather than slots, so page() continues correctly across
+ *   compactions however the store changes between pages
+ * - Iteration is weakly consistent: it never fails under concurrent writes and
+ *   sees every item that was live for the whole traversal
+ * - spliterator() walks the log in place and splits by slot range, so
+ *   parallel streams divide the work evenly
+ * - Items cannot be null; a null item marks a deleted node
+ */
+public class ConcurrentDataStore<T> implements DataStore<T> {
+
+    private static final int CHUNK_SHIFT = 10;
+    private static final int CHUNK_SIZE = 1 << CHUNK_SHIFT;
+    private static final int CHUNK_MASK = CHUNK_SIZE - 1;
+    // Set on a log's slot counter once compaction has started copying it
+    private static final long SEALED = 1L << 62;
+
+    private final ConcurrentLongMap<Node<T>> index;
+    private final ReentrantLock compactionLock;
+    private volatile Log<T> log;
+
+    public ConcurrentDataStore() {
+        this.index = new ConcurrentLongMap<>();
+        this.compactionLock = new ReentrantLock();
+        this.log = new Log<>(0, 0);
+    }
+
+    /**
+     * Adds the item, or replaces it in place if the id is already present.
+     */
+    @Override
+    public void add(long id, T item) {
+        if (item == null) {
+            throw new IllegalArgumentException("Item cannot be null");
+        }
+        index.compute(id, (key, node) -> {
+            if (node != null) {
+                node.item = item;
+                return node;
+            }
+            return append(item);
+        });
+    }
+
+    @Override
+    public T findById(long id) {
+        Node<T> node = index.get(id);
+        return node == null ? null : node.item;
+    }
+
+    /**
+     * Replaces the item stored under the id, keeping its position. Unknown ids
+     * are added.
+     */
+    @Override
+    public void update(long id, T item) {
+        add(id, item);
+    }
+
+    @Override
+    public void delete(long id) {
+        boolean[] removed = new boolean[1];
+        index.computeIfPresent(id, (key, node) -> {
+            node.item = null;
+            removed[0] = true;
+            return null;
+        });
+        if (!removed[0]) {
+            return;
+        }
+        Log<T> current = log;
+        long dead = current.dead.incrementAndGet();
+        if (dead >= CHUNK_SIZE && dead * 2 >= current.end() && compactionLock.tryLock()) {
+            try {
+                if (log == current) {
+                    compact(current);
+                }
+            } finally {
+                compactionLock.unlock();
+            }
+        }
+    }
+
+    @Override
+    public List<T> getAll() {
+        List<T> items = new ArrayList<>(index.size());
+        Log<T> current = log;
+        long end = current.end();
+        for (long slot = 0; slot < end; slot++) {
+            T item = current.itemAt(slot);
+            if (item != null) {
+                items.add(item);
+            }
+        }
+        return items;
+    }
+
+    @Override
+    public Spliterator<T> spliterator() {
+        Log<T> current = log;
+        return new SlotSpliterator<>(current, 0, current.end());
+    }
+
+    @Override
+    public Page<T> page(long cursor, int limit) {
+        List<T> items = new ArrayList<>(Math.min(Math.max(limit, 0), CHUNK_SIZE));
+        Log<T> current = log;
+        long end = current.end();
+        long slot = current.slotOf(Math.max(cursor, 0), end);
+        while (slot < end && items.size() < limit) {
+            T item = current.itemAt(slot++);
+            if (item != null) {
+                items.add(item);
+            }
+        }
+        return new Page<>(items, current.sequenceAt(slot), slot < end);
+    }
+
+    @Override
+    public int size() {
+        return index.size();
+    }
+
+    @Override
+    public boolean contains(long id) {
+        return index.containsKey(id);
+    }
+
+    /**
+     * Slots in the current log, live and deleted; the cost of a full
+     * iteration.
+     */
+    long logLength() {
+        return log.end();
+    }
+
+    // Runs inside the map's compute for the id
+    private Node<T> append(T item) {
+        while (true) {
+            Log<T> current = log;
+            long slot = current.claim();
+            if (slot >= 0) {
+                Node<T> node = new Node<>(item, current.sequenceOffset + slot);
+                current.publish(slot, node);
+                return node;
+            }
+            // Sealed by a compaction; wait for it to publish the new log
+            compactionLock.lock();
+            compactionLock.unlock();
+        }
+    }
+
+    // Called with the compaction lock held
+    private void compact(Log<T> sealing) {
+        long end = sealing.seal();
+        List<Node<T>> live = new ArrayList<>(index.size());
+        for (long slot = 0; slot < end; slot++) {
+            Node<T> node = sealing.awaitNodeAt(slot);
+            if (node.item != null) {
+                live.add(node);
+            }
+        }
+        // Appends to the new log continue the sequence where the old one ended
+        Log<T> compacted = new Log<>(live.size(), sealing.sequenceAt(end) - live.size());
+        for (int slot = 0; slot < live.size(); slot++) {
+            compacted.publish(compacted.claim(), live.get(slot));
+        }
+        log = compacted;
+    }
+
+    /*
+     * One generation of the slot log. Slots below copied hold nodes carried
+     * over by compaction, with their original sequence numbers; later slots
+     * hold nodes appended to this log, numbered sequenceOffset + slot.
+     * Sequence numbers therefore increase with the slot.
+     */
+    private static final class Log<T> {
+        private final int copied;
+        private final long sequenceOffset;
+        private final AtomicLong nextSlot;
+        private final AtomicLong dead;
+        private volatile AtomicReferenceArray<AtomicReferenceArray<Node<T>>> chunks;
+
+        private Log(int copied, long sequenceOffset) {
+            this.copied = copied;
+            this.sequenceOffset = sequenceOffset;
+            this.nextSlot = new AtomicLong();
+            this.dead = new AtomicLong();
+            this.chunks = new AtomicReferenceArray<>(16);
+        }
+
+        // Next free slot, or -1 once the log is sealed
+        private long claim() {
+            while (true) {
+                long slot = nextSlot.get();
+                if ((slot & SEALED) != 0) {
+                    return -1;
+                }
+                if (nextSlot.compareAndSet(slot, slot + 1)) {
+                    return slot;
+                }
+            }
+        }
+
+        // Stops further claims and returns the number of slots claimed
+        private long seal() {
+            return nextSlot.getAndUpdate(slot -> slot | SEALED) & ~SEALED;
+        }
+
+        private long end() {
+            return nextSlot.get() & ~SEALED;
+        }
+
+        private void publish(long slot, Node<T> node) {
+            chunkFor(slot).set((int) (slot & CHUNK_MASK), node);
+        }
+
+        // Live item in the slot, or null if deleted or not published yet
+        private T itemAt(long slot) {
+            Node<T> node = nodeAt(slot);
+            return node == null ? null : node.item;
+        }
+
+        // Node in a claimed slot; its add is mid-publish if it is not there yet
+        private Node<T> awaitNodeAt(long slot) {
+            Node<T> node;
+            while ((node = nodeAt(slot)) == null) {
+                Thread.onSpinWait();
+            }
+            return node;
+        }
+
+        // Copied slots were all filled before the log was published
+        private long sequenceAt(long slot) {
+            return slot < copied ? nodeAt(slot).sequence : sequenceOffset + slot;
+        }
+
+        // First slot whose sequence is at least the given one
+        private long slotOf(long sequence, long end) {
+            long low = 0;
+            long high = end;
+            while (low < high) {
+                long middle = (low + high) >>> 1;
+                if (sequenceAt(middle) < sequence) {
+                    low = middle + 1;
+                } else {
+                    high = middle;
+                }
+            }
+            return low;
+        }
+
+        // Node in the slot, or null if it is not published yet
+        private Node<T> nodeAt(long slot) {
+            int chunkIndex = (int) (slot >>> CHUNK_SHIFT);
+            AtomicReferenceArray<AtomicReferenceArray<Node<T>>> directory = chunks;
+            AtomicReferenceArray<Node<T>> chunk = chunkIndex < directory.length() ? directory.get(chunkIndex) : null;
+            if (chunk == null) {
+                // Slot claimed but its chunk is not published yet; re-read the directory
+                directory = chunks;
+                chunk = chunkIndex < directory.length() ? directory.get(chunkIndex) : null;
+                if (chunk == null) {
+                    return null;
+                }
+            }
+            return chunk.get((int) (slot & CHUNK_MASK));
+        }
+
+        private AtomicReferenceArray<Node<T>> chunkFor(long slot) {
+            int chunkIndex = (int) (slot >>> CHUNK_SHIFT);
+            AtomicReferenceArray<AtomicReferenceArray<Node<T>>> directory = chunks;
+            if (chunkIndex < directory.length()) {
+                AtomicReferenceArray<Node<T>> chunk = directory.get(chunkIndex);
+                if (chunk != null) {
+                    return chunk;
+                }
+            }
+            return allocateChunk(chunkIndex);
+        }
+
+        private synchronized AtomicReferenceArray<Node<T>> allocateChunk(int chunkIndex) {
+            AtomicReferenceArray<AtomicReferenceArray<Node<T>>> directory = chunks;
+            if (chunkIndex >= directory.length()) {
+                int newLength = directory.length();
+                while (newLength <= chunkIndex) {
+                    newLength *= 2;
+                }
+                AtomicReferenceArray<AtomicReferenceArray<Node<T>>> grown = new AtomicReferenceArray<>(newLength);
+                for (int i = 0; i < directory.length(); i++) {
+                    grown.set(i, directory.get(i));
+                }
+                directory = grown;
+                chunks = grown;
+            }
+            AtomicReferenceArray<Node<T>> chunk = directory.get(chunkIndex);
+            if (chunk == null) {
+                chunk = new AtomicReferenceArray<>(CHUNK_SIZE);
+                directory.set(chunkIndex, chunk);
+            }
+            return chunk;
+        }
+    }
+
+    // Walks a slot range of one log; splits in halves, at chunk boundaries
+    private static final class SlotSpliterator<T> implements Spliterator<T> {
+        private final Log<T> log;
+        private long slot;
+        private final long end;
+
+        private SlotSpliterator(Log<T> log, long slot, long end) {
+            this.log = log;
+            this.slot = slot;
+            this.end = end;
+        }
+
+        @Override
+        public boolean tryAdvance(Consumer<? super T> action) {
+            while (slot < end) {
+                T item = log.itemAt(slot++);
+                if (item != null) {
+                    action.accept(item);
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        @Override
+        public void forEachRemaining(Consumer<? super T> action) {
+            long last = end;
+            for (long current = slot; current < last; current++) {
+                T item = log.itemAt(current);
+                if (item != null) {
+                    action.accept(item);
+                }
+            }
+            slot = last;
+        }
+
+        @Override
+        public Spliterator<T> trySplit() {
+            long middle = ((slot + end) >>> 1) & ~(long) CHUNK_MASK;
+            if (middle <= slot) {
+                return null;
+            }
+            Spliterator<T> prefix = new SlotSpliterator<>(log, slot, middle);
+            slot = middle;
+            return prefix;
+        }
+
+        @Override
+        public long estimateSize() {
+            return end - slot;
+        }
+
+        @Override
+        public int characteristics() {
+            return ORDERED | NONNULL | CONCURRENT;
+        }
+    }
+
+    private static final class Node<T> {
+        private final long sequence;
+        // null once deleted
+        private volatile T item;
+
+        private Node(T item, long sequence) {
+            this.item = item;
+            this.sequence = sequence;
+        }
+    }
+}
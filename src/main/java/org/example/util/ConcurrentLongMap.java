@@ -0,0 +1,262 @@
+package org.example.util;
+
+import java.util.concurrent.locks.StampedLock;
+
+/**
+ * Concurrent hash map from primitive long keys to values, so lookups by
+ * numeric id neither box the key nor chase a node per entry.
+ *
+ * DESIGN DECISIONS:
+ * - Keys are spread over a fixed number of stripes by the high bits of a
+ *   multiplicative hash; each stripe is an open-addressing table (parallel
+ *   key and value arrays, linear probing) guarded by its own StampedLock
+ * - get is an optimistic read that only takes the read lock when a writer
+ *   changed the stripe meanwhile
+ * - compute runs the remapping function under the stripe's write lock, so
+ *   changes to one key apply atomically and in order, as with
+ *   ConcurrentHashMap.compute. The function must not touch the map
+ * - Removal shifts the following entries back instead of leaving tombstones,
+ *   so probe sequences stay short under churn
+ * - null values are not stored: a function returning null removes the key
+ */
+public class ConcurrentLongMap<V> {
+
+    private static final int STRIPE_SHIFT = 6;
+    private static final int STRIPES = 1 << STRIPE_SHIFT;
+    private static final int INITIAL_CAPACITY = 16;
+
+    @FunctionalInterface
+    public interface Remapping<V> {
+        /**
+         * @param value current value, or null if the key is absent
+         * @return the new value, or null to remove the key
+         */
+        V apply(long key, V value);
+    }
+
+    @FunctionalInterface
+    public interface EntryVisitor<V> {
+        void accept(long key, V value);
+    }
+
+    private final Stripe[] stripes;
+
+    public ConcurrentLongMap() {
+        this.stripes = new Stripe[STRIPES];
+        for (int i = 0; i < STRIPES; i++) {
+            stripes[i] = new Stripe();
+        }
+    }
+
+    public V get(long key) {
+        long hash = hash(key);
+        return stripeFor(hash).get(key, hash);
+    }
+
+    public boolean containsKey(long key) {
+        return get(key) != null;
+    }
+
+    public V put(long key, V value) {
+        if (value == null) {
+            throw new NullPointerException("null values are not supported");
+        }
+        Object[] previous = new Object[1];
+        compute(key, (k, current) -> {
+            previous[0] = current;
+            return value;
+        });
+        return cast(previous[0]);
+    }
+
+    public V remove(long key) {
+        Object[] previous = new Object[1];
+        compute(key, (k, current) -> {
+            previous[0] = current;
+            return null;
+        });
+        return cast(previous[0]);
+    }
+
+    public V compute(long key, Remapping<V> remapping) {
+        long hash = hash(key);
+        return stripeFor(hash).compute(key, hash, remapping, false);
+    }
+
+    /**
+     * Like compute, but only calls the function when the key is present.
+     */
+    public V computeIfPresent(long key, Remapping<V> remapping) {
+        long hash = hash(key);
+        return stripeFor(hash).compute(key, hash, remapping, true);
+    }
+
+    public int size() {
+        int size = 0;
+        for (Stripe stripe : stripes) {
+            size += stripe.size;
+        }
+        return size;
+    }
+
+    /**
+     * Visits every entry. Each stripe is copied under its read lock and
+     * visited after the lock is released, so the visitor may change the map;
+     * changes made while forEach runs may or may not be seen.
+     */
+    public void forEach(EntryVisitor<V> visitor) {
+        for (Stripe stripe : stripes) {
+            long[] keys;
+            Object[] values;
+            long stamp = stripe.lock.readLock();
+            try {
+                keys = stripe.keys.clone();
+                values = stripe.values.clone();
+            } finally {
+                stripe.lock.unlockRead(stamp);
+            }
+            for (int i = 0; i < values.length; i++) {
+                if (values[i] != null) {
+                    visitor.accept(keys[i], cast(values[i]));
+                }
+            }
+        }
+    }
+
+    private Stripe stripeFor(long hash) {
+        return stripes[(int) (hash >>> (64 - STRIPE_SHIFT))];
+    }
+
+    private static long hash(long key) {
+        return key * 0x9E3779B97F4A7C15L;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <V> V cast(Object value) {
+        return (V) value;
+    }
+
+    private static final class Stripe {
+        private final StampedLock lock = new StampedLock();
+        private long[] keys = new long[INITIAL_CAPACITY];
+        private Object[] values = new Object[INITIAL_CAPACITY];
+        private volatile int size;
+
+        <V> V get(long key, long hash) {
+            long stamp = lock.tryOptimisticRead();
+            Object value = find(keys, values, key, hash);
+            if (!lock.validate(stamp)) {
+                stamp = lock.readLock();
+                try {
+                    value = find(keys, values, key, hash);
+                } finally {
+                    lock.unlockRead(stamp);
+                }
+            }
+            return cast(value);
+        }
+
+        <V> V compute(long key, long hash, Remapping<V> remapping, boolean onlyIfPresent) {
+            long stamp = lock.writeLock();
+            try {
+                int mask = values.length - 1;
+                int slot = home(hash, mask);
+                while (values[slot] != null && keys[slot] != key) {
+                    slot = (slot + 1) & mask;
+                }
+                V current = cast(values[slot]);
+                if (current == null && onlyIfPresent) {
+                    return null;
+                }
+                V updated = remapping.apply(key, current);
+                if (updated != null) {
+                    if (current == null) {
+                        insert(key, hash, updated);
+                    } else {
+                        values[slot] = updated;
+                    }
+                } else if (current != null) {
+                    delete(slot);
+                }
+                return updated;
+            } finally {
+                lock.unlockWrite(stamp);
+            }
+        }
+
+        private void insert(long key, long hash, Object value) {
+            // Load factor 1/2 keeps linear probes short
+            if ((size + 1) * 2 > values.length) {
+                resize();
+            }
+            int mask = values.length - 1;
+            int slot = home(hash, mask);
+            while (values[slot] != null) {
+                slot = (slot + 1) & mask;
+            }
+            keys[slot] = key;
+            values[slot] = value;
+            size = size + 1;
+        }
+
+        private void delete(int slot) {
+            int mask = values.length - 1;
+            int hole = slot;
+            for (int next = (hole + 1) & mask; values[next] != null; next = (next + 1) & mask) {
+                int home = home(hash(keys[next]), mask);
+                // Move the entry into the hole unless its home lies between the hole and itself
+                if (((next - home) & mask) >= ((next - hole) & mask)) {
+                    keys[hole] = keys[next];
+                    values[hole] = values[next];
+                    hole = next;
+                }
+            }
+            values[hole] = null;
+            size = size - 1;
+        }
+
+        private void resize() {
+            long[] oldKeys = keys;
+            Object[] oldValues = values;
+            long[] newKeys = new long[oldValues.length * 2];
+            Object[] newValues = new Object[oldValues.length * 2];
+            int mask = newValues.length - 1;
+            for (int i = 0; i < oldValues.length; i++) {
+                if (oldValues[i] != null) {
+                    int slot = home(hash(oldKeys[i]), mask);
+                    while (newValues[slot] != null) {
+                        slot = (slot + 1) & mask;
+                    }
+                    newKeys[slot] = oldKeys[i];
+                    newValues[slot] = oldValues[i];
+                }
+            }
+            keys = newKeys;
+            values = newValues;
+        }
+
+        // Probes at most one full table, so a torn optimistic read still ends
+        private static Object find(long[] keys, Object[] values, long key, long hash) {
+            if (keys.length != values.length) {
+                return null;
+            }
+            int mask = values.length - 1;
+            int slot = home(hash, mask);
+            for (int probes = 0; probes <= mask; probes++) {
+                Object value = values[slot];
+                if (value == null) {
+                    return null;
+                }
+                if (keys[slot] == key) {
+                    return value;
+                }
+                slot = (slot + 1) & mask;
+            }
+            return null;
+        }
+
+        private static int home(long hash, int mask) {
+            return (int) (hash ^ (hash >>> 29)) & mask;
+        }
+    }
+}
@@ -1,49 +1,47 @@
 package org.example.util;
 
-import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.List;
+import java.util.Spliterator;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
-public class DataStore<T> {
-    private HashMap<String,T> dataMap;
-    private ArrayList<T> datalist;
+/**
+ * Keyed storage used by the services. Items are keyed by the entity's numeric
+ * id. Implementations keep items in insertion order so that getAll() lists
+ * them in the order they were added.
+ */
+public interface DataStore<T> {
 
-    public DataStore() {
-         this.dataMap = new HashMap<>();
-         this.datalist = new ArrayList<>();
-    }
+    void add(long id, T item);
 
-    public void add(String id,T item) {
-        dataMap.put(id,item);
-        datalist.add(item);
-    }
+    T findById(long id);
 
-    public T findById(String id) {
-        return dataMap.get(id);
-    }
+    void update(long id, T item);
 
-    public void update(String id,T item) {
-        dataMap.put(id,item);
-        for (int i=0;i<datalist.size();) {
-            datalist.set(i,item);
-            break;
-        }
-    }
+    void delete(long id);
 
-    public void delete(String id) {
-        T item = dataMap.remove(id);
-        datalist.remove(item);
-    }
+    /**
+     * Copy of every item. Prefer stream() or page() for large stores.
+     */
+    List<T> getAll();
 
-    public List<T> getAll() {
-        return new ArrayList<>(datalist);
-    }
+    /**
+     * Items in insertion order, read from the store without copying. See the
+     * implementation for how it behaves under concurrent changes.
+     */
+    Spliterator<T> spliterator();
 
-    public int size() {
-        return datalist.size();
+    default Stream<T> stream() {
+        return StreamSupport.stream(spliterator(), false);
     }
 
-    public boolean contains(String id) {
-        return dataMap.containsKey(id);
-    }
+    /**
+     * Up to limit items following the cursor, in insertion order. Start with
+     * Page.FIRST and continue with the page's next cursor.
+     */
+    Page<T> page(long cursor, int limit);
+
+    int size();
+
+    boolean contains(long id);
 }
@@ -0,0 +1,254 @@
+package org.example.util;
+
+import org.example.model.Driver;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * ACTIVITY INDEX - DriverActivityIndex
+ *
+ * Keeps the available drivers ordered by workload, so the least active one
+ * is read off the top of a heap instead of found by scanning the fleet.
+ * Two orders are kept side by side:
+ * - lifetime completed rides (Driver.getCompletedRidesCount())
+ * - recent activity: completed rides weighted by exp(-age / tau), halving
+ *   every halfLife, so a veteran who has been idle today ranks level with a
+ *   new driver instead of waiting weeks for them to catch up
+ *
+ * DESIGN DECISIONS:
+ * - Each order is an indexed binary min-heap: every entry knows its slot, so
+ *   a driver leaving, returning or completing a ride is sifted in O(log n)
+ *   and the minimum is read in O(1)
+ * - Recent activity is stored as the log of sum(exp(lambda * t_i)) over
+ *   completion times t_i. Decaying every score by the same factor does not
+ *   change their order, so scores never need re-keying as time passes, and
+ *   the log keeps them from overflowing
+ * - Ties are broken by the order in which drivers were first indexed
+ *   (registration order), which is also what a scan over the available
+ *   drivers picks
+ * - One monitor guards both heaps; updates are a few dozen array moves.
+ *   Availability is read under it, so the last update for a driver always
+ *   leaves the heaps matching the driver's current state
+ * - Recent activity is kept in memory only and starts at zero on restart
+ */
+public class DriverActivityIndex {
+
+    public static final Duration DEFAULT_HALF_LIFE = Duration.ofDays(1);
+
+    private static final int BY_RIDES = 0;
+    private static final int BY_RECENT = 1;
+
+    private final double lambda; // per millisecond
+    private final Map<Long, Entry> entries;
+    private final Heap byRides;
+    private final Heap byRecent;
+    private long sequence;
+
+    public DriverActivityIndex() {
+        this(DEFAULT_HALF_LIFE);
+    }
+
+    public DriverActivityIndex(Duration halfLife) {
+        if (halfLife == null || halfLife.isNegative() || halfLife.isZero()) {
+            throw new IllegalArgumentException("Half-life must be positive");
+        }
+        this.lambda = Math.log(2) / halfLife.toMillis();
+        this.entries = new HashMap<>();
+        this.byRides = new Heap(BY_RIDES);
+        this.byRecent = new Heap(BY_RECENT);
+    }
+
+    /**
+     * Re-reads the driver's availability and completed ride count.
+     */
+    public synchronized void update(Driver driver) {
+        if (driver == null || driver.getId() <= 0) {
+            return;
+        }
+        Entry entry = entries.get(driver.getId());
+        if (entry == null) {
+            entry = new Entry(driver, ++sequence);
+            entries.put(driver.getId(), entry);
+        }
+        entry.rides = driver.getCompletedRidesCount();
+        if (driver.isAvailable()) {
+            byRides.addOrFix(entry);
+            byRecent.addOrFix(entry);
+        } else {
+            byRides.remove(entry);
+            byRecent.remove(entry);
+        }
+    }
+
+    /**
+     * Adds a ride completed at the given time to the driver's recent
+     * activity and re-reads its completed ride count.
+     */
+    public synchronized void recordCompletedRide(Driver driver, long timestampMillis) {
+        update(driver);
+        Entry entry = entries.get(driver.getId());
+        if (entry != null) {
+            entry.logActivity = logSumExp(entry.logActivity, lambda * timestampMillis);
+            entry.lastCompleted = Math.max(entry.lastCompleted, timestampMillis);
+            if (entry.position[BY_RECENT] >= 0) {
+                byRecent.addOrFix(entry);
+            }
+        }
+    }
+
+    public synchronized void remove(long driverId) {
+        Entry entry = entries.remove(driverId);
+        if (entry != null) {
+            byRides.remove(entry);
+            byRecent.remove(entry);
+        }
+    }
+
+    /**
+     * The available driver with the fewest completed rides, or null if none
+     * is available.
+     */
+    public synchronized Driver findLeastActive() {
+        return byRides.size == 0 ? null : byRides.entries[0].driver;
+    }
+
+    /**
+     * The available driver with the least recent activity, or null if none
+     * is available.
+     */
+    public synchronized Driver findLeastRecentlyActive() {
+        return byRecent.size == 0 ? null : byRecent.entries[0].driver;
+    }
+
+    /**
+     * The driver's decayed ride count at the given time: each completed ride
+     * counts 1 when it completes and half as much every half-life after.
+     */
+    public synchronized double getRecentActivity(Driver driver, long nowMillis) {
+        Entry entry = entries.get(driver.getId());
+        return entry == null ? 0 : Math.exp(entry.logActivity - lambda * nowMillis);
+    }
+
+    /**
+     * When the driver last completed a ride, or Long.MIN_VALUE if no ride
+     * was recorded.
+     */
+    public synchronized long getLastCompletedRide(Driver driver) {
+        Entry entry = entries.get(driver.getId());
+        return entry == null ? Long.MIN_VALUE : entry.lastCompleted;
+    }
+
+    /**
+     * Number of available drivers in the index.
+     */
+    public synchronized int size() {
+        return byRides.size;
+    }
+
+    private static double logSumExp(double a, double b) {
+        if (a == Double.NEGATIVE_INFINITY) {
+            return b;
+        }
+        double max = Math.max(a, b);
+        return max + Math.log1p(Math.exp(-Math.abs(a - b)));
+    }
+
+    private static final class Entry {
+        final Driver driver;
+        final long sequence;
+        int rides;
+        // log(sum(exp(lambda * t_i))); -infinity before the first ride
+        double logActivity = Double.NEGATIVE_INFINITY;
+        long lastCompleted = Long.MIN_VALUE;
+        // Slot in each heap, -1 when not in it
+        final int[] position = {-1, -1};
+
+        Entry(Driver driver, long sequence) {
+            this.driver = driver;
+            this.sequence = sequence;
+        }
+    }
+
+    // Binary min-heap of entries that records each entry's slot in it
+    private static final class Heap {
+        private final int order;
+        private Entry[] entries = new Entry[64];
+        private int size;
+
+        Heap(int order) {
+            this.order = order;
+        }
+
+        void addOrFix(Entry entry) {
+            int slot = entry.position[order];
+            if (slot < 0) {
+                if (size == entries.length) {
+                    Entry[] grown = new Entry[size * 2];
+                    System.arraycopy(entries, 0, grown, 0, size);
+                    entries = grown;
+                }
+                slot = size++;
+                place(entry, slot);
+            }
+            siftDown(siftUp(slot));
+        }
+
+        void remove(Entry entry) {
+            int slot = entry.position[order];
+            if (slot < 0) {
+                return;
+            }
+            entry.position[order] = -1;
+            Entry last = entries[--size];
+            entries[size] = null;
+            if (slot < size) {
+                place(last, slot);
+                siftDown(siftUp(slot));
+            }
+        }
+
+        private int siftUp(int slot) {
+            Entry entry = entries[slot];
+            while (slot > 0) {
+                int parent = (slot - 1) >>> 1;
+                if (!less(entry, entries[parent])) {
+                    break;
+                }
+                place(entries[parent], slot);
+                slot = parent;
+            }
+            place(entry, slot);
+            return slot;
+        }
+
+        private void siftDown(int slot) {
+            Entry entry = entries[slot];
+            int half = size >>> 1;
+            while (slot < half) {
+                int child = 2 * slot + 1;
+                if (child + 1 < size && less(entries[child + 1], entries[child])) {
+                    child++;
+                }
+                if (!less(entries[child], entry)) {
+                    break;
+                }
+                place(entries[child], slot);
+                slot = child;
+            }
+            place(entry, slot);
+        }
+
+        private void place(Entry entry, int slot) {
+            entries[slot] = entry;
+            entry.position[order] = slot;
+        }
+
+        private boolean less(Entry a, Entry b) {
+            int compared = order == BY_RIDES ? Integer.compare(a.rides, b.rides)
+                    : Double.compare(a.logActivity, b.logActivity);
+            return compared != 0 ? compared < 0 : a.sequence < b.sequence;
+        }
+    }
+}
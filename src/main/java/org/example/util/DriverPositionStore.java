@@ -0,0 +1,218 @@
+package org.example.util;
+
+import org.example.model.Driver;
+import org.example.model.Location;
+
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * STRUCT-OF-ARRAYS POSITION STORE - DriverPositionStore
+ *
+ * Keeps every registered driver's position in parallel primitive arrays
+ * indexed by an int slot, plus a bitset of which slots are available, so a
+ * nearest-driver scan streams through contiguous doubles instead of chasing
+ * Driver -> Location pointers.
+ *
+ * DESIGN DECISIONS:
+ * - Slots are handed out in registration order and never reused, so the
+ *   lowest slot wins ties just like the first driver in a store scan
+ * - Positions are stored as unit vectors (x, y, z) rather than latitude and
+ *   longitude; the squared chord between unit vectors ranks drivers exactly
+ *   like the great-circle distance and needs only multiply/add, which
+ *   vectorizes
+ * - The scan works in 64-slot blocks: blocks with no available driver are
+ *   skipped on their bitset word, the others go through a batch kernel
+ *   (scalar, or the Vector API one when the benchmarks supply it) and then
+ *   a masked argmin
+ * - Writers are serialized on the store; readers never lock. A volatile
+ *   modification counter, bumped after each write and read before each scan,
+ *   publishes the writes to readers. A driver moving during a scan may be
+ *   seen at either position
+ */
+public class DriverPositionStore {
+
+    private static final int BLOCK_SIZE = 64;
+    private static final int INITIAL_CAPACITY = 1024;
+
+    private final PositionKernel kernel;
+    private final ConcurrentHashMap<String, Integer> slots;
+    private final ThreadLocal<double[]> scratch;
+
+    private volatile Columns columns;
+    private volatile int slotCount;
+    private volatile int modificationCount;
+    private int availableCount; // guarded by this
+
+    public DriverPositionStore() {
+        this(PositionKernel.best());
+    }
+
+    DriverPositionStore(PositionKernel kernel) {
+        this.kernel = kernel;
+        this.slots = new ConcurrentHashMap<>();
+        this.scratch = ThreadLocal.withInitial(() -> new double[BLOCK_SIZE]);
+        this.columns = new Columns(INITIAL_CAPACITY);
+    }
+
+    /**
+     * Writes the driver's current position and availability into its slot,
+     * assigning a new slot on first sight.
+     */
+    public synchronized void update(Driver driver) {
+        if (driver == null || driver.getDriverId() == null) {
+            return;
+        }
+        Integer existing = slots.get(driver.getDriverId());
+        int slot = existing != null ? existing : slotCount;
+        Columns current = ensureCapacity(slot + 1);
+
+        Location location = driver.getDriverLocation();
+        if (location != null) {
+            double latRad = Math.toRadians(location.getLatitude());
+            double lonRad = Math.toRadians(location.getLongitude());
+            double cosLat = Math.cos(latRad);
+            current.xs[slot] = cosLat * Math.cos(lonRad);
+            current.ys[slot] = cosLat * Math.sin(lonRad);
+            current.zs[slot] = Math.sin(latRad);
+        }
+        current.drivers[slot] = driver;
+        setAvailableBit(current, slot, driver.isAvailable() && location != null);
+
+        if (existing == null) {
+            slots.put(driver.getDriverId(), slot);
+            slotCount = slot + 1;
+        }
+        modificationCount++;
+    }
+
+    public synchronized void remove(String driverId) {
+        Integer slot = driverId == null ? null : slots.remove(driverId);
+        if (slot == null) {
+            return;
+        }
+        Columns current = columns;
+        setAvailableBit(current, slot, false);
+        current.drivers[slot] = null;
+        modificationCount++;
+    }
+
+    /**
+     * Returns the available driver nearest to the origin, or null if none.
+     */
+    public Driver findNearest(Location origin) {
+        if (origin == null) {
+            throw new IllegalArgumentException("Origin location cannot be null");
+        }
+        if (modificationCount == 0) {
+            return null;
+        }
+        Columns current = columns;
+        int end = Math.min(slotCount, current.capacity);
+
+        double latRad = Math.toRadians(origin.getLatitude());
+        double lonRad = Math.toRadians(origin.getLongitude());
+        double cosLat = Math.cos(latRad);
+        double x = cosLat * Math.cos(lonRad);
+        double y = cosLat * Math.sin(lonRad);
+        double z = Math.sin(latRad);
+
+        double[] chords = scratch.get();
+        double best = Double.MAX_VALUE;
+        Driver nearest = null;
+        int scanned = 0;
+
+        for (int word = 0, from = 0; from < end; word++, from += BLOCK_SIZE) {
+            long bits = current.available[word];
+            if (bits == 0) {
+                continue;
+            }
+            int count = Math.min(BLOCK_SIZE, end - from);
+            scanned += Long.bitCount(bits & (count == BLOCK_SIZE ? -1L : (1L << count) - 1));
+            kernel.squaredChords(current.xs, current.ys, current.zs, from, count, x, y, z, chords);
+            while (bits != 0) {
+                int bit = Long.numberOfTrailingZeros(bits);
+                bits &= bits - 1;
+                if (bit >= count) {
+                    break;
+                }
+                if (chords[bit] < best) {
+                    Driver driver = current.drivers[from + bit];
+                    // The bit can lag a reservation made since the scan started
+                    if (driver != null && driver.isAvailable()) {
+                        best = chords[bit];
+                        nearest = driver;
+                    }
+                }
+            }
+        }
+        ScanCounter.add(scanned);
+        return nearest;
+    }
+
+    public int size() {
+        return slots.size();
+    }
+
+    public synchronized int getAvailableCount() {
+        return availableCount;
+    }
+
+    /**
+     * Name of the batch kernel in use, e.g. for benchmark reports.
+     */
+    public String getKernelName() {
+        return kernel.getClass().getSimpleName();
+    }
+
+    private void setAvailableBit(Columns current, int slot, boolean available) {
+        long mask = 1L << (slot & (BLOCK_SIZE - 1));
+        long word = current.available[slot >>> 6];
+        boolean wasAvailable = (word & mask) != 0;
+        if (available != wasAvailable) {
+            current.available[slot >>> 6] = available ? word | mask : word & ~mask;
+            availableCount += available ? 1 : -1;
+        }
+    }
+
+    private Columns ensureCapacity(int required) {
+        Columns current = columns;
+        if (required <= current.capacity) {
+            return current;
+        }
+        int capacity = current.capacity;
+        while (capacity < required) {
+            capacity *= 2;
+        }
+        Columns grown = new Columns(capacity, current);
+        columns = grown;
+        return grown;
+    }
+
+    private static final class Columns {
+        private final int capacity;
+        private final double[] xs;
+        private final double[] ys;
+        private final double[] zs;
+        private final Driver[] drivers;
+        private final long[] available;
+
+        private Columns(int capacity) {
+            this.capacity = capacity;
+            this.xs = new double[capacity];
+            this.ys = new double[capacity];
+            this.zs = new double[capacity];
+            this.drivers = new Driver[capacity];
+            this.available = new long[(capacity + BLOCK_SIZE - 1) / BLOCK_SIZE];
+        }
+
+        private Columns(int capacity, Columns previous) {
+            this.capacity = capacity;
+            this.xs = Arrays.copyOf(previous.xs, capacity);
+            this.ys = Arrays.copyOf(previous.ys, capacity);
+            this.zs = Arrays.copyOf(previous.zs, capacity);
+            this.drivers = Arrays.copyOf(previous.drivers, capacity);
+            this.available = Arrays.copyOf(previous.available, (capacity + BLOCK_SIZE - 1) / BLOCK_SIZE);
+        }
+    }
+}
@@ -0,0 +1,308 @@
+package org.example.util;
+
+import org.example.model.Driver;
+import org.example.model.Location;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * SPATIAL INDEX - GeoGridIndex
+ *
+ * Buckets available drivers into uniform latitude/longitude grid cells so that
+ * nearest-driver lookups only look at the cells around the rider instead of the
+ * whole fleet.
+ *
+ * DESIGN DECISIONS:
+ * - Cells are searched in expanding square rings around the rider's cell
+ * - After each ring a conservative lower bound on the distance to anything
+ *   outside the searched box is computed; the search stops as soon as the
+ *   current k-th best driver is strictly closer than that bound
+ * - Candidates are ranked with Location.comparableDistanceTo, exactly like the
+ *   linear scan, and ties are broken by the order in which drivers were first
+ *   indexed (registration order), so results match a scan over the store
+ * - If the rings would visit more cells than there are indexed drivers, the
+ *   search falls back to a scan of the indexed drivers
+ */
+public class GeoGridIndex {
+
+    public static final double DEFAULT_CELL_SIZE_DEGREES = 0.05; // ~5.5 km at the equator
+
+    private static final double EARTH_RADIUS_KM = 6371;
+    private static final long NO_CELL = -1L;
+    private static final double BOUND_EPSILON_KM = 1e-9;
+
+    private final double cellSizeDegrees;
+    private final int latCells;
+    private final int lonCells;
+
+    private final ConcurrentHashMap<Long, Set<Entry>> cells;
+    private final ConcurrentHashMap<String, Entry> entries;
+    private final AtomicLong sequence;
+    private final AtomicInteger indexedCount;
+
+    public GeoGridIndex() {
+        this(DEFAULT_CELL_SIZE_DEGREES);
+    }
+
+    public GeoGridIndex(double cellSizeDegrees) {
+        if (cellSizeDegrees <= 0 || cellSizeDegrees > 90) {
+            throw new IllegalArgumentException("Cell size must be between 0 and 90 degrees. Got: " + cellSizeDegrees);
+        }
+        this.cellSizeDegrees = cellSizeDegrees;
+        this.latCells = (int) Math.ceil(180 / cellSizeDegrees);
+        this.lonCells = (int) Math.ceil(360 / cellSizeDegrees);
+        this.cells = new ConcurrentHashMap<>();
+        this.entries = new ConcurrentHashMap<>();
+        this.sequence = new AtomicLong();
+        this.indexedCount = new AtomicInteger();
+    }
+
+    /**
+     * Re-indexes the driver from its current location and availability.
+     * Unavailable drivers or drivers without a location are kept out of the
+     * grid but remember their registration order.
+     */
+    public void update(Driver driver) {
+        if (driver == null || driver.getDriverId() == null) {
+            return;
+        }
+        entries.compute(driver.getDriverId(), (id, entry) -> {
+            if (entry == null) {
+                entry = new Entry(sequence.incrementAndGet());
+            }
+            entry.driver = driver;
+
+            Location location = driver.getDriverLocation();
+            long newCell = driver.isAvailable() && location != null ? cellOf(location) : NO_CELL;
+            if (newCell != entry.cell) {
+                if (entry.cell != NO_CELL) {
+                    removeFromCell(entry.cell, entry);
+                }
+                if (newCell != NO_CELL) {
+                    addToCell(newCell, entry);
+                }
+                entry.cell = newCell;
+            }
+            return entry;
+        });
+    }
+
+    public void remove(String driverId) {
+        if (driverId == null) {
+            return;
+        }
+        entries.computeIfPresent(driverId, (id, entry) -> {
+            if (entry.cell != NO_CELL) {
+                removeFromCell(entry.cell, entry);
+                entry.cell = NO_CELL;
+            }
+            return null;
+        });
+    }
+
+    /**
+     * Number of drivers currently placed in the grid (available and located).
+     */
+    public int size() {
+        return indexedCount.get();
+    }
+
+    /**
+     * Returns the nearest indexed driver, or null if the index is empty.
+     */
+    public Driver findNearest(Location origin) {
+        List<Driver> nearest = findNearest(origin, 1);
+        return nearest.isEmpty() ? null : nearest.get(0);
+    }
+
+    /**
+     * Returns up to k indexed drivers ordered by distance from the origin,
+     * nearest first.
+     */
+    public List<Driver> findNearest(Location origin, int k) {
+        if (origin == null) {
+            throw new IllegalArgumentException("Origin location cannot be null");
+        }
+        if (k <= 0 || indexedCount.get() == 0) {
+            return Collections.emptyList();
+        }
+
+        // Max-heap on (distance, sequence) so the worst of the current k best is on top
+        PriorityQueue<Candidate> best = new PriorityQueue<>(Math.min(k, 64), Candidate.ORDER.reversed());
+
+        int originLatCell = latCell(origin.getLatitude());
+        int originLonCell = lonCell(origin.getLongitude());
+        long cellsVisited = 0;
+
+        for (int ring = 0; ; ring++) {
+            long ringCells = ring == 0 ? 1 : 8L * ring;
+            if (2 * ring + 1 >= lonCells || cellsVisited + ringCells > 4L * indexedCount.get() + 64) {
+                // The rings are no longer cheaper than looking at every indexed driver
+                best.clear();
+                for (Set<Entry> cell : cells.values()) {
+                    offerAll(cell, origin, k, best);
+                }
+                break;
+            }
+
+            for (int dLat = -ring; dLat <= ring; dLat++) {
+                int row = originLatCell + dLat;
+                if (row < 0 || row >= latCells) {
+                    continue;
+                }
+                int step = (dLat == -ring || dLat == ring) ? 1 : Math.max(1, 2 * ring);
+                for (int dLon = -ring; dLon <= ring; dLon += step) {
+                    int column = Math.floorMod(originLonCell + dLon, lonCells);
+                    Set<Entry> cell = cells.get(cellKey(row, column));
+                    if (cell != null) {
+                        offerAll(cell, origin, k, best);
+                    }
+                }
+            }
+            cellsVisited += ringCells;
+
+            if (best.size() == k && best.peek().distance
+                    < Location.comparableFromDistance(lowerBoundOutside(origin, originLatCell, originLonCell, ring))) {
+                break;
+            }
+        }
+
+        List<Candidate> ordered = new ArrayList<>(best);
+        ordered.sort(Candidate.ORDER);
+        List<Driver> result = new ArrayList<>(ordered.size());
+        for (Candidate candidate : ordered) {
+            result.add(candidate.driver);
+        }
+        return result;
+    }
+
+    private void offerAll(Set<Entry> cell, Location origin, int k, PriorityQueue<Candidate> best) {
+        int scanned = 0;
+        for (Entry entry : cell) {
+            scanned++;
+            Driver driver = entry.driver;
+            Location location = driver.getDriverLocation();
+            if (location == null || !driver.isAvailable()) {
+                continue;
+            }
+            double distance = origin.comparableDistanceTo(location);
+            if (best.size() < k) {
+                best.add(new Candidate(driver, distance, entry.sequence));
+            } else {
+                Candidate worst = best.peek();
+                if (distance < worst.distance || (distance == worst.distance && entry.sequence < worst.sequence)) {
+                    best.poll();
+                    best.add(new Candidate(driver, distance, entry.sequence));
+                }
+            }
+        }
+        ScanCounter.add(scanned);
+    }
+
+    /**
+     * Smallest possible distance (km) from the origin to any point outside the
+     * box of cells searched so far.
+     */
+    private double lowerBoundOutside(Location origin, int originLatCell, int originLonCell, int ring) {
+        double originLatRad = Math.toRadians(origin.getLatitude());
+        double bound = Double.MAX_VALUE;
+
+        // Anything south or north of the box is at least the latitude gap away
+        double southEdge = (originLatCell - ring) * cellSizeDegrees - 90;
+        double northEdge = (originLatCell + ring + 1) * cellSizeDegrees - 90;
+        if (southEdge > -90) {
+            bound = Math.min(bound, EARTH_RADIUS_KM * Math.toRadians(origin.getLatitude() - southEdge));
+        }
+        if (northEdge < 90) {
+            bound = Math.min(bound, EARTH_RADIUS_KM * Math.toRadians(northEdge - origin.getLatitude()));
+        }
+
+        // Anything east or west of the box lies beyond one of the two boundary meridians
+        double westEdge = (originLonCell - ring) * cellSizeDegrees - 180;
+        double eastEdge = (originLonCell + ring + 1) * cellSizeDegrees - 180;
+        bound = Math.min(bound, distanceToMeridian(originLatRad, origin.getLongitude() - westEdge));
+        bound = Math.min(bound, distanceToMeridian(originLatRad, eastEdge - origin.getLongitude()));
+
+        return bound - BOUND_EPSILON_KM;
+    }
+
+    private static double distanceToMeridian(double latRad, double deltaLonDegrees) {
+        if (deltaLonDegrees >= 90) {
+            // The closest point of that half-meridian is the nearer pole
+            return EARTH_RADIUS_KM * (Math.PI / 2 - Math.abs(latRad));
+        }
+        return EARTH_RADIUS_KM * Math.asin(Math.cos(latRad) * Math.sin(Math.toRadians(deltaLonDegrees)));
+    }
+
+    private void addToCell(long cell, Entry entry) {
+        cells.compute(cell, (key, members) -> {
+            if (members == null) {
+                members = ConcurrentHashMap.newKeySet();
+            }
+            if (members.add(entry)) {
+                indexedCount.incrementAndGet();
+            }
+            return members;
+        });
+    }
+
+    private void removeFromCell(long cell, Entry entry) {
+        cells.computeIfPresent(cell, (key, members) -> {
+            if (members.remove(entry)) {
+                indexedCount.decrementAndGet();
+            }
+            return members.isEmpty() ? null : members;
+        });
+    }
+
+    private long cellOf(Location location) {
+        return cellKey(latCell(location.getLatitude()), lonCell(location.getLongitude()));
+    }
+
+    private int latCell(double latitude) {
+        return Math.min(latCells - 1, (int) Math.floor((latitude + 90) / cellSizeDegrees));
+    }
+
+    private int lonCell(double longitude) {
+        return Math.floorMod((int) Math.floor((longitude + 180) / cellSizeDegrees), lonCells);
+    }
+
+    private static long cellKey(int row, int column) {
+        return ((long) row << 32) | (column & 0xffffffffL);
+    }
+
+    private static final class Entry {
+        private final long sequence;
+        private volatile Driver driver;
+        private volatile long cell = NO_CELL;
+
+        private Entry(long sequence) {
+            this.sequence = sequence;
+        }
+    }
+
+    // distance is on the Location.comparableDistanceTo scale
+    private static final class Candidate {
+        private static final Comparator<Candidate> ORDER = Comparator
+                .comparingDouble((Candidate c) -> c.distance)
+                .thenComparingLong(c -> c.sequence);
+
+        private final Driver driver;
+        private final double distance;
+        private final long sequence;
+
+        private Candidate(Driver driver, double distance, long sequence) {
+            this.driver = driver;
+            this.distance = distance;
+            this.sequence = sequence;
+        }
+    }
+}
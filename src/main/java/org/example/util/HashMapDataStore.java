@@ -0,0 +1,81 @@
+package org.example.util;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Spliterator;
+
+/**
+ * Original single-threaded store: a HashMap for lookups and an ArrayList for
+ * ordered listing. Not thread-safe, and delete/update are O(n) because they
+ * have to locate the item in the list. Kept as the baseline for
+ * ConcurrentDataStore comparisons.
+ */
+public class HashMapDataStore<T> implements DataStore<T> {
+    private HashMap<Long,T> dataMap;
+    private ArrayList<T> datalist;
+
+    public HashMapDataStore() {
+         this.dataMap = new HashMap<>();
+         this.datalist = new ArrayList<>();
+    }
+
+    @Override
+    public void add(long id,T item) {
+        dataMap.put(id,item);
+        datalist.add(item);
+    }
+
+    @Override
+    public T findById(long id) {
+        return dataMap.get(id);
+    }
+
+    @Override
+    public void update(long id,T item) {
+        T previous = dataMap.put(id,item);
+        int position = previous == null ? -1 : datalist.indexOf(previous);
+        if (position >= 0) {
+            datalist.set(position,item);
+        } else {
+            datalist.add(item);
+        }
+    }
+
+    @Override
+    public void delete(long id) {
+        T item = dataMap.remove(id);
+        datalist.remove(item);
+    }
+
+    @Override
+    public List<T> getAll() {
+        return new ArrayList<>(datalist);
+    }
+
+    @Override
+    public Spliterator<T> spliterator() {
+        return datalist.spliterator();
+    }
+
+    /**
+     * The cursor is a list position, so deletes between pages shift items
+     * across page boundaries.
+     */
+    @Override
+    public Page<T> page(long cursor, int limit) {
+        int from = (int) Math.min(Math.max(cursor, 0), datalist.size());
+        int to = (int) Math.min((long) from + Math.max(limit, 0), datalist.size());
+        return new Page<>(new ArrayList<>(datalist.subList(from, to)), to, to < datalist.size());
+    }
+
+    @Override
+    public int size() {
+        return datalist.size();
+    }
+
+    @Override
+    public boolean contains(long id) {
+        return dataMap.containsKey(id);
+    }
+}
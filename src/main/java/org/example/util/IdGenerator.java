@@ -1,30 +1,81 @@
 package org.example.util;
 
+/**
+ * Id sequences of the four entity kinds. Entities carry their id as a long and
+ * build the display form ("RIDER1", "DRIVER-1", "RIDE-1", "RECEIPT-1") on
+ * demand; see IdSequence for how ids are handed out.
+ */
 public final class IdGenerator {
 
     private IdGenerator() {
         throw new AssertionError("Utility class should not be instantiated");
     }
 
-    private static long riderIdCounter = 0;
-    private static long driverIdCounter = 0;
-    private static long rideIdCounter = 0;
-    private static long receiptIdCounter = 0;
+    public static final IdSequence RIDERS = new IdSequence("RIDER");
+    public static final IdSequence DRIVERS = new IdSequence("DRIVER-");
+    public static final IdSequence RIDES = new IdSequence("RIDE-");
+    public static final IdSequence RECEIPTS = new IdSequence("RECEIPT-");
 
-     public static String generateRiderId() {
-         return "RIDER"+ (++riderIdCounter);
-     }
+    public static String generateRiderId() {
+        return RIDERS.format(RIDERS.next());
+    }
 
-     public static String generateDriverId() {
-         return "DRIVER-" + (++driverIdCounter);
-     }
+    public static String generateDriverId() {
+        return DRIVERS.format(DRIVERS.next());
+    }
 
-     public static String generateRideId() {
-         return "RIDE-" + (++rideIdCounter);
-     }
+    public static String generateRideId() {
+        return RIDES.format(RIDES.next());
+    }
 
-     public static String generateReceiptId() {
-         return "RECEIPT-" + (++receiptIdCounter);
-     }
-}
+    public static String generateReceiptId() {
+        return RECEIPTS.format(RECEIPTS.next());
+    }
+
+    /**
+     * Switches every sequence to time-based ids carrying the given node id, so
+     * several RideWise processes can create entities without colliding. Call
+     * it at startup, before any entity is created.
+     */
+    public static void useNodeLayout(int nodeId) {
+        RIDERS.useNodeLayout(nodeId);
+        DRIVERS.useNodeLayout(nodeId);
+        RIDES.useNodeLayout(nodeId);
+        RECEIPTS.useNodeLayout(nodeId);
+    }
 
+    /**
+     * Highest sequential rider, driver, ride and receipt ids handed out, in that order.
+     */
+    public static long[] getCounters() {
+        return new long[] { RIDERS.highWater(), DRIVERS.highWater(), RIDES.highWater(), RECEIPTS.highWater() };
+    }
+
+    /**
+     * Raises each sequence past the given value, in getCounters order.
+     * Used after recovery so new ids never collide with persisted ones.
+     */
+    public static void advanceCounters(long[] counters) {
+        RIDERS.advancePast(counters[0]);
+        DRIVERS.advancePast(counters[1]);
+        RIDES.advancePast(counters[2]);
+        RECEIPTS.advancePast(counters[3]);
+    }
+
+    /**
+     * Raises the sequence that generated the given id so it is never handed out
+     * again. Ids in an unknown format are ignored.
+     */
+    public static void advancePast(String id) {
+        if (id == null) {
+            return;
+        }
+        for (IdSequence sequence : new IdSequence[] { RIDERS, DRIVERS, RIDES, RECEIPTS }) {
+            long value = sequence.parse(id);
+            if (value >= 0) {
+                sequence.advancePast(value);
+                return;
+            }
+        }
+    }
+}
@@ -0,0 +1,151 @@
+package org.example.util;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * ID SEQUENCE - IdSequence
+ *
+ * Hands out the numeric ids of one entity kind and converts them to and from
+ * their display form (prefix + number, e.g. "RIDE-17").
+ *
+ * DESIGN DECISIONS:
+ * - Sequential layout (default): ids 1, 2, 3, ... taken in blocks of
+ *   BLOCK_SIZE from one shared counter by a set of stripes. A thread always
+ *   numbers from the same stripe, so the shared counter is touched once per
+ *   block and threads on different stripes never wait for each other. Ids are
+ *   unique, and consecutive within a thread, but not globally ordered
+ * - Node layout (useNodeLayout): milliseconds since EPOCH_MILLIS (41 bits),
+ *   node id (10 bits) and a per-millisecond sequence (12 bits). Processes with
+ *   different node ids never hand out the same id without coordinating. When
+ *   the sequence of a millisecond runs out, the id borrows the next
+ *   millisecond, so the clock going back never repeats an id either
+ * - Stripes are locked separately; uncontended monitor locks cost less than
+ *   the cache-line ping-pong of one atomic counter shared by every thread
+ */
+public final class IdSequence {
+
+    public static final int NODE_BITS = 10;
+    public static final int MAX_NODE_ID = (1 << NODE_BITS) - 1;
+    public static final long EPOCH_MILLIS = 1_704_067_200_000L; // 2024-01-01T00:00:00Z
+
+    private static final int SEQUENCE_BITS = 12;
+    private static final long SEQUENCE_MASK = (1L << SEQUENCE_BITS) - 1;
+    private static final int BLOCK_SIZE = 64;
+
+    private final String prefix;
+    private final AtomicLong nextBlock;
+    private final Stripe[] stripes;
+    // Node layout: last issued millisecond << SEQUENCE_BITS | sequence
+    private final AtomicLong lastTime;
+    private volatile int nodeId = -1;
+
+    public IdSequence(String prefix) {
+        this.prefix = prefix;
+        this.nextBlock = new AtomicLong(1);
+        int count = Integer.highestOneBit(Math.min(64, Runtime.getRuntime().availableProcessors() * 2 - 1)) * 2;
+        this.stripes = new Stripe[count];
+        for (int i = 0; i < count; i++) {
+            stripes[i] = new Stripe();
+        }
+        this.lastTime = new AtomicLong();
+    }
+
+    /**
+     * Switches to the node layout. Call it before any id is handed out.
+     */
+    public void useNodeLayout(int nodeId) {
+        if (nodeId < 0 || nodeId > MAX_NODE_ID) {
+            throw new IllegalArgumentException("Node id must be between 0 and " + MAX_NODE_ID + ". Got: " + nodeId);
+        }
+        this.nodeId = nodeId;
+    }
+
+    public long next() {
+        int node = nodeId;
+        if (node >= 0) {
+            return nextTimeBased(node);
+        }
+        Stripe stripe = stripes[stripeIndex()];
+        synchronized (stripe) {
+            if (stripe.next == stripe.limit) {
+                stripe.next = nextBlock.getAndAdd(BLOCK_SIZE);
+                stripe.limit = stripe.next + BLOCK_SIZE;
+            }
+            return stripe.next++;
+        }
+    }
+
+    public String format(long id) {
+        return prefix + id;
+    }
+
+    /**
+     * @return the numeric part of an id in this sequence's display form, or -1
+     *         if the string is not one
+     */
+    public long parse(String id) {
+        if (id == null || !id.startsWith(prefix) || id.length() == prefix.length()) {
+            return -1;
+        }
+        try {
+            long value = Long.parseLong(id, prefix.length(), id.length(), 10);
+            return value >= 0 ? value : -1;
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    /**
+     * Highest id that may have been handed out in the sequential layout.
+     */
+    public long highWater() {
+        return nextBlock.get() - 1;
+    }
+
+    /**
+     * Makes sure the given id is never handed out again. Used after recovery,
+     * before new ids are generated.
+     */
+    public void advancePast(long id) {
+        if (id < 0) {
+            return;
+        }
+        nextBlock.accumulateAndGet(id + 1, Math::max);
+        for (Stripe stripe : stripes) {
+            synchronized (stripe) {
+                if (stripe.next <= id) {
+                    stripe.next = 0;
+                    stripe.limit = 0;
+                }
+            }
+        }
+        long time = (id >>> (NODE_BITS + SEQUENCE_BITS)) << SEQUENCE_BITS | (id & SEQUENCE_MASK);
+        lastTime.accumulateAndGet(time, Math::max);
+    }
+
+    private long nextTimeBased(int node) {
+        for (;;) {
+            long last = lastTime.get();
+            long now = System.currentTimeMillis() - EPOCH_MILLIS;
+            long next = now > (last >>> SEQUENCE_BITS) ? now << SEQUENCE_BITS : last + 1;
+            if (lastTime.compareAndSet(last, next)) {
+                return (next >>> SEQUENCE_BITS) << (NODE_BITS + SEQUENCE_BITS)
+                        | (long) node << SEQUENCE_BITS
+                        | (next & SEQUENCE_MASK);
+            }
+        }
+    }
+
+    private int stripeIndex() {
+        long h = Thread.currentThread().getId() * 0x9E3779B97F4A7C15L;
+        return (int) (h >>> 32) & (stripes.length - 1);
+    }
+
+    // Padded so neighbouring stripes do not share a cache line
+    private static final class Stripe {
+        long p0, p1, p2, p3, p4, p5;
+        long next;
+        long limit;
+        long q0, q1, q2, q3, q4, q5;
+    }
+}
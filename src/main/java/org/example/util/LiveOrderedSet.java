@@ -0,0 +1,74 @@
+package org.example.util;
+
+import java.util.AbstractCollection;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Concurrent set of items ordered by a caller-supplied sequence number, with a
+ * read-only view that reads the live contents without copying.
+ *
+ * The view iterates in sequence order and reports size in O(1). It is a
+ * Collection rather than a List: positional access would have to walk the
+ * set, so an indexed loop over it would be quadratic.
+ */
+public class LiveOrderedSet<T> {
+
+    private final ConcurrentSkipListMap<Long, T> items;
+    private final AtomicInteger size;
+    private final Collection<T> view;
+
+    public LiveOrderedSet() {
+        this.items = new ConcurrentSkipListMap<>();
+        this.size = new AtomicInteger();
+        this.view = new LiveView();
+    }
+
+    public void add(long sequence, T item) {
+        if (items.put(sequence, item) == null) {
+            size.incrementAndGet();
+        }
+    }
+
+    public void remove(long sequence) {
+        if (items.remove(sequence) != null) {
+            size.decrementAndGet();
+        }
+    }
+
+    public boolean contains(long sequence) {
+        return items.containsKey(sequence);
+    }
+
+    public int size() {
+        return size.get();
+    }
+
+    /**
+     * Read-only view backed by this set; later changes show through it.
+     */
+    public Collection<T> view() {
+        return view;
+    }
+
+    private final class LiveView extends AbstractCollection<T> {
+
+        @Override
+        public Iterator<T> iterator() {
+            return Collections.unmodifiableCollection(items.values()).iterator();
+        }
+
+        @Override
+        public int size() {
+            return Math.max(0, size.get());
+        }
+
+        @Override
+        public boolean isEmpty() {
+            return items.isEmpty();
+        }
+    }
+}
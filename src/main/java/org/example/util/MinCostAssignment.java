@@ -0,0 +1,117 @@
+package org.example.util;
+
+import java.util.Arrays;
+
+/**
+ * Minimum-cost bipartite assignment (Hungarian algorithm with potentials).
+ *
+ * Solves an n x m cost matrix in O(min(n,m)^2 * max(n,m)) time, assigning
+ * every row to a distinct column when n <= m, or every column to a distinct
+ * row otherwise. Pairs that must never be assigned can be given a cost of
+ * FORBIDDEN; they are reported as unassigned.
+ */
+public final class MinCostAssignment {
+
+    public static final double FORBIDDEN = Double.POSITIVE_INFINITY;
+
+    private static final double FORBIDDEN_PENALTY = 1e12;
+
+    private MinCostAssignment() {
+        throw new AssertionError("Utility class should not be instantiated");
+    }
+
+    /**
+     * @return for each row, the assigned column, or -1 if the row is unassigned
+     */
+    public static int[] solve(double[][] cost) {
+        int rows = cost.length;
+        int columns = rows == 0 ? 0 : cost[0].length;
+        int[] assignment = new int[rows];
+        Arrays.fill(assignment, -1);
+        if (rows == 0 || columns == 0) {
+            return assignment;
+        }
+
+        boolean transposed = rows > columns;
+        int n = transposed ? columns : rows;
+        int m = transposed ? rows : columns;
+        double[][] matrix = new double[n][m];
+        for (int i = 0; i < n; i++) {
+            for (int j = 0; j < m; j++) {
+                double value = transposed ? cost[j][i] : cost[i][j];
+                matrix[i][j] = value == FORBIDDEN ? FORBIDDEN_PENALTY : value;
+            }
+        }
+
+        int[] columnOwner = hungarian(matrix, n, m);
+        for (int j = 1; j <= m; j++) {
+            int i = columnOwner[j];
+            if (i == 0) {
+                continue;
+            }
+            int row = transposed ? j - 1 : i - 1;
+            int column = transposed ? i - 1 : j - 1;
+            if (cost[row][column] != FORBIDDEN) {
+                assignment[row] = column;
+            }
+        }
+        return assignment;
+    }
+
+    /**
+     * Classic O(n^2 m) Hungarian algorithm on a 1-indexed frame, n <= m.
+     *
+     * @return columnOwner[j] = row (1-based) assigned to column j, 0 if none
+     */
+    private static int[] hungarian(double[][] a, int n, int m) {
+        double[] u = new double[n + 1];
+        double[] v = new double[m + 1];
+        int[] columnOwner = new int[m + 1];
+        int[] way = new int[m + 1];
+        double[] minv = new double[m + 1];
+        boolean[] used = new boolean[m + 1];
+
+        for (int i = 1; i <= n; i++) {
+            columnOwner[0] = i;
+            int j0 = 0;
+            Arrays.fill(minv, Double.POSITIVE_INFINITY);
+            Arrays.fill(used, false);
+            do {
+                used[j0] = true;
+                int i0 = columnOwner[j0];
+                double delta = Double.POSITIVE_INFINITY;
+                int j1 = 0;
+                for (int j = 1; j <= m; j++) {
+                    if (used[j]) {
+                        continue;
+                    }
+                    double current = a[i0 - 1][j - 1] - u[i0] - v[j];
+                    if (current < minv[j]) {
+                        minv[j] = current;
+                        way[j] = j0;
+                    }
+                    if (minv[j] < delta) {
+                        delta = minv[j];
+                        j1 = j;
+                    }
+                }
+                for (int j = 0; j <= m; j++) {
+                    if (used[j]) {
+                        u[columnOwner[j]] += delta;
+                        v[j] -= delta;
+                    } else {
+                        minv[j] -= delta;
+                    }
+                }
+                j0 = j1;
+            } while (columnOwner[j0] != 0);
+
+            do {
+                int j1 = way[j0];
+                columnOwner[j0] = columnOwner[j1];
+                j0 = j1;
+            } while (j0 != 0);
+        }
+        return columnOwner;
+    }
+}
@@ -0,0 +1,44 @@
+package org.example.util;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * One page of a cursor-paged listing. Pass getNextCursor() to the next call
+ * to continue where this page ended.
+ */
+public final class Page<T> {
+
+    /** Cursor of the first page. */
+    public static final long FIRST = 0;
+
+    private final List<T> items;
+    private final long nextCursor;
+    private final boolean hasMore;
+
+    public Page(List<T> items, long nextCursor, boolean hasMore) {
+        this.items = Collections.unmodifiableList(items);
+        this.nextCursor = nextCursor;
+        this.hasMore = hasMore;
+    }
+
+    public static <T> Page<T> empty(long cursor) {
+        return new Page<>(Collections.emptyList(), cursor, false);
+    }
+
+    public List<T> getItems() {
+        return items;
+    }
+
+    public long getNextCursor() {
+        return nextCursor;
+    }
+
+    /**
+     * False once the listing is exhausted. Items added later may still show
+     * up when paging on from getNextCursor().
+     */
+    public boolean hasMore() {
+        return hasMore;
+    }
+}
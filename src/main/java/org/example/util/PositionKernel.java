@@ -0,0 +1,29 @@
+package org.example.util;
+
+/**
+ * Batch distance kernel over struct-of-arrays positions stored as unit vectors.
+ *
+ * Writes the squared chord length between (x, y, z) and each of the count
+ * positions starting at from into out[0..count). The squared chord equals four
+ * times the haversine term, so it ranks positions exactly like the
+ * great-circle distance using only multiply and add.
+ */
+interface PositionKernel {
+
+    void squaredChords(double[] xs, double[] ys, double[] zs, int from, int count,
+            double x, double y, double z, double[] out);
+
+    /**
+     * The Vector API kernel when it is on the class path (the JMH suite) and
+     * the jdk.incubator.vector module is present at runtime (--add-modules
+     * jdk.incubator.vector), otherwise the scalar one.
+     */
+    static PositionKernel best() {
+        try {
+            return (PositionKernel) Class.forName("org.example.util.VectorPositionKernel")
+                    .getDeclaredConstructor().newInstance();
+        } catch (ReflectiveOperationException | LinkageError e) {
+            return new ScalarPositionKernel();
+        }
+    }
+}
@@ -0,0 +1,132 @@
+package org.example.util;
+
+import org.example.model.RideStatus;
+import org.example.model.VehicleType;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentSkipListSet;
+
+/**
+ * SECONDARY RIDE INDEXES - RideIndex
+ *
+ * Ride ids by rider, driver, status and vehicle type, plus each driver's
+ * active (ASSIGNED) ride, so these questions are answered without scanning
+ * the ride store.
+ *
+ * DESIGN DECISIONS:
+ * - Only ride ids are kept; the caller resolves them, so archived rides stay
+ *   off the heap
+ * - Each key holds a ConcurrentSkipListSet of ids: lookups cost the size of
+ *   the result, transitions are O(log n) and iteration is in id order
+ * - Rider and driver keys live in ConcurrentLongMaps keyed by the primitive id
+ * - The owner calls add once per ride and transition on every status change;
+ *   the index does not read rides itself
+ * - Per-rider and per-driver sets are kept once created, even if they run
+ *   empty
+ */
+public class RideIndex {
+
+    private final ConcurrentLongMap<ConcurrentSkipListSet<Long>> byRider;
+    private final ConcurrentLongMap<ConcurrentSkipListSet<Long>> byDriver;
+    private final Map<RideStatus, ConcurrentSkipListSet<Long>> byStatus;
+    private final Map<VehicleType, ConcurrentSkipListSet<Long>> byVehicleType;
+    // driver id -> id of the ride the driver is serving
+    private final ConcurrentLongMap<Long> activeByDriver;
+
+    public RideIndex() {
+        this.byRider = new ConcurrentLongMap<>();
+        this.byDriver = new ConcurrentLongMap<>();
+        this.byStatus = new EnumMap<>(RideStatus.class);
+        for (RideStatus status : RideStatus.values()) {
+            byStatus.put(status, new ConcurrentSkipListSet<>());
+        }
+        this.byVehicleType = new EnumMap<>(VehicleType.class);
+        for (VehicleType type : VehicleType.values()) {
+            byVehicleType.put(type, new ConcurrentSkipListSet<>());
+        }
+        this.activeByDriver = new ConcurrentLongMap<>();
+    }
+
+    /**
+     * Indexes a ride. Ids of 0 or less (no rider or driver) and null status or
+     * vehicle type are left out of the respective index.
+     */
+    public void add(long rideId, long riderId, long driverId, RideStatus status, VehicleType vehicleType) {
+        if (riderId > 0) {
+            setFor(byRider, riderId).add(rideId);
+        }
+        if (driverId > 0) {
+            setFor(byDriver, driverId).add(rideId);
+            if (status == RideStatus.ASSIGNED) {
+                activeByDriver.put(driverId, rideId);
+            }
+        }
+        if (status != null) {
+            byStatus.get(status).add(rideId);
+        }
+        if (vehicleType != null) {
+            byVehicleType.get(vehicleType).add(rideId);
+        }
+    }
+
+    /**
+     * Moves a ride from one status to another. A driver whose active ride
+     * leaves ASSIGNED has no active ride afterwards.
+     */
+    public void transition(long rideId, long driverId, RideStatus from, RideStatus to) {
+        if (from != null) {
+            byStatus.get(from).remove(rideId);
+        }
+        if (to != null) {
+            byStatus.get(to).add(rideId);
+        }
+        if (driverId > 0) {
+            if (to == RideStatus.ASSIGNED) {
+                activeByDriver.put(driverId, rideId);
+            } else {
+                activeByDriver.computeIfPresent(driverId, (id, active) -> active == rideId ? null : active);
+            }
+        }
+    }
+
+    public List<Long> ridesOfRider(long riderId) {
+        return snapshot(byRider.get(riderId));
+    }
+
+    public List<Long> ridesOfDriver(long driverId) {
+        return snapshot(byDriver.get(driverId));
+    }
+
+    public List<Long> ridesWithStatus(RideStatus status) {
+        return snapshot(byStatus.get(status));
+    }
+
+    public List<Long> ridesWithVehicleType(VehicleType vehicleType) {
+        return snapshot(byVehicleType.get(vehicleType));
+    }
+
+    /**
+     * @return id of the ride the driver is serving, or -1 if none
+     */
+    public long activeRideOfDriver(long driverId) {
+        Long rideId = activeByDriver.get(driverId);
+        return rideId != null ? rideId : -1;
+    }
+
+    private static ConcurrentSkipListSet<Long> setFor(ConcurrentLongMap<ConcurrentSkipListSet<Long>> index,
+            long key) {
+        ConcurrentSkipListSet<Long> ids = index.get(key);
+        if (ids == null) {
+            ids = index.compute(key, (id, existing) -> existing != null ? existing : new ConcurrentSkipListSet<>());
+        }
+        return ids;
+    }
+
+    private static List<Long> snapshot(ConcurrentSkipListSet<Long> ids) {
+        return ids == null ? Collections.emptyList() : new ArrayList<>(ids);
+    }
+}
@@ -0,0 +1,19 @@
+package org.example.util;
+
+/**
+ * Plain loop over the position arrays; simple enough for the JIT to unroll
+ * and auto-vectorize.
+ */
+final class ScalarPositionKernel implements PositionKernel {
+
+    @Override
+    public void squaredChords(double[] xs, double[] ys, double[] zs, int from, int count,
+            double x, double y, double z, double[] out) {
+        for (int i = 0; i < count; i++) {
+            double dx = xs[from + i] - x;
+            double dy = ys[from + i] - y;
+            double dz = zs[from + i] - z;
+            out[i] = dx * dx + dy * dy + dz * dz;
+        }
+    }
+}
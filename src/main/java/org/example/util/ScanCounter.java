@@ -0,0 +1,32 @@
+package org.example.util;
+
+/**
+ * Counts, per thread, how many drivers the matching code looked at, so the
+ * caller of a strategy can learn what one match cost without changing the
+ * RideMatchingStrategy interface.
+ *
+ * Matching code calls add as it examines drivers; the caller calls take
+ * before and after the match. Counting is a thread-local add and never
+ * allocates after the first use on a thread.
+ */
+public final class ScanCounter {
+
+    private static final ThreadLocal<long[]> SCANNED = ThreadLocal.withInitial(() -> new long[1]);
+
+    private ScanCounter() {
+    }
+
+    public static void add(int drivers) {
+        SCANNED.get()[0] += drivers;
+    }
+
+    /**
+     * @return drivers counted on this thread since the last take
+     */
+    public static long take() {
+        long[] scanned = SCANNED.get();
+        long count = scanned[0];
+        scanned[0] = 0;
+        return count;
+    }
+}
@@ -0,0 +1,178 @@
+package org.example.archive;
+
+import org.example.model.Driver;
+import org.example.model.Location;
+import org.example.model.Ride;
+import org.example.model.RideStatus;
+import org.example.model.Rider;
+import org.example.model.VehicleType;
+import org.example.util.Page;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RideArchiveTest {
+
+    private static final Location HOME = new Location(28.61, 77.21);
+
+    @TempDir
+    Path directory;
+
+    private final Map<String, Rider> riders = new HashMap<>();
+    private final Map<String, Driver> drivers = new HashMap<>();
+
+    @Test
+    void archivedRideReadsItsColumnsBack() {
+        Ride ride = finishedRide(RideStatus.COMPLETED, VehicleType.AUTO, 123.5);
+        try (RideArchive archive = open(4)) {
+            archive.append(ride);
+
+            Ride archived = archive.find(ride.getRideId());
+            assertInstanceOf(ArchivedRide.class, archived);
+            assertEquals(ride.getRideId(), archive.find(ride.getId()).getRideId());
+            assertEquals(ride.getId(), archived.getId());
+            assertEquals(ride.getRideId(), archived.getRideId());
+            assertSame(ride.getRider(), archived.getRider());
+            assertSame(ride.getDriver(), archived.getDriver());
+            assertEquals(ride.getDistance(), archived.getDistance());
+            assertEquals(ride.getFare(), archived.getFare());
+            assertEquals(RideStatus.COMPLETED, archived.getRideStatus());
+            assertEquals(VehicleType.AUTO, archived.getVehicleType());
+            assertEquals(ride.getRequestedAt(), archived.getRequestedAt());
+            assertEquals(ride.getFinishedAt(), archived.getFinishedAt());
+            assertThrows(UnsupportedOperationException.class, () -> archived.setFare(1));
+            assertTrue(archive.contains(ride.getRideId()));
+            assertNull(archive.find("RIDE-0"));
+            assertNull(archive.find("not a ride"));
+        }
+    }
+
+    @Test
+    void deletedRiderAndDriverKeepTheirIds() {
+        Ride ride = finishedRide(RideStatus.CANCELLED, VehicleType.BIKE, 0);
+        ride.setFinishedAt(null);
+        try (RideArchive archive = open(4)) {
+            archive.append(ride);
+            riders.clear();
+            drivers.clear();
+
+            ArchivedRide archived = (ArchivedRide) archive.find(ride.getRideId());
+            assertNull(archived.getRider());
+            assertNull(archived.getDriver());
+            assertEquals(ride.getRider().getRiderId(), archived.getRiderId());
+            assertEquals(ride.getDriver().getDriverId(), archived.getDriverId());
+            assertNull(archived.getFinishedAt());
+        }
+    }
+
+    @Test
+    void onlyFinishedRidesAreArchivedAndOnlyOnce() {
+        try (RideArchive archive = open(4)) {
+            Ride open = finishedRide(RideStatus.ASSIGNED, VehicleType.CAR, 10);
+            assertThrows(IllegalArgumentException.class, () -> archive.append(open));
+            assertFalse(archive.contains(open.getRideId()));
+
+            Ride finished = finishedRide(RideStatus.COMPLETED, VehicleType.CAR, 10);
+            archive.append(finished);
+            archive.append(finished);
+            assertEquals(1, archive.size());
+        }
+    }
+
+    @Test
+    void reopenedArchiveFindsRidesAcrossSegments() {
+        List<Ride> rides = new ArrayList<>();
+        try (RideArchive archive = open(3)) {
+            for (int i = 0; i < 8; i++) {
+                Ride ride = finishedRide(i % 2 == 0 ? RideStatus.COMPLETED : RideStatus.CANCELLED,
+                        VehicleType.values()[i % VehicleType.values().length], i);
+                archive.append(ride);
+                rides.add(ride);
+            }
+        }
+
+        try (RideArchive archive = open(3)) {
+            assertEquals(rides.size(), archive.size());
+            for (Ride ride : rides) {
+                assertEquals(ride.getFare(), archive.find(ride.getRideId()).getFare());
+            }
+            List<String> expected = rides.stream().map(Ride::getRideId).collect(Collectors.toList());
+            assertEquals(expected, archive.stream().map(Ride::getRideId).collect(Collectors.toList()));
+
+            List<String> paged = new ArrayList<>();
+            long cursor = Page.FIRST;
+            Page<Ride> page;
+            do {
+                page = archive.page(cursor, 2);
+                page.getItems().forEach(ride -> paged.add(ride.getRideId()));
+                cursor = page.getNextCursor();
+            } while (page.hasMore());
+            assertEquals(expected, paged);
+
+            // Appends continue in the last, partly filled segment
+            Ride next = finishedRide(RideStatus.COMPLETED, VehicleType.BUS, 99);
+            archive.append(next);
+            assertEquals(next.getFare(), archive.find(next.getRideId()).getFare());
+        }
+    }
+
+    @Test
+    void searchAndRevenueMatchTheOriginalRides() {
+        List<Ride> rides = new ArrayList<>();
+        try (RideArchive archive = open(4)) {
+            for (int i = 0; i < 10; i++) {
+                Ride ride = finishedRide(i % 3 == 0 ? RideStatus.CANCELLED : RideStatus.COMPLETED,
+                        VehicleType.values()[i % VehicleType.values().length], 10 + i);
+                archive.append(ride);
+                rides.add(ride);
+            }
+
+            for (String keyword : new String[] { "cancelled", "car", "Rider 3", rides.get(4).getRideId(), "nobody" }) {
+                List<String> expected = rides.stream().filter(ride -> ride.matchesSearchCriteria(keyword))
+                        .map(Ride::getRideId).collect(Collectors.toList());
+                assertEquals(expected, archive.search(keyword).stream().map(Ride::getRideId)
+                        .collect(Collectors.toList()), keyword);
+            }
+
+            Map<VehicleType, Double> revenue = archive.revenueByVehicleType();
+            for (VehicleType type : VehicleType.values()) {
+                double expected = rides.stream()
+                        .filter(ride -> ride.getRideStatus() == RideStatus.COMPLETED && ride.getVehicleType() == type)
+                        .mapToDouble(Ride::getFare).sum();
+                assertEquals(expected, revenue.get(type), 1e-9);
+            }
+        }
+    }
+
+    private RideArchive open(int segmentRows) {
+        return new RideArchive(directory, segmentRows, riders::get, drivers::get);
+    }
+
+    private Ride finishedRide(RideStatus status, VehicleType vehicleType, double fare) {
+        int n = riders.size();
+        Rider rider = new Rider("Rider " + n, "rider" + n + "@example.com", "9876500000", HOME);
+        Driver driver = new Driver("Driver " + n, "driver" + n + "@example.com", "9876511111", HOME, true);
+        riders.put(rider.getRiderId(), rider);
+        drivers.put(driver.getDriverId(), driver);
+        Ride ride = new Ride(rider, driver, 4.25 + n, status, vehicleType);
+        ride.setFare(fare);
+        ride.setRequestedAt(Instant.ofEpochMilli(1_700_000_000_000L + n));
+        ride.setFinishedAt(Instant.ofEpochMilli(1_700_000_600_000L + n));
+        return ride;
+    }
+}
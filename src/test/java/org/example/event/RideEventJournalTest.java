@@ -0,0 +1,117 @@
+package org.example.event;
+
+import org.example.model.Location;
+import org.example.model.VehicleType;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Timeout;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CyclicBarrier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RideEventJournalTest {
+
+    private static final Location PICKUP = new Location(12.97, 77.59);
+    private static final int CAPACITY = 8;
+    private static final int PRODUCERS = 4;
+    private static final int EVENTS_PER_PRODUCER = 2_000;
+
+    @Test
+    @Timeout(60)
+    void slowConsumerGetsEveryEventOnceAndInOrder() throws Exception {
+        RideEventJournal journal = new RideEventJournal(CAPACITY);
+        Recorder recorder = new Recorder(journal);
+        journal.subscribe("recorder", recorder);
+
+        // Each producer numbers its events in the rider field: producer << 32 | n
+        CyclicBarrier start = new CyclicBarrier(PRODUCERS);
+        List<Thread> producers = new ArrayList<>();
+        for (int p = 0; p < PRODUCERS; p++) {
+            long producer = p;
+            Thread thread = new Thread(() -> {
+                try {
+                    start.await();
+                } catch (Exception e) {
+                    throw new IllegalStateException(e);
+                }
+                for (long n = 0; n < EVENTS_PER_PRODUCER; n++) {
+                    journal.rideRequested(producer << 32 | n, PICKUP, VehicleType.CAR, n);
+                }
+            }, "producer-" + p);
+            thread.start();
+            producers.add(thread);
+        }
+        for (Thread producer : producers) {
+            producer.join();
+        }
+        // No waiting for the consumer: close() has to drain what was published
+        journal.close();
+
+        int total = PRODUCERS * EVENTS_PER_PRODUCER;
+        assertEquals(total, journal.getClaimedCount());
+        assertEquals(total, recorder.sequences.size());
+        for (int i = 0; i < total; i++) {
+            assertEquals(i, (long) recorder.sequences.get(i), "sequence at " + i);
+        }
+        // Every producer's events arrive once each, in the order it recorded them
+        long[] next = new long[PRODUCERS];
+        for (long rider : recorder.riders) {
+            int producer = (int) (rider >>> 32);
+            assertEquals(next[producer]++, rider & 0xFFFF_FFFFL, "producer " + producer);
+        }
+        for (int p = 0; p < PRODUCERS; p++) {
+            assertEquals(EVENTS_PER_PRODUCER, next[p], "events of producer " + p);
+        }
+        // A producer that lapped the consumer would have claimed further ahead;
+        // waiting producers hold at most one claim each
+        assertTrue(recorder.maxAhead <= CAPACITY + PRODUCERS, () -> "claimed ahead: " + recorder.maxAhead);
+        assertTrue(journal.getConsumers().isEmpty());
+    }
+
+    @Test
+    @Timeout(60)
+    void closeDrainsPublishedEvents() {
+        RideEventJournal journal = new RideEventJournal(CAPACITY);
+        Recorder recorder = new Recorder(journal);
+        journal.subscribe("recorder", recorder);
+        for (long n = 0; n < 3 * CAPACITY; n++) {
+            journal.rideRequested(n, PICKUP, VehicleType.BIKE, n);
+        }
+        journal.close();
+
+        assertEquals(3 * CAPACITY, recorder.sequences.size());
+        for (int i = 0; i < recorder.riders.size(); i++) {
+            assertEquals(i, (long) recorder.riders.get(i));
+        }
+    }
+
+    // Records what it is handed, sleeping now and then to fall behind the
+    // producers. Only the consumer thread writes; the test reads after close()
+    private static final class Recorder implements RideEventHandler {
+        private final RideEventJournal journal;
+        private final List<Long> sequences = new ArrayList<>();
+        private final List<Long> riders = new ArrayList<>();
+        private long maxAhead;
+
+        Recorder(RideEventJournal journal) {
+            this.journal = journal;
+        }
+
+        @Override
+        public void onEvent(RideEvent event, long sequence, boolean endOfBatch) {
+            sequences.add(sequence);
+            riders.add(event.getRider());
+            maxAhead = Math.max(maxAhead, journal.getClaimedCount() - sequence);
+            if (sequence % 50 == 0) {
+                try {
+                    Thread.sleep(1);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        }
+    }
+}
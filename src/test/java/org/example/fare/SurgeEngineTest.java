@@ -0,0 +1,55 @@
+package org.example.fare;
+
+import org.example.model.Driver;
+import org.example.model.Location;
+import org.example.util.CoarseClock;
+import org.example.util.VirtualClock;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class SurgeEngineTest {
+
+    private static final Location PICKUP = new Location(12.97, 77.59);
+
+    @Test
+    void shortestWindowCountsAndExpiresRequests() {
+        VirtualClock source = new VirtualClock(Instant.parse("2024-01-01T10:00:00Z"), ZoneOffset.UTC);
+        CoarseClock clock = CoarseClock.manual(source);
+        Driver driver = new Driver("Ravi", "ravi@x.com", "9876543210", PICKUP, true);
+        // 10 ms window: 1 ms slots
+        SurgeEngine engine = new SurgeEngine(() -> List.of(driver), clock, SurgeEngine.DEFAULT_CELL_SIZE_DEGREES,
+                Duration.ofMillis(10));
+        engine.setSmoothing(1);
+
+        for (int i = 0; i < 5; i++) {
+            engine.recordRequest(PICKUP);
+        }
+        source.advance(Duration.ofMillis(3));
+        clock.tick();
+        engine.recordRequest(PICKUP);
+        engine.recompute();
+        // 6 requests for 1 driver: 1 + 0.5 * (6 - 1)
+        assertEquals(3.0, engine.multiplierAt(PICKUP), 1e-9);
+
+        // The first five leave the window, the sixth is still in it
+        source.advance(Duration.ofMillis(8));
+        clock.tick();
+        engine.recompute();
+        assertEquals(1.0, engine.multiplierAt(PICKUP), 1e-9);
+        engine.recordRequest(PICKUP);
+        engine.recordRequest(PICKUP);
+        engine.recompute();
+        assertEquals(2.0, engine.multiplierAt(PICKUP), 1e-9);
+
+        source.advance(Duration.ofMillis(20));
+        clock.tick();
+        engine.recompute();
+        assertEquals(1.0, engine.multiplierAt(PICKUP), 1e-9);
+    }
+}
@@ -0,0 +1,88 @@
+package org.example.ledger;
+
+import org.example.model.VehicleType;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ReceiptLedgerTest {
+
+    // 2024-01-01T10:00:00Z
+    private static final long MORNING = 1_704_103_200_000L;
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void reopenedLedgerHasEveryReceiptAndRollup() {
+        Path file = directory.resolve("receipts.dat");
+        try (ReceiptLedger ledger = open(file)) {
+            assertTrue(ledger.append(1, 11, 101, VehicleType.CAR, 120.25, MORNING));
+            assertTrue(ledger.append(2, 12, 101, VehicleType.AUTO, 80.5, MORNING + 60_000));
+            assertTrue(ledger.append(3, 13, 0, null, 10.0, MORNING + 120_000));
+        }
+
+        try (ReceiptLedger ledger = open(file)) {
+            assertEquals(3, ledger.size());
+            LedgerEntry entry = ledger.getByRideId("RIDE-12");
+            assertEquals("RECEIPT-2", entry.getReceiptId());
+            assertEquals("DRIVER-101", entry.getDriverId());
+            assertEquals(VehicleType.AUTO, entry.getVehicleType());
+            assertEquals(80.5, entry.getAmount(), 1e-9);
+            assertEquals(MORNING + 60_000, entry.getGeneratedAt().toEpochMilli());
+            assertNull(ledger.getByReceiptId("RECEIPT-3").getDriverId());
+            assertNull(ledger.getByReceiptId("RECEIPT-3").getVehicleType());
+
+            assertEquals(200.75, ledger.getDriverEarnings("DRIVER-101").getAmount(), 1e-9);
+            assertEquals(2, ledger.getDriverEarnings("DRIVER-101", LocalDate.of(2024, 1, 1)).getReceiptCount());
+            assertEquals(120.25, ledger.getVehicleTypeEarnings(VehicleType.CAR).getAmount(), 1e-9);
+            assertEquals(210.75, ledger.getTotalEarnings().getAmount(), 1e-9);
+
+            // Already on file: neither counted nor written again
+            assertFalse(ledger.append(2, 12, 101, VehicleType.AUTO, 80.5, MORNING + 60_000));
+        }
+
+        try (ReceiptLedger ledger = open(file)) {
+            assertEquals(3, ledger.size());
+            assertEquals(210.75, ledger.getTotalEarnings().getAmount(), 1e-9);
+        }
+    }
+
+    @Test
+    void tornLastRecordIsDropped() throws Exception {
+        Path file = directory.resolve("receipts.dat");
+        try (ReceiptLedger ledger = open(file)) {
+            ledger.append(1, 11, 101, VehicleType.CAR, 50.0, MORNING);
+        }
+        long whole = Files.size(file);
+        // A crash in the middle of the next record
+        Files.write(file, new byte[] { 0, 0, 0, 0, 0, 0, 0, 2, 0, 0 }, StandardOpenOption.APPEND);
+
+        try (ReceiptLedger ledger = open(file)) {
+            assertEquals(1, ledger.size());
+            assertEquals(whole, Files.size(file));
+            ledger.append(2, 12, 101, VehicleType.CAR, 70.0, MORNING);
+        }
+
+        try (ReceiptLedger ledger = open(file)) {
+            assertEquals(2, ledger.size());
+            assertEquals(70.0, ledger.getByReceiptId("RECEIPT-2").getAmount(), 1e-9);
+        }
+    }
+
+    private static ReceiptLedger open(Path file) {
+        ReceiptLedger ledger = new ReceiptLedger(ZoneOffset.UTC);
+        ledger.open(file);
+        return ledger;
+    }
+}
@@ -0,0 +1,68 @@
+package org.example.model;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class DriverTest {
+
+    private static final int THREADS = 8;
+
+    @Test
+    void onlyOneReservationWins() throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+        try {
+            for (int round = 0; round < 500; round++) {
+                Driver driver = new Driver("D", "d@x.com", "1", new Location(12.97, 77.59), true);
+                List<Callable<Boolean>> attempts = new ArrayList<>();
+                for (int i = 0; i < THREADS; i++) {
+                    attempts.add(driver::tryReserve);
+                }
+                int winners = 0;
+                for (Future<Boolean> attempt : pool.invokeAll(attempts)) {
+                    winners += attempt.get() ? 1 : 0;
+                }
+                assertEquals(1, winners);
+                assertFalse(driver.isAvailable());
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    @Test
+    void reservationFailsOnceTaken() {
+        Driver driver = new Driver("D", "d@x.com", "1", new Location(12.97, 77.59), false);
+        assertFalse(driver.tryReserve());
+        driver.setAvailable(true);
+        assertTrue(driver.tryReserve());
+        assertFalse(driver.tryReserve());
+    }
+
+    @Test
+    void concurrentCompletionsAreAllCounted() throws Exception {
+        Driver driver = new Driver("D", "d@x.com", "1", new Location(12.97, 77.59), true);
+        int perThread = 100_000;
+        ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+        for (int i = 0; i < THREADS; i++) {
+            pool.execute(() -> {
+                for (int n = 0; n < perThread; n++) {
+                    driver.incrementCompletedRides();
+                }
+            });
+        }
+        pool.shutdown();
+        assertTrue(pool.awaitTermination(60, TimeUnit.SECONDS));
+        assertEquals(THREADS * perThread, driver.getCompletedRidesCount());
+    }
+}
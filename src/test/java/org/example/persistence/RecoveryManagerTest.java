@@ -0,0 +1,261 @@
+package org.example.persistence;
+
+import org.example.archive.RideArchive;
+import org.example.ledger.LedgerEntry;
+import org.example.ledger.ReceiptLedger;
+import org.example.model.Driver;
+import org.example.model.FareReceipt;
+import org.example.model.Location;
+import org.example.model.Ride;
+import org.example.model.RideStatus;
+import org.example.model.Rider;
+import org.example.model.VehicleType;
+import org.example.service.DriverService;
+import org.example.service.RideService;
+import org.example.service.RiderService;
+import org.example.strategy.DefaultFareStrategy;
+import org.example.strategy.NearestDriverStrategy;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RecoveryManagerTest {
+
+    private static final Location PICKUP = new Location(12.97, 77.59);
+    private static final Location DROP_OFF = new Location(12.99, 77.61);
+
+    @TempDir
+    Path directory;
+
+    private Node node;
+
+    @AfterEach
+    void closeLog() {
+        if (node != null) {
+            node.close();
+        }
+    }
+
+    @Test
+    void replaysEntitiesAndRideTransitions() throws Exception {
+        node = Node.start(directory);
+        Driver driver = node.registerDriver("Ravi");
+        Rider rider = node.registerRider("Asha");
+        Ride completed = node.rides.requestRide(rider.getRiderId(), PICKUP, DROP_OFF, VehicleType.CAR);
+        FareReceipt receipt = node.rides.completeRide(completed.getRideId());
+        Ride open = node.rides.requestRide(rider.getRiderId(), PICKUP, DROP_OFF, VehicleType.CAR);
+        node = node.restart();
+
+        assertEquals(1, node.riders.getAllRiders().size());
+        Driver recovered = node.drivers.getDriver(driver.getDriverId());
+        assertEquals(1, recovered.getCompletedRidesCount());
+        Ride recoveredCompleted = node.rides.getRide(completed.getRideId());
+        assertEquals(RideStatus.COMPLETED, recoveredCompleted.getRideStatus());
+        assertEquals(receipt.getAmount(), recoveredCompleted.getFare(), 1e-9);
+        assertEquals(RideStatus.ASSIGNED, node.rides.getRide(open.getRideId()).getRideStatus());
+    }
+
+    @Test
+    void driverOfAnAssignedRideStaysReserved() throws Exception {
+        node = Node.start(directory);
+        Driver driver = node.registerDriver("Ravi");
+        Rider rider = node.registerRider("Asha");
+        Ride ride = node.rides.requestRide(rider.getRiderId(), PICKUP, DROP_OFF, VehicleType.CAR);
+        node = node.restart();
+
+        Driver recovered = node.drivers.getDriver(driver.getDriverId());
+        assertFalse(recovered.isAvailable());
+        assertTrue(recovered.isReserved());
+        assertEquals(0, node.drivers.getAvailableDriverCount());
+
+        node.rides.completeRide(ride.getRideId());
+        assertTrue(recovered.isAvailable());
+        assertEquals(1, node.drivers.getAvailableDriverCount());
+    }
+
+    @Test
+    void reservationWithoutADurableRideIsReleased() throws Exception {
+        node = Node.start(directory);
+        Driver driver = node.registerDriver("Ravi");
+        // Crash after the driver was reserved but before the ride was logged
+        assertTrue(node.drivers.reserveDriver(driver));
+        node = node.restart();
+
+        Driver recovered = node.drivers.getDriver(driver.getDriverId());
+        assertTrue(recovered.isAvailable());
+        assertEquals(1, node.drivers.getAvailableDriverCount());
+    }
+
+    @Test
+    void reservationCopiedIntoASnapshotIsReleased() throws Exception {
+        node = Node.start(directory);
+        Driver driver = node.registerDriver("Ravi");
+        assertTrue(node.drivers.reserveDriver(driver));
+        new SnapshotManager(node.log, node.riders, node.drivers, node.rides).snapshotNow();
+        node = node.restart();
+
+        assertTrue(node.drivers.getDriver(driver.getDriverId()).isAvailable());
+    }
+
+    @Test
+    void releaseLoggedAfterTheNextReservationDoesNotFreeTheDriver() throws Exception {
+        node = Node.start(directory);
+        Driver driver = node.registerDriver("Ravi");
+        Rider rider = node.registerRider("Asha");
+        Ride ride = node.rides.requestRide(rider.getRiderId(), PICKUP, DROP_OFF, VehicleType.CAR);
+        // A release of an earlier ride whose record lands after this assignment
+        Driver released = new Driver();
+        released.setDriverId(driver.getDriverId());
+        released.setName(driver.getName());
+        released.setEmail(driver.getEmail());
+        released.setPhone(driver.getPhone());
+        released.setDriverLocation(driver.getDriverLocation());
+        released.setAvailable(true);
+        node.log.awaitDurable(node.log.logDriver(released));
+        node = node.restart();
+
+        assertFalse(node.drivers.getDriver(driver.getDriverId()).isAvailable());
+        assertEquals(RideStatus.ASSIGNED, node.rides.getRide(ride.getRideId()).getRideStatus());
+    }
+
+    @Test
+    void offlineDriverStaysOffline() throws Exception {
+        node = Node.start(directory);
+        Driver offline = new Driver("Offline", "off@x.com", "9000000001", PICKUP, false);
+        node.drivers.registerDriver(offline);
+        node = node.restart();
+
+        Driver recovered = node.drivers.getDriver(offline.getDriverId());
+        assertFalse(recovered.isAvailable());
+        assertFalse(recovered.isReserved());
+    }
+
+    @Test
+    void ridesAfterAStrategyChangeAreStillLogged() throws Exception {
+        node = Node.start(directory);
+        node.registerDriver("Ravi");
+        Rider rider = node.registerRider("Asha");
+        node.rides.setRideMatchingStrategy(new NearestDriverStrategy(node.drivers.getLocationIndex()));
+        node.rides.setFareCalculationStrategy(ride -> 42.0);
+        Ride completed = node.rides.requestRide(rider.getRiderId(), PICKUP, DROP_OFF, VehicleType.CAR);
+        node.rides.completeRide(completed.getRideId());
+        Ride open = node.rides.requestRide(rider.getRiderId(), PICKUP, DROP_OFF, VehicleType.CAR);
+        node = node.restart();
+
+        assertEquals(42.0, node.rides.getRide(completed.getRideId()).getFare(), 1e-9);
+        assertEquals(RideStatus.ASSIGNED, node.rides.getRide(open.getRideId()).getRideStatus());
+    }
+
+    @Test
+    void rideArchivedBeforeItsStatusWasLoggedStaysFinished() throws Exception {
+        node = Node.withArchive(directory);
+        Driver driver = node.registerDriver("Ravi");
+        Rider rider = node.registerRider("Asha");
+        Ride ride = node.rides.requestRide(rider.getRiderId(), PICKUP, DROP_OFF, VehicleType.CAR);
+        // Crash after completion reached the archive but before its status record was logged
+        assertTrue(ride.compareAndSetRideStatus(RideStatus.ASSIGNED, RideStatus.COMPLETED));
+        ride.setFare(120.0);
+        node.archive.append(ride);
+        node = node.restart();
+
+        Ride recovered = node.rides.getRide(ride.getRideId());
+        assertEquals(RideStatus.COMPLETED, recovered.getRideStatus());
+        assertEquals(120.0, recovered.getFare(), 1e-9);
+        assertEquals(0, node.rides.getOpenRideCount());
+        assertNull(node.rides.getActiveRide(driver.getDriverId()));
+        assertTrue(node.drivers.getDriver(driver.getDriverId()).isAvailable());
+        assertThrows(IllegalStateException.class, () -> node.rides.completeRide(ride.getRideId()));
+    }
+
+    @Test
+    void receiptsOfLoggedCompletionsAreRecorded() throws Exception {
+        node = Node.start(directory);
+        Driver driver = node.registerDriver("Ravi");
+        Rider rider = node.registerRider("Asha");
+        Ride ride = node.rides.requestRide(rider.getRiderId(), PICKUP, DROP_OFF, VehicleType.CAR);
+        FareReceipt receipt = node.rides.completeRide(ride.getRideId());
+        Ride cancelled = node.rides.requestRide(rider.getRiderId(), PICKUP, DROP_OFF, VehicleType.CAR);
+        node.rides.cancelRide(cancelled.getRideId());
+        // The ledger of the restarted node starts empty
+        node = node.restart();
+
+        assertEquals(1, node.ledger.size());
+        LedgerEntry entry = node.ledger.getByRideId(ride.getRideId());
+        assertEquals(receipt.getReceiptId(), entry.getReceiptId());
+        assertEquals(driver.getDriverId(), entry.getDriverId());
+        assertEquals(receipt.getAmount(), entry.getAmount(), 0.005);
+        assertEquals(receipt.getAmount(), node.ledger.getDriverEarnings(driver.getDriverId()).getAmount(), 0.005);
+        assertNull(node.ledger.getByRideId(cancelled.getRideId()));
+    }
+
+    // One process: services recovered from the directory with a log, and
+    // optionally an archive, attached
+    private static final class Node {
+        private final Path directory;
+        private final RideArchive archive;
+        private final ReceiptLedger ledger = new ReceiptLedger();
+        private final RiderService riders = new RiderService();
+        private final DriverService drivers = new DriverService();
+        private final RideService rides = new RideService(drivers, riders,
+                new NearestDriverStrategy(drivers.getLocationIndex()), new DefaultFareStrategy());
+        private final WriteAheadLog log;
+        private int registered;
+
+        private Node(Path directory, boolean archived) {
+            this.directory = directory;
+            this.archive = archived
+                    ? new RideArchive(directory.resolve("archive"), riders::findRider, drivers::findDriver)
+                    : null;
+            rides.setRideArchive(archive);
+            RecoveryManager recoveryManager = new RecoveryManager(directory, 2);
+            recoveryManager.setReceiptLedger(ledger);
+            RecoveryReport report = recoveryManager.recover(riders, drivers, rides);
+            this.log = new WriteAheadLog(directory, report.getNextLsn());
+            riders.setWriteAheadLog(log);
+            drivers.setWriteAheadLog(log);
+            rides.setWriteAheadLog(log);
+        }
+
+        static Node start(Path directory) {
+            return new Node(directory, false);
+        }
+
+        static Node withArchive(Path directory) {
+            return new Node(directory, true);
+        }
+
+        Node restart() {
+            close();
+            return new Node(directory, archive != null);
+        }
+
+        Driver registerDriver(String name) {
+            Driver driver = new Driver(name, name.toLowerCase() + "@x.com", "98765" + String.format("%05d", registered++),
+                    PICKUP, true);
+            drivers.registerDriver(driver);
+            return driver;
+        }
+
+        Rider registerRider(String name) {
+            Rider rider = new Rider(name, name.toLowerCase() + "@x.com", "91234" + String.format("%05d", registered++),
+                    PICKUP);
+            riders.registerRider(rider);
+            return rider;
+        }
+
+        void close() {
+            log.close();
+            if (archive != null) {
+                archive.close();
+            }
+        }
+    }
+}
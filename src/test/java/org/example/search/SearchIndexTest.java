@@ -0,0 +1,201 @@
+package org.example.search;
+
+import org.example.Interface.Searchable;
+import org.example.model.Driver;
+import org.example.model.Location;
+import org.example.model.Ride;
+import org.example.model.RideStatus;
+import org.example.model.Rider;
+import org.example.model.VehicleType;
+import org.example.service.DriverService;
+import org.example.service.RideService;
+import org.example.service.RiderService;
+import org.example.strategy.DefaultFareStrategy;
+import org.example.strategy.NearestDriverStrategy;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class SearchIndexTest {
+
+    private static final Location HOME = new Location(28.61, 77.21);
+    private static final Location OFFICE = new Location(28.63, 77.22);
+    private static final String[] SYLLABLES = { "an", "ra", "vi", "sha", "kum", "ar", "İl", "Ma", "ÉR", "jo", "ss" };
+
+    @Test
+    void ridersMatchTheScanThroughUpdatesAndRemovals() {
+        Random random = new Random(42);
+        SearchIndex<Rider> index = new SearchIndex<>(Rider::getId);
+        // Reference: live riders in the order they were first indexed
+        Map<Long, Rider> live = new LinkedHashMap<>();
+        List<Rider> all = new ArrayList<>();
+        for (int i = 0; i < 1_500; i++) {
+            Rider rider = new Rider(name(random), "user" + i + "@" + name(random) + ".com",
+                    String.format("98%08d", random.nextInt(100_000_000)), HOME);
+            all.add(rider);
+            index.index(rider);
+            live.put(rider.getId(), rider);
+        }
+
+        for (int round = 0; round < 6; round++) {
+            for (int i = 0; i < 300; i++) {
+                Rider rider = all.get(random.nextInt(all.size()));
+                switch (random.nextInt(4)) {
+                    case 0:
+                        index.remove(rider);
+                        live.remove(rider.getId());
+                        break;
+                    case 1:
+                        rider.setName(name(random));
+                        index.index(rider);
+                        live.put(rider.getId(), rider);
+                        break;
+                    case 2:
+                        rider.setPhone(String.format("97%08d", random.nextInt(100_000_000)));
+                        index.index(rider);
+                        live.put(rider.getId(), rider);
+                        break;
+                    default:
+                        // Unchanged terms
+                        index.index(rider);
+                        live.put(rider.getId(), rider);
+                }
+            }
+            assertEquals(live.size(), index.size());
+            for (String keyword : keywords(random, new ArrayList<>(live.values()))) {
+                assertMatchesScan(index, live, keyword);
+            }
+        }
+    }
+
+    @Test
+    void ridesMatchTheScanAsTheirStatusChanges() {
+        Random random = new Random(7);
+        List<Driver> drivers = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            drivers.add(new Driver(name(random), "d" + i + "@x.com", "9000000000", HOME, true));
+        }
+        SearchIndex<Ride> index = new SearchIndex<>(Ride::getId);
+        Map<Long, Ride> live = new LinkedHashMap<>();
+        List<Ride> rides = new ArrayList<>();
+        for (int i = 0; i < 800; i++) {
+            Rider rider = new Rider(name(random), "r" + i + "@x.com", "9100000000", HOME);
+            Ride ride = new Ride(rider, drivers.get(random.nextInt(drivers.size())), random.nextDouble() * 20,
+                    RideStatus.ASSIGNED, VehicleType.values()[random.nextInt(VehicleType.values().length)]);
+            rides.add(ride);
+            index.index(ride);
+            live.put(ride.getId(), ride);
+        }
+        for (Ride ride : rides) {
+            if (random.nextInt(3) == 0) {
+                ride.setRideStatus(random.nextBoolean() ? RideStatus.COMPLETED : RideStatus.CANCELLED);
+                index.index(ride);
+            }
+        }
+
+        List<String> keywords = keywords(random, rides);
+        keywords.add("cancel");
+        keywords.add("ASSIGNED");
+        keywords.add("bus");
+        for (String keyword : keywords) {
+            assertMatchesScan(index, live, keyword);
+        }
+    }
+
+    @Test
+    void ridesFollowRiderAndDriverRenames() throws Exception {
+        Random random = new Random(11);
+        DriverService driverService = new DriverService();
+        RiderService riderService = new RiderService();
+        RideService rideService = new RideService(driverService, riderService,
+                new NearestDriverStrategy(driverService.getLocationIndex()), new DefaultFareStrategy());
+        List<Driver> drivers = new ArrayList<>();
+        for (int i = 0; i < 30; i++) {
+            Driver driver = new Driver(name(random), "d" + i + "@x.com", "9000000000", HOME, true);
+            driverService.registerDriver(driver);
+            drivers.add(driver);
+        }
+        List<Rider> riders = new ArrayList<>();
+        for (int i = 0; i < 60; i++) {
+            Rider rider = new Rider(name(random), "r" + i + "@x.com", "9100000000", HOME);
+            riderService.registerRider(rider);
+            riders.add(rider);
+        }
+        for (int i = 0; i < 200; i++) {
+            Rider rider = riders.get(random.nextInt(riders.size()));
+            Ride ride = rideService.requestRide(rider.getRiderId(), HOME, OFFICE, VehicleType.CAR);
+            // Some rides stay open, the rest free their driver again
+            if (random.nextInt(10) > 0) {
+                rideService.completeRide(ride.getRideId());
+            }
+        }
+
+        List<String> keywords = keywords(random, rideService.getAllRides());
+        for (int i = 0; i < 20; i++) {
+            Rider rider = riders.get(random.nextInt(riders.size()));
+            rider.setName(name(random));
+            riderService.updateRider(rider);
+            Driver driver = drivers.get(random.nextInt(drivers.size()));
+            driver.setName(name(random));
+            driverService.updateDriver(driver);
+        }
+        keywords.addAll(keywords(random, rideService.getAllRides()));
+
+        for (String keyword : keywords) {
+            List<Ride> expected = rideService.getAllRides().stream()
+                    .filter(ride -> ride.matchesSearchCriteria(keyword)).collect(Collectors.toList());
+            assertEquals(expected, rideService.searchRides(keyword), () -> "keyword '" + keyword + "'");
+        }
+    }
+
+    private static <T extends Searchable> void assertMatchesScan(SearchIndex<T> index, Map<Long, T> live,
+            String keyword) {
+        List<T> expected = live.values().stream().filter(item -> item.matchesSearchCriteria(keyword))
+                .collect(Collectors.toList());
+        assertEquals(expected, index.search(keyword), () -> "keyword '" + keyword + "'");
+        assertEquals(expected.subList(0, Math.min(3, expected.size())), index.search(keyword, 3),
+                () -> "keyword '" + keyword + "', limit 3");
+    }
+
+    // Substrings of live terms in random case, plus short, blank and absent keywords
+    private static <T extends Searchable> List<String> keywords(Random random, List<T> items) {
+        List<String> keywords = new ArrayList<>(List.of("", "  ", "a", "AR", "zzzq", "@", ".com", "98"));
+        for (int i = 0; i < 60 && !items.isEmpty(); i++) {
+            T item = items.get(random.nextInt(items.size()));
+            List<String> terms = new ArrayList<>(item.searchableTerms());
+            terms.addAll(item.exactSearchableTerms());
+            terms.removeIf(term -> term == null || term.isEmpty());
+            String term = terms.get(random.nextInt(terms.size()));
+            int start = random.nextInt(term.length());
+            int end = Math.min(term.length(), start + 1 + random.nextInt(6));
+            String keyword = term.substring(start, end);
+            switch (random.nextInt(3)) {
+                case 0:
+                    keyword = keyword.toUpperCase();
+                    break;
+                case 1:
+                    keyword = keyword.toLowerCase();
+                    break;
+                default:
+            }
+            keywords.add(keyword);
+        }
+        return keywords;
+    }
+
+    private static String name(Random random) {
+        StringBuilder name = new StringBuilder();
+        int syllables = 2 + random.nextInt(3);
+        for (int i = 0; i < syllables; i++) {
+            name.append(SYLLABLES[random.nextInt(SYLLABLES.length)]);
+        }
+        return name.toString();
+    }
+}
@@ -0,0 +1,111 @@
+package org.example.service;
+
+import org.example.archive.ArchivedRide;
+import org.example.archive.RideArchive;
+import org.example.exception.PersistenceException;
+import org.example.model.Driver;
+import org.example.model.FareReceipt;
+import org.example.model.Location;
+import org.example.model.Ride;
+import org.example.model.RideStatus;
+import org.example.model.Rider;
+import org.example.model.VehicleType;
+import org.example.strategy.DefaultFareStrategy;
+import org.example.strategy.NearestDriverStrategy;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RideServiceArchiveTest {
+
+    private static final Location PICKUP = new Location(12.97, 77.59);
+    private static final Location DROP_OFF = new Location(12.99, 77.61);
+
+    @TempDir
+    Path directory;
+
+    private DriverService driverService;
+    private RiderService riderService;
+    private RideService rideService;
+    private RideArchive archive;
+
+    @BeforeEach
+    void setUp() {
+        driverService = new DriverService();
+        riderService = new RiderService();
+        rideService = new RideService(driverService, riderService,
+                new NearestDriverStrategy(driverService.getLocationIndex()), new DefaultFareStrategy());
+        // One ride per segment, so every archived ride needs a new segment file
+        archive = new RideArchive(directory, 1, riderService::findRider, driverService::findDriver);
+        rideService.setRideArchive(archive);
+    }
+
+    @AfterEach
+    void tearDown() {
+        archive.close();
+    }
+
+    @Test
+    void nodeLayoutIdsAreArchived() throws Exception {
+        // Ids as IdGenerator.useNodeLayout hands them out: 18 digits after the prefix
+        Driver driver = new Driver("Ravi", "ravi@x.com", "9876543210", PICKUP, true);
+        driver.setDriverId("DRIVER-370036196333596672");
+        driverService.registerDriver(driver);
+        Rider rider = new Rider("Asha", "asha@x.com", "9123456780", PICKUP);
+        rider.setRiderId("RIDER370036196333596673");
+        riderService.registerRider(rider);
+
+        Ride ride = rideService.requestRide(rider.getRiderId(), PICKUP, DROP_OFF, VehicleType.CAR);
+        FareReceipt receipt = rideService.completeRide(ride.getRideId());
+
+        Ride archived = rideService.getRide(ride.getRideId());
+        assertInstanceOf(ArchivedRide.class, archived);
+        assertEquals(ride.getRideId(), archived.getRideId());
+        assertSame(driver, archived.getDriver());
+        assertSame(rider, archived.getRider());
+        assertEquals("DRIVER-370036196333596672", ((ArchivedRide) archived).getDriverId());
+        assertEquals(receipt.getAmount(), archived.getFare(), 1e-9);
+        assertTrue(driver.isAvailable());
+
+        Ride longest = new Ride(rider, driver, 1.0, RideStatus.CANCELLED, VehicleType.BUS);
+        longest.setRideId("RIDE-" + Long.MAX_VALUE);
+        archive.append(longest);
+        assertEquals(Long.MAX_VALUE, archive.find(longest.getRideId()).getId());
+    }
+
+    @Test
+    void failedArchiveLeavesTheRideOpen() throws Exception {
+        Driver driver = new Driver("Ravi", "ravi@x.com", "9876543210", PICKUP, true);
+        driverService.registerDriver(driver);
+        Rider rider = new Rider("Asha", "asha@x.com", "9123456780", PICKUP);
+        riderService.registerRider(rider);
+        Ride ride = rideService.requestRide(rider.getRiderId(), PICKUP, DROP_OFF, VehicleType.CAR);
+        // Blocks the segment file the archive is about to create
+        Files.createDirectory(directory.resolve("rides-000000.col"));
+
+        assertThrows(PersistenceException.class, () -> rideService.completeRide(ride.getRideId()));
+        assertThrows(PersistenceException.class, () -> rideService.cancelRide(ride.getRideId()));
+
+        assertEquals(RideStatus.ASSIGNED, ride.getRideStatus());
+        assertEquals(0.0, ride.getFare());
+        assertNull(ride.getFinishedAt());
+        assertSame(ride, rideService.getRide(ride.getRideId()));
+        assertSame(ride, rideService.getActiveRide(driver.getDriverId()));
+        assertEquals(1, rideService.getOpenRideCount());
+        assertEquals(0, driver.getCompletedRidesCount());
+        assertFalse(driver.isAvailable());
+        assertEquals(0, archive.size());
+    }
+}
@@ -0,0 +1,147 @@
+package org.example.service;
+
+import org.example.model.Driver;
+import org.example.model.FareReceipt;
+import org.example.model.Location;
+import org.example.model.Ride;
+import org.example.model.RideStatus;
+import org.example.model.Rider;
+import org.example.model.VehicleType;
+import org.example.strategy.DefaultFareStrategy;
+import org.example.strategy.NearestDriverStrategy;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RideServiceCompletionTest {
+
+    private static final Location PICKUP = new Location(12.97, 77.59);
+    private static final Location DROP_OFF = new Location(12.99, 77.61);
+    private static final int ROUNDS = 200;
+
+    private DriverService driverService;
+    private RideService rideService;
+    private Driver driver;
+    private Rider rider;
+    private ExecutorService pool;
+
+    @BeforeEach
+    void setUp() {
+        driverService = new DriverService();
+        RiderService riderService = new RiderService();
+        DefaultFareStrategy fares = new DefaultFareStrategy();
+        // A slow fare keeps racing calls between the status check and the transition
+        rideService = new RideService(driverService, riderService,
+                new NearestDriverStrategy(driverService.getLocationIndex()), ride -> {
+                    try {
+                        Thread.sleep(1);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                    return fares.calculateFare(ride);
+                });
+        driver = new Driver("Ravi", "ravi@x.com", "9876543210", PICKUP, true);
+        driverService.registerDriver(driver);
+        rider = new Rider("Asha", "asha@x.com", "9123456780", PICKUP);
+        riderService.registerRider(rider);
+        pool = Executors.newFixedThreadPool(2);
+    }
+
+    @AfterEach
+    void tearDown() {
+        pool.shutdownNow();
+    }
+
+    @Test
+    void concurrentCompletionsCompleteTheRideOnce() throws Exception {
+        for (int round = 0; round < ROUNDS; round++) {
+            Ride ride = rideService.requestRide(rider.getRiderId(), PICKUP, DROP_OFF, VehicleType.CAR);
+            CyclicBarrier start = new CyclicBarrier(2);
+            Callable<FareReceipt> complete = () -> {
+                start.await();
+                return rideService.completeRide(ride.getRideId());
+            };
+            Future<FareReceipt> first = pool.submit(complete);
+            Future<FareReceipt> second = pool.submit(complete);
+
+            int receipts = 0;
+            for (Future<FareReceipt> completion : List.of(first, second)) {
+                try {
+                    completion.get();
+                    receipts++;
+                } catch (ExecutionException e) {
+                    assertInstanceOf(IllegalStateException.class, e.getCause());
+                }
+            }
+            assertEquals(1, receipts, "round " + round);
+            assertEquals(RideStatus.COMPLETED, ride.getRideStatus());
+            assertEquals(round + 1, driver.getCompletedRidesCount());
+            assertTrue(driver.isAvailable());
+        }
+        assertEquals(ROUNDS, rideService.getRidesByStatus(RideStatus.COMPLETED).size());
+    }
+
+    @Test
+    void completionRacingCancellationHasOneOutcome() throws Exception {
+        int completed = 0;
+        for (int round = 0; round < ROUNDS; round++) {
+            Ride ride = rideService.requestRide(rider.getRiderId(), PICKUP, DROP_OFF, VehicleType.CAR);
+            CyclicBarrier start = new CyclicBarrier(2);
+            Future<FareReceipt> completion = pool.submit(() -> {
+                start.await();
+                return rideService.completeRide(ride.getRideId());
+            });
+            Future<?> cancellation = pool.submit(() -> {
+                start.await();
+                rideService.cancelRide(ride.getRideId());
+                return null;
+            });
+            cancellation.get();
+
+            FareReceipt receipt;
+            try {
+                receipt = completion.get();
+            } catch (ExecutionException e) {
+                assertInstanceOf(IllegalStateException.class, e.getCause());
+                receipt = null;
+            }
+            if (receipt != null) {
+                completed++;
+                assertEquals(RideStatus.COMPLETED, ride.getRideStatus());
+            } else {
+                assertEquals(RideStatus.CANCELLED, ride.getRideStatus());
+                assertEquals(0.0, ride.getFare());
+            }
+            assertEquals(completed, driver.getCompletedRidesCount());
+            assertTrue(driver.isAvailable());
+        }
+        assertEquals(completed, rideService.getRidesByStatus(RideStatus.COMPLETED).size());
+        assertEquals(ROUNDS - completed, rideService.getRidesByStatus(RideStatus.CANCELLED).size());
+    }
+
+    @Test
+    void finishedRidesCannotBeCompletedAgain() throws Exception {
+        Ride ride = rideService.requestRide(rider.getRiderId(), PICKUP, DROP_OFF, VehicleType.CAR);
+        rideService.cancelRide(ride.getRideId());
+        assertThrows(IllegalStateException.class, () -> rideService.completeRide(ride.getRideId()));
+        rideService.cancelRide(ride.getRideId());
+
+        assertEquals(RideStatus.CANCELLED, ride.getRideStatus());
+        assertEquals(0, driver.getCompletedRidesCount());
+        assertNull(rideService.getActiveRide(driver.getDriverId()));
+    }
+}
@@ -0,0 +1,77 @@
+package org.example.service;
+
+import org.example.exception.NoDriverAvailableException;
+import org.example.model.Driver;
+import org.example.model.Location;
+import org.example.model.Ride;
+import org.example.model.Rider;
+import org.example.model.VehicleType;
+import org.example.strategy.DefaultFareStrategy;
+import org.example.strategy.NearestDriverStrategy;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RideServiceReservationTest {
+
+    @Test
+    void concurrentRequestsNeverShareADriver() throws Exception {
+        DriverService driverService = new DriverService();
+        RiderService riderService = new RiderService();
+        RideService rideService = new RideService(driverService, riderService,
+                new NearestDriverStrategy(driverService.getLocationIndex()), new DefaultFareStrategy());
+
+        int drivers = 50;
+        int riders = 200;
+        Location center = new Location(12.97, 77.59);
+        for (int i = 0; i < drivers; i++) {
+            // All drivers at the same spot, so every request wants the same one first
+            driverService.registerDriver(new Driver("D" + i, "d" + i + "@x.com", "90000" + i, center, true));
+        }
+        List<Callable<Ride>> requests = new ArrayList<>();
+        for (int i = 0; i < riders; i++) {
+            Rider rider = new Rider("R" + i, "r" + i + "@x.com", "80000" + i, center);
+            riderService.registerRider(rider);
+            requests.add(() -> {
+                try {
+                    return rideService.requestRide(rider.getRiderId(), center, new Location(12.99, 77.61),
+                            VehicleType.CAR);
+                } catch (NoDriverAvailableException e) {
+                    return null;
+                }
+            });
+        }
+
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        Set<Driver> assigned = new HashSet<>();
+        int matched = 0;
+        try {
+            for (Future<Ride> request : pool.invokeAll(requests)) {
+                Ride ride = request.get();
+                if (ride != null) {
+                    matched++;
+                    assertTrue(assigned.add(ride.getDriver()), "driver assigned twice: " + ride.getDriver().getDriverId());
+                }
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+
+        assertEquals(drivers, matched);
+        assertEquals(0, driverService.getAvailableDriverCount());
+        for (Driver driver : assigned) {
+            assertFalse(driver.isAvailable());
+        }
+    }
+}
@@ -0,0 +1,98 @@
+package org.example.strategy;
+
+import org.example.exception.NoDriverAvailableException;
+import org.example.model.Driver;
+import org.example.model.Location;
+import org.example.model.Rider;
+import org.example.util.DriverActivityIndex;
+import org.example.util.GeoGridIndex;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class HybridScoringStrategyTest {
+
+    private static final Location PICKUP = new Location(12.97, 77.59);
+
+    @Test
+    void widensTheSearchWhenTheNearestWereReserved() {
+        RacingIndex index = new RacingIndex(1);
+        List<Driver> drivers = driversInARow(index, 10);
+        HybridScoringStrategy strategy = strategy(index, 3);
+
+        Driver driver = strategy.findDriver(rider(), drivers);
+
+        assertSame(drivers.get(3), driver);
+        assertEquals(List.of(3, 6), index.lookups);
+    }
+
+    @Test
+    void givesUpOnceEveryIndexedDriverWasReserved() {
+        RacingIndex index = new RacingIndex(Integer.MAX_VALUE);
+        List<Driver> drivers = driversInARow(index, 10);
+        HybridScoringStrategy strategy = strategy(index, 3);
+
+        assertThrows(NoDriverAvailableException.class, () -> strategy.findDriver(rider(), drivers));
+        assertEquals(List.of(3, 6, 12), index.lookups);
+    }
+
+    @Test
+    void scoresOnlyTheNearestWhileOneIsAvailable() {
+        RacingIndex index = new RacingIndex(0);
+        List<Driver> drivers = driversInARow(index, 10);
+        HybridScoringStrategy strategy = strategy(index, 3);
+
+        assertSame(drivers.get(0), strategy.findDriver(rider(), drivers));
+        assertEquals(List.of(3), index.lookups);
+    }
+
+    private static HybridScoringStrategy strategy(GeoGridIndex index, int candidates) {
+        HybridScoringStrategy strategy = new HybridScoringStrategy(index, new DriverActivityIndex());
+        strategy.setCandidates(candidates);
+        return strategy;
+    }
+
+    // Drivers 1 km apart heading north from the pickup, nearest first
+    private static List<Driver> driversInARow(GeoGridIndex index, int count) {
+        List<Driver> drivers = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            Location location = new Location(PICKUP.getLatitude() + 0.009 * (i + 1), PICKUP.getLongitude());
+            Driver driver = new Driver("D" + i, "d" + i + "@x.com", "9000000000", location, true);
+            index.update(driver);
+            drivers.add(driver);
+        }
+        return drivers;
+    }
+
+    private static Rider rider() {
+        return new Rider("Asha", "asha@x.com", "9123456780", PICKUP);
+    }
+
+    // Other dispatchers reserve every driver returned by the first racingLookups
+    // lookups before the strategy gets to score them
+    private static final class RacingIndex extends GeoGridIndex {
+        private final int racingLookups;
+        private final List<Integer> lookups = new ArrayList<>();
+
+        private RacingIndex(int racingLookups) {
+            this.racingLookups = racingLookups;
+        }
+
+        @Override
+        public List<Driver> findNearest(Location origin, int k) {
+            List<Driver> nearest = super.findNearest(origin, k);
+            lookups.add(k);
+            if (lookups.size() <= racingLookups) {
+                for (Driver driver : nearest) {
+                    driver.tryReserve();
+                }
+            }
+            return nearest;
+        }
+    }
+}
@@ -0,0 +1,158 @@
+package org.example.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ConcurrentDataStoreTest {
+
+    @Test
+    void keepsInsertionOrderThroughUpdatesAndDeletes() {
+        ConcurrentDataStore<String> store = new ConcurrentDataStore<>();
+        store.add(3, "c");
+        store.add(1, "a");
+        store.add(2, "b");
+        store.update(1, "A");
+        store.delete(3);
+        store.delete(42);
+
+        assertEquals(List.of("A", "b"), store.getAll());
+        assertEquals(List.of("A", "b"), store.stream().collect(Collectors.toList()));
+        assertEquals("A", store.findById(1));
+        assertNull(store.findById(3));
+        assertFalse(store.contains(3));
+        assertEquals(2, store.size());
+        assertThrows(IllegalArgumentException.class, () -> store.add(4, null));
+    }
+
+    @Test
+    void deletedSlotsAreReclaimed() {
+        ConcurrentDataStore<Long> store = new ConcurrentDataStore<>();
+        store.add(0, 0L); // long-lived item that must survive every compaction
+        for (long id = 1; id <= 200_000; id++) {
+            store.add(id, id);
+            if (id > 10) {
+                store.delete(id - 10);
+            }
+        }
+
+        assertEquals(11, store.size());
+        assertTrue(store.logLength() <= 2 * store.size() + 2048,
+                "log holds " + store.logLength() + " slots for " + store.size() + " items");
+        List<Long> expected = new ArrayList<>(List.of(0L));
+        LongStream.rangeClosed(199_991, 200_000).forEach(expected::add);
+        assertEquals(expected, store.getAll());
+    }
+
+    @Test
+    void pagingContinuesAcrossCompaction() {
+        ConcurrentDataStore<Long> store = new ConcurrentDataStore<>();
+        for (long id = 0; id < 10_000; id++) {
+            store.add(id, id);
+        }
+        Page<Long> first = store.page(Page.FIRST, 100);
+        assertEquals(LongStream.range(0, 100).boxed().collect(Collectors.toList()), first.getItems());
+
+        // Delete enough of the front to force a compaction, then add more
+        for (long id = 0; id < 8_000; id++) {
+            if (id != 150) {
+                store.delete(id);
+            }
+        }
+        store.add(20_000, 20_000L);
+
+        List<Long> rest = new ArrayList<>();
+        long cursor = first.getNextCursor();
+        Page<Long> page;
+        do {
+            page = store.page(cursor, 333);
+            rest.addAll(page.getItems());
+            cursor = page.getNextCursor();
+        } while (page.hasMore());
+
+        List<Long> expected = new ArrayList<>(List.of(150L));
+        LongStream.range(8_000, 10_000).forEach(expected::add);
+        expected.add(20_000L);
+        assertEquals(expected, rest);
+        assertTrue(store.page(cursor, 10).getItems().isEmpty());
+    }
+
+    @Test
+    void parallelStreamSeesEveryItem() {
+        ConcurrentDataStore<Long> store = new ConcurrentDataStore<>();
+        for (long id = 0; id < 50_000; id++) {
+            store.add(id, id);
+        }
+        assertEquals(LongStream.range(0, 50_000).sum(), store.stream().parallel().mapToLong(Long::longValue).sum());
+    }
+
+    @Test
+    void concurrentChurnKeepsLiveItemsVisible() throws Exception {
+        ConcurrentDataStore<Long> store = new ConcurrentDataStore<>();
+        int threads = 4;
+        int perThread = 50_000;
+        // Ids below this are added first and never deleted
+        long stable = 1_000;
+        for (long id = 0; id < stable; id++) {
+            store.add(id, id);
+        }
+
+        ExecutorService pool = Executors.newFixedThreadPool(threads + 1);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> writers = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            long base = stable + (long) t * perThread;
+            writers.add(pool.submit(() -> {
+                start.await();
+                for (long id = base; id < base + perThread; id++) {
+                    store.add(id, id);
+                    if (id - base >= 5) {
+                        store.delete(id - 5);
+                    }
+                }
+                return null;
+            }));
+        }
+        Future<Integer> reader = pool.submit(() -> {
+            start.await();
+            int scans = 0;
+            while (!writers.stream().allMatch(Future::isDone)) {
+                Set<Long> seen = new HashSet<>();
+                store.stream().forEach(seen::add);
+                for (long id = 0; id < stable; id++) {
+                    if (!seen.contains(id)) {
+                        throw new AssertionError("Stable item " + id + " missing from a scan");
+                    }
+                }
+                scans++;
+            }
+            return scans;
+        });
+        start.countDown();
+        for (Future<?> writer : writers) {
+            writer.get(60, TimeUnit.SECONDS);
+        }
+        assertTrue(reader.get(60, TimeUnit.SECONDS) > 0);
+        pool.shutdown();
+
+        assertEquals(stable + threads * 5L, store.size());
+        assertEquals(store.size(), store.getAll().size());
+        assertTrue(store.logLength() <= 2 * store.size() + 2048 * threads);
+    }
+}
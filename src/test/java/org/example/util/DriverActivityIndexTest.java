@@ -0,0 +1,200 @@
+package org.example.util;
+
+import org.example.model.Driver;
+import org.example.model.Location;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+class DriverActivityIndexTest {
+
+    private static final Location SPOT = new Location(12.97, 77.59);
+    private static final Duration HALF_LIFE = Duration.ofHours(1);
+    private static final double LAMBDA = Math.log(2) / HALF_LIFE.toMillis();
+    private static final long START = 1_700_000_000_000L;
+
+    @Test
+    void bothOrdersMatchLinearScan() {
+        Random random = new Random(42);
+        DriverActivityIndex index = new DriverActivityIndex(HALF_LIFE);
+        Reference reference = new Reference();
+        List<Driver> drivers = new ArrayList<>();
+        for (int i = 0; i < 500; i++) {
+            Driver driver = new Driver("D" + i, "d" + i + "@x.com", "9" + i, SPOT, random.nextInt(4) != 0);
+            drivers.add(driver);
+            index.update(driver);
+            reference.update(driver);
+        }
+
+        long now = START;
+        for (int step = 0; step < 20_000; step++) {
+            Driver driver = drivers.get(random.nextInt(drivers.size()));
+            switch (random.nextInt(6)) {
+                case 0:
+                case 1:
+                    // Reserved for a ride
+                    driver.tryReserve();
+                    index.update(driver);
+                    reference.update(driver);
+                    break;
+                case 2:
+                case 3:
+                    // Completes a ride and is available again
+                    now += random.nextInt(30_000);
+                    driver.incrementCompletedRides();
+                    driver.setAvailable(true);
+                    index.recordCompletedRide(driver, now);
+                    reference.complete(driver, now);
+                    break;
+                case 4:
+                    driver.setAvailable(random.nextBoolean());
+                    index.update(driver);
+                    reference.update(driver);
+                    break;
+                default:
+                    if (random.nextInt(10) == 0) {
+                        // Deleted; comes back later as a newly indexed driver
+                        index.remove(driver.getId());
+                        reference.remove(driver);
+                    } else {
+                        index.update(driver);
+                        reference.update(driver);
+                    }
+            }
+
+            assertTops(index, reference, now);
+            if (step % 1_000 == 999) {
+                drain(index, reference, now);
+            }
+        }
+    }
+
+    private static void assertTops(DriverActivityIndex index, Reference reference, long now) {
+        assertEquals(reference.available().size(), index.size(), () -> "size");
+        assertSame(reference.leastActive(), index.findLeastActive());
+        Driver expected = reference.leastRecentlyActive();
+        Driver actual = index.findLeastRecentlyActive();
+        if (expected == null) {
+            assertNull(actual);
+        } else if (actual != expected) {
+            // Scores equal up to rounding; the heap may break the tie either way
+            double score = reference.score(expected);
+            assertEquals(score, reference.score(actual), score * 1e-9);
+        }
+        if (actual != null) {
+            double decayed = reference.score(actual) * Math.exp(-LAMBDA * (now - START));
+            assertEquals(decayed, index.getRecentActivity(actual, now), decayed * 1e-9 + 1e-12);
+        }
+    }
+
+    // Reserves the top driver until none is left, checking both orders at
+    // every step, then makes them all available again
+    private static void drain(DriverActivityIndex index, Reference reference, long now) {
+        List<Driver> drained = new ArrayList<>();
+        Driver top;
+        while ((top = index.findLeastActive()) != null) {
+            top.tryReserve();
+            index.update(top);
+            drained.add(top);
+            assertTops(index, reference, now);
+        }
+        for (Driver driver : drained) {
+            driver.setAvailable(true);
+            index.update(driver);
+        }
+        assertTops(index, reference, now);
+    }
+
+    @Test
+    void idleVeteranRanksBelowABusyNewcomer() {
+        DriverActivityIndex index = new DriverActivityIndex(HALF_LIFE);
+        Driver veteran = new Driver("Veteran", "v@x.com", "1", SPOT, true);
+        Driver newcomer = new Driver("Newcomer", "n@x.com", "2", SPOT, true);
+        index.update(veteran);
+        index.update(newcomer);
+
+        // Ten rides in the first hour, then idle for a day
+        for (int i = 0; i < 10; i++) {
+            veteran.incrementCompletedRides();
+            index.recordCompletedRide(veteran, START + i * 360_000L);
+        }
+        long later = START + Duration.ofDays(1).toMillis();
+        for (int i = 0; i < 2; i++) {
+            newcomer.incrementCompletedRides();
+            index.recordCompletedRide(newcomer, later + i * 60_000L);
+        }
+
+        assertSame(newcomer, index.findLeastActive());
+        assertSame(veteran, index.findLeastRecentlyActive());
+        assertEquals(2.0, index.getRecentActivity(newcomer, later + 60_000L), 0.05);
+        assertEquals(later + 60_000L, index.getLastCompletedRide(newcomer));
+    }
+
+    // Linear scan over the drivers the index should hold, with activity kept
+    // as a plain sum of exp(lambda * (t - START)) rather than its log
+    private static final class Reference {
+        private final Map<Long, Driver> indexed = new HashMap<>();
+        private final Map<Long, Long> sequence = new HashMap<>();
+        private final Map<Long, Double> activity = new HashMap<>();
+        private long nextSequence;
+
+        void update(Driver driver) {
+            if (!indexed.containsKey(driver.getId())) {
+                indexed.put(driver.getId(), driver);
+                sequence.put(driver.getId(), ++nextSequence);
+                activity.put(driver.getId(), 0.0);
+            }
+        }
+
+        void complete(Driver driver, long timestampMillis) {
+            update(driver);
+            activity.merge(driver.getId(), Math.exp(LAMBDA * (timestampMillis - START)), Double::sum);
+        }
+
+        void remove(Driver driver) {
+            indexed.remove(driver.getId());
+            sequence.remove(driver.getId());
+            activity.remove(driver.getId());
+        }
+
+        double score(Driver driver) {
+            return activity.get(driver.getId());
+        }
+
+        List<Driver> available() {
+            List<Driver> available = new ArrayList<>();
+            for (Driver driver : indexed.values()) {
+                if (driver.isAvailable()) {
+                    available.add(driver);
+                }
+            }
+            return available;
+        }
+
+        Driver leastActive() {
+            return available().stream()
+                    .min(Comparator.comparingInt(Driver::getCompletedRidesCount).thenComparing(this::sequenceOf))
+                    .orElse(null);
+        }
+
+        Driver leastRecentlyActive() {
+            return available().stream()
+                    .min(Comparator.comparingDouble(this::score).thenComparing(this::sequenceOf))
+                    .orElse(null);
+        }
+
+        private long sequenceOf(Driver driver) {
+            return sequence.get(driver.getId());
+        }
+    }
+}
@@ -0,0 +1,96 @@
+package org.example.util;
+
+import org.example.model.Driver;
+import org.example.model.Location;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class GeoGridIndexTest {
+
+    @Test
+    void findNearestMatchesLinearScan() {
+        Random random = new Random(42);
+        GeoGridIndex index = new GeoGridIndex(0.02);
+        List<Driver> drivers = new ArrayList<>();
+        for (int i = 0; i < 2_000; i++) {
+            Driver driver = new Driver("D" + i, "d" + i + "@x.com", "9" + i, randomLocation(random), random.nextInt(4) != 0);
+            drivers.add(driver);
+            index.update(driver);
+        }
+
+        for (int query = 0; query < 200; query++) {
+            Location origin = randomLocation(random);
+            int k = 1 + random.nextInt(20);
+            assertEquals(scan(drivers, origin, k), index.findNearest(origin, k));
+        }
+    }
+
+    @Test
+    void tiesGoToTheEarlierRegisteredDriver() {
+        GeoGridIndex index = new GeoGridIndex();
+        Location spot = new Location(12.97, 77.59);
+        Driver first = new Driver("First", "f@x.com", "1", spot, true);
+        Driver second = new Driver("Second", "s@x.com", "2", spot, true);
+        index.update(second);
+        index.update(first);
+
+        // Indexed second first, so it wins the tie
+        assertEquals(List.of(second, first), index.findNearest(spot, 2));
+    }
+
+    @Test
+    void unavailableAndRemovedDriversAreNotReturned() {
+        GeoGridIndex index = new GeoGridIndex();
+        Location spot = new Location(12.97, 77.59);
+        Driver busy = new Driver("Busy", "b@x.com", "1", spot, true);
+        Driver gone = new Driver("Gone", "g@x.com", "2", spot, true);
+        index.update(busy);
+        index.update(gone);
+
+        busy.setAvailable(false);
+        index.update(busy);
+        index.remove(gone.getDriverId());
+
+        assertEquals(0, index.size());
+        assertNull(index.findNearest(spot));
+        assertTrue(index.findNearest(spot, 5).isEmpty());
+    }
+
+    @Test
+    void movedDriverIsFoundInItsNewCell() {
+        GeoGridIndex index = new GeoGridIndex();
+        Driver driver = new Driver("Mover", "m@x.com", "1", new Location(12.97, 77.59), true);
+        index.update(driver);
+
+        Location moved = new Location(19.07, 72.87);
+        driver.setDriverLocation(moved);
+        index.update(driver);
+
+        assertEquals(1, index.size());
+        assertEquals(driver, index.findNearest(moved));
+    }
+
+    private static List<Driver> scan(List<Driver> drivers, Location origin, int k) {
+        List<Driver> available = new ArrayList<>();
+        for (Driver driver : drivers) {
+            if (driver.isAvailable()) {
+                available.add(driver);
+            }
+        }
+        // Stable sort keeps registration order among equal distances
+        available.sort(Comparator.comparingDouble(driver -> origin.comparableDistanceTo(driver.getDriverLocation())));
+        return available.subList(0, Math.min(k, available.size()));
+    }
+
+    private static Location randomLocation(Random random) {
+        return new Location(12.8 + random.nextDouble() * 0.4, 77.4 + random.nextDouble() * 0.4);
+    }
+}
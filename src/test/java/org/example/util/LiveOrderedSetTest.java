@@ -0,0 +1,46 @@
+package org.example.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class LiveOrderedSetTest {
+
+    @Test
+    void viewFollowsSequenceOrderAndLaterChanges() {
+        LiveOrderedSet<String> set = new LiveOrderedSet<>();
+        Collection<String> view = set.view();
+        set.add(3, "c");
+        set.add(1, "a");
+        set.add(2, "b");
+        set.add(2, "b");
+
+        assertEquals(List.of("a", "b", "c"), new ArrayList<>(view));
+        assertEquals(3, view.size());
+
+        set.remove(1);
+        set.remove(1);
+        assertEquals(List.of("b", "c"), new ArrayList<>(view));
+        assertEquals(2, set.size());
+        assertFalse(set.contains(1));
+        assertTrue(view.contains("c"));
+    }
+
+    @Test
+    void viewIsReadOnlyAndNotIndexable() {
+        LiveOrderedSet<String> set = new LiveOrderedSet<>();
+        set.add(1, "a");
+        Collection<String> view = set.view();
+
+        assertFalse(view instanceof List);
+        assertThrows(UnsupportedOperationException.class, () -> view.add("b"));
+        assertThrows(UnsupportedOperationException.class, () -> view.iterator().remove());
+    }
+}
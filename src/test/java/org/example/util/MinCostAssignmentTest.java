@@ -0,0 +1,97 @@
+package org.example.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class MinCostAssignmentTest {
+
+    private static final double FORBIDDEN_COST = 1e12;
+
+    @Test
+    void matchesBruteForceOnRandomMatrices() {
+        Random random = new Random(11);
+        for (int trial = 0; trial < 2_000; trial++) {
+            int rows = 1 + random.nextInt(6);
+            int columns = 1 + random.nextInt(6);
+            double[][] cost = new double[rows][columns];
+            for (int i = 0; i < rows; i++) {
+                for (int j = 0; j < columns; j++) {
+                    cost[i][j] = random.nextInt(8) == 0 ? MinCostAssignment.FORBIDDEN : random.nextInt(100) / 4.0;
+                }
+            }
+
+            int[] assignment = MinCostAssignment.solve(cost);
+            assertEquals(rows, assignment.length);
+            boolean[] taken = new boolean[columns];
+            int assigned = 0;
+            double total = 0;
+            for (int i = 0; i < rows; i++) {
+                int column = assignment[i];
+                if (column < 0) {
+                    continue;
+                }
+                assertTrue(!taken[column], "column assigned twice");
+                assertTrue(cost[i][column] != MinCostAssignment.FORBIDDEN, "forbidden pair assigned");
+                taken[column] = true;
+                assigned++;
+                total += cost[i][column];
+            }
+            // Unassigned pairs count as forbidden, as in the solver
+            total += (Math.min(rows, columns) - assigned) * FORBIDDEN_COST;
+
+            assertEquals(bruteForce(cost, 0, new boolean[columns], rows > columns ? rows - columns : 0), total, 1e-6);
+        }
+    }
+
+    @Test
+    void prefersTheCheaperPairing() {
+        double[][] cost = {
+                {1, 2},
+                {1, 10},
+        };
+        assertArrayEquals(new int[] {1, 0}, MinCostAssignment.solve(cost));
+    }
+
+    @Test
+    void moreRowsThanColumnsLeavesSomeUnassigned() {
+        double[][] cost = {
+                {5},
+                {1},
+                {3},
+        };
+        assertArrayEquals(new int[] {-1, 0, -1}, MinCostAssignment.solve(cost));
+    }
+
+    @Test
+    void emptyMatrix() {
+        assertArrayEquals(new int[0], MinCostAssignment.solve(new double[0][0]));
+        assertArrayEquals(new int[] {-1, -1}, MinCostAssignment.solve(new double[2][0]));
+    }
+
+    // Cheapest total over assignments of every row to a distinct column, where
+    // up to skips rows may stay unassigned; forbidden pairs cost FORBIDDEN_COST
+    private static double bruteForce(double[][] cost, int row, boolean[] taken, int skips) {
+        if (row == cost.length) {
+            return 0;
+        }
+        double best = Double.POSITIVE_INFINITY;
+        if (skips > 0) {
+            best = bruteForce(cost, row + 1, taken, skips - 1);
+        }
+        for (int column = 0; column < taken.length; column++) {
+            if (taken[column]) {
+                continue;
+            }
+            taken[column] = true;
+            double pair = cost[row][column] == MinCostAssignment.FORBIDDEN ? FORBIDDEN_COST : cost[row][column];
+            best = Math.min(best, pair + bruteForce(cost, row + 1, taken, skips));
+            taken[column] = false;
+        }
+        return best;
+    }
+}